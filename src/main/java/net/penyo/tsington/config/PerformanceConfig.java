@@ -1,8 +1,16 @@
 package net.penyo.tsington.config;
 
+import net.penyo.tsington.support.Priority;
+import net.penyo.tsington.support.ScalingPolicy;
+
 /**
  * 性能配置
  *
+ * <p>
+ * 连接池激活时会取得一份{@linkplain #freeze() 冻结}的副本，此后对原对象的修改不影响连接池。运行中调整配置时，
+ * 应以 {@link #copy() copy()} 得到可修改的副本，修改后交给连接池的 {@code reconfigure(...)}。
+ * </p>
+ *
  * @author Penyo
  */
 public class PerformanceConfig {
@@ -34,12 +42,267 @@ public class PerformanceConfig {
    * 扫描周期
    */
   private long scanCycle = 3000L;
+  /**
+   * 建立连接的并行度
+   */
+  private int creationParallelism = 4;
+  /**
+   * 是否在后台预热
+   *
+   * <p>
+   * 开启后，连接池在首个连接就绪前即可接受请求，等待者会在连接就绪的第一时间得到它。
+   * </p>
+   */
+  private boolean warmUpInBackground = false;
+  /**
+   * 使断路器断开的连续建立失败次数，0 表示不断开
+   */
+  private int creationFailureThreshold = 3;
+  /**
+   * 断路器首次断开的时长，此后每次翻倍
+   */
+  private long creationBackoff = 200L;
+  /**
+   * 断路器断开时长的上限
+   */
+  private long creationMaxBackoff = 30000L;
+  /**
+   * 排队等待连接的借用者数上限，0 表示不限；超出者立即被拒绝
+   */
+  private int maxWaiters = 0;
+  /**
+   * 是否按预计等待时长削减负载
+   *
+   * <p>
+   * 开启后，没有空闲连接时，借用者的预计等待时长（由近期的平均占用时长、排队人数与占用中的连接数估算）
+   * 若超过其剩余时限，即被立即拒绝，而不是排队直到超时。
+   * </p>
+   */
+  private boolean shedLoad = false;
+  /**
+   * 各优先级的预留连接数，以 {@link Priority#ordinal() ordinal()} 为下标
+   *
+   * <p>
+   * 某优先级未用满的预留连接不会借给其他优先级的借用者。
+   * </p>
+   */
+  private int[] laneReserved = new int[Priority.values().length];
+  /**
+   * 各优先级同时占用的连接数上限，以 {@link Priority#ordinal() ordinal()} 为下标，0 表示不限
+   */
+  private int[] laneCeilings = new int[Priority.values().length];
+  /**
+   * 伸缩策略
+   *
+   * <p>
+   * 为空时沿用按请求率伸缩的默认策略。
+   * </p>
+   */
+  private ScalingPolicy scalingPolicy;
+  /**
+   * 每个连接缓存的预编译语句数上限，0 表示不缓存
+   */
+  private int statementCacheSize = 0;
+  /**
+   * 每个连接的预编译语句缓存内存上限（估算字节数）
+   */
+  private long statementCacheMemoryLimit = 1L << 20;
+  /**
+   * 连接寿命，0 表示不限
+   */
+  private long maxLifetime = 1800000L;
+  /**
+   * 空闲超时，超过最小连接数的部分空闲超过该时长即被回收，0 表示不回收
+   */
+  private long idleTimeout = 600000L;
+  /**
+   * 保活间隔，空闲超过该时长的连接会在后台被校验一次，0 表示不保活
+   */
+  private long keepaliveTime = 120000L;
+  /**
+   * 借用校验阈值，空闲超过该时长的连接在借出前会被校验一次
+   */
+  private long validationIdleThreshold = 500L;
+  /**
+   * 校验超时
+   */
+  private long validationTimeout = 5000L;
+  /**
+   * 管家巡检周期
+   */
+  private long housekeepingPeriod = 30000L;
+  /**
+   * 泄漏探测阈值，连接被占用超过该时长即被报告，0 表示不探测
+   */
+  private long leakDetectionThreshold = 0L;
+  /**
+   * 借用时采样调用栈的比例，取值 [0, 1]
+   *
+   * <p>
+   * 未被采样的借用在超过阈值时改为抓取借用线程当下的调用栈。
+   * </p>
+   */
+  private double leakStackSampleRate = 0.01D;
+  /**
+   * 泄漏回收阈值，连接被占用超过该时长即被强制回收，0 表示不回收
+   */
+  private long leakReclaimThreshold = 0L;
+  /**
+   * 连接池名称，用于线程名与 JMX 注册名，为空时自动生成
+   */
+  private String poolName;
+  /**
+   * 是否向平台 MBean 服务器注册连接池视图
+   */
+  private boolean registerMBean = true;
+  /**
+   * 读写分离时检查只读副本健康状况的周期
+   */
+  private long replicaCheckPeriod = 5000L;
+  /**
+   * 写合并的时间窗口（微秒），0 表示不合并
+   *
+   * <p>
+   * 开启后，自动提交模式下的预编译 INSERT/UPDATE 会等待至多该时长，与其他借用者的同一语句合并为一个批次执行。
+   * </p>
+   */
+  private long writeCoalescingWindow = 0L;
+  /**
+   * 写合并的批次容量，批次满员即刻执行
+   */
+  private int writeCoalescingBatchSize = 64;
+  /**
+   * 流式查询的初始抓取行数
+   */
+  private int streamFetchSize = 256;
+  /**
+   * 流式查询的抓取行数上限，决定了一次往返在堆中缓冲的最多行数
+   */
+  private int streamMaxFetchSize = 4096;
+  /**
+   * 查询结果缓存的条目上限，0 表示不缓存
+   *
+   * <p>
+   * 开启后，自动提交模式下参数均可比较的预编译 SELECT 的结果会被物化并缓存，经由连接池的写入按表使其失效。
+   * 绕过连接池修改数据、或依赖当前时间等非确定性函数的查询，只能依靠存活时长兜底。
+   * </p>
+   */
+  private int queryCacheSize = 0;
+  /**
+   * 查询结果缓存的估算内存上限（字节），单个结果至多占其八分之一
+   */
+  private long queryCacheMemoryLimit = 16L << 20;
+  /**
+   * 查询结果的存活时长，0 表示不受限
+   */
+  private long queryCacheTtl = 60000L;
+  /**
+   * 语句追踪的采样率，取值 [0, 1]，0 表示不追踪
+   *
+   * <p>
+   * 被采样的语句执行会被计时，按 SQL 指纹累计调用次数与延迟直方图；超过慢查询阈值者另行记入慢查询日志。
+   * 未被采样的执行只多一次随机数判定。
+   * </p>
+   */
+  private double traceSampleRate = 0D;
+  /**
+   * 慢查询阈值
+   */
+  private long slowQueryThreshold = 1000L;
+  /**
+   * 语句追踪保留的 SQL 指纹数上限
+   */
+  private int traceTopStatements = 100;
+  /**
+   * 连接池事件的去重窗口，窗口内相同的事件只输出一次并计数，0 表示不去重
+   */
+  private long eventDedupWindow = 10000L;
+  /**
+   * 是否监视配置文件并在其变化时热更新，仅对基于文件的配置生效
+   */
+  private boolean watchConfig = false;
+  /**
+   * 是否已冻结
+   */
+  private boolean frozen;
+
+  /**
+   * 复制一份可修改的配置。
+   */
+  public PerformanceConfig copy() {
+    PerformanceConfig copy = new PerformanceConfig();
+    copy.minConnectionsNum = minConnectionsNum;
+    copy.maxConnectionsNum = maxConnectionsNum;
+    copy.requestTimeout = requestTimeout;
+    copy.pressureToExpand = pressureToExpand;
+    copy.pressureToContract = pressureToContract;
+    copy.resizeNum = resizeNum;
+    copy.scanCycle = scanCycle;
+    copy.creationParallelism = creationParallelism;
+    copy.warmUpInBackground = warmUpInBackground;
+    copy.creationFailureThreshold = creationFailureThreshold;
+    copy.creationBackoff = creationBackoff;
+    copy.creationMaxBackoff = creationMaxBackoff;
+    copy.maxWaiters = maxWaiters;
+    copy.shedLoad = shedLoad;
+    copy.laneReserved = laneReserved.clone();
+    copy.laneCeilings = laneCeilings.clone();
+    copy.scalingPolicy = scalingPolicy;
+    copy.statementCacheSize = statementCacheSize;
+    copy.statementCacheMemoryLimit = statementCacheMemoryLimit;
+    copy.maxLifetime = maxLifetime;
+    copy.idleTimeout = idleTimeout;
+    copy.keepaliveTime = keepaliveTime;
+    copy.validationIdleThreshold = validationIdleThreshold;
+    copy.validationTimeout = validationTimeout;
+    copy.housekeepingPeriod = housekeepingPeriod;
+    copy.leakDetectionThreshold = leakDetectionThreshold;
+    copy.leakStackSampleRate = leakStackSampleRate;
+    copy.leakReclaimThreshold = leakReclaimThreshold;
+    copy.poolName = poolName;
+    copy.registerMBean = registerMBean;
+    copy.replicaCheckPeriod = replicaCheckPeriod;
+    copy.writeCoalescingWindow = writeCoalescingWindow;
+    copy.writeCoalescingBatchSize = writeCoalescingBatchSize;
+    copy.streamFetchSize = streamFetchSize;
+    copy.streamMaxFetchSize = streamMaxFetchSize;
+    copy.queryCacheSize = queryCacheSize;
+    copy.queryCacheMemoryLimit = queryCacheMemoryLimit;
+    copy.queryCacheTtl = queryCacheTtl;
+    copy.traceSampleRate = traceSampleRate;
+    copy.slowQueryThreshold = slowQueryThreshold;
+    copy.traceTopStatements = traceTopStatements;
+    copy.eventDedupWindow = eventDedupWindow;
+    copy.watchConfig = watchConfig;
+    return copy;
+  }
+
+  /**
+   * 复制一份冻结的配置，其任何 setter 都将抛出 {@link UnsupportedOperationException UnsupportedOperationException}。
+   */
+  public PerformanceConfig freeze() {
+    PerformanceConfig copy = copy();
+    copy.frozen = true;
+    return copy;
+  }
+
+  /**
+   * 检查配置是否已冻结。
+   */
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  private void checkMutable() {
+    if (frozen) throw new UnsupportedOperationException("A frozen PerformanceConfig cannot be modified; reconfigure the pool with a copy instead.");
+  }
 
   public int getMinConnectionsNum() {
     return minConnectionsNum;
   }
 
   public void setMinConnectionsNum(int minConnectionsNum) {
+    checkMutable();
     this.minConnectionsNum = minConnectionsNum;
   }
 
@@ -48,6 +311,7 @@ public class PerformanceConfig {
   }
 
   public void setMaxConnectionsNum(int maxConnectionsNum) {
+    checkMutable();
     this.maxConnectionsNum = maxConnectionsNum;
   }
 
@@ -56,6 +320,7 @@ public class PerformanceConfig {
   }
 
   public void setRequestTimeout(long requestTimeout) {
+    checkMutable();
     this.requestTimeout = requestTimeout;
   }
 
@@ -64,6 +329,7 @@ public class PerformanceConfig {
   }
 
   public void setPressureToExpand(double pressureToExpand) {
+    checkMutable();
     this.pressureToExpand = pressureToExpand;
   }
 
@@ -72,6 +338,7 @@ public class PerformanceConfig {
   }
 
   public void setPressureToContract(double pressureToContract) {
+    checkMutable();
     this.pressureToContract = pressureToContract;
   }
 
@@ -80,6 +347,7 @@ public class PerformanceConfig {
   }
 
   public void setResizeNum(int resizeNum) {
+    checkMutable();
     this.resizeNum = resizeNum;
   }
 
@@ -88,6 +356,331 @@ public class PerformanceConfig {
   }
 
   public void setScanCycle(long scanCycle) {
+    checkMutable();
     this.scanCycle = scanCycle;
   }
+
+  public int getCreationParallelism() {
+    return creationParallelism;
+  }
+
+  public void setCreationParallelism(int creationParallelism) {
+    checkMutable();
+    this.creationParallelism = creationParallelism;
+  }
+
+  public boolean isWarmUpInBackground() {
+    return warmUpInBackground;
+  }
+
+  public void setWarmUpInBackground(boolean warmUpInBackground) {
+    checkMutable();
+    this.warmUpInBackground = warmUpInBackground;
+  }
+
+  public int getCreationFailureThreshold() {
+    return creationFailureThreshold;
+  }
+
+  public void setCreationFailureThreshold(int creationFailureThreshold) {
+    checkMutable();
+    this.creationFailureThreshold = creationFailureThreshold;
+  }
+
+  public long getCreationBackoff() {
+    return creationBackoff;
+  }
+
+  public void setCreationBackoff(long creationBackoff) {
+    checkMutable();
+    this.creationBackoff = creationBackoff;
+  }
+
+  public long getCreationMaxBackoff() {
+    return creationMaxBackoff;
+  }
+
+  public void setCreationMaxBackoff(long creationMaxBackoff) {
+    checkMutable();
+    this.creationMaxBackoff = creationMaxBackoff;
+  }
+
+  public int getMaxWaiters() {
+    return maxWaiters;
+  }
+
+  public void setMaxWaiters(int maxWaiters) {
+    checkMutable();
+    this.maxWaiters = maxWaiters;
+  }
+
+  public boolean isShedLoad() {
+    return shedLoad;
+  }
+
+  public void setShedLoad(boolean shedLoad) {
+    checkMutable();
+    this.shedLoad = shedLoad;
+  }
+
+  public int getLaneReserved(Priority priority) {
+    return laneReserved[priority.ordinal()];
+  }
+
+  public void setLaneReserved(Priority priority, int reserved) {
+    checkMutable();
+    laneReserved[priority.ordinal()] = reserved;
+  }
+
+  public int getLaneCeiling(Priority priority) {
+    return laneCeilings[priority.ordinal()];
+  }
+
+  public void setLaneCeiling(Priority priority, int ceiling) {
+    checkMutable();
+    laneCeilings[priority.ordinal()] = ceiling;
+  }
+
+  public ScalingPolicy getScalingPolicy() {
+    return scalingPolicy;
+  }
+
+  public void setScalingPolicy(ScalingPolicy scalingPolicy) {
+    checkMutable();
+    this.scalingPolicy = scalingPolicy;
+  }
+
+  public int getStatementCacheSize() {
+    return statementCacheSize;
+  }
+
+  public void setStatementCacheSize(int statementCacheSize) {
+    checkMutable();
+    this.statementCacheSize = statementCacheSize;
+  }
+
+  public long getStatementCacheMemoryLimit() {
+    return statementCacheMemoryLimit;
+  }
+
+  public void setStatementCacheMemoryLimit(long statementCacheMemoryLimit) {
+    checkMutable();
+    this.statementCacheMemoryLimit = statementCacheMemoryLimit;
+  }
+
+  public long getMaxLifetime() {
+    return maxLifetime;
+  }
+
+  public void setMaxLifetime(long maxLifetime) {
+    checkMutable();
+    this.maxLifetime = maxLifetime;
+  }
+
+  public long getIdleTimeout() {
+    return idleTimeout;
+  }
+
+  public void setIdleTimeout(long idleTimeout) {
+    checkMutable();
+    this.idleTimeout = idleTimeout;
+  }
+
+  public long getKeepaliveTime() {
+    return keepaliveTime;
+  }
+
+  public void setKeepaliveTime(long keepaliveTime) {
+    checkMutable();
+    this.keepaliveTime = keepaliveTime;
+  }
+
+  public long getValidationIdleThreshold() {
+    return validationIdleThreshold;
+  }
+
+  public void setValidationIdleThreshold(long validationIdleThreshold) {
+    checkMutable();
+    this.validationIdleThreshold = validationIdleThreshold;
+  }
+
+  public long getValidationTimeout() {
+    return validationTimeout;
+  }
+
+  public void setValidationTimeout(long validationTimeout) {
+    checkMutable();
+    this.validationTimeout = validationTimeout;
+  }
+
+  public long getHousekeepingPeriod() {
+    return housekeepingPeriod;
+  }
+
+  public void setHousekeepingPeriod(long housekeepingPeriod) {
+    checkMutable();
+    this.housekeepingPeriod = housekeepingPeriod;
+  }
+
+  public long getLeakDetectionThreshold() {
+    return leakDetectionThreshold;
+  }
+
+  public void setLeakDetectionThreshold(long leakDetectionThreshold) {
+    checkMutable();
+    this.leakDetectionThreshold = leakDetectionThreshold;
+  }
+
+  public double getLeakStackSampleRate() {
+    return leakStackSampleRate;
+  }
+
+  public void setLeakStackSampleRate(double leakStackSampleRate) {
+    checkMutable();
+    this.leakStackSampleRate = leakStackSampleRate;
+  }
+
+  public long getLeakReclaimThreshold() {
+    return leakReclaimThreshold;
+  }
+
+  public void setLeakReclaimThreshold(long leakReclaimThreshold) {
+    checkMutable();
+    this.leakReclaimThreshold = leakReclaimThreshold;
+  }
+
+  public String getPoolName() {
+    return poolName;
+  }
+
+  public void setPoolName(String poolName) {
+    checkMutable();
+    this.poolName = poolName;
+  }
+
+  public boolean isRegisterMBean() {
+    return registerMBean;
+  }
+
+  public void setRegisterMBean(boolean registerMBean) {
+    checkMutable();
+    this.registerMBean = registerMBean;
+  }
+
+  public long getReplicaCheckPeriod() {
+    return replicaCheckPeriod;
+  }
+
+  public void setReplicaCheckPeriod(long replicaCheckPeriod) {
+    checkMutable();
+    this.replicaCheckPeriod = replicaCheckPeriod;
+  }
+
+  public long getWriteCoalescingWindow() {
+    return writeCoalescingWindow;
+  }
+
+  public void setWriteCoalescingWindow(long writeCoalescingWindow) {
+    checkMutable();
+    this.writeCoalescingWindow = writeCoalescingWindow;
+  }
+
+  public int getWriteCoalescingBatchSize() {
+    return writeCoalescingBatchSize;
+  }
+
+  public void setWriteCoalescingBatchSize(int writeCoalescingBatchSize) {
+    checkMutable();
+    this.writeCoalescingBatchSize = writeCoalescingBatchSize;
+  }
+
+  public int getStreamFetchSize() {
+    return streamFetchSize;
+  }
+
+  public void setStreamFetchSize(int streamFetchSize) {
+    checkMutable();
+    this.streamFetchSize = streamFetchSize;
+  }
+
+  public int getStreamMaxFetchSize() {
+    return streamMaxFetchSize;
+  }
+
+  public void setStreamMaxFetchSize(int streamMaxFetchSize) {
+    checkMutable();
+    this.streamMaxFetchSize = streamMaxFetchSize;
+  }
+
+  public int getQueryCacheSize() {
+    return queryCacheSize;
+  }
+
+  public void setQueryCacheSize(int queryCacheSize) {
+    checkMutable();
+    this.queryCacheSize = queryCacheSize;
+  }
+
+  public long getQueryCacheMemoryLimit() {
+    return queryCacheMemoryLimit;
+  }
+
+  public void setQueryCacheMemoryLimit(long queryCacheMemoryLimit) {
+    checkMutable();
+    this.queryCacheMemoryLimit = queryCacheMemoryLimit;
+  }
+
+  public long getQueryCacheTtl() {
+    return queryCacheTtl;
+  }
+
+  public void setQueryCacheTtl(long queryCacheTtl) {
+    checkMutable();
+    this.queryCacheTtl = queryCacheTtl;
+  }
+
+  public double getTraceSampleRate() {
+    return traceSampleRate;
+  }
+
+  public void setTraceSampleRate(double traceSampleRate) {
+    checkMutable();
+    this.traceSampleRate = traceSampleRate;
+  }
+
+  public long getSlowQueryThreshold() {
+    return slowQueryThreshold;
+  }
+
+  public void setSlowQueryThreshold(long slowQueryThreshold) {
+    checkMutable();
+    this.slowQueryThreshold = slowQueryThreshold;
+  }
+
+  public int getTraceTopStatements() {
+    return traceTopStatements;
+  }
+
+  public void setTraceTopStatements(int traceTopStatements) {
+    checkMutable();
+    this.traceTopStatements = traceTopStatements;
+  }
+
+  public long getEventDedupWindow() {
+    return eventDedupWindow;
+  }
+
+  public void setEventDedupWindow(long eventDedupWindow) {
+    checkMutable();
+    this.eventDedupWindow = eventDedupWindow;
+  }
+
+  public boolean isWatchConfig() {
+    return watchConfig;
+  }
+
+  public void setWatchConfig(boolean watchConfig) {
+    checkMutable();
+    this.watchConfig = watchConfig;
+  }
 }
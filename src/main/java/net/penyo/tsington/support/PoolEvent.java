@@ -0,0 +1,69 @@
+package net.penyo.tsington.support;
+
+/**
+ * 连接池事件
+ *
+ * <p>
+ * 事件是结构化的：各字段分别记录，而不是拼接成一条消息。同一种事件在去重窗口内只发布一次，
+ * {@code count} 为它所代表的发生次数。
+ * </p>
+ *
+ * @param type         事件类型
+ * @param pool         连接池名称
+ * @param connectionId 连接识别码，与连接无关时为 0
+ * @param thread       触发事件的线程名，泄漏类事件为借用线程的名称
+ * @param cause        原因的类名，没有原因时为 {@code null}
+ * @param message      描述，同类事件中用于区分的部分
+ * @param count        代表的发生次数
+ * @param elapsed      相关时长（毫秒），如占用时长或执行耗时，不适用时为 0
+ * @param timestamp    发布时刻（毫秒，Unix 时间）
+ * @param throwable    原因或调用栈，仅供日志输出，可能为 {@code null}
+ * @author Penyo
+ */
+public record PoolEvent(Type type, String pool, int connectionId, String thread, String cause, String message,
+                        long count, long elapsed, long timestamp, Throwable throwable) {
+  /**
+   * 复制一份代表另一发生次数的事件。
+   */
+  public PoolEvent withCount(long count, long timestamp) {
+    return new PoolEvent(type, pool, connectionId, thread, cause, message, count, elapsed, timestamp, throwable);
+  }
+
+  /**
+   * 事件类型
+   */
+  public enum Type {
+    /**
+     * 建立连接失败
+     */
+    CREATION_FAILED,
+    /**
+     * 建立连接的断路器断开
+     */
+    CIRCUIT_OPENED,
+    /**
+     * 建立连接的断路器闭合
+     */
+    CIRCUIT_CLOSED,
+    /**
+     * 借用被立即拒绝
+     */
+    BORROW_REJECTED,
+    /**
+     * 疑似连接泄漏
+     */
+    LEAK_DETECTED,
+    /**
+     * 泄漏的连接被强制回收
+     */
+    LEAK_RECLAIMED,
+    /**
+     * 被报告为泄漏的连接迟到归还
+     */
+    LATE_RETURN,
+    /**
+     * 慢查询
+     */
+    SLOW_QUERY
+  }
+}
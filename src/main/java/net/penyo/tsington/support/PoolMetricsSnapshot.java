@@ -0,0 +1,40 @@
+package net.penyo.tsington.support;
+
+import net.penyo.tsington.util.LatencyHistogram;
+
+/**
+ * 连接池度量快照
+ *
+ * <p>
+ * 计数与直方图均自连接池激活起累计。
+ * </p>
+ *
+ * @param poolName         连接池名称
+ * @param capacity         资源总数
+ * @param idle             可用资源数
+ * @param active           占用中的资源数
+ * @param waiting          等待者数
+ * @param pending          正在建立的连接数
+ * @param acquisitions     借用次数
+ * @param timeouts         借用超时次数
+ * @param rejections       借用被立即拒绝的次数
+ * @param created          建立的连接数
+ * @param creationFailures 建立连接失败次数
+ * @param leaksDetected    报告的泄漏数
+ * @param leaksReclaimed   回收的泄漏数
+ * @param waitTime         等待时长
+ * @param holdTime         占用时长
+ * @param creationTime     建立连接耗时
+ * @author Penyo
+ */
+public record PoolMetricsSnapshot(String poolName, int capacity, int idle, int active, int waiting, int pending,
+                                  long acquisitions, long timeouts, long rejections, long created, long creationFailures,
+                                  long leaksDetected, long leaksReclaimed, LatencyHistogram.Snapshot waitTime,
+                                  LatencyHistogram.Snapshot holdTime, LatencyHistogram.Snapshot creationTime) {
+  /**
+   * 检查连接池是否饱和，即没有可用资源且有借用者在等待。
+   */
+  public boolean isSaturated() {
+    return idle == 0 && waiting > 0;
+  }
+}
@@ -0,0 +1,25 @@
+package net.penyo.tsington.support;
+
+/**
+ * 借用优先级
+ *
+ * <p>
+ * 归还的连接按优先级从高到低移交给等待者，同一优先级内先到先得。每个优先级可在性能配置中设置预留连接数与占用上限。
+ * </p>
+ *
+ * @author Penyo
+ */
+public enum Priority {
+  /**
+   * 延迟敏感的请求，如健康检查与支付写入
+   */
+  CRITICAL,
+  /**
+   * 普通请求，未指定优先级的借用均属此类
+   */
+  NORMAL,
+  /**
+   * 批量作业，如报表与数据导出
+   */
+  BULK
+}
@@ -0,0 +1,23 @@
+package net.penyo.tsington.support;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 行映射器
+ *
+ * <p>
+ * 行映射器把结果集的当前行转换为一个对象。实现只应读取当前行，不应移动游标或关闭结果集。
+ * </p>
+ *
+ * @author Penyo
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+  /**
+   * 映射当前行。
+   *
+   * @param rs 已定位到当前行的结果集
+   */
+  T map(ResultSet rs) throws SQLException;
+}
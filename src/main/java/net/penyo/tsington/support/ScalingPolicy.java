@@ -0,0 +1,25 @@
+package net.penyo.tsington.support;
+
+import net.penyo.tsington.config.PerformanceConfig;
+
+/**
+ * 伸缩策略
+ *
+ * <p>
+ * 伸缩策略决定连接池在每个扫描周期结束时扩张或收缩多少连接。实现可以持有跨窗口的状态（如指数平均），
+ * 因此每个连接池应持有独立的策略实例。
+ * </p>
+ *
+ * @author Penyo
+ * @see ScalingWindow
+ */
+public interface ScalingPolicy {
+  /**
+   * 作出伸缩决策。
+   *
+   * @param window 刚结束的统计窗口
+   * @param pc     性能配置
+   * @return 正数表示扩张的连接数，负数表示收缩的连接数，零表示维持不变
+   */
+  int decide(ScalingWindow window, PerformanceConfig pc);
+}
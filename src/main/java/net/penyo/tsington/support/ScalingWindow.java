@@ -0,0 +1,47 @@
+package net.penyo.tsington.support;
+
+/**
+ * 伸缩窗口
+ *
+ * <p>
+ * 伸缩窗口是压力监视器在一个扫描周期内采集到的连接池负载摘要，供 {@link ScalingPolicy ScalingPolicy} 决策。
+ * </p>
+ *
+ * @param windowNanos   窗口时长（纳秒）
+ * @param acquisitions  借用次数
+ * @param timeouts      借用超时次数
+ * @param rejections    借用被立即拒绝的次数
+ * @param meanWaitMillis 平均等待时长（毫秒）
+ * @param p99WaitMillis 等待时长的 99 分位（毫秒）
+ * @param meanHoldMillis 平均占用时长（毫秒）
+ * @param peakInUse     窗口内同时占用的连接数峰值
+ * @param capacity      资源总数
+ * @param idle          可用资源数
+ * @param waiting       等待者数
+ * @param pending       正在建立的连接数
+ * @author Penyo
+ */
+public record ScalingWindow(long windowNanos, long acquisitions, long timeouts, long rejections, double meanWaitMillis,
+                            double p99WaitMillis, double meanHoldMillis, int peakInUse, int capacity, int idle,
+                            int waiting, int pending) {
+  /**
+   * 获取窗口时长（秒）。
+   */
+  public double windowSeconds() {
+    return windowNanos / 1e9;
+  }
+
+  /**
+   * 获取借用到达率（次/秒）。
+   */
+  public double arrivalRate() {
+    return windowNanos <= 0 ? 0D : acquisitions / windowSeconds();
+  }
+
+  /**
+   * 获取请求率（次/秒）：不论借用成功、超时还是被拒绝，每次请求都计入。
+   */
+  public double requestRate() {
+    return windowNanos <= 0 ? 0D : (acquisitions + timeouts + rejections) / windowSeconds();
+  }
+}
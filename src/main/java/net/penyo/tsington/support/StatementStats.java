@@ -0,0 +1,18 @@
+package net.penyo.tsington.support;
+
+import net.penyo.tsington.util.LatencyHistogram;
+
+/**
+ * 语句统计
+ *
+ * <p>
+ * 调用次数由采样数按采样率折算而来，采样率为 1 时才是精确值。延迟直方图只包含被采样的执行。
+ * </p>
+ *
+ * @param fingerprint SQL 指纹，即去掉字面量并规整空白后的 SQL
+ * @param calls       估算的调用次数
+ * @param latency     执行耗时
+ * @author Penyo
+ */
+public record StatementStats(String fingerprint, long calls, LatencyHistogram.Snapshot latency) {
+}
@@ -4,6 +4,8 @@ import net.penyo.tsington.config.PerformanceConfig;
 import net.penyo.tsington.config.UserConfig;
 import net.penyo.tsington.v0.TsingtonDataSource;
 
+import java.sql.Driver;
+
 /**
  * 青彤™ 连接池初始化器
  *
@@ -24,4 +26,17 @@ public interface TsingtonDataSourceInitializer {
    * @see PerformanceConfig
    */
   PerformanceConfig definePerformanceConfig();
+
+  /**
+   * 定义驱动实例。
+   *
+   * <p>
+   * 返回驱动实例时，连接池直接由其建立连接，不再按驱动类名反射加载驱动。
+   * </p>
+   *
+   * @return 驱动实例，默认为 {@code null}，即按 {@link UserConfig#driver() 驱动类名}加载
+   */
+  default Driver defineDriver() {
+    return null;
+  }
 }
@@ -0,0 +1,62 @@
+package net.penyo.tsington.support;
+
+/**
+ * 青彤™ 连接池的 JMX 视图
+ *
+ * <p>
+ * 每个连接池以 {@code net.penyo.tsington:type=Pool,name=<连接池名称>} 为名注册一个实例。时长单位均为毫秒。
+ * </p>
+ *
+ * @author Penyo
+ */
+public interface TsingtonPoolMXBean {
+  int getCapacity();
+
+  int getIdle();
+
+  int getActive();
+
+  int getWaiting();
+
+  int getPending();
+
+  long getAcquisitions();
+
+  long getTimeouts();
+
+  long getRejections();
+
+  boolean isCreationCircuitOpen();
+
+  long getCreated();
+
+  long getCreationFailures();
+
+  long getLeaksDetected();
+
+  long getLeaksReclaimed();
+
+  long getSlowQueries();
+
+  double getWaitMeanMillis();
+
+  double getWaitP50Millis();
+
+  double getWaitP99Millis();
+
+  double getWaitP999Millis();
+
+  double getHoldMeanMillis();
+
+  double getHoldP50Millis();
+
+  double getHoldP99Millis();
+
+  double getHoldP999Millis();
+
+  double getCreationP50Millis();
+
+  double getCreationP99Millis();
+
+  double getCreationP999Millis();
+}
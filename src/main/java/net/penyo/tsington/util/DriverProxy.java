@@ -3,8 +3,10 @@ package net.penyo.tsington.util;
 import net.penyo.tsington.config.UserConfig;
 
 import java.sql.Connection;
+import java.sql.Driver;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Properties;
 
 /**
  * 驱动代理
@@ -27,9 +29,28 @@ public class DriverProxy {
    */
   public static Connection getConnection(UserConfig uc) {
     try {
-      return DriverManager.getConnection(uc.url(), uc.username(), uc.password());
+      return connect(uc);
     } catch (SQLException ignored) {
     }
     return null;
   }
+
+  /**
+   * 获取连接，失败时抛出驱动给出的原因。
+   */
+  public static Connection connect(UserConfig uc) throws SQLException {
+    return DriverManager.getConnection(uc.url(), uc.username(), uc.password());
+  }
+
+  /**
+   * 直接经由驱动实例获取连接，不经过 {@link DriverManager DriverManager} 的驱动扫描与反射加载。
+   *
+   * @return 连接；驱动不接受该地址时为 {@code null}
+   */
+  public static Connection connect(Driver driver, UserConfig uc) throws SQLException {
+    Properties info = new Properties();
+    if (uc.username() != null) info.setProperty("user", uc.username());
+    if (uc.password() != null) info.setProperty("password", uc.password());
+    return driver.connect(uc.url(), info);
+  }
 }
@@ -0,0 +1,200 @@
+package net.penyo.tsington.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 延迟直方图
+ *
+ * <p>
+ * 延迟直方图以微秒为单位，采用固定桶的对数线性分布：每个 2 的幂区间再均分为 8 个子桶，相对误差不超过 12.5%。
+ * 记录只需一次数组下标计算与一次原子自增，不分配任何对象；读取分位数时才遍历桶。
+ * </p>
+ *
+ * <p>
+ * 直方图只增不减。需要按时间窗口统计时，取两次 {@link Snapshot Snapshot} 的差即可。
+ * </p>
+ *
+ * @author Penyo
+ */
+public class LatencyHistogram {
+  /**
+   * 子桶位数
+   */
+  private static final int SUB_BITS = 3;
+  /**
+   * 子桶数
+   */
+  private static final int SUB_COUNT = 1 << SUB_BITS;
+  /**
+   * 可记录的最高位（约 2^40 微秒，即十余天）
+   */
+  private static final int MAX_MSB = 40;
+  /**
+   * 桶数
+   */
+  private static final int BUCKETS = (MAX_MSB - SUB_BITS + 2) * SUB_COUNT;
+
+  /**
+   * 桶
+   */
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  /**
+   * 样本数
+   */
+  private final LongAdder count = new LongAdder();
+  /**
+   * 样本总和（微秒）
+   */
+  private final LongAdder sum = new LongAdder();
+
+  /**
+   * 记录一个样本。
+   *
+   * @param nanos 延迟（纳秒）
+   */
+  public void record(long nanos) {
+    long micros = Math.max(0L, nanos / 1000L);
+    buckets.incrementAndGet(indexOf(micros));
+    count.increment();
+    sum.add(micros);
+  }
+
+  /**
+   * 获取样本数。
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * 获取平均值（毫秒）。
+   */
+  public double getMean() {
+    long n = count.sum();
+    return n == 0 ? 0D : sum.sum() / 1000.0 / n;
+  }
+
+  /**
+   * 获取分位数（毫秒）。
+   *
+   * @param quantile 分位，取值 (0, 1]
+   */
+  public double getPercentile(double quantile) {
+    return snapshot().getPercentile(quantile);
+  }
+
+  /**
+   * 获取快照。
+   *
+   * <p>
+   * 快照与记录并发时，计数与桶之间可能有少量出入；用于观测与统计窗口时可以接受。
+   * </p>
+   */
+  public Snapshot snapshot() {
+    long[] counts = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) counts[i] = buckets.get(i);
+    return new Snapshot(counts, count.sum(), sum.sum());
+  }
+
+  /**
+   * 计算样本所在的桶。
+   */
+  static int indexOf(long micros) {
+    if (micros < SUB_COUNT) return (int) micros;
+    int msb = 63 - Long.numberOfLeadingZeros(micros);
+    if (msb > MAX_MSB) return BUCKETS - 1;
+    int sub = (int) (micros >>> (msb - SUB_BITS)) & (SUB_COUNT - 1);
+    return (msb - SUB_BITS + 1) * SUB_COUNT + sub;
+  }
+
+  /**
+   * 计算桶的上界（微秒）。
+   */
+  static long upperBoundOf(int index) {
+    if (index < SUB_COUNT) return index;
+    int msb = index / SUB_COUNT + SUB_BITS - 1;
+    int sub = index % SUB_COUNT;
+    return ((long) (SUB_COUNT + sub + 1) << (msb - SUB_BITS)) - 1;
+  }
+
+  /**
+   * 直方图快照
+   */
+  public static final class Snapshot {
+    /**
+     * 空快照
+     */
+    public static final Snapshot EMPTY = new Snapshot(new long[BUCKETS], 0L, 0L);
+
+    /**
+     * 各桶计数
+     */
+    private final long[] counts;
+    /**
+     * 样本数
+     */
+    private final long count;
+    /**
+     * 样本总和（微秒）
+     */
+    private final long sum;
+
+    private Snapshot(long[] counts, long count, long sum) {
+      this.counts = counts;
+      this.count = count;
+      this.sum = sum;
+    }
+
+    /**
+     * 获取样本数。
+     */
+    public long getCount() {
+      return count;
+    }
+
+    /**
+     * 获取平均值（毫秒）。
+     */
+    public double getMean() {
+      return count == 0 ? 0D : sum / 1000.0 / count;
+    }
+
+    /**
+     * 获取分位数（毫秒）。
+     *
+     * @param quantile 分位，取值 (0, 1]
+     */
+    public double getPercentile(double quantile) {
+      long total = 0L;
+      for (long c : counts) total += c;
+      if (total == 0L) return 0D;
+
+      long rank = Math.max(1L, (long) Math.ceil(quantile * total));
+      long seen = 0L;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += counts[i];
+        if (seen >= rank) return upperBoundOf(i) / 1000.0;
+      }
+      return upperBoundOf(BUCKETS - 1) / 1000.0;
+    }
+
+    /**
+     * 获取最大值的上界（毫秒）。
+     */
+    public double getMax() {
+      for (int i = BUCKETS - 1; i >= 0; i--)
+        if (counts[i] > 0) return upperBoundOf(i) / 1000.0;
+      return 0D;
+    }
+
+    /**
+     * 计算与更早快照之间的增量。
+     */
+    public Snapshot minus(Snapshot earlier) {
+      long[] delta = new long[BUCKETS];
+      for (int i = 0; i < BUCKETS; i++) delta[i] = Math.max(0L, counts[i] - earlier.counts[i]);
+      return new Snapshot(delta, Math.max(0L, count - earlier.count), Math.max(0L, sum - earlier.sum));
+    }
+  }
+}
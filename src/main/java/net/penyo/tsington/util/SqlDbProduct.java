@@ -1,17 +1,21 @@
 package net.penyo.tsington.util;
 
+import net.penyo.tsington.config.UserConfig;
+
 /**
  * 关系型数据库产品
  *
  * @author Penyo
  */
 public enum SqlDbProduct {
-  POSTGRESQL("org.postgresql.Driver"), MYSQL("com.mysql.cj.jdbc.Driver"), SQLSERVER("com.microsoft.sqlserver.jdbc.SQLServerDriver"), ORACLE("oracle.jdbc.driver.OracleDriver");
+  POSTGRESQL("org.postgresql.Driver", "jdbc:postgresql:"), MYSQL("com.mysql.cj.jdbc.Driver", "jdbc:mysql:"), SQLSERVER("com.microsoft.sqlserver.jdbc.SQLServerDriver", "jdbc:sqlserver:"), ORACLE("oracle.jdbc.driver.OracleDriver", "jdbc:oracle:");
 
   private final String driverClassName;
+  private final String urlPrefix;
 
-  SqlDbProduct(String driverClassName) {
+  SqlDbProduct(String driverClassName, String urlPrefix) {
     this.driverClassName = driverClassName;
+    this.urlPrefix = urlPrefix;
   }
 
   /**
@@ -20,4 +24,44 @@ public enum SqlDbProduct {
   public String getDriverClassName() {
     return driverClassName;
   }
+
+  /**
+   * 按用户配置识别数据库产品。
+   *
+   * @return 数据库产品，无法识别时为 {@code null}
+   */
+  public static SqlDbProduct of(UserConfig uc) {
+    for (SqlDbProduct product : values())
+      if (product.driverClassName.equals(uc.driver())) return product;
+    for (SqlDbProduct product : values())
+      if (uc.url() != null && uc.url().startsWith(product.urlPrefix)) return product;
+    return null;
+  }
+
+  /**
+   * 获取流式读取时应设置的抓取行数。
+   *
+   * <p>
+   * MySQL 默认把整个结果集读入内存：未在地址中开启 {@code useCursorFetch} 时，只有 {@link Integer#MIN_VALUE}
+   * 能令其逐行流式读取，此时抓取行数不可再调整。其余产品按给定的抓取行数分批读取。
+   * </p>
+   *
+   * @param url       数据库地址
+   * @param preferred 期望的抓取行数
+   */
+  public int getStreamingFetchSize(String url, int preferred) {
+    if (this == MYSQL && (url == null || !url.contains("useCursorFetch=true"))) return Integer.MIN_VALUE;
+    return preferred;
+  }
+
+  /**
+   * 检查流式读取是否须在事务中进行。
+   *
+   * <p>
+   * PostgreSQL 只在非自动提交模式下使用游标分批读取，否则忽略抓取行数并读入整个结果集。
+   * </p>
+   */
+  public boolean isStreamingTransactional() {
+    return this == POSTGRESQL;
+  }
 }
@@ -0,0 +1,1421 @@
+package net.penyo.tsington.v0;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 物化结果集
+ *
+ * <p>
+ * 物化结果集是查询结果缓存中的一份只进只读的结果。全部行的值按行优先平铺在一个数组中，列的元数据只保存一份，
+ * 多个读者可以共享同一份 {@link Rows Rows}，各自持有独立的游标。可变的值（字节数组与日期）在读出时复制，
+ * 读者无法篡改缓存。
+ * </p>
+ *
+ * <p>
+ * 结果过大而不宜缓存时，已读入的行先被依次读出，此后的行直接从仍然打开的原结果集逐行读取。
+ * </p>
+ *
+ * @author Penyo
+ */
+final class CachedResultSet implements ResultSet {
+  /**
+   * 列元数据
+   */
+  private final Columns columns;
+  /**
+   * 已读入的值，按行优先平铺
+   */
+  private final Object[] values;
+  /**
+   * 已读入的行数
+   */
+  private final int count;
+  /**
+   * 列数
+   */
+  private final int width;
+  /**
+   * 尚未读完的原结果集，全部读入时为 {@code null}
+   */
+  private final ResultSet tail;
+  /**
+   * 从原结果集读出的当前行
+   */
+  private Object[] current;
+  /**
+   * 当前行号，从 1 开始
+   */
+  private int row;
+  private boolean exhausted;
+  private boolean wasNull;
+  private boolean closed;
+
+  CachedResultSet(Columns columns, Object[] values, int count, ResultSet tail) {
+    this.columns = columns;
+    this.values = values;
+    this.count = count;
+    this.width = columns.getColumnCount();
+    this.tail = tail;
+  }
+
+  private void checkOpen() throws SQLException {
+    if (closed) throw new SQLException("The result set has been closed.");
+  }
+
+  /**
+   * 读取当前行的值。
+   */
+  private Object value(int columnIndex) throws SQLException {
+    checkOpen();
+    if (row == 0 || exhausted) throw new SQLException("No current row.");
+    if (columnIndex < 1 || columnIndex > width) throw new SQLException("Column index out of range: " + columnIndex + ".");
+    Object v = current != null ? current[columnIndex - 1] : values[(row - 1) * width + columnIndex - 1];
+    wasNull = v == null;
+    return v;
+  }
+
+  /**
+   * 复制可变的值。
+   */
+  private static Object copyOf(Object v) {
+    if (v instanceof byte[] bytes) return bytes.clone();
+    if (v instanceof java.util.Date d) return d.clone();
+    return v;
+  }
+
+  private static SQLException readOnly() {
+    return new SQLFeatureNotSupportedException("A cached result set is read-only.");
+  }
+
+  private static SQLException forwardOnly() {
+    return new SQLFeatureNotSupportedException("A cached result set is forward-only.");
+  }
+
+  @Override
+  public void close() throws SQLException {
+    closed = true;
+    if (tail != null) tail.close();
+  }
+
+  @Override
+  public boolean isClosed() throws SQLException {
+    return closed;
+  }
+
+  @Override
+  public Statement getStatement() throws SQLException {
+    return null;
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    if (iface.isInstance(this)) return iface.cast(this);
+    throw new SQLException("Not a wrapper for " + iface.getName() + ".");
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return iface.isInstance(this);
+  }
+
+  @Override
+  public boolean next() throws SQLException {
+    checkOpen();
+    if (exhausted) return false;
+    if (row < count) {
+      row++;
+      return true;
+    }
+    if (tail != null && tail.next()) {
+      if (current == null) current = new Object[width];
+      for (int i = 0; i < width; i++) current[i] = tail.getObject(i + 1);
+      row++;
+      return true;
+    }
+    exhausted = true;
+    current = null;
+    return false;
+  }
+
+  @Override
+  public boolean wasNull() throws SQLException {
+    return wasNull;
+  }
+
+  @Override
+  public String getString(int columnIndex) throws SQLException {
+    Object v = value(columnIndex);
+    if (v == null) return null;
+    if (v instanceof byte[] bytes) return new String(bytes);
+    if (v instanceof BigDecimal d) return d.toPlainString();
+    return v.toString();
+  }
+
+  @Override
+  public boolean getBoolean(int columnIndex) throws SQLException {
+    Object v = value(columnIndex);
+    if (v == null) return false;
+    if (v instanceof Boolean b) return b;
+    if (v instanceof Number n) return n.intValue() != 0;
+    String s = v.toString().trim();
+    return s.equals("1") || s.equalsIgnoreCase("true") || s.equalsIgnoreCase("y") || s.equalsIgnoreCase("yes");
+  }
+
+  @Override
+  public byte getByte(int columnIndex) throws SQLException {
+    return (byte) getLong(columnIndex);
+  }
+
+  @Override
+  public short getShort(int columnIndex) throws SQLException {
+    return (short) getLong(columnIndex);
+  }
+
+  @Override
+  public int getInt(int columnIndex) throws SQLException {
+    return (int) getLong(columnIndex);
+  }
+
+  @Override
+  public long getLong(int columnIndex) throws SQLException {
+    Object v = value(columnIndex);
+    if (v == null) return 0L;
+    if (v instanceof Number n) return n.longValue();
+    if (v instanceof Boolean b) return b ? 1L : 0L;
+    try {
+      return new BigDecimal(v.toString().trim()).longValue();
+    } catch (NumberFormatException e) {
+      throw new SQLException("Cannot convert " + v + " to a number.", e);
+    }
+  }
+
+  @Override
+  public float getFloat(int columnIndex) throws SQLException {
+    return (float) getDouble(columnIndex);
+  }
+
+  @Override
+  public double getDouble(int columnIndex) throws SQLException {
+    Object v = value(columnIndex);
+    if (v == null) return 0D;
+    if (v instanceof Number n) return n.doubleValue();
+    if (v instanceof Boolean b) return b ? 1D : 0D;
+    try {
+      return Double.parseDouble(v.toString().trim());
+    } catch (NumberFormatException e) {
+      throw new SQLException("Cannot convert " + v + " to a number.", e);
+    }
+  }
+
+  @Override
+  @Deprecated
+  public BigDecimal getBigDecimal(int columnIndex, int scale) throws SQLException {
+    BigDecimal d = getBigDecimal(columnIndex);
+    return d == null ? null : d.setScale(scale, RoundingMode.HALF_UP);
+  }
+
+  @Override
+  public byte[] getBytes(int columnIndex) throws SQLException {
+    Object v = value(columnIndex);
+    if (v == null) return null;
+    if (v instanceof byte[] bytes) return bytes.clone();
+    return v.toString().getBytes();
+  }
+
+  @Override
+  public java.sql.Date getDate(int columnIndex) throws SQLException {
+    Object v = value(columnIndex);
+    if (v == null) return null;
+    if (v instanceof LocalDate d) return java.sql.Date.valueOf(d);
+    if (v instanceof LocalDateTime t) return java.sql.Date.valueOf(t.toLocalDate());
+    if (v instanceof java.util.Date d) return new java.sql.Date(d.getTime());
+    return java.sql.Date.valueOf(v.toString().trim());
+  }
+
+  @Override
+  public java.sql.Time getTime(int columnIndex) throws SQLException {
+    Object v = value(columnIndex);
+    if (v == null) return null;
+    if (v instanceof LocalTime t) return java.sql.Time.valueOf(t);
+    if (v instanceof LocalDateTime t) return java.sql.Time.valueOf(t.toLocalTime());
+    if (v instanceof java.util.Date d) return new java.sql.Time(d.getTime());
+    return java.sql.Time.valueOf(v.toString().trim());
+  }
+
+  @Override
+  public java.sql.Timestamp getTimestamp(int columnIndex) throws SQLException {
+    Object v = value(columnIndex);
+    if (v == null) return null;
+    if (v instanceof java.sql.Timestamp t) return (java.sql.Timestamp) t.clone();
+    if (v instanceof LocalDateTime t) return java.sql.Timestamp.valueOf(t);
+    if (v instanceof LocalDate d) return java.sql.Timestamp.valueOf(d.atStartOfDay());
+    if (v instanceof java.util.Date d) return new java.sql.Timestamp(d.getTime());
+    return java.sql.Timestamp.valueOf(v.toString().trim());
+  }
+
+  @Override
+  public InputStream getAsciiStream(int columnIndex) throws SQLException {
+    return getBinaryStream(columnIndex);
+  }
+
+  @Override
+  @Deprecated
+  public InputStream getUnicodeStream(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public InputStream getBinaryStream(int columnIndex) throws SQLException {
+    byte[] bytes = getBytes(columnIndex);
+    return bytes == null ? null : new ByteArrayInputStream(bytes);
+  }
+
+  @Override
+  public String getString(String columnLabel) throws SQLException {
+    return getString(findColumn(columnLabel));
+  }
+
+  @Override
+  public boolean getBoolean(String columnLabel) throws SQLException {
+    return getBoolean(findColumn(columnLabel));
+  }
+
+  @Override
+  public byte getByte(String columnLabel) throws SQLException {
+    return getByte(findColumn(columnLabel));
+  }
+
+  @Override
+  public short getShort(String columnLabel) throws SQLException {
+    return getShort(findColumn(columnLabel));
+  }
+
+  @Override
+  public int getInt(String columnLabel) throws SQLException {
+    return getInt(findColumn(columnLabel));
+  }
+
+  @Override
+  public long getLong(String columnLabel) throws SQLException {
+    return getLong(findColumn(columnLabel));
+  }
+
+  @Override
+  public float getFloat(String columnLabel) throws SQLException {
+    return getFloat(findColumn(columnLabel));
+  }
+
+  @Override
+  public double getDouble(String columnLabel) throws SQLException {
+    return getDouble(findColumn(columnLabel));
+  }
+
+  @Override
+  @Deprecated
+  public BigDecimal getBigDecimal(String columnLabel, int scale) throws SQLException {
+    return getBigDecimal(findColumn(columnLabel), scale);
+  }
+
+  @Override
+  public byte[] getBytes(String columnLabel) throws SQLException {
+    return getBytes(findColumn(columnLabel));
+  }
+
+  @Override
+  public java.sql.Date getDate(String columnLabel) throws SQLException {
+    return getDate(findColumn(columnLabel));
+  }
+
+  @Override
+  public java.sql.Time getTime(String columnLabel) throws SQLException {
+    return getTime(findColumn(columnLabel));
+  }
+
+  @Override
+  public java.sql.Timestamp getTimestamp(String columnLabel) throws SQLException {
+    return getTimestamp(findColumn(columnLabel));
+  }
+
+  @Override
+  public InputStream getAsciiStream(String columnLabel) throws SQLException {
+    return getAsciiStream(findColumn(columnLabel));
+  }
+
+  @Override
+  @Deprecated
+  public InputStream getUnicodeStream(String columnLabel) throws SQLException {
+    return getUnicodeStream(findColumn(columnLabel));
+  }
+
+  @Override
+  public InputStream getBinaryStream(String columnLabel) throws SQLException {
+    return getBinaryStream(findColumn(columnLabel));
+  }
+
+  @Override
+  public SQLWarning getWarnings() throws SQLException {
+    checkOpen();
+    return null;
+  }
+
+  @Override
+  public void clearWarnings() throws SQLException {
+    checkOpen();
+  }
+
+  @Override
+  public String getCursorName() throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public ResultSetMetaData getMetaData() throws SQLException {
+    checkOpen();
+    return columns;
+  }
+
+  @Override
+  public Object getObject(int columnIndex) throws SQLException {
+    return copyOf(value(columnIndex));
+  }
+
+  @Override
+  public Object getObject(String columnLabel) throws SQLException {
+    return getObject(findColumn(columnLabel));
+  }
+
+  @Override
+  public int findColumn(String columnLabel) throws SQLException {
+    checkOpen();
+    return columns.find(columnLabel);
+  }
+
+  @Override
+  public Reader getCharacterStream(int columnIndex) throws SQLException {
+    String s = getString(columnIndex);
+    return s == null ? null : new StringReader(s);
+  }
+
+  @Override
+  public Reader getCharacterStream(String columnLabel) throws SQLException {
+    return getCharacterStream(findColumn(columnLabel));
+  }
+
+  @Override
+  public BigDecimal getBigDecimal(int columnIndex) throws SQLException {
+    Object v = value(columnIndex);
+    if (v == null) return null;
+    if (v instanceof BigDecimal d) return d;
+    if (v instanceof BigInteger i) return new BigDecimal(i);
+    if (v instanceof Long || v instanceof Integer || v instanceof Short || v instanceof Byte) return BigDecimal.valueOf(((Number) v).longValue());
+    if (v instanceof Boolean b) return b ? BigDecimal.ONE : BigDecimal.ZERO;
+    try {
+      return new BigDecimal(v.toString().trim());
+    } catch (NumberFormatException e) {
+      throw new SQLException("Cannot convert " + v + " to a number.", e);
+    }
+  }
+
+  @Override
+  public BigDecimal getBigDecimal(String columnLabel) throws SQLException {
+    return getBigDecimal(findColumn(columnLabel));
+  }
+
+  @Override
+  public boolean isBeforeFirst() throws SQLException {
+    checkOpen();
+    return row == 0 && count > 0;
+  }
+
+  @Override
+  public boolean isAfterLast() throws SQLException {
+    checkOpen();
+    return exhausted && row > 0;
+  }
+
+  @Override
+  public boolean isFirst() throws SQLException {
+    checkOpen();
+    return row == 1 && !exhausted;
+  }
+
+  @Override
+  public boolean isLast() throws SQLException {
+    checkOpen();
+    if (tail != null) throw new SQLFeatureNotSupportedException();
+    return !exhausted && row > 0 && row == count;
+  }
+
+  @Override
+  public void beforeFirst() throws SQLException {
+    throw forwardOnly();
+  }
+
+  @Override
+  public void afterLast() throws SQLException {
+    throw forwardOnly();
+  }
+
+  @Override
+  public boolean first() throws SQLException {
+    throw forwardOnly();
+  }
+
+  @Override
+  public boolean last() throws SQLException {
+    throw forwardOnly();
+  }
+
+  @Override
+  public int getRow() throws SQLException {
+    checkOpen();
+    return exhausted ? 0 : row;
+  }
+
+  @Override
+  public boolean absolute(int row) throws SQLException {
+    throw forwardOnly();
+  }
+
+  @Override
+  public boolean relative(int rows) throws SQLException {
+    throw forwardOnly();
+  }
+
+  @Override
+  public boolean previous() throws SQLException {
+    throw forwardOnly();
+  }
+
+  @Override
+  public void setFetchDirection(int direction) throws SQLException {
+    checkOpen();
+    if (direction != FETCH_FORWARD) throw forwardOnly();
+  }
+
+  @Override
+  public int getFetchDirection() throws SQLException {
+    return FETCH_FORWARD;
+  }
+
+  @Override
+  public void setFetchSize(int rows) throws SQLException {
+    checkOpen();
+    if (tail != null) tail.setFetchSize(rows);
+  }
+
+  @Override
+  public int getFetchSize() throws SQLException {
+    return 0;
+  }
+
+  @Override
+  public int getType() throws SQLException {
+    return TYPE_FORWARD_ONLY;
+  }
+
+  @Override
+  public int getConcurrency() throws SQLException {
+    return CONCUR_READ_ONLY;
+  }
+
+  @Override
+  public boolean rowUpdated() throws SQLException {
+    return false;
+  }
+
+  @Override
+  public boolean rowInserted() throws SQLException {
+    return false;
+  }
+
+  @Override
+  public boolean rowDeleted() throws SQLException {
+    return false;
+  }
+
+  @Override
+  public void updateNull(int columnIndex) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBoolean(int columnIndex, boolean x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateByte(int columnIndex, byte x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateShort(int columnIndex, short x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateInt(int columnIndex, int x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateLong(int columnIndex, long x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateFloat(int columnIndex, float x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateDouble(int columnIndex, double x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBigDecimal(int columnIndex, BigDecimal x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateString(int columnIndex, String x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBytes(int columnIndex, byte[] x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateDate(int columnIndex, java.sql.Date x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateTime(int columnIndex, java.sql.Time x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateTimestamp(int columnIndex, java.sql.Timestamp x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateAsciiStream(int columnIndex, InputStream x, int length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBinaryStream(int columnIndex, InputStream x, int length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateCharacterStream(int columnIndex, Reader x, int length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateObject(int columnIndex, Object x, int scaleOrLength) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateObject(int columnIndex, Object x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNull(String columnLabel) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBoolean(String columnLabel, boolean x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateByte(String columnLabel, byte x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateShort(String columnLabel, short x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateInt(String columnLabel, int x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateLong(String columnLabel, long x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateFloat(String columnLabel, float x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateDouble(String columnLabel, double x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBigDecimal(String columnLabel, BigDecimal x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateString(String columnLabel, String x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBytes(String columnLabel, byte[] x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateDate(String columnLabel, java.sql.Date x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateTime(String columnLabel, java.sql.Time x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateTimestamp(String columnLabel, java.sql.Timestamp x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateAsciiStream(String columnLabel, InputStream x, int length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBinaryStream(String columnLabel, InputStream x, int length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateCharacterStream(String columnLabel, Reader reader, int length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateObject(String columnLabel, Object x, int scaleOrLength) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateObject(String columnLabel, Object x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void insertRow() throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateRow() throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void deleteRow() throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void refreshRow() throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void cancelRowUpdates() throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void moveToInsertRow() throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void moveToCurrentRow() throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public Object getObject(int columnIndex, Map<String, Class<?>> map) throws SQLException {
+    return getObject(columnIndex);
+  }
+
+  @Override
+  public Ref getRef(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public Blob getBlob(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public Clob getClob(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public Array getArray(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public Object getObject(String columnLabel, Map<String, Class<?>> map) throws SQLException {
+    return getObject(findColumn(columnLabel), map);
+  }
+
+  @Override
+  public Ref getRef(String columnLabel) throws SQLException {
+    return getRef(findColumn(columnLabel));
+  }
+
+  @Override
+  public Blob getBlob(String columnLabel) throws SQLException {
+    return getBlob(findColumn(columnLabel));
+  }
+
+  @Override
+  public Clob getClob(String columnLabel) throws SQLException {
+    return getClob(findColumn(columnLabel));
+  }
+
+  @Override
+  public Array getArray(String columnLabel) throws SQLException {
+    return getArray(findColumn(columnLabel));
+  }
+
+  @Override
+  public java.sql.Date getDate(int columnIndex, Calendar cal) throws SQLException {
+    return getDate(columnIndex);
+  }
+
+  @Override
+  public java.sql.Date getDate(String columnLabel, Calendar cal) throws SQLException {
+    return getDate(findColumn(columnLabel), cal);
+  }
+
+  @Override
+  public java.sql.Time getTime(int columnIndex, Calendar cal) throws SQLException {
+    return getTime(columnIndex);
+  }
+
+  @Override
+  public java.sql.Time getTime(String columnLabel, Calendar cal) throws SQLException {
+    return getTime(findColumn(columnLabel), cal);
+  }
+
+  @Override
+  public java.sql.Timestamp getTimestamp(int columnIndex, Calendar cal) throws SQLException {
+    return getTimestamp(columnIndex);
+  }
+
+  @Override
+  public java.sql.Timestamp getTimestamp(String columnLabel, Calendar cal) throws SQLException {
+    return getTimestamp(findColumn(columnLabel), cal);
+  }
+
+  @Override
+  public URL getURL(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public URL getURL(String columnLabel) throws SQLException {
+    return getURL(findColumn(columnLabel));
+  }
+
+  @Override
+  public void updateRef(int columnIndex, java.sql.Ref x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateRef(String columnLabel, java.sql.Ref x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBlob(int columnIndex, java.sql.Blob x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBlob(String columnLabel, java.sql.Blob x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateClob(int columnIndex, java.sql.Clob x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateClob(String columnLabel, java.sql.Clob x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateArray(int columnIndex, java.sql.Array x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateArray(String columnLabel, java.sql.Array x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public RowId getRowId(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public RowId getRowId(String columnLabel) throws SQLException {
+    return getRowId(findColumn(columnLabel));
+  }
+
+  @Override
+  public void updateRowId(int columnIndex, RowId x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateRowId(String columnLabel, RowId x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public int getHoldability() throws SQLException {
+    return HOLD_CURSORS_OVER_COMMIT;
+  }
+
+  @Override
+  public void updateNString(int columnIndex, String nString) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNString(String columnLabel, String nString) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNClob(int columnIndex, NClob nClob) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNClob(String columnLabel, NClob nClob) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public NClob getNClob(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public NClob getNClob(String columnLabel) throws SQLException {
+    return getNClob(findColumn(columnLabel));
+  }
+
+  @Override
+  public SQLXML getSQLXML(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public SQLXML getSQLXML(String columnLabel) throws SQLException {
+    return getSQLXML(findColumn(columnLabel));
+  }
+
+  @Override
+  public void updateSQLXML(int columnIndex, SQLXML xmlObject) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateSQLXML(String columnLabel, SQLXML xmlObject) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public String getNString(int columnIndex) throws SQLException {
+    return getString(columnIndex);
+  }
+
+  @Override
+  public String getNString(String columnLabel) throws SQLException {
+    return getNString(findColumn(columnLabel));
+  }
+
+  @Override
+  public Reader getNCharacterStream(int columnIndex) throws SQLException {
+    return getCharacterStream(columnIndex);
+  }
+
+  @Override
+  public Reader getNCharacterStream(String columnLabel) throws SQLException {
+    return getNCharacterStream(findColumn(columnLabel));
+  }
+
+  @Override
+  public void updateNCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNCharacterStream(String columnLabel, Reader reader, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateAsciiStream(int columnIndex, InputStream x, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBinaryStream(int columnIndex, InputStream x, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateAsciiStream(String columnLabel, InputStream x, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBinaryStream(String columnLabel, InputStream x, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateCharacterStream(String columnLabel, Reader reader, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBlob(int columnIndex, InputStream inputStream, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBlob(String columnLabel, InputStream inputStream, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateClob(int columnIndex, Reader reader, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateClob(String columnLabel, Reader reader, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNClob(int columnIndex, Reader reader, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNClob(String columnLabel, Reader reader, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNCharacterStream(int columnIndex, Reader x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNCharacterStream(String columnLabel, Reader reader) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateAsciiStream(int columnIndex, InputStream x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBinaryStream(int columnIndex, InputStream x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateCharacterStream(int columnIndex, Reader x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateAsciiStream(String columnLabel, InputStream x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBinaryStream(String columnLabel, InputStream x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateCharacterStream(String columnLabel, Reader reader) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBlob(int columnIndex, InputStream inputStream) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBlob(String columnLabel, InputStream inputStream) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateClob(int columnIndex, Reader reader) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateClob(String columnLabel, Reader reader) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNClob(int columnIndex, Reader reader) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNClob(String columnLabel, Reader reader) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
+    Object v = value(columnIndex);
+    if (v == null) return null;
+    if (type.isInstance(v)) return type.cast(copyOf(v));
+    Object converted;
+    if (type == String.class) converted = getString(columnIndex);
+    else if (type == Integer.class) converted = getInt(columnIndex);
+    else if (type == Long.class) converted = getLong(columnIndex);
+    else if (type == Short.class) converted = getShort(columnIndex);
+    else if (type == Byte.class) converted = getByte(columnIndex);
+    else if (type == Double.class) converted = getDouble(columnIndex);
+    else if (type == Float.class) converted = getFloat(columnIndex);
+    else if (type == Boolean.class) converted = getBoolean(columnIndex);
+    else if (type == BigDecimal.class) converted = getBigDecimal(columnIndex);
+    else if (type == byte[].class) converted = getBytes(columnIndex);
+    else if (type == java.sql.Date.class) converted = getDate(columnIndex);
+    else if (type == java.sql.Time.class) converted = getTime(columnIndex);
+    else if (type == java.sql.Timestamp.class) converted = getTimestamp(columnIndex);
+    else if (type == LocalDate.class) converted = getDate(columnIndex).toLocalDate();
+    else if (type == LocalTime.class) converted = getTime(columnIndex).toLocalTime();
+    else if (type == LocalDateTime.class) converted = getTimestamp(columnIndex).toLocalDateTime();
+    else throw new SQLException("Cannot convert " + v.getClass().getName() + " to " + type.getName() + ".");
+    return type.cast(converted);
+  }
+
+  @Override
+  public <T> T getObject(String columnLabel, Class<T> type) throws SQLException {
+    return getObject(findColumn(columnLabel), type);
+  }
+
+  /**
+   * 可缓存的全部行
+   */
+  static final class Rows {
+    final Columns columns;
+    final Object[] values;
+    final int count;
+    /**
+     * 估算内存（字节）
+     */
+    final long footprint;
+
+    Rows(Columns columns, Object[] values, int count, long footprint) {
+      this.columns = columns;
+      this.values = values;
+      this.count = count;
+      this.footprint = footprint;
+    }
+
+    /**
+     * 打开一个独立游标。
+     */
+    ResultSet open() {
+      return new CachedResultSet(columns, values, count, null);
+    }
+  }
+
+  /**
+   * 列元数据
+   */
+  static final class Columns implements ResultSetMetaData {
+    private final String[] labels;
+    private final String[] names;
+    private final String[] tables;
+    private final String[] schemas;
+    private final String[] catalogs;
+    private final String[] typeNames;
+    private final String[] classNames;
+    private final int[] types;
+    private final int[] precisions;
+    private final int[] scales;
+    private final int[] nullables;
+    private final int[] displaySizes;
+    private final boolean[] signed;
+    private final boolean[] autoIncrement;
+    private final boolean[] caseSensitive;
+    /**
+     * 标签到列号的映射（不区分大小写，同名取首列）
+     */
+    private final Map<String, Integer> index = new HashMap<>();
+
+    private Columns(int width) {
+      labels = new String[width];
+      names = new String[width];
+      tables = new String[width];
+      schemas = new String[width];
+      catalogs = new String[width];
+      typeNames = new String[width];
+      classNames = new String[width];
+      types = new int[width];
+      precisions = new int[width];
+      scales = new int[width];
+      nullables = new int[width];
+      displaySizes = new int[width];
+      signed = new boolean[width];
+      autoIncrement = new boolean[width];
+      caseSensitive = new boolean[width];
+    }
+
+    /**
+     * 复制原结果集的元数据。
+     *
+     * @return 列元数据；含有依赖物理连接的列（大对象、数组、引用等）时为 {@code null}，此类结果不可缓存
+     */
+    static Columns of(ResultSetMetaData md) throws SQLException {
+      if (md == null) return null;
+      int width = md.getColumnCount();
+      if (width <= 0) return null;
+
+      Columns c = new Columns(width);
+      for (int i = 0; i < width; i++) {
+        int column = i + 1;
+        c.types[i] = md.getColumnType(column);
+        switch (c.types[i]) {
+          case Types.BLOB, Types.CLOB, Types.NCLOB, Types.ARRAY, Types.SQLXML, Types.REF, Types.REF_CURSOR, Types.STRUCT,
+               Types.JAVA_OBJECT, Types.DATALINK, Types.DISTINCT, Types.OTHER -> {
+            return null;
+          }
+          default -> {
+          }
+        }
+        c.labels[i] = md.getColumnLabel(column);
+        c.names[i] = md.getColumnName(column);
+        c.tables[i] = md.getTableName(column);
+        c.schemas[i] = md.getSchemaName(column);
+        c.catalogs[i] = md.getCatalogName(column);
+        c.typeNames[i] = md.getColumnTypeName(column);
+        c.classNames[i] = md.getColumnClassName(column);
+        c.precisions[i] = md.getPrecision(column);
+        c.scales[i] = md.getScale(column);
+        c.nullables[i] = md.isNullable(column);
+        c.displaySizes[i] = md.getColumnDisplaySize(column);
+        c.signed[i] = md.isSigned(column);
+        c.autoIncrement[i] = md.isAutoIncrement(column);
+        c.caseSensitive[i] = md.isCaseSensitive(column);
+        if (c.labels[i] != null) c.index.putIfAbsent(c.labels[i].toLowerCase(Locale.ROOT), column);
+      }
+      return c;
+    }
+
+    /**
+     * 按标签查找列号。
+     */
+    int find(String label) throws SQLException {
+      Integer column = label == null ? null : index.get(label.toLowerCase(Locale.ROOT));
+      if (column == null) throw new SQLException("Column not found: " + label + ".");
+      return column;
+    }
+
+    @Override
+    public int getColumnCount() {
+      return labels.length;
+    }
+
+    @Override
+    public boolean isAutoIncrement(int column) {
+      return autoIncrement[column - 1];
+    }
+
+    @Override
+    public boolean isCaseSensitive(int column) {
+      return caseSensitive[column - 1];
+    }
+
+    @Override
+    public boolean isSearchable(int column) {
+      return true;
+    }
+
+    @Override
+    public boolean isCurrency(int column) {
+      return false;
+    }
+
+    @Override
+    public int isNullable(int column) {
+      return nullables[column - 1];
+    }
+
+    @Override
+    public boolean isSigned(int column) {
+      return signed[column - 1];
+    }
+
+    @Override
+    public int getColumnDisplaySize(int column) {
+      return displaySizes[column - 1];
+    }
+
+    @Override
+    public String getColumnLabel(int column) {
+      return labels[column - 1];
+    }
+
+    @Override
+    public String getColumnName(int column) {
+      return names[column - 1];
+    }
+
+    @Override
+    public String getSchemaName(int column) {
+      return schemas[column - 1];
+    }
+
+    @Override
+    public int getPrecision(int column) {
+      return precisions[column - 1];
+    }
+
+    @Override
+    public int getScale(int column) {
+      return scales[column - 1];
+    }
+
+    @Override
+    public String getTableName(int column) {
+      return tables[column - 1];
+    }
+
+    @Override
+    public String getCatalogName(int column) {
+      return catalogs[column - 1];
+    }
+
+    @Override
+    public int getColumnType(int column) {
+      return types[column - 1];
+    }
+
+    @Override
+    public String getColumnTypeName(int column) {
+      return typeNames[column - 1];
+    }
+
+    @Override
+    public boolean isReadOnly(int column) {
+      return true;
+    }
+
+    @Override
+    public boolean isWritable(int column) {
+      return false;
+    }
+
+    @Override
+    public boolean isDefinitelyWritable(int column) {
+      return false;
+    }
+
+    @Override
+    public String getColumnClassName(int column) {
+      return classNames[column - 1];
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+      if (iface.isInstance(this)) return iface.cast(this);
+      throw new SQLException("Not a wrapper for " + iface.getName() + ".");
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+      return iface.isInstance(this);
+    }
+  }
+}
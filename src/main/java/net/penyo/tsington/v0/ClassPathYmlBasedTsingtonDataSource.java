@@ -2,18 +2,31 @@ package net.penyo.tsington.v0;
 
 import net.penyo.tsington.config.PerformanceConfig;
 import net.penyo.tsington.config.UserConfig;
+import net.penyo.tsington.support.Priority;
 import org.yaml.snakeyaml.Yaml;
 
 import java.io.InputStream;
+import java.net.URL;
+import java.util.Locale;
 import java.util.Map;
 
 /**
  * 基于类路径配置构造的青彤™ 连接池
  *
+ * <p>
+ * 性能配置中 {@code watch: true} 时，若配置文件位于文件系统（而非 JAR 包）中，连接池会监视该文件，
+ * 并在其变化时以其中的性能配置{@linkplain TsingtonDataSource#reconfigure(PerformanceConfig) 热更新}自身。
+ * </p>
+ *
  * @author Penyo
  * @see TsingtonDataSource
  */
 public class ClassPathYmlBasedTsingtonDataSource extends TsingtonDataSource {
+  /**
+   * 配置文件监视器，未开启监视时为 {@code null}
+   */
+  private ConfigWatcher configWatcher;
+
   public ClassPathYmlBasedTsingtonDataSource(String ymlPath) {
     UserConfig uc = null;
     PerformanceConfig pc = new PerformanceConfig();
@@ -30,27 +43,125 @@ public class ClassPathYmlBasedTsingtonDataSource extends TsingtonDataSource {
             uc = new UserConfig(driver, url, username, password);
           }
 
-          Map<String, Object> pcd = data.get("performance");
-          if (pcd != null) {
-            Object minConnectionsNum = pcd.get("minConnectionsNum");
-            if (minConnectionsNum != null) pc.setMinConnectionsNum((Integer) minConnectionsNum);
-            Object maxConnectionsNum = pcd.get("maxConnectionsNum");
-            if (maxConnectionsNum != null) pc.setMaxConnectionsNum((Integer) maxConnectionsNum);
-            Object requestTimeout = pcd.get("requestTimeout");
-            if (requestTimeout != null) pc.setRequestTimeout((Long) requestTimeout);
-            Object pressureToExpand = pcd.get("pressureToExpand");
-            if (pressureToExpand != null) pc.setPressureToExpand((Double) pressureToExpand);
-            Object pressureToContract = pcd.get("pressureToContract");
-            if (pressureToContract != null) pc.setPressureToContract((Double) pressureToContract);
-            Object resizeNum = pcd.get("resizeNum");
-            if (resizeNum != null) pc.setResizeNum((Integer) resizeNum);
-            Object scanCycle = pcd.get("scanCycle");
-            if (scanCycle != null) pc.setScanCycle((Long) scanCycle);
-          }
+          pc = parsePerformanceConfig(data.get("performance"));
         }
       }
     } catch (Exception ignored) {
     }
     activate(uc, pc);
+
+    if (pc.isWatchConfig()) {
+      URL resource = ClassPathYmlBasedTsingtonDataSource.class.getClassLoader().getResource(ymlPath);
+      if (resource != null) configWatcher = ConfigWatcher.watch(resource, this);
+    }
+  }
+
+  @Override
+  public void close() {
+    if (configWatcher != null) configWatcher.close();
+    super.close();
+  }
+
+  /**
+   * 解析性能配置。
+   */
+  static PerformanceConfig parsePerformanceConfig(Map<String, Object> pcd) {
+    PerformanceConfig pc = new PerformanceConfig();
+    if (pcd == null) return pc;
+
+    Object minConnectionsNum = pcd.get("minConnectionsNum");
+    if (minConnectionsNum != null) pc.setMinConnectionsNum((Integer) minConnectionsNum);
+    Object maxConnectionsNum = pcd.get("maxConnectionsNum");
+    if (maxConnectionsNum != null) pc.setMaxConnectionsNum((Integer) maxConnectionsNum);
+    Object requestTimeout = pcd.get("requestTimeout");
+    if (requestTimeout != null) pc.setRequestTimeout((Long) requestTimeout);
+    Object pressureToExpand = pcd.get("pressureToExpand");
+    if (pressureToExpand != null) pc.setPressureToExpand((Double) pressureToExpand);
+    Object pressureToContract = pcd.get("pressureToContract");
+    if (pressureToContract != null) pc.setPressureToContract((Double) pressureToContract);
+    Object resizeNum = pcd.get("resizeNum");
+    if (resizeNum != null) pc.setResizeNum((Integer) resizeNum);
+    Object scanCycle = pcd.get("scanCycle");
+    if (scanCycle != null) pc.setScanCycle((Long) scanCycle);
+    Object creationParallelism = pcd.get("creationParallelism");
+    if (creationParallelism != null) pc.setCreationParallelism((Integer) creationParallelism);
+    Object warmUpInBackground = pcd.get("warmUpInBackground");
+    if (warmUpInBackground != null) pc.setWarmUpInBackground((Boolean) warmUpInBackground);
+    Object creationFailureThreshold = pcd.get("creationFailureThreshold");
+    if (creationFailureThreshold != null) pc.setCreationFailureThreshold((Integer) creationFailureThreshold);
+    Object creationBackoff = pcd.get("creationBackoff");
+    if (creationBackoff != null) pc.setCreationBackoff(((Number) creationBackoff).longValue());
+    Object creationMaxBackoff = pcd.get("creationMaxBackoff");
+    if (creationMaxBackoff != null) pc.setCreationMaxBackoff(((Number) creationMaxBackoff).longValue());
+    Object maxWaiters = pcd.get("maxWaiters");
+    if (maxWaiters != null) pc.setMaxWaiters((Integer) maxWaiters);
+    Object shedLoad = pcd.get("shedLoad");
+    if (shedLoad != null) pc.setShedLoad((Boolean) shedLoad);
+    Object lanes = pcd.get("lanes");
+    if (lanes instanceof Map<?, ?> lm)
+      for (Map.Entry<?, ?> e : lm.entrySet()) {
+        if (!(e.getValue() instanceof Map<?, ?> lane)) continue;
+        Priority priority = Priority.valueOf(e.getKey().toString().toUpperCase(Locale.ROOT));
+        Object reserved = lane.get("reserved");
+        if (reserved != null) pc.setLaneReserved(priority, (Integer) reserved);
+        Object ceiling = lane.get("ceiling");
+        if (ceiling != null) pc.setLaneCeiling(priority, (Integer) ceiling);
+      }
+    Object scalingPolicy = pcd.get("scalingPolicy");
+    if ("littleLaw".equals(scalingPolicy)) pc.setScalingPolicy(new LittleLawScalingPolicy());
+    else if ("requestRate".equals(scalingPolicy)) pc.setScalingPolicy(new RequestRateScalingPolicy());
+    Object statementCacheSize = pcd.get("statementCacheSize");
+    if (statementCacheSize != null) pc.setStatementCacheSize((Integer) statementCacheSize);
+    Object statementCacheMemoryLimit = pcd.get("statementCacheMemoryLimit");
+    if (statementCacheMemoryLimit != null) pc.setStatementCacheMemoryLimit(((Number) statementCacheMemoryLimit).longValue());
+    Object maxLifetime = pcd.get("maxLifetime");
+    if (maxLifetime != null) pc.setMaxLifetime(((Number) maxLifetime).longValue());
+    Object idleTimeout = pcd.get("idleTimeout");
+    if (idleTimeout != null) pc.setIdleTimeout(((Number) idleTimeout).longValue());
+    Object keepaliveTime = pcd.get("keepaliveTime");
+    if (keepaliveTime != null) pc.setKeepaliveTime(((Number) keepaliveTime).longValue());
+    Object validationIdleThreshold = pcd.get("validationIdleThreshold");
+    if (validationIdleThreshold != null) pc.setValidationIdleThreshold(((Number) validationIdleThreshold).longValue());
+    Object validationTimeout = pcd.get("validationTimeout");
+    if (validationTimeout != null) pc.setValidationTimeout(((Number) validationTimeout).longValue());
+    Object housekeepingPeriod = pcd.get("housekeepingPeriod");
+    if (housekeepingPeriod != null) pc.setHousekeepingPeriod(((Number) housekeepingPeriod).longValue());
+    Object leakDetectionThreshold = pcd.get("leakDetectionThreshold");
+    if (leakDetectionThreshold != null) pc.setLeakDetectionThreshold(((Number) leakDetectionThreshold).longValue());
+    Object leakStackSampleRate = pcd.get("leakStackSampleRate");
+    if (leakStackSampleRate != null) pc.setLeakStackSampleRate(((Number) leakStackSampleRate).doubleValue());
+    Object leakReclaimThreshold = pcd.get("leakReclaimThreshold");
+    if (leakReclaimThreshold != null) pc.setLeakReclaimThreshold(((Number) leakReclaimThreshold).longValue());
+    Object poolName = pcd.get("poolName");
+    if (poolName != null) pc.setPoolName(poolName.toString());
+    Object registerMBean = pcd.get("registerMBean");
+    if (registerMBean != null) pc.setRegisterMBean((Boolean) registerMBean);
+    Object replicaCheckPeriod = pcd.get("replicaCheckPeriod");
+    if (replicaCheckPeriod != null) pc.setReplicaCheckPeriod(((Number) replicaCheckPeriod).longValue());
+    Object writeCoalescingWindow = pcd.get("writeCoalescingWindow");
+    if (writeCoalescingWindow != null) pc.setWriteCoalescingWindow(((Number) writeCoalescingWindow).longValue());
+    Object writeCoalescingBatchSize = pcd.get("writeCoalescingBatchSize");
+    if (writeCoalescingBatchSize != null) pc.setWriteCoalescingBatchSize((Integer) writeCoalescingBatchSize);
+    Object streamFetchSize = pcd.get("streamFetchSize");
+    if (streamFetchSize != null) pc.setStreamFetchSize((Integer) streamFetchSize);
+    Object streamMaxFetchSize = pcd.get("streamMaxFetchSize");
+    if (streamMaxFetchSize != null) pc.setStreamMaxFetchSize((Integer) streamMaxFetchSize);
+    Object queryCacheSize = pcd.get("queryCacheSize");
+    if (queryCacheSize != null) pc.setQueryCacheSize((Integer) queryCacheSize);
+    Object queryCacheMemoryLimit = pcd.get("queryCacheMemoryLimit");
+    if (queryCacheMemoryLimit != null) pc.setQueryCacheMemoryLimit(((Number) queryCacheMemoryLimit).longValue());
+    Object queryCacheTtl = pcd.get("queryCacheTtl");
+    if (queryCacheTtl != null) pc.setQueryCacheTtl(((Number) queryCacheTtl).longValue());
+    Object traceSampleRate = pcd.get("traceSampleRate");
+    if (traceSampleRate != null) pc.setTraceSampleRate(((Number) traceSampleRate).doubleValue());
+    Object slowQueryThreshold = pcd.get("slowQueryThreshold");
+    if (slowQueryThreshold != null) pc.setSlowQueryThreshold(((Number) slowQueryThreshold).longValue());
+    Object traceTopStatements = pcd.get("traceTopStatements");
+    if (traceTopStatements != null) pc.setTraceTopStatements((Integer) traceTopStatements);
+    Object eventDedupWindow = pcd.get("eventDedupWindow");
+    if (eventDedupWindow != null) pc.setEventDedupWindow(((Number) eventDedupWindow).longValue());
+    Object watch = pcd.get("watch");
+    if (watch != null) pc.setWatchConfig((Boolean) watch);
+    return pc;
   }
 }
@@ -4,6 +4,8 @@ import net.penyo.tsington.config.PerformanceConfig;
 import net.penyo.tsington.config.UserConfig;
 import net.penyo.tsington.support.TsingtonDataSourceInitializer;
 
+import java.sql.Driver;
+
 /**
  * 基于配置类构造的青彤™ 连接池
  *
@@ -15,12 +17,21 @@ public class ConfigClassBasedTsingtonDataSource extends TsingtonDataSource {
   public <ConfigClass extends TsingtonDataSourceInitializer> ConfigClassBasedTsingtonDataSource(Class<ConfigClass> clazz) {
     UserConfig uc = null;
     PerformanceConfig pc = new PerformanceConfig();
+    Driver driver = null;
     try {
       TsingtonDataSourceInitializer init = clazz.getDeclaredConstructor().newInstance();
       uc = init.defineUserConfig();
       pc = init.definePerformanceConfig();
+      driver = init.defineDriver();
     } catch (Exception ignored) {
     }
-    activate(uc, pc);
+    activate(uc, pc, driver);
+  }
+
+  /**
+   * 以现成的初始化器构造，不经过反射实例化。
+   */
+  public ConfigClassBasedTsingtonDataSource(TsingtonDataSourceInitializer init) {
+    activate(init.defineUserConfig(), init.definePerformanceConfig(), init.defineDriver());
   }
 }
@@ -0,0 +1,132 @@
+package net.penyo.tsington.v0;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+
+/**
+ * 配置文件监视器
+ *
+ * <p>
+ * 配置文件监视器以 NIO {@link WatchService WatchService} 监视 YAML 配置文件所在的目录，文件被修改或替换后，
+ * 重新解析其中的性能配置并交给连接池热更新。编辑器保存文件时往往触发多个事件，因此每次变化后稍等片刻再读取。
+ * 解析失败或配置不合法时沿用原配置，并记录一条警告。
+ * </p>
+ *
+ * @author Penyo
+ */
+public class ConfigWatcher implements AutoCloseable {
+  private static final Logger LOGGER = LogManager.getLogger(ConfigWatcher.class);
+
+  /**
+   * 去抖时长（毫秒）
+   */
+  private static final long DEBOUNCE = 100L;
+
+  /**
+   * 被监视的文件
+   */
+  private final Path file;
+  /**
+   * 被热更新的连接池
+   */
+  private final TsingtonDataSource pool;
+  /**
+   * 监视服务
+   */
+  private final WatchService watchService;
+  /**
+   * 监视线程
+   */
+  private final Thread watcher;
+
+  private ConfigWatcher(Path file, TsingtonDataSource pool) throws IOException {
+    this.file = file;
+    this.pool = pool;
+    watchService = FileSystems.getDefault().newWatchService();
+    file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+
+    watcher = new Thread(this::run, pool.getPerformanceConfig().getPoolName() + "-config-watcher");
+    watcher.setDaemon(true);
+    watcher.start();
+  }
+
+  /**
+   * 监视配置文件。
+   *
+   * @return 监视器；若配置文件不在文件系统中或无法监视，则为 {@code null}
+   */
+  static ConfigWatcher watch(URL resource, TsingtonDataSource pool) {
+    if (!"file".equals(resource.getProtocol())) {
+      LOGGER.warn("Cannot watch {}: only files on the file system can be watched.", resource);
+      return null;
+    }
+    try {
+      return new ConfigWatcher(Path.of(resource.toURI()).toAbsolutePath(), pool);
+    } catch (Exception e) {
+      LOGGER.warn("Cannot watch {}.", resource, e);
+      return null;
+    }
+  }
+
+  private void run() {
+    while (true) {
+      WatchKey key;
+      try {
+        key = watchService.take();
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents())
+          if (file.getFileName().equals(event.context())) changed = true;
+        key.reset();
+        if (!changed) continue;
+
+        Thread.sleep(DEBOUNCE);
+        // 丢弃去抖期间堆积的事件
+        WatchKey pending;
+        while ((pending = watchService.poll()) != null) {
+          pending.pollEvents();
+          pending.reset();
+        }
+      } catch (InterruptedException | ClosedWatchServiceException e) {
+        return;
+      }
+      reload();
+    }
+  }
+
+  /**
+   * 重新读取配置文件并热更新连接池。
+   */
+  void reload() {
+    try (InputStream s = Files.newInputStream(file)) {
+      Map<String, Map<String, Object>> data = new Yaml().load(s);
+      if (data == null) return;
+      pool.reconfigure(ClassPathYmlBasedTsingtonDataSource.parsePerformanceConfig(data.get("performance")));
+      LOGGER.info("Reloaded performance config of pool {} from {}.", pool.getPerformanceConfig().getPoolName(), file);
+    } catch (Exception e) {
+      LOGGER.warn("Failed to reload performance config from {}; keeping the previous one.", file, e);
+    }
+  }
+
+  @Override
+  public void close() {
+    watcher.interrupt();
+    try {
+      watchService.close();
+    } catch (IOException ignored) {
+    }
+  }
+}
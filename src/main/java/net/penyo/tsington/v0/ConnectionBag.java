@@ -0,0 +1,481 @@
+package net.penyo.tsington.v0;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.support.Priority;
+
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 连接袋
+ *
+ * <p>
+ * 连接袋是连接池内部的无锁容器。每个 {@link TrackableConnection TrackableConnection} 自带一个可 CAS
+ * 的状态（空闲/占用/移除），借用与归还只需翻转该状态，不持有任何池级锁。借用时优先尝试本线程最近归还的连接，
+ * 其次才扫描共享列表，以减少线程之间对同一连接的争抢。
+ * </p>
+ *
+ * <p>
+ * 袋中无空闲连接时，借用者进入先进先出的等待队列并挂起直至纳秒级截止时刻。归还或新建的连接会被直接移交给最早的等待者，
+ * 而不是先放回袋中再由等待者轮询发现。
+ * </p>
+ *
+ * <p>
+ * 每次借出都登记在借用者的优先级名下，受 {@link Lanes Lanes} 的预留与上限约束。等待队列按优先级分开，
+ * 移交时从高到低寻找此刻可以登记的等待者；借用结束时由连接池调用 {@link #release(TrackableConnection) release(...)} 撤销登记。
+ * </p>
+ *
+ * <p>
+ * 等待只依赖 {@link LockSupport LockSupport} 与 {@link CompletableFuture CompletableFuture}，
+ * 不使用对象监视器，因此不会钉住虚拟线程的载体线程。
+ * </p>
+ *
+ * @author Penyo
+ */
+public class ConnectionBag {
+  /**
+   * 线程亲和列表上限
+   */
+  private static final int RECENTS_LIMIT = 16;
+
+  /**
+   * 共享列表
+   */
+  private final List<TrackableConnection> shared = new CopyOnWriteArrayList<>();
+  /**
+   * 线程亲和列表
+   */
+  private final ThreadLocal<List<TrackableConnection>> recents = ThreadLocal.withInitial(() -> new ArrayList<>(RECENTS_LIMIT));
+  /**
+   * 各优先级的等待队列
+   */
+  private final List<Queue<Waiter>> waiters;
+  /**
+   * 优先级通道
+   */
+  private final Lanes lanes;
+
+  /**
+   * 是否已关闭
+   */
+  private volatile boolean closed;
+
+  ConnectionBag(Supplier<PerformanceConfig> config) {
+    lanes = new Lanes(config);
+    List<Queue<Waiter>> queues = new ArrayList<>(Lanes.COUNT);
+    for (int i = 0; i < Lanes.COUNT; i++) queues.add(new ConcurrentLinkedQueue<>());
+    waiters = List.copyOf(queues);
+  }
+
+  /**
+   * 以某优先级借用连接，不等待。
+   *
+   * @return 已被标记为占用的连接，若无空闲连接或该优先级此刻不能再借则为 {@code null}
+   */
+  TrackableConnection borrow(int lane) {
+    if (!lanes.tryAcquire(lane, shared.size())) return null;
+    TrackableConnection tc = scan();
+    if (tc == null) lanes.release(lane);
+    else tc.setLane(lane);
+    return tc;
+  }
+
+  /**
+   * 找出一条空闲连接并标记为占用。
+   */
+  private TrackableConnection scan() {
+    List<TrackableConnection> list = recents.get();
+    for (int i = list.size() - 1; i >= 0; i--) {
+      TrackableConnection tc = list.remove(i);
+      if (tc.compareAndSetState(TrackableConnection.STATE_IDLE, TrackableConnection.STATE_IN_USE)) return tc;
+    }
+
+    for (TrackableConnection tc : shared)
+      if (tc.compareAndSetState(TrackableConnection.STATE_IDLE, TrackableConnection.STATE_IN_USE)) return tc;
+    return null;
+  }
+
+  /**
+   * 以某优先级借用满足条件的空闲连接，不等待。与 {@link #borrow(int) borrow(...)} 一样受该优先级的占用上限与其他优先级的预留约束。
+   *
+   * @return 已被标记为占用的连接，若无满足条件的空闲连接或该优先级此刻不能再借则为 {@code null}
+   */
+  TrackableConnection borrow(Predicate<TrackableConnection> preferred, int lane) {
+    if (!lanes.tryAcquire(lane, shared.size())) return null;
+    for (TrackableConnection tc : shared)
+      if (tc.getState() == TrackableConnection.STATE_IDLE && preferred.test(tc)
+        && tc.compareAndSetState(TrackableConnection.STATE_IDLE, TrackableConnection.STATE_IN_USE)) {
+        tc.setLane(lane);
+        return tc;
+      }
+    lanes.release(lane);
+    return null;
+  }
+
+  /**
+   * 以某优先级借用连接，必要时排队等待。
+   *
+   * @param timeout 最长等待时长（纳秒）
+   * @return 已被标记为占用的连接，若超时、被中断或连接袋已关闭则为 {@code null}
+   */
+  TrackableConnection borrow(long timeout, int lane) {
+    TrackableConnection tc = borrow(lane);
+    if (tc != null || timeout <= 0) return tc;
+
+    long deadline = System.nanoTime() + timeout;
+    ThreadWaiter w = new ThreadWaiter(Thread.currentThread());
+    waiters.get(lane).offer(w);
+
+    // 入队后复查一次，以免错过入队前刚刚变为空闲的连接
+    tc = borrow(lane);
+    if (tc != null) {
+      if (w.cancel()) waiters.get(lane).remove(w);
+      else giveBack(w.connection);
+      return tc;
+    }
+
+    while (true) {
+      if (w.isFulfilled()) return w.connection;
+
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0 || closed || Thread.currentThread().isInterrupted()) {
+        if (w.cancel()) {
+          waiters.get(lane).remove(w);
+          return null;
+        }
+        return w.connection;
+      }
+      LockSupport.parkNanos(this, remaining);
+    }
+  }
+
+  /**
+   * 以某优先级异步借用连接。
+   *
+   * <p>
+   * 返回的 {@link CompletableFuture CompletableFuture} 可能在归还连接的线程上被完成，因此耗时的后续操作应使用
+   * {@code *Async} 系列方法编排。
+   * </p>
+   *
+   * @param timeout 最长等待时长（纳秒）
+   * @return 完成值为已被标记为占用的连接；超时则以 {@link SQLTimeoutException SQLTimeoutException} 异常完成，
+   * 连接袋关闭则以 {@link ConnectionUnavailableException ConnectionUnavailableException} 异常完成
+   */
+  CompletableFuture<TrackableConnection> borrowAsync(long timeout, int lane) {
+    TrackableConnection tc = borrow(lane);
+    if (tc != null) return CompletableFuture.completedFuture(tc);
+    if (timeout <= 0) return CompletableFuture.failedFuture(new SQLTimeoutException("Timed out waiting for a connection."));
+
+    CompletableFuture<TrackableConnection> future = new CompletableFuture<>();
+    FutureWaiter w = new FutureWaiter(future);
+    waiters.get(lane).offer(w);
+
+    tc = borrow(lane);
+    if (tc != null) {
+      if (w.cancel()) {
+        waiters.get(lane).remove(w);
+        future.complete(tc);
+      } else giveBack(tc);
+      return future;
+    }
+    // 入队时连接袋可能恰好被关闭，而关闭时的清扫没有看到本等待者
+    if (closed && w.cancel()) {
+      waiters.get(lane).remove(w);
+      w.onCancelled();
+      return future;
+    }
+
+    CompletableFuture.delayedExecutor(timeout, TimeUnit.NANOSECONDS).execute(() -> {
+      if (w.cancel()) {
+        waiters.get(lane).remove(w);
+        future.completeExceptionally(new SQLTimeoutException("Timed out waiting for a connection."));
+      }
+    });
+    return future;
+  }
+
+  /**
+   * 撤销一次借用的优先级登记。
+   *
+   * <p>
+   * 每次借出的连接在借用结束时（无论归还还是退役）都须调用一次。登记的撤销可能使被上限或预留挡住的等待者重新具备资格，
+   * 此时会把空闲连接移交给他们。
+   * </p>
+   */
+  void release(TrackableConnection tc) {
+    lanes.release(tc.getLane());
+    dispatch();
+  }
+
+  /**
+   * 放回借出后未被使用的连接。
+   */
+  private void giveBack(TrackableConnection tc) {
+    lanes.release(tc.getLane());
+    requite(tc);
+  }
+
+  /**
+   * 归还连接。
+   */
+  void requite(TrackableConnection tc) {
+    if (handoff(tc)) return;
+    if (!tc.compareAndSetState(TrackableConnection.STATE_IN_USE, TrackableConnection.STATE_IDLE)) return;
+
+    List<TrackableConnection> list = recents.get();
+    if (list.size() < RECENTS_LIMIT) list.add(tc);
+
+    recheck(tc);
+  }
+
+  /**
+   * 放入新连接。
+   */
+  void add(TrackableConnection tc) {
+    tc.setState(TrackableConnection.STATE_IN_USE);
+    shared.add(tc);
+    if (handoff(tc)) return;
+    tc.setState(TrackableConnection.STATE_IDLE);
+
+    recheck(tc);
+  }
+
+  /**
+   * 将占用中的连接直接移交给优先级最高、且此刻可以登记的最早的等待者。
+   *
+   * @return 是否移交成功
+   */
+  private boolean handoff(TrackableConnection tc) {
+    for (int lane = 0; lane < Lanes.COUNT; lane++) {
+      Queue<Waiter> queue = waiters.get(lane);
+      while (!queue.isEmpty() && lanes.tryAcquire(lane, shared.size())) {
+        Waiter w = queue.poll();
+        if (w == null) {
+          lanes.release(lane);
+          break;
+        }
+        tc.setLane(lane);
+        if (w.fulfill(tc)) return true;
+        lanes.release(lane);
+      }
+    }
+    return false;
+  }
+
+  /**
+   * 兜底：若有等待者在连接变为空闲前入队，且其复查早于连接变为空闲，则由此处收回连接并移交。
+   */
+  private void recheck(TrackableConnection tc) {
+    while (hasAdmissibleWaiters() && tc.compareAndSetState(TrackableConnection.STATE_IDLE, TrackableConnection.STATE_IN_USE)) {
+      if (handoff(tc)) return;
+      tc.setState(TrackableConnection.STATE_IDLE);
+    }
+  }
+
+  /**
+   * 把空闲连接移交给此刻可以登记的等待者。
+   */
+  private void dispatch() {
+    if (!hasAdmissibleWaiters()) return;
+    for (TrackableConnection tc : shared)
+      if (tc.getState() == TrackableConnection.STATE_IDLE) {
+        recheck(tc);
+        if (!hasAdmissibleWaiters()) return;
+      }
+  }
+
+  /**
+   * 检查是否有此刻可以登记的等待者。
+   */
+  private boolean hasAdmissibleWaiters() {
+    for (int lane = 0; lane < Lanes.COUNT; lane++)
+      if (!waiters.get(lane).isEmpty() && lanes.admits(lane, shared.size())) return true;
+    return false;
+  }
+
+  /**
+   * 获取等待者数。
+   */
+  int getWaitingCount() {
+    int count = 0;
+    for (Queue<Waiter> queue : waiters) count += queue.size();
+    return count;
+  }
+
+  /**
+   * 获取某优先级占用中的连接数。
+   */
+  int getInUseCount(Priority priority) {
+    return lanes.count(priority.ordinal());
+  }
+
+  /**
+   * 移除连接。
+   *
+   * <p>
+   * 仅当连接处于空闲状态时才会被移除；其他线程的亲和列表中残留的引用会在下次借用时因状态不符而被丢弃。
+   * </p>
+   */
+  boolean remove(TrackableConnection tc) {
+    if (!tc.compareAndSetState(TrackableConnection.STATE_IDLE, TrackableConnection.STATE_REMOVED)) return false;
+    shared.remove(tc);
+    return true;
+  }
+
+  /**
+   * 强制移除连接，无论其是否被占用。
+   */
+  void evict(TrackableConnection tc) {
+    tc.setState(TrackableConnection.STATE_REMOVED);
+    shared.remove(tc);
+  }
+
+  /**
+   * 获取连接总数。
+   */
+  int size() {
+    return shared.size();
+  }
+
+  /**
+   * 获取处于某状态的连接数。
+   */
+  int count(int state) {
+    int count = 0;
+    for (TrackableConnection tc : shared)
+      if (tc.getState() == state) count++;
+    return count;
+  }
+
+  /**
+   * 关闭连接袋：唤醒全部等待者，令其放弃等待。此后排队的借用者也会立即放弃。
+   */
+  void close() {
+    closed = true;
+    for (Queue<Waiter> queue : waiters) {
+      Waiter w;
+      while ((w = queue.poll()) != null)
+        if (w.cancel()) w.onCancelled();
+    }
+  }
+
+  /**
+   * 获取全部连接的快照。
+   */
+  List<TrackableConnection> values() {
+    return new ArrayList<>(shared);
+  }
+
+  /**
+   * 等待者
+   */
+  private abstract static class Waiter {
+    private static final int WAITING = 0;
+    private static final int FULFILLED = 1;
+    private static final int CANCELLED = 2;
+
+    private static final AtomicIntegerFieldUpdater<Waiter> STATUS = AtomicIntegerFieldUpdater.newUpdater(Waiter.class, "status");
+
+    /**
+     * 移交的连接
+     */
+    protected volatile TrackableConnection connection;
+    /**
+     * 等待状态
+     */
+    private volatile int status = WAITING;
+
+    /**
+     * 移交连接并通知等待者。
+     *
+     * @return 是否移交成功；若等待者已放弃，则为 {@code false}
+     */
+    boolean fulfill(TrackableConnection tc) {
+      connection = tc;
+      if (!STATUS.compareAndSet(this, WAITING, FULFILLED)) return false;
+      onFulfilled(tc);
+      return true;
+    }
+
+    /**
+     * 放弃等待。
+     *
+     * @return 是否放弃成功；若连接已被移交，则为 {@code false}
+     */
+    boolean cancel() {
+      return STATUS.compareAndSet(this, WAITING, CANCELLED);
+    }
+
+    boolean isFulfilled() {
+      return status == FULFILLED;
+    }
+
+    /**
+     * 连接移交后的通知。
+     */
+    protected abstract void onFulfilled(TrackableConnection tc);
+
+    /**
+     * 因连接袋关闭而放弃等待后的通知。
+     */
+    protected abstract void onCancelled();
+  }
+
+  /**
+   * 挂起线程的等待者
+   */
+  private static class ThreadWaiter extends Waiter {
+    /**
+     * 等待线程
+     */
+    private final Thread thread;
+
+    private ThreadWaiter(Thread thread) {
+      this.thread = thread;
+    }
+
+    @Override
+    protected void onFulfilled(TrackableConnection tc) {
+      LockSupport.unpark(thread);
+    }
+
+    @Override
+    protected void onCancelled() {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  /**
+   * 异步的等待者
+   */
+  private static class FutureWaiter extends Waiter {
+    /**
+     * 待完成的结果
+     */
+    private final CompletableFuture<TrackableConnection> future;
+
+    private FutureWaiter(CompletableFuture<TrackableConnection> future) {
+      this.future = future;
+    }
+
+    @Override
+    protected void onFulfilled(TrackableConnection tc) {
+      future.complete(tc);
+    }
+
+    @Override
+    protected void onCancelled() {
+      future.completeExceptionally(TsingtonDataSource.closed());
+    }
+  }
+}
@@ -0,0 +1,149 @@
+package net.penyo.tsington.v0;
+
+import net.penyo.tsington.config.UserConfig;
+import net.penyo.tsington.support.PoolEvent;
+import net.penyo.tsington.util.DriverProxy;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 连接工厂
+ *
+ * <p>
+ * 连接工厂在一个并行度受限的后台线程组上建立物理连接。多个连接会同时握手，每个连接一旦就绪即交给调用方，
+ * 因此扩张 N 个连接的耗时约等于建立一个连接的耗时，而不是 N 倍。
+ * </p>
+ *
+ * <p>
+ * 每次建立都经过 {@link CreationBreaker CreationBreaker}：数据库不可达时，建立请求在断路器断开期间被直接丢弃。
+ * </p>
+ *
+ * @author Penyo
+ */
+public class ConnectionFactory implements AutoCloseable {
+  /**
+   * 用户配置
+   */
+  private final UserConfig userConfig;
+  /**
+   * 驱动实例，为 {@code null} 时经由 {@link java.sql.DriverManager DriverManager} 查找驱动
+   */
+  private final Driver driver;
+  /**
+   * 创建线程组
+   */
+  private final ThreadPoolExecutor executor;
+  /**
+   * 正在建立的连接数
+   */
+  private final AtomicInteger pending = new AtomicInteger();
+  /**
+   * 连接池度量
+   */
+  private final PoolMetrics metrics;
+  /**
+   * 断路器
+   */
+  private final CreationBreaker breaker;
+  /**
+   * 事件总线
+   */
+  private final PoolEventBus events;
+
+  ConnectionFactory(String poolName, UserConfig userConfig, Driver driver, int parallelism, PoolMetrics metrics, CreationBreaker breaker, PoolEventBus events) {
+    this.userConfig = userConfig;
+    this.driver = driver;
+    this.metrics = metrics;
+    this.breaker = breaker;
+    this.events = events;
+
+    AtomicInteger threadId = new AtomicInteger();
+    executor = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+      Thread t = new Thread(r, poolName + "-creator-" + threadId.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * 调整建立连接的并行度。
+   */
+  public void setParallelism(int parallelism) {
+    if (parallelism == executor.getCorePoolSize()) return;
+    if (parallelism > executor.getMaximumPoolSize()) {
+      executor.setMaximumPoolSize(parallelism);
+      executor.setCorePoolSize(parallelism);
+    } else {
+      executor.setCorePoolSize(parallelism);
+      executor.setMaximumPoolSize(parallelism);
+    }
+  }
+
+  /**
+   * 获取正在建立的连接数。
+   */
+  public int getPendingCount() {
+    return pending.get();
+  }
+
+  /**
+   * 异步建立一个连接。
+   *
+   * <p>
+   * 连接就绪后会在创建线程上交给 {@code sink}，此后才计为不再“正在建立”，以免池在两者之间误判容量。
+   * {@code sink} 接收成功才算建立成功；它抛出异常时物理连接被关闭，并与握手失败一样计入度量、断路器与事件。
+   * </p>
+   *
+   * @param sink 连接的接收者
+   * @return 建立过程结束（无论成败）时完成
+   */
+  public CompletableFuture<Void> create(Consumer<Connection> sink) {
+    pending.incrementAndGet();
+    try {
+      return CompletableFuture.runAsync(() -> {
+        try {
+          // 在创建线程上才申请放行，排队中的请求在断路器断开后随即作废
+          if (!breaker.tryAcquire()) return;
+          long start = System.nanoTime();
+          Connection c = null;
+          try {
+            c = driver == null ? DriverProxy.connect(userConfig) : DriverProxy.connect(driver, userConfig);
+            if (c == null) throw new SQLException("No suitable driver found for " + userConfig.url() + ".");
+            sink.accept(c);
+          } catch (SQLException | RuntimeException e) {
+            if (c != null) try {
+              c.close();
+            } catch (SQLException | RuntimeException ignored) {
+            }
+            long elapsed = System.nanoTime() - start;
+            metrics.onCreate(elapsed, false);
+            events.publish(PoolEvent.Type.CREATION_FAILED, null, e, e.getMessage(), elapsed);
+            if (breaker.onFailure(e)) events.publish(PoolEvent.Type.CIRCUIT_OPENED, null, e, null, 0L);
+            return;
+          }
+          metrics.onCreate(System.nanoTime() - start, true);
+          if (breaker.onSuccess()) events.publish(PoolEvent.Type.CIRCUIT_CLOSED, null, null, null, 0L);
+        } finally {
+          pending.decrementAndGet();
+        }
+      }, executor);
+    } catch (RuntimeException e) {
+      pending.decrementAndGet();
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,59 @@
+package net.penyo.tsington.v0;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 连接句柄
+ *
+ * <p>
+ * 每次借用都会得到一个新的句柄，它记下借出时 {@link TrackableConnection TrackableConnection} 的世代。
+ * 连接被归还（世代推进）后，句柄的一切调用都会失败，重复关闭则什么也不做，
+ * 因此借用者遗留的旧句柄不会影响此后借到同一连接的借用者。
+ * </p>
+ *
+ * @author Penyo
+ */
+final class ConnectionHandle extends DelegatingConnection {
+  /**
+   * 所属的可追踪连接
+   */
+  private final TrackableConnection connection;
+  /**
+   * 借出时的世代
+   */
+  private final int generation;
+
+  ConnectionHandle(TrackableConnection connection, int generation) {
+    this.connection = connection;
+    this.generation = generation;
+  }
+
+  /**
+   * 获取所属的可追踪连接。
+   */
+  TrackableConnection getTrackableConnection() {
+    return connection;
+  }
+
+  @Override
+  protected Connection delegate() {
+    if (generation != connection.getGeneration()) throw new IllegalStateException("The called entity has been recycled.");
+    return connection;
+  }
+
+  @Override
+  public void close() {
+    connection.close(generation);
+  }
+
+  @Override
+  public boolean isClosed() throws SQLException {
+    return generation != connection.getGeneration() || connection.isClosed();
+  }
+
+  @Override
+  public String toString() {
+    return "ConnectionHandle[" + connection.hashCode() + "#" + generation + "]";
+  }
+}
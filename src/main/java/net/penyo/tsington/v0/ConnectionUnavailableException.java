@@ -0,0 +1,33 @@
+package net.penyo.tsington.v0;
+
+/**
+ * 连接不可用异常
+ *
+ * <p>
+ * 建立连接的断路器断开且池中没有空闲连接时，借用立即以此异常失败，而不是等满请求超时；等待中的借用者也会在连接池关闭时以此异常失败。
+ * 断路器断开时，异常的原因是最近一次建立连接失败的原因。
+ * 因过载而被拒绝时抛出的是其子类 {@link PoolOverloadedException PoolOverloadedException}。
+ * </p>
+ *
+ * @author Penyo
+ */
+public class ConnectionUnavailableException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * 建议的重试间隔（毫秒）
+   */
+  private final long retryAfter;
+
+  public ConnectionUnavailableException(String message, Throwable cause, long retryAfter) {
+    super(message, cause);
+    this.retryAfter = retryAfter;
+  }
+
+  /**
+   * 获取建议的重试间隔（毫秒）：断路器断开时为距下一次尝试建立连接的时长。
+   */
+  public long getRetryAfter() {
+    return retryAfter;
+  }
+}
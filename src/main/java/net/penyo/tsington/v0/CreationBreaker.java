@@ -0,0 +1,122 @@
+package net.penyo.tsington.v0;
+
+import net.penyo.tsington.config.PerformanceConfig;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 建立连接的断路器
+ *
+ * <p>
+ * 连续建立连接失败达到阈值后，断路器断开：此后的建立请求不再触达数据库，借用者也不再排队等待。
+ * 断开时长从基础退避时长起按次翻倍，至多到上限，并在后一半区间内随机抖动，以免多个连接池同时重试。
+ * 断开到期后，只放行一次试探；试探成功则闭合，失败则以加倍的时长再次断开。
+ * </p>
+ *
+ * @author Penyo
+ */
+final class CreationBreaker {
+  private static final int CLOSED = 0;
+  private static final int OPEN = 1;
+  private static final int HALF_OPEN = 2;
+
+  /**
+   * 性能配置的来源，以便热更新的阈值与退避时长立即生效
+   */
+  private final Supplier<PerformanceConfig> config;
+  private final AtomicInteger state = new AtomicInteger(CLOSED);
+  /**
+   * 连续失败次数
+   */
+  private final AtomicInteger failures = new AtomicInteger();
+  /**
+   * 连续断开次数，仅由成功断开者修改
+   */
+  private volatile int trips;
+  /**
+   * 断开的截止时刻（纳秒）
+   */
+  private volatile long openUntil;
+  /**
+   * 最近一次失败的原因
+   */
+  private volatile Throwable lastCause;
+
+  CreationBreaker(Supplier<PerformanceConfig> config) {
+    this.config = config;
+  }
+
+  /**
+   * 申请建立一个连接。
+   *
+   * @return 是否放行；断开到期后只有首个申请者获得试探资格
+   */
+  boolean tryAcquire() {
+    int s = state.get();
+    if (s == CLOSED) return true;
+    if (s == HALF_OPEN) return false;
+    return System.nanoTime() - openUntil >= 0 && state.compareAndSet(OPEN, HALF_OPEN);
+  }
+
+  /**
+   * 记录一次建立成功。
+   *
+   * @return 断路器是否因此闭合
+   */
+  boolean onSuccess() {
+    failures.set(0);
+    trips = 0;
+    return state.getAndSet(CLOSED) != CLOSED;
+  }
+
+  /**
+   * 记录一次建立失败。
+   *
+   * @return 断路器是否因此断开
+   */
+  boolean onFailure(Throwable cause) {
+    lastCause = cause;
+    int s = state.get();
+    if (s == OPEN) return false;
+    int threshold = config.get().getCreationFailureThreshold();
+    if (threshold <= 0) return false;
+    if (s == HALF_OPEN || failures.incrementAndGet() >= threshold) {
+      openUntil = System.nanoTime() + backoff(trips + 1);
+      if (state.compareAndSet(s, OPEN)) {
+        trips++;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * 计算第 n 次断开的时长（纳秒）。
+   */
+  private long backoff(int n) {
+    PerformanceConfig pc = config.get();
+    long base = Math.max(1L, pc.getCreationBackoff());
+    long max = Math.max(base, pc.getCreationMaxBackoff());
+    long millis = n >= 31 ? max : Math.min(max, base << Math.min(n - 1, 30));
+    long half = millis / 2;
+    return TimeUnit.MILLISECONDS.toNanos(half + ThreadLocalRandom.current().nextLong(millis - half + 1));
+  }
+
+  /**
+   * 检查断路器是否断开（含试探中）。
+   */
+  boolean isOpen() {
+    return state.get() != CLOSED;
+  }
+
+  /**
+   * 生成借用立即失败时抛出的异常。
+   */
+  ConnectionUnavailableException unavailable() {
+    long retryAfter = Math.max(0L, TimeUnit.NANOSECONDS.toMillis(openUntil - System.nanoTime()));
+    return new ConnectionUnavailableException("Connection creation is failing; retry after " + retryAfter + " ms.", lastCause, retryAfter);
+  }
+}
@@ -0,0 +1,96 @@
+package net.penyo.tsington.v0;
+
+import net.penyo.tsington.config.PerformanceConfig;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 管家
+ *
+ * <p>
+ * 管家在后台周期性地巡检空闲连接：超过寿命的连接被退役，超过空闲超时且多于最小连接数的连接被回收，
+ * 空闲超过保活间隔的连接被校验一次，失效者即被替换。巡检结束后补足最小连接数。
+ * 借出路径因此通常无需网络往返即可确信连接可用。
+ * </p>
+ *
+ * <p>
+ * 开启泄漏探测时，管家还会以更高的频率调度 {@link LeakDetector LeakDetector} 巡检被占用的连接。
+ * </p>
+ *
+ * @author Penyo
+ */
+public class Housekeeper implements AutoCloseable {
+  /**
+   * 被照看的连接池
+   */
+  private final TsingtonDataSource pool;
+  /**
+   * 巡检线程
+   */
+  private final ScheduledExecutorService executor;
+
+  public Housekeeper(TsingtonDataSource pool, LeakDetector leakDetector) {
+    this.pool = pool;
+    executor = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, pool.getPerformanceConfig().getPoolName() + "-housekeeper");
+      t.setDaemon(true);
+      return t;
+    });
+
+    long period = pool.getPerformanceConfig().getHousekeepingPeriod();
+    executor.scheduleWithFixedDelay(() -> {
+      try {
+        run();
+      } catch (RuntimeException ignored) {
+      }
+    }, period, period, TimeUnit.MILLISECONDS);
+
+    long leakDetectionThreshold = pool.getPerformanceConfig().getLeakDetectionThreshold();
+    if (leakDetectionThreshold > 0) {
+      // 巡检频率足以让泄漏在超过阈值后四分之一个阈值内被发现
+      long leakPeriod = Math.max(100L, leakDetectionThreshold / 4);
+      executor.scheduleWithFixedDelay(() -> {
+        try {
+          leakDetector.scan();
+        } catch (RuntimeException ignored) {
+        }
+      }, leakPeriod, leakPeriod, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * 巡检一轮。
+   */
+  void run() {
+    PerformanceConfig pc = pool.getPerformanceConfig();
+    ConnectionBag bag = pool.getBag();
+    long idleTimeout = TimeUnit.MILLISECONDS.toNanos(pc.getIdleTimeout());
+    long keepaliveTime = TimeUnit.MILLISECONDS.toNanos(pc.getKeepaliveTime());
+
+    for (TrackableConnection tc : bag.values()) {
+      long now = System.nanoTime();
+      long idle = now - tc.getLastAccessed();
+
+      if (tc.isExpired(now) || idleTimeout > 0 && idle > idleTimeout && pool.getCapacity() > pc.getMinConnectionsNum()) {
+        if (bag.remove(tc)) tc.tradeOff();
+      } else if (keepaliveTime > 0 && idle > keepaliveTime && tc.compareAndSetState(TrackableConnection.STATE_IDLE, TrackableConnection.STATE_IN_USE)) {
+        if (tc.validate(pc.getValidationTimeout())) {
+          tc.setLastAccessed(System.nanoTime());
+          bag.requite(tc);
+        } else {
+          bag.evict(tc);
+          tc.tradeOff();
+        }
+      }
+    }
+
+    pool.replenish();
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,99 @@
+package net.penyo.tsington.v0;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.support.Priority;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 优先级通道
+ *
+ * <p>
+ * 优先级通道记录各优先级占用中的连接数，并据性能配置中的预留连接数与占用上限决定某优先级此刻能否再借一条连接。
+ * 各优先级的计数被打包在同一个 {@link AtomicLong AtomicLong} 的不同位段中，判定与计数因此可以用一次 CAS 原子地完成，
+ * 不会因并发而侵占其他优先级的预留。
+ * </p>
+ *
+ * @author Penyo
+ */
+final class Lanes {
+  /**
+   * 优先级数
+   */
+  static final int COUNT = Priority.values().length;
+  /**
+   * 每个计数所占的位数
+   */
+  private static final int BITS = 16;
+  private static final long MASK = (1L << BITS) - 1;
+
+  /**
+   * 各优先级占用中的连接数
+   */
+  private final AtomicLong inUse = new AtomicLong();
+  /**
+   * 当前的性能配置
+   */
+  private final Supplier<PerformanceConfig> config;
+
+  Lanes(Supplier<PerformanceConfig> config) {
+    this.config = config;
+  }
+
+  /**
+   * 为某优先级登记一条占用。
+   *
+   * @param capacity 连接池当前的连接数
+   * @return 是否登记成功；已达占用上限或会侵占其他优先级的预留时为 {@code false}
+   */
+  boolean tryAcquire(int lane, int capacity) {
+    PerformanceConfig pc = config.get();
+    while (true) {
+      long counts = inUse.get();
+      if (!admits(pc, counts, lane, capacity)) return false;
+      if (inUse.compareAndSet(counts, counts + (1L << lane * BITS))) return true;
+    }
+  }
+
+  /**
+   * 撤销某优先级的一条占用。
+   */
+  void release(int lane) {
+    inUse.addAndGet(-(1L << lane * BITS));
+  }
+
+  /**
+   * 检查某优先级此刻能否登记占用，不登记。
+   */
+  boolean admits(int lane, int capacity) {
+    return admits(config.get(), inUse.get(), lane, capacity);
+  }
+
+  /**
+   * 获取某优先级占用中的连接数。
+   */
+  int count(int lane) {
+    return count(inUse.get(), lane);
+  }
+
+  private static boolean admits(PerformanceConfig pc, long counts, int lane, int capacity) {
+    Priority[] priorities = Priority.values();
+    int ceiling = pc.getLaneCeiling(priorities[lane]);
+    if (ceiling > 0 && count(counts, lane) >= ceiling) return false;
+
+    int total = 0;
+    int withheld = 0;
+    for (int i = 0; i < COUNT; i++) {
+      int n = count(counts, i);
+      total += n;
+      if (i != lane) withheld += Math.max(0, pc.getLaneReserved(priorities[i]) - n);
+    }
+    // 未设置预留时不以连接数设限，是否还有空闲连接由连接袋自己判定
+    return withheld == 0 || total + withheld < capacity;
+  }
+
+  private static int count(long counts, int lane) {
+    return (int) (counts >>> lane * BITS & MASK);
+  }
+}
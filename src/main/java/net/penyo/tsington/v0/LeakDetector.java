@@ -0,0 +1,125 @@
+package net.penyo.tsington.v0;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.support.PoolEvent;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 泄漏探测器
+ *
+ * <p>
+ * 借用者忘记关闭连接时，连接会一直处于占用状态，池随之悄然缩小。泄漏探测器巡检被占用的连接，
+ * 占用时长超过阈值即报告其借用线程、占用时长与调用栈；超过回收阈值则强制回收，借用者此后的调用将被拒绝。
+ * </p>
+ *
+ * <p>
+ * 为控制开销，只有按比例采样的借用才会在借出时构造 {@link Throwable Throwable} 记录调用栈；
+ * 其余借用仅记录借用线程，待超过阈值时再抓取该线程当下的调用栈。报告经由 {@link PoolEventBus PoolEventBus} 异步输出。
+ * </p>
+ *
+ * @author Penyo
+ */
+public class LeakDetector {
+  /**
+   * 被探测的连接池
+   */
+  private final TsingtonDataSource pool;
+  /**
+   * 已报告的泄漏数
+   */
+  private final LongAdder detected = new LongAdder();
+  /**
+   * 已回收的泄漏数
+   */
+  private final LongAdder reclaimed = new LongAdder();
+
+  public LeakDetector(TsingtonDataSource pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * 借出时记录借用者。
+   */
+  void onBorrow(TrackableConnection tc, Thread borrower) {
+    PerformanceConfig pc = pool.getPerformanceConfig();
+    if (pc.getLeakDetectionThreshold() <= 0) return;
+
+    double rate = pc.getLeakStackSampleRate();
+    boolean sampled = rate >= 1D || rate > 0D && ThreadLocalRandom.current().nextDouble() < rate;
+    tc.setBorrower(borrower, sampled ? new Throwable("Connection borrowed here") : null);
+  }
+
+  /**
+   * 归还时补记迟到的归还，并释放对借用线程的引用。
+   */
+  void onReturn(TrackableConnection tc, long now) {
+    if (tc.isLeakReported())
+      pool.getEventBus().publish(PoolEvent.Type.LATE_RETURN, tc, nameOf(tc.getBorrower()), null,
+        "A connection reported as leaked was returned.", now - tc.getBorrowedAt());
+    if (tc.getBorrower() != null) tc.setBorrower(null, null);
+  }
+
+  /**
+   * 巡检一轮。
+   */
+  void scan() {
+    PerformanceConfig pc = pool.getPerformanceConfig();
+    long threshold = TimeUnit.MILLISECONDS.toNanos(pc.getLeakDetectionThreshold());
+    long reclaimThreshold = TimeUnit.MILLISECONDS.toNanos(pc.getLeakReclaimThreshold());
+    if (threshold <= 0) return;
+
+    for (TrackableConnection tc : pool.getBag().values()) {
+      long borrowedAt = tc.getBorrowedAt();
+      int generation = tc.getLentGeneration();
+      if (borrowedAt == 0L || tc.getState() != TrackableConnection.STATE_IN_USE) continue;
+
+      long held = System.nanoTime() - borrowedAt;
+      if (held > threshold && !tc.isLeakReported()) report(tc, held);
+      if (reclaimThreshold > 0 && held > reclaimThreshold) {
+        String borrower = nameOf(tc.getBorrower());
+        if (!pool.reclaim(tc, generation, borrowedAt)) continue;
+        reclaimed.increment();
+        pool.getEventBus().publish(PoolEvent.Type.LEAK_RECLAIMED, tc, borrower, null,
+          "A connection held beyond the reclaim threshold was reclaimed.", held);
+      }
+    }
+  }
+
+  /**
+   * 报告一次疑似泄漏。
+   */
+  private void report(TrackableConnection tc, long held) {
+    tc.setLeakReported(true);
+    detected.increment();
+
+    Thread borrower = tc.getBorrower();
+    Throwable stack = tc.getBorrowStack();
+    if (stack == null && borrower != null) {
+      stack = new Throwable("Borrower is currently here");
+      stack.setStackTrace(borrower.getStackTrace());
+    }
+    pool.getEventBus().publish(PoolEvent.Type.LEAK_DETECTED, tc, nameOf(borrower), stack,
+      "A connection is held beyond the leak detection threshold.", held);
+  }
+
+  private static String nameOf(Thread thread) {
+    return thread == null ? "unknown" : thread.getName();
+  }
+
+  /**
+   * 获取已报告的泄漏数。
+   */
+  public long getDetectedCount() {
+    return detected.sum();
+  }
+
+  /**
+   * 获取已回收的泄漏数。
+   */
+  public long getReclaimedCount() {
+    return reclaimed.sum();
+  }
+}
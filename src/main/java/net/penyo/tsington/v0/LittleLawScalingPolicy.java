@@ -0,0 +1,84 @@
+package net.penyo.tsington.v0;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.support.ScalingPolicy;
+import net.penyo.tsington.support.ScalingWindow;
+
+/**
+ * 利特尔法则伸缩策略
+ *
+ * <p>
+ * 该策略以指数加权移动平均平滑借用到达率 λ 与平均占用时长 W，按利特尔法则 L = λW 估计稳态下同时占用的连接数，
+ * 再乘以余量系数，并与窗口内实际观测到的占用峰值和等待者数取大，得到目标容量。
+ * </p>
+ *
+ * <p>
+ * 目标高于现有容量时一次扩张到位；低于现有容量时，须连续若干个窗口都有富余才收缩，且每次至多收缩
+ * {@code resizeNum} 个连接，以避免在扩张与收缩之间反复震荡。
+ * </p>
+ *
+ * @author Penyo
+ */
+public class LittleLawScalingPolicy implements ScalingPolicy {
+  /**
+   * 平滑系数
+   */
+  private final double alpha;
+  /**
+   * 余量系数
+   */
+  private final double headroom;
+  /**
+   * 收缩前需连续富余的窗口数
+   */
+  private final int patience;
+
+  /**
+   * 平滑后的到达率（次/秒）
+   */
+  private double rate = Double.NaN;
+  /**
+   * 平滑后的占用时长（毫秒）
+   */
+  private double hold = Double.NaN;
+  /**
+   * 已连续富余的窗口数
+   */
+  private int surplusWindows;
+
+  public LittleLawScalingPolicy() {
+    this(0.3D, 1.2D, 3);
+  }
+
+  public LittleLawScalingPolicy(double alpha, double headroom, int patience) {
+    this.alpha = alpha;
+    this.headroom = headroom;
+    this.patience = patience;
+  }
+
+  @Override
+  public int decide(ScalingWindow window, PerformanceConfig pc) {
+    rate = smooth(rate, window.arrivalRate());
+    if (window.acquisitions() > 0) hold = smooth(hold, window.meanHoldMillis());
+
+    double demand = Double.isNaN(hold) ? 0D : rate * hold / 1000.0;
+    int target = (int) Math.ceil(Math.max(demand * headroom, window.peakInUse())) + window.waiting();
+    target = Math.max(pc.getMinConnectionsNum(), Math.min(pc.getMaxConnectionsNum(), target));
+
+    int delta = target - (window.capacity() + window.pending());
+    if (delta >= 0) {
+      surplusWindows = 0;
+      return delta;
+    }
+    if (++surplusWindows < patience) return 0;
+    surplusWindows = 0;
+    return -Math.min(-delta, pc.getResizeNum());
+  }
+
+  /**
+   * 计算指数加权移动平均。
+   */
+  private double smooth(double average, double sample) {
+    return Double.isNaN(average) ? sample : average + alpha * (sample - average);
+  }
+}
@@ -0,0 +1,231 @@
+package net.penyo.tsington.v0;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.config.UserConfig;
+import net.penyo.tsington.support.PoolMetricsSnapshot;
+import net.penyo.tsington.support.Priority;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 分区的青彤™ 连接池
+ *
+ * <p>
+ * 分区连接池让多个租户（目录或模式）共享同一个连接池，而不是每个租户各建一个。最小/最大连接数、压力监视器与管家都只有一份，
+ * 因此数据库端的连接数随总负载伸缩，而与租户数量无关；某个租户繁忙时，它自然会用上其他租户暂时不用的连接。
+ * </p>
+ *
+ * <p>
+ * 按租户借用时，优先选择物理连接已处于该租户的空闲连接；没有时借用任意连接，并就地切换其目录或模式，
+ * 这比为该租户新建一个连接便宜得多。切换后连接会记住所处的分区，以便下次直接命中。
+ * </p>
+ *
+ * @author Penyo
+ */
+public class PartitionedTsingtonDataSource implements TsingtonDataSourceSpecification {
+  /**
+   * 共享连接池
+   */
+  private final TsingtonDataSource pool;
+  /**
+   * 分区层级
+   */
+  private final Level level;
+  /**
+   * 租户到目录或模式名的映射
+   */
+  private final Function<String, String> resolver;
+  /**
+   * 命中同一分区的借用次数
+   */
+  private final LongAdder affinityHits = new LongAdder();
+  /**
+   * 切换分区的次数
+   */
+  private final LongAdder switches = new LongAdder();
+
+  public PartitionedTsingtonDataSource(TsingtonDataSource pool, Level level) {
+    this(pool, level, Function.identity());
+  }
+
+  /**
+   * @param resolver 租户到目录或模式名的映射，如 {@code tenant -> "t_" + tenant}
+   */
+  public PartitionedTsingtonDataSource(TsingtonDataSource pool, Level level, Function<String, String> resolver) {
+    if (pool == null || level == null || resolver == null) throw new RuntimeException();
+
+    this.pool = pool;
+    this.level = level;
+    this.resolver = resolver;
+  }
+
+  @Override
+  public UserConfig getUserConfig() {
+    return pool.getUserConfig();
+  }
+
+  @Override
+  public PerformanceConfig getPerformanceConfig() {
+    return pool.getPerformanceConfig();
+  }
+
+  @Override
+  public int getRemainingCapacity() {
+    return pool.getRemainingCapacity();
+  }
+
+  @Override
+  public int getCapacity() {
+    return pool.getCapacity();
+  }
+
+  @Override
+  public PoolMetricsSnapshot getMetricsSnapshot() {
+    return pool.getMetricsSnapshot();
+  }
+
+  /**
+   * 获取命中同一分区的借用次数。
+   */
+  public long getAffinityHitCount() {
+    return affinityHits.sum();
+  }
+
+  /**
+   * 获取切换分区的次数。
+   */
+  public long getSwitchCount() {
+    return switches.sum();
+  }
+
+  /**
+   * 借用连接，不指定租户。
+   *
+   * <p>
+   * 借到的连接可能处于任一租户的目录或模式中，仅适用于不依赖默认目录或模式的语句。
+   * </p>
+   */
+  @Override
+  public Connection getConnection() {
+    return pool.getConnection();
+  }
+
+  /**
+   * 借用某租户的连接。
+   *
+   * @return 连接，若超时则为 {@code null}
+   * @throws SQLException 切换目录或模式失败时抛出，此时连接已被归还
+   */
+  public Connection getConnection(String tenant) throws SQLException {
+    return getConnection(tenant, Priority.NORMAL);
+  }
+
+  /**
+   * 以某优先级借用某租户的连接。
+   *
+   * @return 连接，若超时则为 {@code null}
+   * @throws SQLException 切换目录或模式失败时抛出，此时连接已被归还
+   * @see TsingtonDataSource#getConnection(Priority)
+   */
+  public Connection getConnection(String tenant, Priority priority) throws SQLException {
+    String partition = resolver.apply(tenant);
+    Connection c = pool.getConnection(tc -> partition.equals(tc.getPartition()), priority);
+    return c == null ? null : enter((ConnectionHandle) c, partition);
+  }
+
+  @Override
+  public CompletableFuture<Connection> getConnectionAsync() {
+    return pool.getConnectionAsync();
+  }
+
+  @Override
+  public CompletableFuture<Connection> getConnectionAsync(long timeout) {
+    return pool.getConnectionAsync(timeout);
+  }
+
+  /**
+   * 异步借用某租户的连接。
+   *
+   * <p>
+   * 异步借用不挑选分区，借到连接后按需切换；切换失败时返回值以 {@link SQLException SQLException} 异常完成。
+   * </p>
+   *
+   * @param timeout 超时时长（毫秒）
+   */
+  public CompletableFuture<Connection> getConnectionAsync(String tenant, long timeout) {
+    return getConnectionAsync(tenant, Priority.NORMAL, timeout);
+  }
+
+  /**
+   * 以某优先级异步借用某租户的连接。
+   *
+   * @param timeout 超时时长（毫秒）
+   * @see #getConnectionAsync(String, long)
+   */
+  public CompletableFuture<Connection> getConnectionAsync(String tenant, Priority priority, long timeout) {
+    String partition = resolver.apply(tenant);
+    return pool.getConnectionAsync(priority, timeout).thenApply(c -> {
+      try {
+        return enter((ConnectionHandle) c, partition);
+      } catch (SQLException e) {
+        throw new CompletionException(e);
+      }
+    });
+  }
+
+  /**
+   * 令连接进入分区，必要时切换其目录或模式。
+   */
+  private Connection enter(ConnectionHandle handle, String partition) throws SQLException {
+    TrackableConnection tc = handle.getTrackableConnection();
+    if (partition.equals(tc.getPartition())) {
+      affinityHits.increment();
+      return handle;
+    }
+
+    try {
+      Connection real = tc.getRealConnection();
+      if (level == Level.CATALOG) {
+        real.setCatalog(partition);
+        tc.rebaseCatalog(partition);
+      } else {
+        real.setSchema(partition);
+        tc.rebaseSchema(partition);
+      }
+    } catch (SQLException e) {
+      tc.setPartition(null);
+      handle.close();
+      throw e;
+    }
+    // 缓存的预编译语句可能已按原分区解析了表名
+    StatementCache statementCache = tc.getStatementCache();
+    if (statementCache != null) statementCache.clear();
+    tc.setPartition(partition);
+    switches.increment();
+    return handle;
+  }
+
+  @Override
+  public void close() {
+    pool.close();
+  }
+
+  /**
+   * 分区层级
+   */
+  public enum Level {
+    /**
+     * 以目录区分租户，适用于 MySQL 等以数据库为单位隔离的产品
+     */
+    CATALOG,
+    /**
+     * 以模式区分租户，适用于 PostgreSQL 等以模式为单位隔离的产品
+     */
+    SCHEMA
+  }
+}
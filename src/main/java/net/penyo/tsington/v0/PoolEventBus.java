@@ -0,0 +1,301 @@
+package net.penyo.tsington.v0;
+
+import net.penyo.tsington.support.PoolEvent;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.StringMapMessage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 连接池事件总线
+ *
+ * <p>
+ * 连接池的异常与值得注意的状况以 {@link PoolEvent PoolEvent} 的形式发布到事件总线，由后台线程异步写入日志并通知监听器。
+ * 发布者只做一次去重表查找与一次无锁入队，从不格式化消息、抓取调用栈或等待日志输出，
+ * 因此即便在数据库故障期间错误成片出现，借用路径也不会被日志拖慢。
+ * </p>
+ *
+ * <p>
+ * 同类事件（类型、原因与描述都相同）在去重窗口内只入队一次，其余发生只被计数；窗口结束后由后台线程补发一条汇总，
+ * 其 {@code count} 为窗口内被合并的次数。队列有界，满时新事件被丢弃并计数。
+ * </p>
+ *
+ * @author Penyo
+ */
+public class PoolEventBus implements AutoCloseable {
+  private static final Logger LOGGER = LogManager.getLogger(PoolEventBus.class);
+
+  /**
+   * 队列容量，须为 2 的幂
+   */
+  private static final int BUFFER_SIZE = 1024;
+  /**
+   * 去重表上限
+   */
+  private static final int DEDUP_LIMIT = 1024;
+  /**
+   * 后台线程的空闲间隔（毫秒）
+   */
+  private static final long DRAIN_INTERVAL = 100L;
+
+  /**
+   * 所属的连接池
+   */
+  private final TsingtonDataSource pool;
+  /**
+   * 环形队列
+   */
+  private final AtomicReferenceArray<PoolEvent> buffer = new AtomicReferenceArray<>(BUFFER_SIZE);
+  /**
+   * 生产者认领的下一个序号
+   */
+  private final AtomicLong tail = new AtomicLong();
+  /**
+   * 消费者将要取出的序号，仅由后台线程推进
+   */
+  private volatile long head;
+  /**
+   * 去重表
+   */
+  private final Map<Key, Window> windows = new ConcurrentHashMap<>();
+  /**
+   * 监听器
+   */
+  private final List<Consumer<PoolEvent>> listeners = new CopyOnWriteArrayList<>();
+  /**
+   * 被合并的事件数
+   */
+  private final LongAdder suppressed = new LongAdder();
+  /**
+   * 因队列满而丢弃的事件数
+   */
+  private final LongAdder dropped = new LongAdder();
+  /**
+   * 后台线程
+   */
+  private final Thread writer;
+
+  public PoolEventBus(TsingtonDataSource pool) {
+    this.pool = pool;
+    writer = new Thread(() -> {
+      while (!Thread.currentThread().isInterrupted()) {
+        int drained = drain();
+        flush(false);
+        if (drained == 0)
+          try {
+            Thread.sleep(DRAIN_INTERVAL);
+          } catch (InterruptedException e) {
+            break;
+          }
+      }
+      drain();
+      flush(true);
+    }, pool.getPerformanceConfig().getPoolName() + "-event-writer");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * 添加监听器。监听器在后台线程上被调用，不应阻塞。
+   */
+  public void addListener(Consumer<PoolEvent> listener) {
+    listeners.add(listener);
+  }
+
+  public void removeListener(Consumer<PoolEvent> listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * 发布事件。
+   *
+   * @param tc        相关的连接，可能为 {@code null}
+   * @param throwable 原因，可能为 {@code null}
+   * @param message   描述，不应包含逐次变化的数值，以便去重
+   * @param elapsed   相关时长（纳秒）
+   * @return 是否被接受（入队或合并）；队列满时为 {@code false}
+   */
+  boolean publish(PoolEvent.Type type, TrackableConnection tc, Throwable throwable, String message, long elapsed) {
+    return publish(type, tc, Thread.currentThread().getName(), throwable, message, elapsed);
+  }
+
+  /**
+   * 发布由另一线程引起的事件，如泄漏事件中的借用线程。
+   *
+   * @param thread 引起事件的线程名
+   * @see #publish(PoolEvent.Type, TrackableConnection, Throwable, String, long)
+   */
+  boolean publish(PoolEvent.Type type, TrackableConnection tc, String thread, Throwable throwable, String message, long elapsed) {
+    String cause = throwable == null ? null : throwable.getClass().getName();
+    long window = TimeUnit.MILLISECONDS.toNanos(pool.getPerformanceConfig().getEventDedupWindow());
+    long now = System.nanoTime();
+
+    Window w = null;
+    if (window > 0) {
+      Key key = new Key(type, cause, message);
+      w = windows.get(key);
+      if (w == null) {
+        // 描述含逐次变化内容的事件会撑大去重表，满了就整体丢弃
+        if (windows.size() >= DEDUP_LIMIT) windows.clear();
+        w = windows.computeIfAbsent(key, k -> new Window());
+      }
+      long opened = w.openedAt;
+      // 窗口未结束，或另一线程刚刚抢先开启了新窗口
+      if (opened != 0L && now - opened < window || !Window.OPENED_AT.compareAndSet(w, opened, now)) {
+        w.merged.increment();
+        suppressed.increment();
+        return true;
+      }
+    }
+
+    PoolEvent event = new PoolEvent(type, pool.getPerformanceConfig().getPoolName(), tc == null ? 0 : tc.hashCode(),
+      thread, cause, message, 1L, TimeUnit.NANOSECONDS.toMillis(elapsed),
+      System.currentTimeMillis(), throwable);
+    if (w != null) w.template = event;
+    if (offer(event)) return true;
+    dropped.increment();
+    return false;
+  }
+
+  /**
+   * 将事件放入环形队列。
+   *
+   * @return 是否放入；队列满时为 {@code false}
+   */
+  private boolean offer(PoolEvent event) {
+    long t;
+    do {
+      t = tail.get();
+      if (t - head >= BUFFER_SIZE) return false;
+    } while (!tail.compareAndSet(t, t + 1));
+    buffer.set((int) t & (BUFFER_SIZE - 1), event);
+    return true;
+  }
+
+  /**
+   * 取出队列中已发布的事件并输出。
+   *
+   * @return 取出的条数
+   */
+  private int drain() {
+    int drained = 0;
+    long h = head;
+    while (h < tail.get()) {
+      int index = (int) h & (BUFFER_SIZE - 1);
+      PoolEvent event = buffer.get(index);
+      // 序号已被认领但尚未发布
+      if (event == null) break;
+      buffer.set(index, null);
+      head = ++h;
+      drained++;
+      emit(event, false);
+    }
+    return drained;
+  }
+
+  /**
+   * 为窗口已结束的合并事件补发汇总。
+   *
+   * @param all 是否不论窗口是否结束都补发
+   */
+  private void flush(boolean all) {
+    long window = TimeUnit.MILLISECONDS.toNanos(pool.getPerformanceConfig().getEventDedupWindow());
+    long now = System.nanoTime();
+    for (Window w : windows.values()) {
+      PoolEvent template = w.template;
+      if (template == null || !all && now - w.openedAt < window) continue;
+      long merged = w.merged.sumThenReset();
+      if (merged > 0) emit(template.withCount(merged, System.currentTimeMillis()), true);
+    }
+  }
+
+  /**
+   * 输出一个事件。
+   *
+   * @param repeated 是否是合并事件的汇总
+   */
+  private void emit(PoolEvent event, boolean repeated) {
+    StringMapMessage message = new StringMapMessage()
+      .with("event", event.type().name())
+      .with("pool", event.pool())
+      .with("count", event.count());
+    if (event.connectionId() != 0) message.with("connection", event.connectionId());
+    message.with("thread", event.thread());
+    if (event.cause() != null) message.with("cause", event.cause());
+    if (event.message() != null) message.with("message", event.message());
+    if (event.elapsed() != 0) message.with("elapsedMs", event.elapsed());
+    if (repeated) message.with("repeated", true);
+    // 合并事件的汇总不再重复输出调用栈
+    LOGGER.log(levelOf(event.type()), message, repeated ? null : event.throwable());
+
+    for (Consumer<PoolEvent> listener : listeners)
+      try {
+        listener.accept(event);
+      } catch (RuntimeException ignored) {
+      }
+  }
+
+  private static Level levelOf(PoolEvent.Type type) {
+    return switch (type) {
+      case CREATION_FAILED, CIRCUIT_OPENED, LEAK_DETECTED, LEAK_RECLAIMED -> Level.ERROR;
+      case CIRCUIT_CLOSED -> Level.INFO;
+      default -> Level.WARN;
+    };
+  }
+
+  /**
+   * 获取被合并的事件数。
+   */
+  public long getSuppressedCount() {
+    return suppressed.sum();
+  }
+
+  /**
+   * 获取因队列满而丢弃的事件数。
+   */
+  public long getDroppedCount() {
+    return dropped.sum();
+  }
+
+  @Override
+  public void close() {
+    writer.interrupt();
+  }
+
+  /**
+   * 去重键
+   */
+  private record Key(PoolEvent.Type type, String cause, String message) {
+  }
+
+  /**
+   * 去重窗口
+   */
+  private static final class Window {
+    private static final AtomicLongFieldUpdater<Window> OPENED_AT = AtomicLongFieldUpdater.newUpdater(Window.class, "openedAt");
+
+    /**
+     * 窗口开启的时刻（纳秒）
+     */
+    private volatile long openedAt;
+    /**
+     * 开启窗口的事件
+     */
+    private volatile PoolEvent template;
+    /**
+     * 窗口内被合并的次数
+     */
+    private final LongAdder merged = new LongAdder();
+  }
+}
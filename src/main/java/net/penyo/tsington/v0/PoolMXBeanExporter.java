@@ -0,0 +1,186 @@
+package net.penyo.tsington.v0;
+
+import net.penyo.tsington.support.TsingtonPoolMXBean;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * 连接池 JMX 发布器
+ *
+ * <p>
+ * 计数直接读取累加器；分位数在每次读取时由直方图现算，不影响借还路径。
+ * </p>
+ *
+ * @author Penyo
+ * @see TsingtonPoolMXBean
+ */
+public class PoolMXBeanExporter implements TsingtonPoolMXBean, AutoCloseable {
+  /**
+   * 被发布的连接池
+   */
+  private final TsingtonDataSource pool;
+  /**
+   * 注册名
+   */
+  private ObjectName name;
+
+  public PoolMXBeanExporter(TsingtonDataSource pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * 注册到平台 MBean 服务器。
+   */
+  void register(String poolName) {
+    try {
+      ObjectName candidate = new ObjectName("net.penyo.tsington:type=Pool,name=" + ObjectName.quote(poolName));
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      if (!server.isRegistered(candidate)) {
+        server.registerMBean(this, candidate);
+        name = candidate;
+      }
+    } catch (Exception ignored) {
+    }
+  }
+
+  @Override
+  public void close() {
+    if (name == null) return;
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+    } catch (Exception ignored) {
+    }
+    name = null;
+  }
+
+  private PoolMetrics metrics() {
+    return pool.getMetrics();
+  }
+
+  @Override
+  public int getCapacity() {
+    return pool.getCapacity();
+  }
+
+  @Override
+  public int getIdle() {
+    return pool.getRemainingCapacity();
+  }
+
+  @Override
+  public int getActive() {
+    return metrics().getInUse();
+  }
+
+  @Override
+  public int getWaiting() {
+    return pool.getWaitingCount();
+  }
+
+  @Override
+  public int getPending() {
+    return pool.getPendingCount();
+  }
+
+  @Override
+  public long getAcquisitions() {
+    return metrics().getAcquisitions();
+  }
+
+  @Override
+  public long getTimeouts() {
+    return metrics().getTimeouts();
+  }
+
+  @Override
+  public long getRejections() {
+    return metrics().getRejections();
+  }
+
+  @Override
+  public boolean isCreationCircuitOpen() {
+    return pool.getCreationBreaker().isOpen();
+  }
+
+  @Override
+  public long getSlowQueries() {
+    return pool.getStatementTracer().getSlowQueryCount();
+  }
+
+  @Override
+  public long getCreated() {
+    return metrics().getCreated();
+  }
+
+  @Override
+  public long getCreationFailures() {
+    return metrics().getCreationFailures();
+  }
+
+  @Override
+  public long getLeaksDetected() {
+    return pool.getLeakDetector().getDetectedCount();
+  }
+
+  @Override
+  public long getLeaksReclaimed() {
+    return pool.getLeakDetector().getReclaimedCount();
+  }
+
+  @Override
+  public double getWaitMeanMillis() {
+    return metrics().getWaitTimes().getMean();
+  }
+
+  @Override
+  public double getWaitP50Millis() {
+    return metrics().getWaitTimes().getPercentile(0.5);
+  }
+
+  @Override
+  public double getWaitP99Millis() {
+    return metrics().getWaitTimes().getPercentile(0.99);
+  }
+
+  @Override
+  public double getWaitP999Millis() {
+    return metrics().getWaitTimes().getPercentile(0.999);
+  }
+
+  @Override
+  public double getHoldMeanMillis() {
+    return metrics().getHoldTimes().getMean();
+  }
+
+  @Override
+  public double getHoldP50Millis() {
+    return metrics().getHoldTimes().getPercentile(0.5);
+  }
+
+  @Override
+  public double getHoldP99Millis() {
+    return metrics().getHoldTimes().getPercentile(0.99);
+  }
+
+  @Override
+  public double getHoldP999Millis() {
+    return metrics().getHoldTimes().getPercentile(0.999);
+  }
+
+  @Override
+  public double getCreationP50Millis() {
+    return metrics().getCreationTimes().getPercentile(0.5);
+  }
+
+  @Override
+  public double getCreationP99Millis() {
+    return metrics().getCreationTimes().getPercentile(0.99);
+  }
+
+  @Override
+  public double getCreationP999Millis() {
+    return metrics().getCreationTimes().getPercentile(0.999);
+  }
+}
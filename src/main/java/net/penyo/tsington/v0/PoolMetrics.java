@@ -0,0 +1,212 @@
+package net.penyo.tsington.v0;
+
+import net.penyo.tsington.support.ScalingWindow;
+import net.penyo.tsington.util.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 连接池度量
+ *
+ * <p>
+ * 连接池度量以分段累加器与固定桶直方图累计记录借用、等待、占用与建立连接的情况，热路径上不分配对象。
+ * 对外，它被汇总为 {@link net.penyo.tsington.support.PoolMetricsSnapshot PoolMetricsSnapshot} 并经由 JMX 发布；
+ * 对内，压力监视器在每个扫描周期结束时取其与上一周期的差，滚动为一个 {@link ScalingWindow ScalingWindow}。
+ * </p>
+ *
+ * @author Penyo
+ */
+public class PoolMetrics {
+  /**
+   * 借用次数
+   */
+  private final LongAdder acquisitions = new LongAdder();
+  /**
+   * 借用超时次数
+   */
+  private final LongAdder timeouts = new LongAdder();
+  /**
+   * 借用被立即拒绝的次数
+   */
+  private final LongAdder rejections = new LongAdder();
+  /**
+   * 建立的连接数
+   */
+  private final LongAdder created = new LongAdder();
+  /**
+   * 建立连接失败次数
+   */
+  private final LongAdder creationFailures = new LongAdder();
+  /**
+   * 等待时长
+   */
+  private final LatencyHistogram waitTimes = new LatencyHistogram();
+  /**
+   * 占用时长
+   */
+  private final LatencyHistogram holdTimes = new LatencyHistogram();
+  /**
+   * 建立连接耗时
+   */
+  private final LatencyHistogram creationTimes = new LatencyHistogram();
+  /**
+   * 占用中的连接数
+   */
+  private final AtomicInteger inUse = new AtomicInteger();
+  /**
+   * 窗口内占用峰值
+   */
+  private final AtomicInteger peakInUse = new AtomicInteger();
+
+  /**
+   * 近期占用时长的指数滑动平均（纳秒）
+   */
+  private volatile long recentHold;
+
+  /**
+   * 窗口起点
+   */
+  private long windowStart = System.nanoTime();
+  /**
+   * 窗口起点时的借用次数
+   */
+  private long windowAcquisitions;
+  /**
+   * 窗口起点时的借用超时次数
+   */
+  private long windowTimeouts;
+  /**
+   * 窗口起点时的借用拒绝次数
+   */
+  private long windowRejections;
+  /**
+   * 窗口起点时的等待时长
+   */
+  private LatencyHistogram.Snapshot windowWaitTimes = LatencyHistogram.Snapshot.EMPTY;
+  /**
+   * 窗口起点时的占用时长
+   */
+  private LatencyHistogram.Snapshot windowHoldTimes = LatencyHistogram.Snapshot.EMPTY;
+
+  /**
+   * 记录一次成功借用。
+   */
+  void onAcquire(long waitNanos) {
+    acquisitions.increment();
+    waitTimes.record(waitNanos);
+    int n = inUse.incrementAndGet();
+    if (n > peakInUse.get()) peakInUse.accumulateAndGet(n, Math::max);
+  }
+
+  /**
+   * 记录一次借用超时。
+   */
+  void onTimeout(long waitNanos) {
+    timeouts.increment();
+    waitTimes.record(waitNanos);
+  }
+
+  /**
+   * 记录一次借用被立即拒绝。
+   */
+  void onReject() {
+    rejections.increment();
+  }
+
+  /**
+   * 记录一次归还。
+   */
+  void onRelease(long holdNanos) {
+    inUse.decrementAndGet();
+    holdTimes.record(holdNanos);
+    // 并发归还时偶有更新丢失，作为估计可以接受，换来归还路径上没有 CAS 重试
+    long r = recentHold;
+    recentHold = r == 0L ? holdNanos : r + (holdNanos - r) / 8;
+  }
+
+  /**
+   * 记录一次连接建立。
+   *
+   * @param success 是否成功
+   */
+  void onCreate(long elapsedNanos, boolean success) {
+    creationTimes.record(elapsedNanos);
+    if (success) created.increment();
+    else creationFailures.increment();
+  }
+
+  public long getAcquisitions() {
+    return acquisitions.sum();
+  }
+
+  public long getTimeouts() {
+    return timeouts.sum();
+  }
+
+  public long getRejections() {
+    return rejections.sum();
+  }
+
+  public long getCreated() {
+    return created.sum();
+  }
+
+  public long getCreationFailures() {
+    return creationFailures.sum();
+  }
+
+  public int getInUse() {
+    return inUse.get();
+  }
+
+  /**
+   * 获取近期的平均占用时长（纳秒），尚无归还时为 0。
+   */
+  public long getRecentHoldTime() {
+    return recentHold;
+  }
+
+  public LatencyHistogram getWaitTimes() {
+    return waitTimes;
+  }
+
+  public LatencyHistogram getHoldTimes() {
+    return holdTimes;
+  }
+
+  public LatencyHistogram getCreationTimes() {
+    return creationTimes;
+  }
+
+  /**
+   * 结束当前窗口并开启下一个窗口。
+   *
+   * <p>
+   * 仅由压力监视器线程调用。
+   * </p>
+   */
+  ScalingWindow roll(TsingtonDataSource pool) {
+    long now = System.nanoTime();
+    long acquisitionsNow = acquisitions.sum();
+    long timeoutsNow = timeouts.sum();
+    long rejectionsNow = rejections.sum();
+    LatencyHistogram.Snapshot waitNow = waitTimes.snapshot();
+    LatencyHistogram.Snapshot holdNow = holdTimes.snapshot();
+
+    LatencyHistogram.Snapshot wait = waitNow.minus(windowWaitTimes);
+    LatencyHistogram.Snapshot hold = holdNow.minus(windowHoldTimes);
+    ScalingWindow window = new ScalingWindow(now - windowStart, acquisitionsNow - windowAcquisitions,
+      timeoutsNow - windowTimeouts, rejectionsNow - windowRejections, wait.getMean(), wait.getPercentile(0.99), hold.getMean(),
+      peakInUse.getAndSet(inUse.get()), pool.getCapacity(), pool.getRemainingCapacity(), pool.getWaitingCount(),
+      pool.getPendingCount());
+
+    windowStart = now;
+    windowAcquisitions = acquisitionsNow;
+    windowTimeouts = timeoutsNow;
+    windowRejections = rejectionsNow;
+    windowWaitTimes = waitNow;
+    windowHoldTimes = holdNow;
+    return window;
+  }
+}
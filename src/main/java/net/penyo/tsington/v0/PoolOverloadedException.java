@@ -0,0 +1,19 @@
+package net.penyo.tsington.v0;
+
+/**
+ * 连接池过载异常
+ *
+ * <p>
+ * 没有空闲连接且排队人数已达上限，或预计等待时长超过借用者的剩余时限时，借用立即以此异常失败。
+ * 与断路器断开不同，此时数据库本身可能是健康的，只是连接池已无力及时服务更多借用者。
+ * </p>
+ *
+ * @author Penyo
+ */
+public class PoolOverloadedException extends ConnectionUnavailableException {
+  private static final long serialVersionUID = 1L;
+
+  public PoolOverloadedException(String message, long retryAfter) {
+    super(message, null, retryAfter);
+  }
+}
@@ -1,59 +1,52 @@
 package net.penyo.tsington.v0;
 
 import net.penyo.tsington.config.PerformanceConfig;
-
-import java.time.Instant;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import net.penyo.tsington.support.ScalingPolicy;
+import net.penyo.tsington.support.ScalingWindow;
 
 /**
  * 压力监视器
  *
  * <p>
- * 压力监视器能够实时监控连接池的压力，并智能调用池的扩张/收缩方法。
+ * 压力监视器能够实时监控连接池的压力，并智能调用池的扩张/收缩方法。每个扫描周期结束时，它将
+ * {@link PoolMetrics PoolMetrics} 滚动为一个 {@link ScalingWindow ScalingWindow}，交由性能配置中的
+ * {@link ScalingPolicy ScalingPolicy} 决定伸缩量；未指定策略时沿用 {@link RequestRateScalingPolicy RequestRateScalingPolicy}。
  * </p>
  *
  * @author Penyo
  */
 public class PressureMonitor implements AutoCloseable {
-  /**
-   * 请求记录
-   */
-  private final Queue<Instant> requests = new ConcurrentLinkedQueue<>();
   /**
    * 检查线程
    */
   private final Thread monitor;
 
   public PressureMonitor(TsingtonDataSource monitored) {
+    ScalingPolicy fallback = new RequestRateScalingPolicy();
+
     monitor = new Thread(() -> {
       while (true) {
         PerformanceConfig pc = monitored.getPerformanceConfig();
-        double pressure = requests.size() / (pc.getScanCycle() / 1000.0);
-
-        if (monitored.isBusy() && pressure > pc.getPressureToExpand()) monitored.expand(pc.getResizeNum());
-        else if (monitored.isLeisurely() && pressure < pc.getPressureToContract())
-          monitored.contract(pc.getResizeNum());
+        try {
+          Thread.sleep(pc.getScanCycle());
+        } catch (InterruptedException e) {
+          return;
+        }
 
-        requests.clear();
+        pc = monitored.getPerformanceConfig();
+        ScalingWindow window = monitored.getMetrics().roll(monitored);
+        ScalingPolicy policy = pc.getScalingPolicy() != null ? pc.getScalingPolicy() : fallback;
+        int delta = policy.decide(window, pc);
         try {
-          synchronized (this) {
-            wait(pc.getScanCycle());
-          }
-        } catch (InterruptedException ignored) {
+          if (delta > 0) monitored.expand(delta);
+          else if (delta < 0) monitored.contract(-delta);
+        } catch (RuntimeException ignored) {
         }
       }
-    });
+    }, monitored.getPerformanceConfig().getPoolName() + "-monitor");
     monitor.start();
   }
 
-  /**
-   * 标记一次请求。
-   */
-  public void request() {
-    requests.offer(Instant.now());
-  }
-
   @Override
   public void close() {
     monitor.interrupt();
@@ -0,0 +1,494 @@
+package net.penyo.tsington.v0;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 查询结果缓存
+ *
+ * <p>
+ * 查询结果缓存隶属于连接池，以分区、SQL 与绑定参数为键，保存物化后的 {@link CachedResultSet.Rows Rows}。
+ * 条目受条目数、估算内存与存活时长三重约束。淘汰采用 W-TinyLFU 的做法：新条目先进入容量约 1% 的窗口区，
+ * 被挤出窗口时与主区最久未用的条目比较近期访问频率（由计数最小概略估算，并定期减半以遗忘旧热度），
+ * 频率更高者留在主区。一次性的大扫描因此不会冲掉真正的热点。
+ * </p>
+ *
+ * <p>
+ * 经由连接池执行的写入按表使缓存失效。每张表有一个版本号：读者在查询前记下所读各表的版本，
+ * 物化完成后仅当版本未变时才写入缓存，从而不会把与写入交错的旧结果放进缓存。无法判定写入了哪些表时，全部失效。
+ * </p>
+ *
+ * <p>
+ * 命中只读取并发哈希表；访问顺序与频率的更新仅在能立即取得锁时进行，竞争激烈时宁可少记几次访问，也不让读者排队。
+ * </p>
+ *
+ * @author Penyo
+ */
+public class QueryCache {
+  /**
+   * 单条目的固定内存估算（字节）
+   */
+  private static final long ENTRY_OVERHEAD = 256L;
+  /**
+   * SQL 解析结果的缓存上限
+   */
+  private static final int PARSED_LIMIT = 4096;
+  /**
+   * 不可缓存的查询，或不修改数据的语句
+   */
+  private static final String[] NONE = {};
+  /**
+   * 无法判定写入了哪些表的语句
+   */
+  private static final String[] ALL = {};
+
+  /**
+   * 条目上限
+   */
+  private final int maxSize;
+  /**
+   * 估算内存上限（字节）
+   */
+  private final long memoryLimit;
+  /**
+   * 单条目的估算内存上限（字节），更大的结果不缓存
+   */
+  private final long maxEntryFootprint;
+  /**
+   * 存活时长（纳秒），不受限时为 0
+   */
+  private final long ttl;
+
+  /**
+   * 条目
+   */
+  private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+  /**
+   * 窗口区（按访问顺序）
+   */
+  private final LinkedHashMap<Key, Entry> window = new LinkedHashMap<>(16, 0.75F, true);
+  /**
+   * 主区（按访问顺序）
+   */
+  private final LinkedHashMap<Key, Entry> main = new LinkedHashMap<>(16, 0.75F, true);
+  /**
+   * 窗口区容量
+   */
+  private final int windowSize;
+  /**
+   * 访问频率概略
+   */
+  private final FrequencySketch sketch;
+  /**
+   * 表到其缓存条目的索引
+   */
+  private final Map<String, Set<Key>> byTable = new HashMap<>();
+  /**
+   * 各表的版本号
+   */
+  private final Map<String, Long> versions = new ConcurrentHashMap<>();
+  /**
+   * 全部失效的次数
+   */
+  private volatile long epoch;
+  /**
+   * 已占用的估算内存（字节）
+   */
+  private long memory;
+  /**
+   * 保护窗口区、主区、概略与索引
+   */
+  private final ReentrantLock lock = new ReentrantLock();
+
+  /**
+   * 查询读取的表
+   */
+  private final Map<String, String[]> readTables = new ConcurrentHashMap<>();
+  /**
+   * 语句写入的表
+   */
+  private final Map<String, String[]> writtenTables = new ConcurrentHashMap<>();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * @param maxSize     条目上限
+   * @param memoryLimit 估算内存上限（字节）
+   * @param ttl         存活时长（毫秒），0 表示不受限
+   */
+  public QueryCache(int maxSize, long memoryLimit, long ttl) {
+    this.maxSize = Math.max(1, maxSize);
+    this.memoryLimit = memoryLimit;
+    this.maxEntryFootprint = Math.max(ENTRY_OVERHEAD, memoryLimit / 8);
+    this.ttl = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, ttl));
+    windowSize = Math.max(1, this.maxSize / 100);
+    sketch = new FrequencySketch(this.maxSize);
+  }
+
+  /**
+   * 获取命中次数。
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * 获取未命中次数。
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * 获取条目数。
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * 检查 SQL 是否为可缓存的查询。
+   */
+  boolean isCacheable(String sql) {
+    return tablesRead(sql) != NONE;
+  }
+
+  private String[] tablesRead(String sql) {
+    String[] tables = readTables.get(sql);
+    if (tables != null) return tables;
+    Set<String> read = SqlTables.read(sql);
+    tables = read == null ? NONE : read.toArray(String[]::new);
+    if (readTables.size() >= PARSED_LIMIT) readTables.clear();
+    readTables.put(sql, tables);
+    return tables;
+  }
+
+  private String[] tablesWritten(String sql) {
+    if (sql == null) return ALL;
+    String[] tables = writtenTables.get(sql);
+    if (tables != null) return tables;
+    Set<String> written = SqlTables.written(sql);
+    tables = written == null ? ALL : written.isEmpty() ? NONE : written.toArray(String[]::new);
+    if (writtenTables.size() >= PARSED_LIMIT) writtenTables.clear();
+    writtenTables.put(sql, tables);
+    return tables;
+  }
+
+  /**
+   * 查找缓存的结果。
+   *
+   * @return 一个独立游标，未命中时为 {@code null}
+   */
+  ResultSet get(Key key) {
+    Entry entry = entries.get(key);
+    if (entry != null && ttl > 0 && System.nanoTime() - entry.createdAt > ttl) {
+      lock.lock();
+      try {
+        if (entries.get(key) == entry) discard(entry);
+      } finally {
+        lock.unlock();
+      }
+      entry = null;
+    }
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+
+    hits.increment();
+    if (lock.tryLock()) {
+      try {
+        sketch.increment(key.hash);
+        if (window.get(key) == null) main.get(key);
+      } finally {
+        lock.unlock();
+      }
+    }
+    return entry.rows.open();
+  }
+
+  /**
+   * 在执行查询前记下所读各表的版本。
+   */
+  Ticket stamp(String sql) {
+    String[] tables = tablesRead(sql);
+    long[] stamps = new long[tables.length];
+    for (int i = 0; i < tables.length; i++) stamps[i] = versions.getOrDefault(tables[i], 0L);
+    return new Ticket(tables, stamps, epoch);
+  }
+
+  /**
+   * 物化查询结果，并在结果足够小且期间无相关写入时放入缓存。
+   *
+   * @param rs 原结果集，所有权移交给本方法
+   * @return 供调用方读取的结果集
+   */
+  ResultSet load(Key key, Ticket ticket, ResultSet rs) throws SQLException {
+    CachedResultSet.Columns columns = CachedResultSet.Columns.of(rs.getMetaData());
+    if (columns == null) return rs;
+
+    int width = columns.getColumnCount();
+    Object[] values = new Object[width * 16];
+    int count = 0;
+    long footprint = ENTRY_OVERHEAD + key.footprint;
+    while (rs.next()) {
+      if ((count + 1) * width > values.length) values = Arrays.copyOf(values, values.length * 2);
+      for (int i = 0; i < width; i++) {
+        Object v = rs.getObject(i + 1);
+        values[count * width + i] = v;
+        footprint += footprintOf(v);
+      }
+      count++;
+      // 结果过大，不再缓存，剩余的行交给读者直接从原结果集读取
+      if (footprint > maxEntryFootprint) return new CachedResultSet(columns, values, count, rs);
+    }
+    rs.close();
+
+    CachedResultSet.Rows rows = new CachedResultSet.Rows(columns, Arrays.copyOf(values, count * width), count, footprint);
+    put(key, ticket, rows);
+    return rows.open();
+  }
+
+  private void put(Key key, Ticket ticket, CachedResultSet.Rows rows) {
+    lock.lock();
+    try {
+      if (ticket.epoch != epoch) return;
+      for (int i = 0; i < ticket.tables.length; i++)
+        if (versions.getOrDefault(ticket.tables[i], 0L) != ticket.stamps[i]) return;
+
+      Entry old = entries.get(key);
+      if (old != null) discard(old);
+
+      Entry entry = new Entry(key, rows, ticket.tables);
+      sketch.increment(key.hash);
+      entries.put(key, entry);
+      window.put(key, entry);
+      for (String table : entry.tables) byTable.computeIfAbsent(table, t -> new HashSet<>()).add(key);
+      memory += rows.footprint;
+      evict();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * 把被挤出窗口区的条目与主区的淘汰候选比较频率，再按内存约束淘汰最久未用者。
+   */
+  private void evict() {
+    int mainSize = Math.max(1, maxSize - windowSize);
+    while (window.size() > windowSize) {
+      Entry candidate = first(window);
+      window.remove(candidate.key);
+      if (main.size() < mainSize) {
+        main.put(candidate.key, candidate);
+        continue;
+      }
+      Entry victim = first(main);
+      if (sketch.frequency(candidate.key.hash) > sketch.frequency(victim.key.hash)) {
+        discard(victim);
+        main.put(candidate.key, candidate);
+      } else discard(candidate);
+    }
+    while (memory > memoryLimit && !entries.isEmpty()) discard(first(main.isEmpty() ? window : main));
+  }
+
+  private static Entry first(LinkedHashMap<Key, Entry> segment) {
+    Iterator<Entry> it = segment.values().iterator();
+    return it.next();
+  }
+
+  private void discard(Entry entry) {
+    entries.remove(entry.key, entry);
+    window.remove(entry.key, entry);
+    main.remove(entry.key, entry);
+    for (String table : entry.tables) {
+      Set<Key> keys = byTable.get(table);
+      if (keys == null) continue;
+      keys.remove(entry.key);
+      if (keys.isEmpty()) byTable.remove(table);
+    }
+    memory -= entry.rows.footprint;
+  }
+
+  /**
+   * 获取语句写入的表。
+   *
+   * @return 表名；不修改数据时为空数组，无法判定时为 {@code null}
+   */
+  String[] written(String sql) {
+    String[] tables = tablesWritten(sql);
+    return tables == ALL ? null : tables;
+  }
+
+  /**
+   * 使读取了这些表的条目失效。
+   *
+   * @param tables 表名，{@code null} 表示全部
+   */
+  void invalidate(String[] tables) {
+    lock.lock();
+    try {
+      if (tables == null) {
+        epoch++;
+        entries.clear();
+        window.clear();
+        main.clear();
+        byTable.clear();
+        memory = 0L;
+        return;
+      }
+      for (String table : tables) {
+        versions.merge(table, 1L, Long::sum);
+        Set<Key> keys = byTable.get(table);
+        if (keys == null) continue;
+        for (Key key : keys.toArray(Key[]::new)) {
+          Entry entry = entries.get(key);
+          if (entry != null) discard(entry);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * 估算单个值的内存（字节），含引用本身。
+   */
+  private static long footprintOf(Object v) {
+    if (v == null) return 8L;
+    if (v instanceof String s) return 48L + 2L * s.length();
+    if (v instanceof byte[] bytes) return 24L + bytes.length;
+    if (v instanceof BigDecimal) return 72L;
+    if (v instanceof Number || v instanceof Boolean) return 24L;
+    return 48L;
+  }
+
+  /**
+   * 缓存键
+   */
+  static final class Key {
+    /**
+     * 连接所处的分区，未分区时为 {@code null}
+     */
+    private final String scope;
+    private final String sql;
+    private final Object[] parameters;
+    private final int hash;
+    /**
+     * 估算内存（字节）
+     */
+    private final long footprint;
+
+    Key(String scope, String sql, Object[] parameters) {
+      this.scope = scope;
+      this.sql = sql;
+      this.parameters = parameters;
+      hash = 31 * (31 * (scope == null ? 0 : scope.hashCode()) + sql.hashCode()) + Arrays.deepHashCode(parameters);
+      long size = 64L;
+      for (Object parameter : parameters) size += footprintOf(parameter);
+      footprint = size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key that)) return false;
+      return hash == that.hash && sql.equals(that.sql) && (scope == null ? that.scope == null : scope.equals(that.scope))
+        && Arrays.deepEquals(parameters, that.parameters);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /**
+   * 查询前记下的表版本
+   */
+  record Ticket(String[] tables, long[] stamps, long epoch) {
+  }
+
+  /**
+   * 缓存条目
+   */
+  private static final class Entry {
+    final Key key;
+    final CachedResultSet.Rows rows;
+    final String[] tables;
+    final long createdAt = System.nanoTime();
+
+    Entry(Key key, CachedResultSet.Rows rows, String[] tables) {
+      this.key = key;
+      this.rows = rows;
+      this.tables = tables;
+    }
+  }
+
+  /**
+   * 访问频率概略
+   *
+   * <p>
+   * 四行计数最小概略，每个计数器上限为 15。累计增加达到容量的十倍时，全部计数减半。
+   * </p>
+   */
+  private static final class FrequencySketch {
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final int MAX_COUNT = 15;
+
+    private final byte[][] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int capacity) {
+      int width = Integer.highestOneBit(Math.max(16, capacity - 1)) << 1;
+      table = new byte[SEEDS.length][width];
+      mask = width - 1;
+      sampleSize = 10 * Math.max(16, capacity);
+    }
+
+    void increment(int hash) {
+      boolean added = false;
+      for (int i = 0; i < SEEDS.length; i++) {
+        int index = indexOf(hash, i);
+        if (table[i][index] < MAX_COUNT) {
+          table[i][index]++;
+          added = true;
+        }
+      }
+      if (added && ++additions >= sampleSize) reset();
+    }
+
+    int frequency(int hash) {
+      int frequency = MAX_COUNT;
+      for (int i = 0; i < SEEDS.length; i++) frequency = Math.min(frequency, table[i][indexOf(hash, i)]);
+      return frequency;
+    }
+
+    private int indexOf(int hash, int i) {
+      long h = (hash + SEEDS[i]) * SEEDS[i];
+      h += h >>> 32;
+      return (int) h & mask;
+    }
+
+    private void reset() {
+      for (byte[] row : table)
+        for (int j = 0; j < row.length; j++) row[j] >>= 1;
+      additions >>= 1;
+    }
+  }
+}
@@ -0,0 +1,205 @@
+package net.penyo.tsington.v0;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.config.UserConfig;
+import net.penyo.tsington.support.RowMapper;
+import net.penyo.tsington.util.SqlDbProduct;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Spliterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 流式查询
+ *
+ * <p>
+ * 流式查询在一个借用的连接上打开只进只读的结果集，并在消费者拉取时逐行映射。游标只随消费推进，
+ * 因此消费者的快慢天然地约束了读取速度，堆中至多缓冲一次抓取的行。
+ * </p>
+ *
+ * <p>
+ * 抓取行数随消费速度调整：每消费完一批，按该批耗时把下一批放大或缩小到约 {@link #TARGET_BATCH_NANOS}
+ * 的工作量，并限制在性能配置给定的上限之内。快的消费者因此减少往返次数，慢的消费者则少占内存。
+ * 驱动不支持调整抓取行数时（如未开启游标读取的 MySQL），保持驱动的逐行流式模式。
+ * </p>
+ *
+ * <p>
+ * 结果集读尽、映射出错或流被关闭时，语句被关闭，连接被归还给连接池。
+ * </p>
+ *
+ * @author Penyo
+ */
+final class QueryStream<T> implements Spliterator<T> {
+  /**
+   * 抓取行数下限
+   */
+  private static final int MIN_FETCH_SIZE = 16;
+  /**
+   * 每批期望的消费时长
+   */
+  private static final long TARGET_BATCH_NANOS = TimeUnit.MILLISECONDS.toNanos(100L);
+
+  private final Connection connection;
+  private final PreparedStatement statement;
+  private final ResultSet resultSet;
+  private final RowMapper<T> mapper;
+  /**
+   * 是否为流式读取开启了事务
+   */
+  private final boolean transactional;
+  /**
+   * 是否可调整抓取行数
+   */
+  private final boolean adaptive;
+  private final int maxFetchSize;
+
+  /**
+   * 当前抓取行数
+   */
+  private int fetchSize;
+  /**
+   * 本批已消费的行数
+   */
+  private int consumed;
+  /**
+   * 本批开始的时刻
+   */
+  private long batchStart;
+  private boolean closed;
+
+  private QueryStream(Connection connection, PreparedStatement statement, ResultSet resultSet, RowMapper<T> mapper, boolean transactional, boolean adaptive, int fetchSize, int maxFetchSize) {
+    this.connection = connection;
+    this.statement = statement;
+    this.resultSet = resultSet;
+    this.mapper = mapper;
+    this.transactional = transactional;
+    this.adaptive = adaptive;
+    this.fetchSize = fetchSize;
+    this.maxFetchSize = maxFetchSize;
+    this.batchStart = System.nanoTime();
+  }
+
+  /**
+   * 借用连接并打开流式查询。
+   */
+  static <T> Stream<T> open(TsingtonDataSource pool, String sql, RowMapper<T> mapper, Object... params) {
+    if (sql == null || mapper == null) throw new RuntimeException();
+
+    Connection c = pool.getConnection();
+    if (c == null) throw new RuntimeException(new SQLTimeoutException("Timed out waiting for a connection."));
+
+    PerformanceConfig pc = pool.getPerformanceConfig();
+    UserConfig uc = pool.getUserConfig();
+    SqlDbProduct product = SqlDbProduct.of(uc);
+    int maxFetchSize = Math.max(MIN_FETCH_SIZE, pc.getStreamMaxFetchSize());
+    int preferred = Math.max(MIN_FETCH_SIZE, Math.min(pc.getStreamFetchSize(), maxFetchSize));
+    int fetchSize = product == null ? preferred : product.getStreamingFetchSize(uc.url(), preferred);
+    boolean transactional = false;
+    PreparedStatement ps = null;
+    try {
+      if (product != null && product.isStreamingTransactional() && c.getAutoCommit()) {
+        c.setAutoCommit(false);
+        transactional = true;
+      }
+      ps = c.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      ps.setFetchSize(fetchSize);
+      for (int i = 0; i < params.length; i++) ps.setObject(i + 1, params[i]);
+      ResultSet rs = ps.executeQuery();
+
+      QueryStream<T> qs = new QueryStream<>(c, ps, rs, mapper, transactional, fetchSize == preferred, fetchSize, maxFetchSize);
+      return StreamSupport.stream(qs, false).onClose(qs::close);
+    } catch (SQLException | RuntimeException e) {
+      release(c, ps, transactional);
+      throw e instanceof RuntimeException re ? re : new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super T> action) {
+    if (closed) return false;
+
+    T row;
+    try {
+      if (!resultSet.next()) {
+        close();
+        return false;
+      }
+      row = mapper.map(resultSet);
+      if (adaptive && ++consumed >= fetchSize) adapt();
+    } catch (SQLException e) {
+      close();
+      throw new RuntimeException(e);
+    } catch (RuntimeException e) {
+      close();
+      throw e;
+    }
+    action.accept(row);
+    return true;
+  }
+
+  /**
+   * 按刚消费完的一批的耗时调整下一批的抓取行数，每次至多放大或缩小一倍。
+   */
+  private void adapt() throws SQLException {
+    long now = System.nanoTime();
+    long elapsed = Math.max(1L, now - batchStart);
+    long ideal = (long) ((double) consumed * TARGET_BATCH_NANOS / elapsed);
+    int next = (int) Math.max(MIN_FETCH_SIZE, Math.min(maxFetchSize, Math.max(fetchSize / 2, Math.min(2L * fetchSize, ideal))));
+    if (next != fetchSize) resultSet.setFetchSize(fetchSize = next);
+    consumed = 0;
+    batchStart = now;
+  }
+
+  /**
+   * 关闭结果集与语句并归还连接。
+   */
+  void close() {
+    if (closed) return;
+    closed = true;
+    try {
+      resultSet.close();
+    } catch (SQLException ignored) {
+    }
+    release(connection, statement, transactional);
+  }
+
+  private static void release(Connection c, PreparedStatement ps, boolean transactional) {
+    try {
+      if (ps != null) ps.close();
+    } catch (SQLException ignored) {
+    }
+    try {
+      if (transactional) {
+        c.rollback();
+        c.setAutoCommit(true);
+      }
+    } catch (SQLException ignored) {
+    }
+    try {
+      c.close();
+    } catch (SQLException ignored) {
+    }
+  }
+
+  @Override
+  public Spliterator<T> trySplit() {
+    return null;
+  }
+
+  @Override
+  public long estimateSize() {
+    return Long.MAX_VALUE;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED;
+  }
+}
@@ -0,0 +1,29 @@
+package net.penyo.tsington.v0;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.support.ScalingPolicy;
+import net.penyo.tsington.support.ScalingWindow;
+
+/**
+ * 请求率伸缩策略
+ *
+ * <p>
+ * 这是连接池最初的伸缩方式：池已见底且每秒请求数高于扩张压力时扩张，池有半数以上空闲且每秒请求数低于收缩压力时收缩，
+ * 每次变化 {@code resizeNum} 个连接。
+ * </p>
+ *
+ * @author Penyo
+ */
+public class RequestRateScalingPolicy implements ScalingPolicy {
+  @Override
+  public int decide(ScalingWindow window, PerformanceConfig pc) {
+    // 与最初一样统计全部请求：池已饱和时，超时与被拒绝的请求同样构成压力
+    double pressure = window.requestRate();
+    boolean busy = window.idle() == 0;
+    boolean leisurely = window.capacity() > 0 && (double) window.idle() / window.capacity() >= 0.5;
+
+    if (busy && pressure > pc.getPressureToExpand()) return pc.getResizeNum();
+    if (leisurely && pressure < pc.getPressureToContract()) return -pc.getResizeNum();
+    return 0;
+  }
+}
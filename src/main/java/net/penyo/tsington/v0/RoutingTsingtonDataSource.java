@@ -0,0 +1,499 @@
+package net.penyo.tsington.v0;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.config.UserConfig;
+import net.penyo.tsington.support.PoolMetricsSnapshot;
+
+import java.sql.Connection;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 读写分离的青彤™ 连接池
+ *
+ * <p>
+ * 读写分离连接池由一个主库连接池与若干只读副本连接池组成。{@link #getConnection() getConnection()}
+ * 返回的连接在首次被使用时才决定去向：此前若被 {@code setReadOnly(true)} 标记，则借自副本，否则借自主库。
+ * 因此只需按 JDBC 惯例标记只读事务，应用代码无需改动。也可以经由 {@link #getReadConnection() getReadConnection()}
+ * 直接向副本借用。
+ * </p>
+ *
+ * <p>
+ * 副本之间按在途连接数（占用中与等待中之和）最少者优先；未通过健康检查的副本会被摘除，
+ * 直至再次通过检查。没有可用副本时，读流量回落到主库。
+ * </p>
+ *
+ * <p>
+ * 配置（包括健康检查周期）取自主库连接池。关闭本连接池时，主库与全部副本连接池一并关闭。
+ * </p>
+ *
+ * @author Penyo
+ */
+public class RoutingTsingtonDataSource implements TsingtonDataSourceSpecification {
+  /**
+   * 主库连接池
+   */
+  private final TsingtonDataSource primary;
+  /**
+   * 副本
+   */
+  private final List<Replica> replicas;
+  /**
+   * 健康检查线程
+   */
+  private final ScheduledExecutorService checker;
+
+  public RoutingTsingtonDataSource(TsingtonDataSource primary, List<? extends TsingtonDataSource> replicas) {
+    if (primary == null || replicas == null) throw new RuntimeException();
+
+    this.primary = primary;
+    this.replicas = replicas.stream().map(Replica::new).toList();
+    checker = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, primary.getPerformanceConfig().getPoolName() + "-replica-checker");
+      t.setDaemon(true);
+      return t;
+    });
+
+    long period = primary.getPerformanceConfig().getReplicaCheckPeriod();
+    checker.scheduleWithFixedDelay(() -> {
+      for (Replica replica : this.replicas)
+        try {
+          replica.healthy = replica.probe();
+        } catch (RuntimeException e) {
+          replica.healthy = false;
+        }
+    }, period, period, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public UserConfig getUserConfig() {
+    return primary.getUserConfig();
+  }
+
+  @Override
+  public PerformanceConfig getPerformanceConfig() {
+    return primary.getPerformanceConfig();
+  }
+
+  /**
+   * 获取可用资源数，计入主库与未被摘除的副本。
+   */
+  @Override
+  public int getRemainingCapacity() {
+    int sum = primary.getRemainingCapacity();
+    for (Replica replica : replicas)
+      if (replica.healthy) sum += replica.pool.getRemainingCapacity();
+    return sum;
+  }
+
+  /**
+   * 获取资源总数，计入主库与未被摘除的副本。
+   */
+  @Override
+  public int getCapacity() {
+    int sum = primary.getCapacity();
+    for (Replica replica : replicas)
+      if (replica.healthy) sum += replica.pool.getCapacity();
+    return sum;
+  }
+
+  /**
+   * 获取主库连接池的度量快照。副本的度量可分别经由各自的连接池或 JMX 获取。
+   */
+  @Override
+  public PoolMetricsSnapshot getMetricsSnapshot() {
+    return primary.getMetricsSnapshot();
+  }
+
+  /**
+   * 获取主库连接池。
+   */
+  public TsingtonDataSource getPrimary() {
+    return primary;
+  }
+
+  /**
+   * 获取未被摘除的副本数。
+   */
+  public int getHealthyReplicaCount() {
+    int count = 0;
+    for (Replica replica : replicas)
+      if (replica.healthy) count++;
+    return count;
+  }
+
+  /**
+   * 借用连接。
+   *
+   * <p>
+   * 返回的连接在首次被使用时才借用物理连接：此前被标记为只读的借自副本，否则借自主库。
+   * 自动提交模式下切换只读标记会使连接在下次使用时重新选择去向。
+   * </p>
+   */
+  @Override
+  public Connection getConnection() {
+    return new RoutingConnection();
+  }
+
+  /**
+   * 异步借用主库连接，超时时长取自性能配置。
+   */
+  @Override
+  public CompletableFuture<Connection> getConnectionAsync() {
+    return primary.getConnectionAsync();
+  }
+
+  /**
+   * 异步借用主库连接。异步借用不经过延迟路由，需要只读连接时请使用 {@link #getReadConnectionAsync(long)}。
+   */
+  @Override
+  public CompletableFuture<Connection> getConnectionAsync(long timeout) {
+    return primary.getConnectionAsync(timeout);
+  }
+
+  /**
+   * 借用只读连接：借自在途连接数最少的健康副本，无可用副本时借自主库。
+   */
+  public Connection getReadConnection() {
+    Replica replica = choose();
+    if (replica != null) {
+      Connection c = replica.borrow();
+      if (c != null) return c;
+    }
+    return primary.getConnection();
+  }
+
+  /**
+   * 异步借用只读连接：借自在途连接数最少的健康副本，无可用副本或副本借用失败时借自主库。
+   *
+   * @param timeout 超时时长（毫秒）
+   */
+  public CompletableFuture<Connection> getReadConnectionAsync(long timeout) {
+    Replica replica = choose();
+    if (replica == null) return primary.getConnectionAsync(timeout);
+
+    CompletableFuture<Connection> borrowing;
+    try {
+      borrowing = replica.pool.getConnectionAsync(timeout);
+    } catch (RuntimeException e) {
+      replica.onFailure(e);
+      return primary.getConnectionAsync(timeout);
+    }
+    return borrowing.thenApply(RoutingTsingtonDataSource::markReadOnly).exceptionallyCompose(e -> {
+      replica.onFailure(e);
+      return primary.getConnectionAsync(timeout);
+    });
+  }
+
+  /**
+   * 选出在途连接数最少的健康副本。
+   */
+  private Replica choose() {
+    Replica best = null;
+    int least = Integer.MAX_VALUE;
+    for (Replica replica : replicas) {
+      if (!replica.healthy) continue;
+      int outstanding = replica.outstanding();
+      if (outstanding < least) {
+        best = replica;
+        least = outstanding;
+      }
+    }
+    return best;
+  }
+
+  private static Connection markReadOnly(Connection c) {
+    try {
+      c.setReadOnly(true);
+    } catch (Exception ignored) {
+    }
+    return c;
+  }
+
+  @Override
+  public void close() {
+    checker.shutdownNow();
+    for (Replica replica : replicas)
+      try {
+        replica.pool.close();
+      } catch (RuntimeException ignored) {
+      }
+    primary.close();
+  }
+
+  /**
+   * 副本
+   */
+  private final class Replica {
+    /**
+     * 副本连接池
+     */
+    private final TsingtonDataSource pool;
+    /**
+     * 是否健康
+     */
+    private volatile boolean healthy = true;
+
+    private Replica(TsingtonDataSource pool) {
+      this.pool = pool;
+    }
+
+    /**
+     * 获取在途连接数。
+     */
+    private int outstanding() {
+      return pool.getMetrics().getInUse() + pool.getWaitingCount();
+    }
+
+    /**
+     * 借用只读连接；副本无法建立连接时将其摘除。
+     *
+     * @return 连接，若超时、副本过载或不可用则为 {@code null}
+     */
+    private Connection borrow() {
+      try {
+        Connection c = pool.getConnection();
+        return c == null ? null : markReadOnly(c);
+      } catch (RuntimeException e) {
+        onFailure(e);
+        return null;
+      }
+    }
+
+    /**
+     * 记录一次借用失败：仅当副本无法建立连接或其连接池已关闭时将其摘除。
+     * 副本过载或繁忙只说明它暂时忙不过来，不影响其健康状态。
+     */
+    private void onFailure(Throwable e) {
+      if (e instanceof CompletionException && e.getCause() != null) e = e.getCause();
+      if (!pool.isAlive() || e instanceof ConnectionUnavailableException && !(e instanceof PoolOverloadedException))
+        healthy = false;
+    }
+
+    /**
+     * 检查副本是否健康。
+     *
+     * <p>
+     * 副本连接池中没有任何连接（即全部建立失败）时判为不健康；否则借用一个连接做一次网络校验。
+     * 副本繁忙以致借用超时不视为不健康。
+     * </p>
+     */
+    private boolean probe() {
+      if (pool.getCapacity() == 0) return false;
+
+      long validationTimeout = primary.getPerformanceConfig().getValidationTimeout();
+      Connection c;
+      try {
+        c = pool.getConnectionAsync(validationTimeout).join();
+      } catch (RuntimeException e) {
+        return true;
+      }
+      try {
+        return c.isValid((int) Math.max(1L, TimeUnit.MILLISECONDS.toSeconds(validationTimeout)));
+      } catch (Exception e) {
+        return false;
+      } finally {
+        try {
+          c.close();
+        } catch (Exception ignored) {
+        }
+      }
+    }
+  }
+
+  /**
+   * 延迟路由的连接
+   *
+   * <p>
+   * 借用者设置的只读标记、目录、模式、隔离级别、可保持性、类型映射、网络超时与客户端信息会被记下：
+   * 首次借用物理连接时补设，因切换只读标记而改借其他连接时也随之带过去。
+   * </p>
+   */
+  private final class RoutingConnection extends DelegatingConnection {
+    /**
+     * 实际借到的连接，首次使用前为空
+     */
+    private Connection target;
+    /**
+     * 只读标记
+     */
+    private boolean readOnly;
+    /**
+     * 是否已关闭
+     */
+    private boolean closed;
+    /**
+     * 借用者设置的目录，未设置时为 {@code null}
+     */
+    private String catalog;
+    /**
+     * 借用者设置的模式，未设置时为 {@code null}
+     */
+    private String schema;
+    /**
+     * 借用者设置的隔离级别，未设置时为 -1
+     */
+    private int isolation = -1;
+    /**
+     * 借用者设置的可保持性，未设置时为 0
+     */
+    private int holdability;
+    /**
+     * 借用者设置的类型映射，未设置时为 {@code null}
+     */
+    private Map<String, Class<?>> typeMap;
+    /**
+     * 借用者设置网络超时所用的执行器，未设置时为 {@code null}
+     */
+    private Executor networkTimeoutExecutor;
+    /**
+     * 借用者设置的网络超时（毫秒）
+     */
+    private int networkTimeout;
+    /**
+     * 借用者设置的客户端信息，未设置时为 {@code null}
+     */
+    private Properties clientInfo;
+
+    @Override
+    protected Connection delegate() throws SQLException {
+      checkOpen();
+      if (target == null) bind();
+      return target;
+    }
+
+    private void checkOpen() {
+      if (closed) throw new IllegalStateException("The called entity has been recycled.");
+    }
+
+    @Override
+    public boolean isClosed() {
+      return closed;
+    }
+
+    @Override
+    public void close() throws SQLException {
+      if (closed) return;
+      closed = true;
+      Connection c = target;
+      target = null;
+      if (c != null) c.close();
+    }
+
+    @Override
+    public boolean isReadOnly() throws SQLException {
+      checkOpen();
+      return target == null ? readOnly : target.isReadOnly();
+    }
+
+    @Override
+    public void setReadOnly(boolean readOnly) throws SQLException {
+      checkOpen();
+      if (target != null && readOnly != this.readOnly && target.getAutoCommit()) {
+        // 不在事务中，归还当前连接，下次使用时按新标记重新选择去向
+        Connection c = target;
+        target = null;
+        c.close();
+      }
+      this.readOnly = readOnly;
+      if (target != null) target.setReadOnly(readOnly);
+    }
+
+    @Override
+    public void setCatalog(String catalog) throws SQLException {
+      checkOpen();
+      if (target != null) target.setCatalog(catalog);
+      this.catalog = catalog;
+    }
+
+    @Override
+    public void setSchema(String schema) throws SQLException {
+      checkOpen();
+      if (target != null) target.setSchema(schema);
+      this.schema = schema;
+    }
+
+    @Override
+    public void setTransactionIsolation(int level) throws SQLException {
+      checkOpen();
+      if (target != null) target.setTransactionIsolation(level);
+      isolation = level;
+    }
+
+    @Override
+    public void setHoldability(int holdability) throws SQLException {
+      checkOpen();
+      if (target != null) target.setHoldability(holdability);
+      this.holdability = holdability;
+    }
+
+    @Override
+    public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
+      checkOpen();
+      if (target != null) target.setTypeMap(map);
+      typeMap = map;
+    }
+
+    @Override
+    public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+      checkOpen();
+      if (target != null) target.setNetworkTimeout(executor, milliseconds);
+      networkTimeoutExecutor = executor;
+      networkTimeout = milliseconds;
+    }
+
+    @Override
+    public void setClientInfo(String name, String value) throws SQLClientInfoException {
+      checkOpen();
+      if (target != null) target.setClientInfo(name, value);
+      if (clientInfo == null) clientInfo = new Properties();
+      if (value == null) clientInfo.remove(name);
+      else clientInfo.setProperty(name, value);
+    }
+
+    @Override
+    public void setClientInfo(Properties properties) throws SQLClientInfoException {
+      checkOpen();
+      if (target != null) target.setClientInfo(properties);
+      clientInfo = new Properties();
+      if (properties != null) clientInfo.putAll(properties);
+    }
+
+    /**
+     * 按只读标记借用连接，并补设借用者设置过的会话属性。
+     */
+    private void bind() throws SQLException {
+      Connection c = readOnly ? getReadConnection() : primary.getConnection();
+      if (c == null) throw new IllegalStateException("Timed out waiting for a connection.");
+      try {
+        // 副本均不可用时读连接也会落到主库上，须显式标记只读
+        c.setReadOnly(readOnly);
+        if (catalog != null) c.setCatalog(catalog);
+        if (schema != null) c.setSchema(schema);
+        if (isolation != -1) c.setTransactionIsolation(isolation);
+        if (holdability != 0) c.setHoldability(holdability);
+        if (typeMap != null) c.setTypeMap(typeMap);
+        if (networkTimeoutExecutor != null) c.setNetworkTimeout(networkTimeoutExecutor, networkTimeout);
+        if (clientInfo != null) c.setClientInfo(clientInfo);
+      } catch (SQLException | RuntimeException e) {
+        c.close();
+        throw e;
+      }
+      target = c;
+    }
+
+    @Override
+    public String toString() {
+      return "RoutingConnection[" + target + "]";
+    }
+  }
+}
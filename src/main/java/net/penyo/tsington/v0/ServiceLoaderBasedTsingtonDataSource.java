@@ -0,0 +1,39 @@
+package net.penyo.tsington.v0;
+
+import net.penyo.tsington.support.TsingtonDataSourceInitializer;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+/**
+ * 基于服务发现构造的青彤™ 连接池
+ *
+ * <p>
+ * 连接池经由 {@link ServiceLoader ServiceLoader} 查找
+ * {@code META-INF/services/net.penyo.tsington.support.TsingtonDataSourceInitializer} 中声明的第一个初始化器。
+ * 若初始化器同时{@linkplain TsingtonDataSourceInitializer#defineDriver() 给出驱动实例}，启动过程中便没有反射、
+ * 动态代理、字节码织入或 YAML 解析，适合短生命周期的任务与 GraalVM native-image：后者在构建期即可登记服务提供者。
+ * </p>
+ *
+ * @author Penyo
+ * @see TsingtonDataSource
+ * @see TsingtonDataSourceInitializer
+ */
+public class ServiceLoaderBasedTsingtonDataSource extends ConfigClassBasedTsingtonDataSource {
+  public ServiceLoaderBasedTsingtonDataSource() {
+    this(ServiceLoaderBasedTsingtonDataSource.class.getClassLoader());
+  }
+
+  public ServiceLoaderBasedTsingtonDataSource(ClassLoader loader) {
+    super(find(loader));
+  }
+
+  /**
+   * 查找第一个初始化器。
+   */
+  private static TsingtonDataSourceInitializer find(ClassLoader loader) {
+    Iterator<TsingtonDataSourceInitializer> it = ServiceLoader.load(TsingtonDataSourceInitializer.class, loader).iterator();
+    if (!it.hasNext()) throw new RuntimeException();
+    return it.next();
+  }
+}
@@ -0,0 +1,184 @@
+package net.penyo.tsington.v0;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * SQL 表名提取
+ *
+ * <p>
+ * 为查询结果缓存提取 SQL 读取与写入的表。这里只做词法层面的近似：表名取限定名的最后一段并转为小写，
+ * 别名、子查询与逗号连接都按保守的方向处理。写入方无法判定时返回 {@code null}，调用方应使全部缓存失效。
+ * </p>
+ *
+ * @author Penyo
+ */
+final class SqlTables {
+  /**
+   * 读取时其后紧跟表名的关键字
+   */
+  private static final Set<String> READ_KEYWORDS = Set.of("FROM", "JOIN");
+  /**
+   * 写入时其后紧跟表名的关键字
+   */
+  private static final Set<String> WRITE_KEYWORDS = Set.of("INTO", "UPDATE", "FROM", "JOIN", "TABLE", "USING");
+  /**
+   * 关键字与表名之间可能出现的修饰词
+   */
+  private static final Set<String> MODIFIERS = Set.of("LOW_PRIORITY", "DELAYED", "HIGH_PRIORITY", "IGNORE", "QUICK", "ONLY", "LATERAL", "IF", "NOT", "EXISTS");
+  /**
+   * 不可能是别名的保留字
+   */
+  private static final Set<String> RESERVED = Set.of("WHERE", "JOIN", "ON", "INNER", "LEFT", "RIGHT", "FULL", "CROSS", "OUTER", "NATURAL", "STRAIGHT_JOIN",
+    "GROUP", "ORDER", "LIMIT", "OFFSET", "FETCH", "SET", "VALUES", "VALUE", "USING", "UNION", "EXCEPT", "INTERSECT", "HAVING", "WINDOW", "FOR", "SELECT", "LOCK");
+  /**
+   * 不修改数据的语句
+   */
+  private static final Set<String> HARMLESS = Set.of("SELECT", "SHOW", "SET", "USE", "BEGIN", "START", "COMMIT", "ROLLBACK", "SAVEPOINT", "RELEASE", "EXPLAIN", "DESCRIBE", "DESC");
+
+  private SqlTables() {
+  }
+
+  /**
+   * 提取可缓存查询读取的表。
+   *
+   * @return 表名集合；语句不是可缓存的查询（非 SELECT、加锁读取、SELECT INTO 或不读表）时为 {@code null}
+   */
+  static Set<String> read(String sql) {
+    List<String> tokens = tokenize(sql);
+    if (tokens.isEmpty() || !tokens.get(0).equalsIgnoreCase("SELECT")) return null;
+    for (int i = 0; i < tokens.size(); i++) {
+      String t = tokens.get(i);
+      if (t.equalsIgnoreCase("INTO") || t.equalsIgnoreCase("LOCK")) return null;
+      if (t.equalsIgnoreCase("FOR") && i + 1 < tokens.size()) {
+        String next = tokens.get(i + 1);
+        if (next.equalsIgnoreCase("UPDATE") || next.equalsIgnoreCase("SHARE") || next.equalsIgnoreCase("NO")) return null;
+      }
+    }
+    Set<String> tables = collect(tokens, READ_KEYWORDS);
+    return tables.isEmpty() ? null : tables;
+  }
+
+  /**
+   * 提取语句写入的表。
+   *
+   * @return 表名集合，不修改数据的语句为空集合；无法判定（如存储过程调用）时为 {@code null}
+   */
+  static Set<String> written(String sql) {
+    if (sql == null) return null;
+    List<String> tokens = tokenize(sql);
+    if (tokens.isEmpty()) return Set.of();
+
+    String verb = tokens.get(0).toUpperCase(Locale.ROOT);
+    if (verb.equals("SELECT")) {
+      for (String t : tokens)
+        if (t.equalsIgnoreCase("INTO")) return null;
+      return Set.of();
+    }
+    if (HARMLESS.contains(verb)) return Set.of();
+    return switch (verb) {
+      case "INSERT", "REPLACE", "UPDATE", "DELETE", "MERGE", "TRUNCATE", "ALTER", "DROP", "CREATE", "RENAME" -> {
+        Set<String> tables = collect(tokens, WRITE_KEYWORDS);
+        yield tables.isEmpty() ? null : tables;
+      }
+      default -> null;
+    };
+  }
+
+  /**
+   * 收集关键字之后的表名，连同以逗号相连的后续表名。
+   */
+  private static Set<String> collect(List<String> tokens, Set<String> keywords) {
+    Set<String> tables = new HashSet<>();
+    for (int i = 0; i < tokens.size(); i++) {
+      if (!keywords.contains(tokens.get(i).toUpperCase(Locale.ROOT))) continue;
+
+      int j = i + 1;
+      while (j < tokens.size() && MODIFIERS.contains(tokens.get(j).toUpperCase(Locale.ROOT))) j++;
+      while (j < tokens.size() && isIdentifier(tokens.get(j))) {
+        tables.add(normalize(tokens.get(j++)));
+        if (j < tokens.size() && tokens.get(j).equalsIgnoreCase("AS")) j++;
+        if (j < tokens.size() && isIdentifier(tokens.get(j)) && !RESERVED.contains(tokens.get(j).toUpperCase(Locale.ROOT))) j++;
+        if (j < tokens.size() && tokens.get(j).equals(",")) j++;
+        else break;
+      }
+    }
+    return tables;
+  }
+
+  private static boolean isIdentifier(String token) {
+    char c = token.charAt(0);
+    return Character.isLetter(c) || c == '_' || c == '"' || c == '`' || c == '[';
+  }
+
+  /**
+   * 去掉引号与限定前缀，转为小写。
+   */
+  private static String normalize(String identifier) {
+    int dot = -1;
+    char quote = 0;
+    for (int i = 0; i < identifier.length(); i++) {
+      char c = identifier.charAt(i);
+      if (quote != 0) {
+        if (c == quote) quote = 0;
+      } else if (c == '"' || c == '`') quote = c;
+      else if (c == '[') quote = ']';
+      else if (c == '.') dot = i;
+    }
+    String last = identifier.substring(dot + 1);
+    if (last.length() >= 2 && "\"`[".indexOf(last.charAt(0)) >= 0) last = last.substring(1, last.length() - 1);
+    return last.toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * 切分词法单元：跳过空白、注释与字符串字面量，把限定名（含引号）作为一个单元，其余符号逐个成为单元。
+   */
+  private static List<String> tokenize(String sql) {
+    List<String> tokens = new ArrayList<>();
+    int n = sql.length();
+    int i = 0;
+    while (i < n) {
+      char c = sql.charAt(i);
+      if (Character.isWhitespace(c)) {
+        i++;
+      } else if (c == '-' && i + 1 < n && sql.charAt(i + 1) == '-') {
+        while (i < n && sql.charAt(i) != '\n') i++;
+      } else if (c == '/' && i + 1 < n && sql.charAt(i + 1) == '*') {
+        int end = sql.indexOf("*/", i + 2);
+        i = end < 0 ? n : end + 2;
+      } else if (c == '\'') {
+        i++;
+        while (i < n) {
+          if (sql.charAt(i) == '\'') {
+            if (i + 1 < n && sql.charAt(i + 1) == '\'') i += 2;
+            else break;
+          } else i++;
+        }
+        i++;
+        tokens.add("''");
+      } else if (Character.isLetter(c) || c == '_' || c == '"' || c == '`' || c == '[') {
+        int start = i;
+        while (i < n) {
+          char d = sql.charAt(i);
+          if (d == '"' || d == '`' || d == '[') {
+            char close = d == '[' ? ']' : d;
+            int end = sql.indexOf(close, i + 1);
+            i = end < 0 ? n : end + 1;
+          } else if (Character.isLetterOrDigit(d) || d == '_' || d == '$' || d == '.') i++;
+          else break;
+        }
+        tokens.add(sql.substring(start, i));
+      } else if (Character.isDigit(c)) {
+        while (i < n && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) i++;
+        tokens.add("0");
+      } else {
+        tokens.add(String.valueOf(c));
+        i++;
+      }
+    }
+    return tokens;
+  }
+}
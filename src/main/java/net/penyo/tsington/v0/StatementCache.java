@@ -0,0 +1,190 @@
+package net.penyo.tsington.v0;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 预编译语句缓存
+ *
+ * <p>
+ * 预编译语句缓存隶属于单个物理连接，跨越多次借还而存活。它以 SQL 与结果集类型、并发性、可保持性为键，
+ * 按最近最少使用的顺序淘汰，并同时受条目数与估算内存的约束。借用者“关闭”缓存中的语句时，语句只会被清空参数与批处理、
+ * 复原语句级设置后放回缓存；借用者做过无法复原的改动（如 {@code closeOnCompletion}）时，语句将被逐出缓存并关闭。
+ * </p>
+ *
+ * <p>
+ * 同一时刻只有借到该连接的线程会访问缓存，连接袋的状态翻转保证了借用者之间的可见性，因此缓存本身无需同步。
+ * 连接被强行回收或连接池关闭时，借用者仍可能在访问缓存，此时只关闭物理连接而不触碰缓存。
+ * </p>
+ *
+ * @author Penyo
+ */
+public class StatementCache {
+  /**
+   * 单条目的固定内存估算（字节）
+   */
+  private static final long ENTRY_OVERHEAD = 512L;
+
+  /**
+   * 条目上限
+   */
+  private final int maxSize;
+  /**
+   * 估算内存上限（字节）
+   */
+  private final long memoryLimit;
+  /**
+   * 已占用的估算内存（字节）
+   */
+  private long memory;
+  /**
+   * 条目（按访问顺序）
+   */
+  private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75F, true);
+
+  public StatementCache(int maxSize, long memoryLimit) {
+    this.maxSize = maxSize;
+    this.memoryLimit = memoryLimit;
+  }
+
+  /**
+   * 取出或新建一条预编译语句。
+   *
+   * @return 缓存条目；若该键的语句正被占用或无法放入缓存，则为 {@code null}，此时语句已由 {@code prepared} 持有
+   */
+  Entry acquire(Key key, Connection connection, PreparedStatement[] prepared) throws SQLException {
+    Entry entry = entries.get(key);
+    if (entry != null) {
+      if (entry.inUse) {
+        prepared[0] = key.prepare(connection);
+        return null;
+      }
+      entry.inUse = true;
+      return entry;
+    }
+
+    PreparedStatement ps = key.prepare(connection);
+    long footprint = ENTRY_OVERHEAD + 2L * key.sql().length();
+    if (footprint > memoryLimit) {
+      prepared[0] = ps;
+      return null;
+    }
+
+    entry = new Entry(ps, footprint);
+    entry.inUse = true;
+    entries.put(key, entry);
+    memory += footprint;
+    evict();
+    return entry;
+  }
+
+  /**
+   * 将语句放回缓存。
+   */
+  void release(Entry entry) {
+    try {
+      entry.statement.clearParameters();
+      entry.statement.clearBatch();
+      entry.statement.clearWarnings();
+      entry.inUse = false;
+      evict();
+    } catch (SQLException e) {
+      remove(entry);
+    }
+  }
+
+  /**
+   * 将语句逐出缓存并关闭。
+   */
+  void remove(Entry entry) {
+    if (entries.values().remove(entry)) discard(entry);
+  }
+
+  /**
+   * 按最近最少使用的顺序淘汰空闲条目，直至满足约束。
+   */
+  private void evict() {
+    Iterator<Entry> it = entries.values().iterator();
+    while ((entries.size() > maxSize || memory > memoryLimit) && it.hasNext()) {
+      Entry entry = it.next();
+      if (entry.inUse) continue;
+      it.remove();
+      discard(entry);
+    }
+  }
+
+  private void discard(Entry entry) {
+    memory -= entry.footprint;
+    try {
+      entry.statement.close();
+    } catch (SQLException ignored) {
+    }
+  }
+
+  /**
+   * 获取条目数。
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * 关闭全部语句并清空缓存。
+   */
+  void clear() {
+    for (Entry entry : entries.values()) discard(entry);
+    entries.clear();
+  }
+
+  /**
+   * 缓存键
+   *
+   * @param sql         SQL
+   * @param type        结果集类型
+   * @param concurrency 结果集并发性
+   * @param holdability 结果集可保持性，0 表示未指定
+   */
+  record Key(String sql, int type, int concurrency, int holdability) {
+    Key(String sql) {
+      this(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, 0);
+    }
+
+    /**
+     * 在真的连接上预编译。
+     */
+    PreparedStatement prepare(Connection connection) throws SQLException {
+      if (holdability != 0) return connection.prepareStatement(sql, type, concurrency, holdability);
+      if (type == ResultSet.TYPE_FORWARD_ONLY && concurrency == ResultSet.CONCUR_READ_ONLY)
+        return connection.prepareStatement(sql);
+      return connection.prepareStatement(sql, type, concurrency);
+    }
+  }
+
+  /**
+   * 缓存条目
+   */
+  static final class Entry {
+    /**
+     * 语句实例
+     */
+    final PreparedStatement statement;
+    /**
+     * 估算内存（字节）
+     */
+    private final long footprint;
+    /**
+     * 是否被借用者持有
+     */
+    private boolean inUse;
+
+    private Entry(PreparedStatement statement, long footprint) {
+      this.statement = statement;
+      this.footprint = footprint;
+    }
+  }
+}
@@ -0,0 +1,293 @@
+package net.penyo.tsington.v0;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.support.PoolEvent;
+import net.penyo.tsington.support.StatementStats;
+import net.penyo.tsington.util.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 语句追踪器
+ *
+ * <p>
+ * 语句追踪器隶属于连接池，按性能配置中的采样率为语句执行计时。被采样的执行按 SQL 指纹累计调用次数与延迟直方图，
+ * 指纹数受上限约束：满员时淘汰累计耗时最少的指纹，新指纹继承其累计耗时（Space-Saving 的做法），
+ * 因此耗时最多的那些指纹总能留下，偶发的长尾 SQL 也不会挤走它们。
+ * </p>
+ *
+ * <p>
+ * 超过慢查询阈值的执行以指纹为描述发布到 {@link PoolEventBus PoolEventBus}，由其后台线程异步写入日志，执行线程从不等待日志输出。
+ * </p>
+ *
+ * <p>
+ * 未被采样的执行只多一次随机数判定；被采样的执行多两次取时与一次直方图记录，预编译语句的指纹会被缓存。
+ * 以 1% 的采样率在常见的 QPS 下，追踪的开销远低于一次网络往返的百分之一。
+ * </p>
+ *
+ * @author Penyo
+ */
+public class StatementTracer {
+  /**
+   * 指纹缓存上限
+   */
+  private static final int FINGERPRINT_CACHE_SIZE = 1024;
+
+  /**
+   * 被追踪的连接池
+   */
+  private final TsingtonDataSource pool;
+  /**
+   * 各指纹的统计
+   */
+  private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+  /**
+   * 新增与淘汰指纹时持有的锁
+   */
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  /**
+   * SQL 到指纹的缓存
+   */
+  private final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+  /**
+   * 慢查询数
+   */
+  private final LongAdder slowQueries = new LongAdder();
+  /**
+   * 因事件队列满而丢弃的慢查询数
+   */
+  private final LongAdder dropped = new LongAdder();
+
+  public StatementTracer(TsingtonDataSource pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * 开始追踪一次执行。
+   *
+   * @return 起始时刻（纳秒），未被采样时为 0
+   */
+  long begin() {
+    double rate = pool.getPerformanceConfig().getTraceSampleRate();
+    if (rate <= 0D || rate < 1D && ThreadLocalRandom.current().nextDouble() >= rate) return 0L;
+    long now = System.nanoTime();
+    return now == 0L ? 1L : now;
+  }
+
+  /**
+   * 结束追踪一次执行。
+   *
+   * @param sql   执行的 SQL，未知时为 {@code null}
+   * @param start {@link #begin() begin()} 的返回值
+   * @param tc    执行所在的连接
+   */
+  void end(String sql, long start, TrackableConnection tc) {
+    if (start == 0L || sql == null) return;
+    long elapsed = System.nanoTime() - start;
+
+    PerformanceConfig pc = pool.getPerformanceConfig();
+    double rate = pc.getTraceSampleRate();
+    String fingerprint = fingerprintOf(sql);
+    statsOf(fingerprint, pc.getTraceTopStatements()).record(elapsed, rate >= 1D ? 1L : Math.round(1D / rate));
+
+    if (elapsed >= TimeUnit.MILLISECONDS.toNanos(pc.getSlowQueryThreshold())) {
+      slowQueries.increment();
+      if (!pool.getEventBus().publish(PoolEvent.Type.SLOW_QUERY, tc, null, fingerprint, elapsed)) dropped.increment();
+    }
+  }
+
+  /**
+   * 取得指纹的统计，必要时新增并淘汰累计耗时最少的指纹。
+   */
+  private Stats statsOf(String fingerprint, int limit) {
+    Stats s = stats.get(fingerprint);
+    if (s != null) return s;
+
+    evictionLock.lock();
+    try {
+      s = stats.get(fingerprint);
+      if (s != null) return s;
+
+      long floor = 0L;
+      while (stats.size() >= Math.max(1, limit)) {
+        Stats min = null;
+        for (Stats c : stats.values())
+          if (min == null || c.weight() < min.weight()) min = c;
+        stats.remove(min.fingerprint);
+        floor = Math.max(floor, min.weight());
+      }
+      s = new Stats(fingerprint, floor);
+      stats.put(fingerprint, s);
+      return s;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * 取得 SQL 的指纹。
+   */
+  private String fingerprintOf(String sql) {
+    String fingerprint = fingerprints.get(sql);
+    if (fingerprint != null) return fingerprint;
+
+    fingerprint = fingerprint(sql);
+    // 以字面量拼接的 SQL 几乎不会重复，缓存满了就整体丢弃，不值得维护淘汰顺序
+    if (fingerprints.size() >= FINGERPRINT_CACHE_SIZE) fingerprints.clear();
+    fingerprints.put(sql, fingerprint);
+    return fingerprint;
+  }
+
+  /**
+   * 计算 SQL 指纹：字符串与数字字面量替换为 {@code ?}，IN 列表折叠为一项，去掉注释，连续空白规整为一个空格，带引号的标识符保持原样。
+   */
+  static String fingerprint(String sql) {
+    StringBuilder sb = new StringBuilder(sql.length());
+    int n = sql.length();
+    int i = 0;
+    int end;
+    while (i < n) {
+      char c = sql.charAt(i);
+      if (Character.isWhitespace(c)) {
+        while (i < n && Character.isWhitespace(sql.charAt(i))) i++;
+        if (!sb.isEmpty()) sb.append(' ');
+      } else if (c == '-' && i + 1 < n && sql.charAt(i + 1) == '-') {
+        while (i < n && sql.charAt(i) != '\n') i++;
+      } else if (c == '/' && i + 1 < n && sql.charAt(i + 1) == '*') {
+        int close = sql.indexOf("*/", i + 2);
+        i = close < 0 ? n : close + 2;
+      } else if (c == '\'') {
+        i++;
+        while (i < n) {
+          if (sql.charAt(i) == '\'') {
+            if (i + 1 < n && sql.charAt(i + 1) == '\'') i += 2;
+            else break;
+          } else i++;
+        }
+        i++;
+        sb.append('?');
+      } else if (c == '"' || c == '`') {
+        int close = sql.indexOf(c, i + 1);
+        int stop = close < 0 ? n : close + 1;
+        sb.append(sql, i, stop);
+        i = stop;
+      } else if (Character.isDigit(c) && (sb.isEmpty() || !isIdentifierPart(sb.charAt(sb.length() - 1)))) {
+        while (i < n && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) i++;
+        sb.append('?');
+      } else if (c == '(' && followsIn(sb) && (end = listEnd(sql, i)) > 0) {
+        sb.append("(?)");
+        i = end;
+      } else {
+        sb.append(c);
+        i++;
+      }
+    }
+    end = sb.length();
+    while (end > 0 && (sb.charAt(end - 1) == ' ' || sb.charAt(end - 1) == ';')) end--;
+    sb.setLength(end);
+    return sb.toString();
+  }
+
+  /**
+   * 检查已输出的内容是否以关键字 IN 结尾。
+   */
+  private static boolean followsIn(StringBuilder sb) {
+    int end = sb.length();
+    while (end > 0 && sb.charAt(end - 1) == ' ') end--;
+    return end >= 2 && (sb.charAt(end - 1) | 0x20) == 'n' && (sb.charAt(end - 2) | 0x20) == 'i'
+      && (end == 2 || !isIdentifierPart(sb.charAt(end - 3)));
+  }
+
+  /**
+   * 查找只含占位符与字面量的括号列表的结尾。
+   *
+   * @return 右括号之后的位置；列表含子查询、表达式或未闭合时为 -1
+   */
+  private static int listEnd(String sql, int open) {
+    int n = sql.length();
+    for (int i = open + 1; i < n; i++) {
+      char c = sql.charAt(i);
+      if (c == ')') return i + 1;
+      if (c == '\'') {
+        i++;
+        while (i < n && !(sql.charAt(i) == '\'' && (i + 1 >= n || sql.charAt(i + 1) != '\''))) i += sql.charAt(i) == '\'' ? 2 : 1;
+      } else if (!(c == '?' || c == ',' || c == '.' || c == '-' || Character.isDigit(c) || Character.isWhitespace(c))) return -1;
+    }
+    return -1;
+  }
+
+  private static boolean isIdentifierPart(char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+  }
+
+  /**
+   * 获取累计耗时最多的语句统计。
+   *
+   * @param limit 至多返回的条数
+   * @return 按累计耗时降序排列的统计
+   */
+  public List<StatementStats> getTopStatements(int limit) {
+    List<Stats> all = new ArrayList<>(stats.values());
+    all.sort(Comparator.comparingLong(Stats::weight).reversed());
+    List<StatementStats> top = new ArrayList<>(Math.min(limit, all.size()));
+    for (int i = 0; i < all.size() && i < limit; i++) {
+      Stats s = all.get(i);
+      top.add(new StatementStats(s.fingerprint, s.calls.sum(), s.latency.snapshot()));
+    }
+    return top;
+  }
+
+  /**
+   * 获取慢查询数，含被丢弃者。
+   */
+  public long getSlowQueryCount() {
+    return slowQueries.sum();
+  }
+
+  /**
+   * 获取因事件队列满而未写入日志的慢查询数。
+   */
+  public long getDroppedCount() {
+    return dropped.sum();
+  }
+
+  /**
+   * 单个指纹的统计
+   */
+  private static final class Stats {
+    private final String fingerprint;
+    /**
+     * 从被淘汰者继承的累计耗时（纳秒）
+     */
+    private final long floor;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder elapsed = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private Stats(String fingerprint, long floor) {
+      this.fingerprint = fingerprint;
+      this.floor = floor;
+    }
+
+    private void record(long nanos, long weight) {
+      calls.add(weight);
+      elapsed.add(nanos * weight);
+      latency.record(nanos);
+    }
+
+    /**
+     * 用于排序与淘汰的累计耗时估计（纳秒）。
+     */
+    private long weight() {
+      return floor + elapsed.sum();
+    }
+  }
+}
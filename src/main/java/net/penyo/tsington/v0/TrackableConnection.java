@@ -1,11 +1,35 @@
 package net.penyo.tsington.v0;
 
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
+import net.penyo.tsington.config.PerformanceConfig;
+
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLClientInfoException;
 import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Struct;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * 可追踪连接
@@ -16,9 +40,67 @@ import java.time.Instant;
  * 使用结束后，自然关闭即可。
  * </p>
  *
+ * <p>
+ * 同一个可追踪连接会在多次借还之间被复用，其状态由 {@link ConnectionBag ConnectionBag} 以 CAS 维护。
+ * 每次归还都会推进世代号，借用者持有的 {@link ConnectionHandle 句柄}以及借用期间创建的语句与结果集因此在归还后即失效；
+ * 借用者遗留的未关闭语句也会在归还时一并关闭。
+ * 所有 JDBC 调用均为直接委派，不经过反射。
+ * </p>
+ *
+ * <p>
+ * 建立时，可追踪连接记下物理连接的会话属性（自动提交、隔离级别、只读、目录、模式与网络超时）作为基线。
+ * 借用者经由本连接修改这些属性时，相应的脏位被置起；归还时只将置起且确实偏离基线的属性复原，
+ * 仅当确有事务未结束时才回滚。借用者未修改会话属性时，归还不产生任何网络往返。
+ * </p>
+ *
  * @author Penyo
  */
-public class TrackableConnection implements AutoCloseable, InvocationHandler {
+public class TrackableConnection implements Connection {
+  /**
+   * 空闲状态
+   */
+  static final int STATE_IDLE = 0;
+  /**
+   * 占用状态
+   */
+  static final int STATE_IN_USE = 1;
+  /**
+   * 移除状态
+   */
+  static final int STATE_REMOVED = -1;
+
+  private static final AtomicIntegerFieldUpdater<TrackableConnection> STATE = AtomicIntegerFieldUpdater.newUpdater(TrackableConnection.class, "state");
+  private static final AtomicIntegerFieldUpdater<TrackableConnection> GENERATION = AtomicIntegerFieldUpdater.newUpdater(TrackableConnection.class, "generation");
+
+  /**
+   * 脏位：自动提交
+   */
+  private static final int DIRTY_AUTO_COMMIT = 1;
+  /**
+   * 脏位：隔离级别
+   */
+  private static final int DIRTY_ISOLATION = 1 << 1;
+  /**
+   * 脏位：只读
+   */
+  private static final int DIRTY_READ_ONLY = 1 << 2;
+  /**
+   * 脏位：目录
+   */
+  private static final int DIRTY_CATALOG = 1 << 3;
+  /**
+   * 脏位：模式
+   */
+  private static final int DIRTY_SCHEMA = 1 << 4;
+  /**
+   * 脏位：网络超时
+   */
+  private static final int DIRTY_NETWORK_TIMEOUT = 1 << 5;
+  /**
+   * 复原网络超时所用的执行器
+   */
+  private static final Executor DIRECT = Runnable::run;
+
   /**
    * 唯一识别码
    */
@@ -32,21 +114,324 @@ public class TrackableConnection implements AutoCloseable, InvocationHandler {
    */
   private final TsingtonDataSource tsingtonDataSource;
   /**
-   * 连接占用状态
+   * 连接状态
+   */
+  private volatile int state = STATE_IDLE;
+  /**
+   * 借出世代
+   */
+  private volatile int generation;
+  /**
+   * 本次借出的时刻（纳秒），未借出时为 0
+   */
+  private volatile long borrowedAt;
+  /**
+   * 本次借出时的世代，与 {@link #borrowedAt borrowedAt} 一起标识一次借用
+   */
+  private volatile int lentGeneration;
+  /**
+   * 本次借用登记的优先级序号
+   */
+  private volatile int lane;
+  /**
+   * 本次借用者
+   */
+  private volatile Thread borrower;
+  /**
+   * 本次借用时采样的调用栈，未采样时为 {@code null}
+   */
+  private volatile Throwable borrowStack;
+  /**
+   * 本次借用是否已被报告为泄漏
+   */
+  private volatile boolean leakReported;
+  /**
+   * 最近一次归还或建立的时刻（纳秒）
+   */
+  private volatile long lastAccessed;
+  /**
+   * 物理连接当前所处的分区（目录或模式），未知时为 {@code null}
+   */
+  private volatile String partition;
+  /**
+   * 退役时刻（纳秒），寿命不受限时为 {@link Long#MAX_VALUE}
    */
-  private boolean isAvailable = true;
+  private final long retireAt;
+  /**
+   * 本次借用中尚未关闭的语句
+   */
+  private final List<TrackableStatement> openStatements = new ArrayList<>();
+  /**
+   * 预编译语句缓存，未开启时为 {@code null}
+   */
+  private final StatementCache statementCache;
+
+  /**
+   * 基线：自动提交
+   */
+  private boolean baseAutoCommit = true;
+  /**
+   * 基线：隔离级别
+   */
+  private int baseIsolation = TRANSACTION_NONE;
+  /**
+   * 基线：只读
+   */
+  private boolean baseReadOnly;
+  /**
+   * 基线：目录
+   */
+  private String baseCatalog;
+  /**
+   * 基线：模式
+   */
+  private String baseSchema;
+  /**
+   * 基线：网络超时
+   */
+  private int baseNetworkTimeout;
+  /**
+   * 本次借用中被修改过的会话属性
+   */
+  private int dirty;
+  /**
+   * 当前的自动提交模式
+   */
+  private boolean autoCommit = true;
+  /**
+   * 当前的隔离级别
+   */
+  private int isolation = TRANSACTION_NONE;
+  /**
+   * 当前的只读标记
+   */
+  private boolean readOnly;
+  /**
+   * 是否有未结束的事务
+   */
+  private boolean transactionOpen;
+  /**
+   * 未提交的事务写入过的表，提交或回滚时须再次使查询结果缓存失效
+   */
+  private Set<String> uncommittedTables;
+  /**
+   * 未提交的事务是否有无法判定所写表的写入
+   */
+  private boolean uncommittedUnknown;
 
   protected TrackableConnection(Connection connection, TsingtonDataSource tsingtonDataSource) {
     id = connection.hashCode() + Instant.now().hashCode();
     this.connection = connection;
     this.tsingtonDataSource = tsingtonDataSource;
+
+    PerformanceConfig pc = tsingtonDataSource.getPerformanceConfig();
+    lastAccessed = System.nanoTime();
+    long lifetime = TimeUnit.MILLISECONDS.toNanos(pc.getMaxLifetime());
+    // 随机提前至多 2.5% 的寿命，避免同批建立的连接同时退役
+    retireAt = lifetime > 0 ? lastAccessed + lifetime - ThreadLocalRandom.current().nextLong(lifetime / 40 + 1) : Long.MAX_VALUE;
+    statementCache = pc.getStatementCacheSize() > 0 ? new StatementCache(pc.getStatementCacheSize(), pc.getStatementCacheMemoryLimit()) : null;
+    captureBaseline();
+  }
+
+  /**
+   * 记下物理连接的会话属性作为基线。在创建线程上执行，不占用借用路径。
+   *
+   * <p>
+   * 驱动未能给出的属性（抛出异常，包括驱动返回 {@code null} 引起的拆箱失败）沿用默认值，不影响连接的建立。
+   * </p>
+   */
+  private void captureBaseline() {
+    try {
+      baseAutoCommit = autoCommit = connection.getAutoCommit();
+      baseIsolation = isolation = connection.getTransactionIsolation();
+      baseReadOnly = readOnly = connection.isReadOnly();
+      baseCatalog = connection.getCatalog();
+    } catch (SQLException | RuntimeException ignored) {
+    }
+    try {
+      baseSchema = connection.getSchema();
+      baseNetworkTimeout = connection.getNetworkTimeout();
+    } catch (SQLException | RuntimeException | AbstractMethodError ignored) {
+      // 早于 JDBC 4.1 的驱动不支持模式与网络超时
+    }
+  }
+
+  /**
+   * 记录一次语句执行：非自动提交模式下，此后即认为有事务未结束。
+   */
+  void onExecute() {
+    if (!autoCommit) transactionOpen = true;
+  }
+
+  /**
+   * 开始追踪一次语句执行。
+   *
+   * @return 交给 {@link #endTrace(String, long) endTrace(...)} 的起始时刻，未被采样时为 0
+   */
+  long beginTrace() {
+    return tsingtonDataSource.getStatementTracer().begin();
+  }
+
+  /**
+   * 结束追踪一次语句执行。
+   */
+  void endTrace(String sql, long start) {
+    if (start != 0L) tsingtonDataSource.getStatementTracer().end(sql, start, this);
+  }
+
+  /**
+   * 复原本次借用修改过的会话属性。
+   *
+   * @return 是否复原成功；失败时连接应被退役
+   */
+  boolean resetSession() {
+    try {
+      if (transactionOpen) connection.rollback();
+      transactionOpen = false;
+      onTransactionEnd();
+      if (dirty == 0) return true;
+
+      if ((dirty & DIRTY_AUTO_COMMIT) != 0 && autoCommit != baseAutoCommit) connection.setAutoCommit(autoCommit = baseAutoCommit);
+      if ((dirty & DIRTY_ISOLATION) != 0 && isolation != baseIsolation) connection.setTransactionIsolation(isolation = baseIsolation);
+      if ((dirty & DIRTY_READ_ONLY) != 0 && readOnly != baseReadOnly) connection.setReadOnly(readOnly = baseReadOnly);
+      if ((dirty & DIRTY_CATALOG) != 0 && baseCatalog != null) connection.setCatalog(baseCatalog);
+      if ((dirty & DIRTY_SCHEMA) != 0 && baseSchema != null) connection.setSchema(baseSchema);
+      if ((dirty & DIRTY_NETWORK_TIMEOUT) != 0) connection.setNetworkTimeout(DIRECT, baseNetworkTimeout);
+      dirty = 0;
+      return true;
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  /**
+   * 将当前目录作为新的基线，供分区连接池切换租户后使用。
+   */
+  void rebaseCatalog(String catalog) {
+    baseCatalog = catalog;
+  }
+
+  /**
+   * 将当前模式作为新的基线，供分区连接池切换租户后使用。
+   */
+  void rebaseSchema(String schema) {
+    baseSchema = schema;
+  }
+
+  int getState() {
+    return state;
+  }
+
+  void setState(int state) {
+    this.state = state;
+  }
+
+  boolean compareAndSetState(int expect, int update) {
+    return STATE.compareAndSet(this, expect, update);
+  }
+
+  int getGeneration() {
+    return generation;
+  }
+
+  long getBorrowedAt() {
+    return borrowedAt;
+  }
+
+  void setBorrowedAt(long borrowedAt) {
+    this.borrowedAt = borrowedAt;
+  }
+
+  int getLentGeneration() {
+    return lentGeneration;
+  }
+
+  /**
+   * 记录一次借出。
+   */
+  void onLend(long now) {
+    lentGeneration = generation;
+    borrowedAt = now;
+  }
+
+  int getLane() {
+    return lane;
+  }
+
+  void setLane(int lane) {
+    this.lane = lane;
+  }
+
+  Thread getBorrower() {
+    return borrower;
+  }
+
+  Throwable getBorrowStack() {
+    return borrowStack;
+  }
+
+  boolean isLeakReported() {
+    return leakReported;
+  }
+
+  void setLeakReported(boolean leakReported) {
+    this.leakReported = leakReported;
+  }
+
+  /**
+   * 记录借用者信息。
+   */
+  void setBorrower(Thread borrower, Throwable borrowStack) {
+    this.borrower = borrower;
+    this.borrowStack = borrowStack;
+    leakReported = false;
+  }
+
+  long getLastAccessed() {
+    return lastAccessed;
+  }
+
+  void setLastAccessed(long lastAccessed) {
+    this.lastAccessed = lastAccessed;
+  }
+
+  String getPartition() {
+    return partition;
+  }
+
+  void setPartition(String partition) {
+    this.partition = partition;
+  }
+
+  /**
+   * 检查连接是否已超过寿命。
+   */
+  boolean isExpired(long now) {
+    return retireAt != Long.MAX_VALUE && now - retireAt >= 0;
+  }
+
+  /**
+   * 校验物理连接是否存活。
+   *
+   * @param timeout 校验超时（毫秒）
+   */
+  boolean validate(long timeout) {
+    try {
+      return connection.isValid((int) Math.max(1L, (timeout + 999L) / 1000L));
+    } catch (SQLException e) {
+      return false;
+    }
   }
 
   /**
    * 获取代理。
+   *
+   * <p>
+   * 每次调用都返回记下当前世代的新{@link ConnectionHandle 句柄}，应在借出时调用。
+   * </p>
    */
   public Connection proxy() {
-    return (Connection) Proxy.newProxyInstance(connection.getClass().getClassLoader(), connection.getClass().getInterfaces(), this);
+    return new ConnectionHandle(this, generation);
   }
 
   /**
@@ -56,14 +441,113 @@ public class TrackableConnection implements AutoCloseable, InvocationHandler {
     return connection;
   }
 
-  @Override
-  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-    if (!isAvailable) throw new IllegalStateException("The called entity has been recycled.");
-    if (method.getName().equals("close")) {
-      close();
-      return null;
+  /**
+   * 检查连接是否仍处于借用中。
+   */
+  private void checkOpen() {
+    if (state != STATE_IN_USE) throw new IllegalStateException("The called entity has been recycled.");
+  }
+
+  /**
+   * 登记语句。
+   */
+  private <S extends TrackableStatement> S track(S statement) {
+    openStatements.add(statement);
+    return statement;
+  }
+
+  /**
+   * 注销语句。
+   */
+  void untrack(TrackableStatement statement) {
+    openStatements.remove(statement);
+  }
+
+  /**
+   * 关闭借用者遗留的语句。
+   */
+  private void closeStatements() {
+    for (TrackableStatement statement : openStatements)
+      try {
+        statement.release();
+      } catch (SQLException ignored) {
+      }
+    openStatements.clear();
+  }
+
+  StatementCache getStatementCache() {
+    return statementCache;
+  }
+
+  /**
+   * 经由缓存预编译语句。
+   */
+  private TrackablePreparedStatement prepare(StatementCache.Key key) throws SQLException {
+    boolean coalescible = getWriteCoalescer() != null && WriteCoalescer.isEligible(key.sql());
+    QueryCache queryCache = getQueryCache();
+    boolean cacheable = queryCache != null && key.type() == ResultSet.TYPE_FORWARD_ONLY
+      && key.concurrency() == ResultSet.CONCUR_READ_ONLY && queryCache.isCacheable(key.sql());
+    if (statementCache == null)
+      return new TrackablePreparedStatement(key.prepare(connection), this, null, key.sql(), coalescible, cacheable);
+
+    PreparedStatement[] uncached = new PreparedStatement[1];
+    StatementCache.Entry entry = statementCache.acquire(key, connection, uncached);
+    if (entry == null) return new TrackablePreparedStatement(uncached[0], this, null, key.sql(), coalescible, cacheable);
+    return new TrackablePreparedStatement(entry.statement, this, entry, key.sql(), coalescible, cacheable);
+  }
+
+  WriteCoalescer getWriteCoalescer() {
+    return tsingtonDataSource.getWriteCoalescer();
+  }
+
+  QueryCache getQueryCache() {
+    return tsingtonDataSource.getQueryCache();
+  }
+
+  /**
+   * 检查本次借用当前能否读写查询结果缓存：须处于自动提交模式且无未结束的事务，且未经由本连接切换目录或模式。
+   */
+  boolean isResultCacheable() {
+    return autoCommit && !transactionOpen && (dirty & (DIRTY_CATALOG | DIRTY_SCHEMA)) == 0;
+  }
+
+  /**
+   * 记录一次可能的写入：使查询结果缓存中读取了所写表的条目失效；事务中的写入在事务结束时还会再失效一次，
+   * 以清除事务期间被其他连接缓存的旧结果。
+   *
+   * @param sql 执行的语句，未知时为 {@code null}
+   */
+  void onWritten(String sql) {
+    QueryCache cache = getQueryCache();
+    if (cache == null) return;
+    String[] tables = cache.written(sql);
+    if (tables != null && tables.length == 0) return;
+
+    cache.invalidate(tables);
+    if (autoCommit) return;
+    if (tables == null) uncommittedUnknown = true;
+    else {
+      if (uncommittedTables == null) uncommittedTables = new HashSet<>();
+      Collections.addAll(uncommittedTables, tables);
     }
-    return method.invoke(connection, args);
+  }
+
+  /**
+   * 事务结束时再次使其写过的表失效。
+   */
+  private void onTransactionEnd() {
+    if (uncommittedTables == null && !uncommittedUnknown) return;
+    QueryCache cache = getQueryCache();
+    if (cache != null) cache.invalidate(uncommittedUnknown ? null : uncommittedTables.toArray(String[]::new));
+    uncommittedTables = null;
+    uncommittedUnknown = false;
+  }
+
+  /**
+   * 检查本次借用当前能否把写入交给写合并器：须处于自动提交模式，且未被切换到其他分区。
+   */
+  boolean isCoalescible() {
+    return autoCommit && partition == null && (dirty & (DIRTY_CATALOG | DIRTY_SCHEMA)) == 0;
   }
 
   @Override
@@ -79,23 +563,402 @@ public class TrackableConnection implements AutoCloseable, InvocationHandler {
     return id;
   }
 
+  /**
+   * 结束本次借用，使借用者持有的引用失效。
+   *
+   * @return 是否由本次调用结束；若借用已被结束，则为 {@code false}
+   */
+  boolean revoke() {
+    return revoke(generation);
+  }
+
+  /**
+   * 结束某次借用，使借用者持有的引用失效。
+   *
+   * @param borrowed 该次借用的世代
+   * @return 是否由本次调用结束；若该次借用已被结束，则为 {@code false}
+   */
+  boolean revoke(int borrowed) {
+    return state == STATE_IN_USE && GENERATION.compareAndSet(this, borrowed, borrowed + 1);
+  }
+
   @Override
   public void close() {
-    isAvailable = false;
-    try {
-      if (!connection.isClosed()) tsingtonDataSource.returnConnection(this);
-    } catch (SQLException ignored) {
-    }
+    close(generation);
+  }
+
+  /**
+   * 结束某次借用并归还连接；该次借用已被结束时什么也不做。
+   *
+   * @param borrowed 该次借用的世代
+   */
+  void close(int borrowed) {
+    if (!revoke(borrowed)) return;
+
+    closeStatements();
+    tsingtonDataSource.returnConnection(this);
+  }
+
+  @Override
+  public boolean isClosed() throws SQLException {
+    return state != STATE_IN_USE || connection.isClosed();
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    checkOpen();
+    if (iface.isInstance(connection)) return iface.cast(connection);
+    return connection.unwrap(iface);
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    checkOpen();
+    return iface.isInstance(connection) || connection.isWrapperFor(iface);
   }
 
   /**
    * “夺舍”。
    */
   protected void tradeOff() {
-    close();
+    tradeOff(true);
+  }
+
+  /**
+   * 从借用者手中强行“夺舍”。借用者线程可能仍在访问语句缓存，故不清空缓存，只关闭物理连接：
+   * 驱动会一并关闭其上的语句，缓存随本对象被丢弃。
+   */
+  void seize() {
+    tradeOff(false);
+  }
+
+  private void tradeOff(boolean clearStatementCache) {
+    GENERATION.incrementAndGet(this);
+    state = STATE_REMOVED;
+    if (clearStatementCache && statementCache != null) statementCache.clear();
     try {
       connection.close();
     } catch (SQLException ignored) {
     }
   }
+
+  @Override
+  public Statement createStatement() throws SQLException {
+    checkOpen();
+    return track(new TrackableStatement(connection.createStatement(), this));
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql) throws SQLException {
+    checkOpen();
+    return track(prepare(new StatementCache.Key(sql)));
+  }
+
+  @Override
+  public CallableStatement prepareCall(String sql) throws SQLException {
+    checkOpen();
+    return track(new TrackableCallableStatement(connection.prepareCall(sql), this, sql));
+  }
+
+  @Override
+  public String nativeSQL(String sql) throws SQLException {
+    checkOpen();
+    return connection.nativeSQL(sql);
+  }
+
+  @Override
+  public void setAutoCommit(boolean autoCommit) throws SQLException {
+    checkOpen();
+    connection.setAutoCommit(autoCommit);
+    // 由手动提交切回自动提交会提交当前事务
+    if (autoCommit) {
+      transactionOpen = false;
+      onTransactionEnd();
+    }
+    this.autoCommit = autoCommit;
+    dirty |= DIRTY_AUTO_COMMIT;
+  }
+
+  @Override
+  public boolean getAutoCommit() throws SQLException {
+    checkOpen();
+    return autoCommit;
+  }
+
+  @Override
+  public void commit() throws SQLException {
+    checkOpen();
+    connection.commit();
+    transactionOpen = false;
+    onTransactionEnd();
+  }
+
+  @Override
+  public void rollback() throws SQLException {
+    checkOpen();
+    connection.rollback();
+    transactionOpen = false;
+    onTransactionEnd();
+  }
+
+  @Override
+  public DatabaseMetaData getMetaData() throws SQLException {
+    checkOpen();
+    return connection.getMetaData();
+  }
+
+  @Override
+  public void setReadOnly(boolean readOnly) throws SQLException {
+    checkOpen();
+    connection.setReadOnly(readOnly);
+    this.readOnly = readOnly;
+    dirty |= DIRTY_READ_ONLY;
+  }
+
+  @Override
+  public boolean isReadOnly() throws SQLException {
+    checkOpen();
+    return readOnly;
+  }
+
+  @Override
+  public void setCatalog(String catalog) throws SQLException {
+    checkOpen();
+    connection.setCatalog(catalog);
+    dirty |= DIRTY_CATALOG;
+  }
+
+  @Override
+  public String getCatalog() throws SQLException {
+    checkOpen();
+    return connection.getCatalog();
+  }
+
+  @Override
+  public void setTransactionIsolation(int level) throws SQLException {
+    checkOpen();
+    connection.setTransactionIsolation(level);
+    isolation = level;
+    dirty |= DIRTY_ISOLATION;
+  }
+
+  @Override
+  public int getTransactionIsolation() throws SQLException {
+    checkOpen();
+    return isolation;
+  }
+
+  @Override
+  public SQLWarning getWarnings() throws SQLException {
+    checkOpen();
+    return connection.getWarnings();
+  }
+
+  @Override
+  public void clearWarnings() throws SQLException {
+    checkOpen();
+    connection.clearWarnings();
+  }
+
+  @Override
+  public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+    checkOpen();
+    return track(new TrackableStatement(connection.createStatement(resultSetType, resultSetConcurrency), this));
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+    checkOpen();
+    return track(prepare(new StatementCache.Key(sql, resultSetType, resultSetConcurrency, 0)));
+  }
+
+  @Override
+  public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+    checkOpen();
+    return track(new TrackableCallableStatement(connection.prepareCall(sql, resultSetType, resultSetConcurrency), this, sql));
+  }
+
+  @Override
+  public Map<String, Class<?>> getTypeMap() throws SQLException {
+    checkOpen();
+    return connection.getTypeMap();
+  }
+
+  @Override
+  public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
+    checkOpen();
+    connection.setTypeMap(map);
+  }
+
+  @Override
+  public void setHoldability(int holdability) throws SQLException {
+    checkOpen();
+    connection.setHoldability(holdability);
+  }
+
+  @Override
+  public int getHoldability() throws SQLException {
+    checkOpen();
+    return connection.getHoldability();
+  }
+
+  @Override
+  public Savepoint setSavepoint() throws SQLException {
+    checkOpen();
+    onExecute();
+    return connection.setSavepoint();
+  }
+
+  @Override
+  public Savepoint setSavepoint(String name) throws SQLException {
+    checkOpen();
+    onExecute();
+    return connection.setSavepoint(name);
+  }
+
+  @Override
+  public void rollback(Savepoint savepoint) throws SQLException {
+    checkOpen();
+    connection.rollback(savepoint);
+  }
+
+  @Override
+  public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+    checkOpen();
+    connection.releaseSavepoint(savepoint);
+  }
+
+  @Override
+  public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+    checkOpen();
+    return track(new TrackableStatement(connection.createStatement(resultSetType, resultSetConcurrency, resultSetHoldability), this));
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+    checkOpen();
+    return track(prepare(new StatementCache.Key(sql, resultSetType, resultSetConcurrency, resultSetHoldability)));
+  }
+
+  @Override
+  public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+    checkOpen();
+    return track(new TrackableCallableStatement(connection.prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability), this, sql));
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+    checkOpen();
+    return track(new TrackablePreparedStatement(connection.prepareStatement(sql, autoGeneratedKeys), this, sql));
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+    checkOpen();
+    return track(new TrackablePreparedStatement(connection.prepareStatement(sql, columnIndexes), this, sql));
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+    checkOpen();
+    return track(new TrackablePreparedStatement(connection.prepareStatement(sql, columnNames), this, sql));
+  }
+
+  @Override
+  public Clob createClob() throws SQLException {
+    checkOpen();
+    return connection.createClob();
+  }
+
+  @Override
+  public Blob createBlob() throws SQLException {
+    checkOpen();
+    return connection.createBlob();
+  }
+
+  @Override
+  public NClob createNClob() throws SQLException {
+    checkOpen();
+    return connection.createNClob();
+  }
+
+  @Override
+  public SQLXML createSQLXML() throws SQLException {
+    checkOpen();
+    return connection.createSQLXML();
+  }
+
+  @Override
+  public boolean isValid(int timeout) throws SQLException {
+    checkOpen();
+    return connection.isValid(timeout);
+  }
+
+  @Override
+  public void setClientInfo(String name, String value) throws SQLClientInfoException {
+    checkOpen();
+    connection.setClientInfo(name, value);
+  }
+
+  @Override
+  public void setClientInfo(Properties properties) throws SQLClientInfoException {
+    checkOpen();
+    connection.setClientInfo(properties);
+  }
+
+  @Override
+  public String getClientInfo(String name) throws SQLException {
+    checkOpen();
+    return connection.getClientInfo(name);
+  }
+
+  @Override
+  public Properties getClientInfo() throws SQLException {
+    checkOpen();
+    return connection.getClientInfo();
+  }
+
+  @Override
+  public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
+    checkOpen();
+    return connection.createArrayOf(typeName, elements);
+  }
+
+  @Override
+  public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
+    checkOpen();
+    return connection.createStruct(typeName, attributes);
+  }
+
+  @Override
+  public void setSchema(String schema) throws SQLException {
+    checkOpen();
+    connection.setSchema(schema);
+    dirty |= DIRTY_SCHEMA;
+  }
+
+  @Override
+  public String getSchema() throws SQLException {
+    checkOpen();
+    return connection.getSchema();
+  }
+
+  @Override
+  public void abort(Executor executor) throws SQLException {
+    checkOpen();
+    connection.abort(executor);
+  }
+
+  @Override
+  public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+    checkOpen();
+    connection.setNetworkTimeout(executor, milliseconds);
+    dirty |= DIRTY_NETWORK_TIMEOUT;
+  }
+
+  @Override
+  public int getNetworkTimeout() throws SQLException {
+    checkOpen();
+    return connection.getNetworkTimeout();
+  }
 }
@@ -0,0 +1,551 @@
+package net.penyo.tsington.v0;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Calendar;
+
+/**
+ * 可追踪预编译语句
+ *
+ * @author Penyo
+ * @see TrackableStatement
+ */
+public class TrackablePreparedStatement extends TrackableStatement implements PreparedStatement {
+  /**
+   * 预编译语句实例
+   */
+  private final PreparedStatement preparedStatement;
+  /**
+   * 缓存条目，未缓存时为 {@code null}
+   */
+  private final StatementCache.Entry cacheEntry;
+  /**
+   * SQL，存储过程调用时为 {@code null}
+   */
+  private final String sql;
+  /**
+   * 是否可交由写合并器合并
+   */
+  private final boolean coalescible;
+  /**
+   * 是否可读写查询结果缓存
+   */
+  private final boolean cacheable;
+  /**
+   * 已绑定的参数，仅在可合并或可缓存时记录
+   */
+  private Object[] parameters;
+  /**
+   * 已绑定的参数是否都可以被重放与比较
+   */
+  private boolean bindable = true;
+
+  TrackablePreparedStatement(PreparedStatement preparedStatement, TrackableConnection connection) {
+    this(preparedStatement, connection, null);
+  }
+
+  TrackablePreparedStatement(PreparedStatement preparedStatement, TrackableConnection connection, String sql) {
+    this(preparedStatement, connection, null, sql, false, false);
+  }
+
+  TrackablePreparedStatement(PreparedStatement preparedStatement, TrackableConnection connection, StatementCache.Entry cacheEntry, String sql, boolean coalescible, boolean cacheable) {
+    super(preparedStatement, connection);
+    this.preparedStatement = preparedStatement;
+    this.cacheEntry = cacheEntry;
+    this.sql = sql;
+    this.coalescible = coalescible;
+    this.cacheable = cacheable;
+    if (coalescible || cacheable) parameters = new Object[0];
+  }
+
+  /**
+   * 记录参数，以便写合并器在其他调用方的批次中重放，或作为查询结果缓存的键。
+   */
+  private void record(int parameterIndex, Object value) {
+    if (parameters == null) return;
+    if (parameterIndex > parameters.length) parameters = Arrays.copyOf(parameters, parameterIndex);
+    if (parameterIndex > 0) parameters[parameterIndex - 1] = value;
+  }
+
+  /**
+   * 标记本次绑定无法重放，下次执行将照常直连。
+   */
+  private void unbindable() {
+    bindable = false;
+  }
+
+  @Override
+  protected boolean isRecycled() {
+    return cacheEntry != null;
+  }
+
+  /**
+   * 释放语句；若语句来自缓存，则复原借用者改动过的设置后放回缓存而非真正关闭，无法复原时将其逐出缓存。
+   */
+  @Override
+  void release() throws SQLException {
+    if (cacheEntry == null) {
+      super.release();
+      return;
+    }
+    closed = true;
+    boolean restored;
+    try {
+      restored = restore();
+    } catch (SQLException e) {
+      restored = false;
+    }
+    if (restored) connection.getStatementCache().release(cacheEntry);
+    else connection.getStatementCache().remove(cacheEntry);
+  }
+
+  @Override
+  public ResultSet executeQuery() throws SQLException {
+    checkOpen();
+    connection.onExecute();
+    QueryCache cache;
+    if (cacheable && bindable && fetchSize == 0 && connection.isResultCacheable() && (cache = connection.getQueryCache()) != null) {
+      QueryCache.Key key = new QueryCache.Key(connection.getPartition(), sql, parameters.clone());
+      ResultSet hit = cache.get(key);
+      if (hit != null) return wrap(hit);
+      QueryCache.Ticket ticket = cache.stamp(sql);
+      long start = connection.beginTrace();
+      try {
+        return wrap(cache.load(key, ticket, preparedStatement.executeQuery()));
+      } finally {
+        connection.endTrace(sql, start);
+      }
+    }
+    long start = connection.beginTrace();
+    try {
+      return wrap(preparedStatement.executeQuery());
+    } finally {
+      connection.endTrace(getTracedSql(), start);
+      // 存储过程可能写入任何表
+      if (sql == null) connection.onWritten(null);
+    }
+  }
+
+  @Override
+  public int executeUpdate() throws SQLException {
+    checkOpen();
+    connection.onExecute();
+    long start = connection.beginTrace();
+    try {
+      WriteCoalescer coalescer;
+      if (coalescible && bindable && connection.isCoalescible() && (coalescer = connection.getWriteCoalescer()) != null)
+        return coalescer.submit(sql, parameters.clone(), preparedStatement, connection.getRealConnection());
+      return preparedStatement.executeUpdate();
+    } finally {
+      connection.endTrace(getTracedSql(), start);
+      connection.onWritten(sql);
+    }
+  }
+
+  @Override
+  public void setNull(int parameterIndex, int sqlType) throws SQLException {
+    checkOpen();
+    record(parameterIndex, new WriteCoalescer.Null(sqlType));
+    preparedStatement.setNull(parameterIndex, sqlType);
+  }
+
+  @Override
+  public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+    checkOpen();
+    record(parameterIndex, x);
+    preparedStatement.setBoolean(parameterIndex, x);
+  }
+
+  @Override
+  public void setByte(int parameterIndex, byte x) throws SQLException {
+    checkOpen();
+    record(parameterIndex, x);
+    preparedStatement.setByte(parameterIndex, x);
+  }
+
+  @Override
+  public void setShort(int parameterIndex, short x) throws SQLException {
+    checkOpen();
+    record(parameterIndex, x);
+    preparedStatement.setShort(parameterIndex, x);
+  }
+
+  @Override
+  public void setInt(int parameterIndex, int x) throws SQLException {
+    checkOpen();
+    record(parameterIndex, x);
+    preparedStatement.setInt(parameterIndex, x);
+  }
+
+  @Override
+  public void setLong(int parameterIndex, long x) throws SQLException {
+    checkOpen();
+    record(parameterIndex, x);
+    preparedStatement.setLong(parameterIndex, x);
+  }
+
+  @Override
+  public void setFloat(int parameterIndex, float x) throws SQLException {
+    checkOpen();
+    record(parameterIndex, x);
+    preparedStatement.setFloat(parameterIndex, x);
+  }
+
+  @Override
+  public void setDouble(int parameterIndex, double x) throws SQLException {
+    checkOpen();
+    record(parameterIndex, x);
+    preparedStatement.setDouble(parameterIndex, x);
+  }
+
+  @Override
+  public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+    checkOpen();
+    record(parameterIndex, x);
+    preparedStatement.setBigDecimal(parameterIndex, x);
+  }
+
+  @Override
+  public void setString(int parameterIndex, String x) throws SQLException {
+    checkOpen();
+    record(parameterIndex, x);
+    preparedStatement.setString(parameterIndex, x);
+  }
+
+  @Override
+  public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+    checkOpen();
+    record(parameterIndex, x);
+    preparedStatement.setBytes(parameterIndex, x);
+  }
+
+  @Override
+  public void setDate(int parameterIndex, java.sql.Date x) throws SQLException {
+    checkOpen();
+    record(parameterIndex, x);
+    preparedStatement.setDate(parameterIndex, x);
+  }
+
+  @Override
+  public void setTime(int parameterIndex, java.sql.Time x) throws SQLException {
+    checkOpen();
+    record(parameterIndex, x);
+    preparedStatement.setTime(parameterIndex, x);
+  }
+
+  @Override
+  public void setTimestamp(int parameterIndex, java.sql.Timestamp x) throws SQLException {
+    checkOpen();
+    record(parameterIndex, x);
+    preparedStatement.setTimestamp(parameterIndex, x);
+  }
+
+  @Override
+  public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setAsciiStream(parameterIndex, x, length);
+  }
+
+  @Override
+  @Deprecated
+  public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setUnicodeStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setBinaryStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void clearParameters() throws SQLException {
+    checkOpen();
+    if (parameters != null) {
+      Arrays.fill(parameters, null);
+      bindable = true;
+    }
+    preparedStatement.clearParameters();
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setObject(parameterIndex, x, targetSqlType);
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x) throws SQLException {
+    checkOpen();
+    record(parameterIndex, x);
+    preparedStatement.setObject(parameterIndex, x);
+  }
+
+  @Override
+  public boolean execute() throws SQLException {
+    checkOpen();
+    connection.onExecute();
+    long start = connection.beginTrace();
+    try {
+      return preparedStatement.execute();
+    } finally {
+      connection.endTrace(getTracedSql(), start);
+      connection.onWritten(sql);
+    }
+  }
+
+  @Override
+  String getTracedSql() {
+    return sql;
+  }
+
+  @Override
+  void afterBatch() {
+    connection.onWritten(sql);
+  }
+
+  @Override
+  public void addBatch() throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.addBatch();
+  }
+
+  @Override
+  public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setCharacterStream(parameterIndex, reader, length);
+  }
+
+  @Override
+  public void setRef(int parameterIndex, Ref x) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setRef(parameterIndex, x);
+  }
+
+  @Override
+  public void setBlob(int parameterIndex, Blob x) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setBlob(parameterIndex, x);
+  }
+
+  @Override
+  public void setClob(int parameterIndex, Clob x) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setClob(parameterIndex, x);
+  }
+
+  @Override
+  public void setArray(int parameterIndex, Array x) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setArray(parameterIndex, x);
+  }
+
+  @Override
+  public ResultSetMetaData getMetaData() throws SQLException {
+    checkOpen();
+    return preparedStatement.getMetaData();
+  }
+
+  @Override
+  public void setDate(int parameterIndex, java.sql.Date x, Calendar cal) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setDate(parameterIndex, x, cal);
+  }
+
+  @Override
+  public void setTime(int parameterIndex, java.sql.Time x, Calendar cal) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setTime(parameterIndex, x, cal);
+  }
+
+  @Override
+  public void setTimestamp(int parameterIndex, java.sql.Timestamp x, Calendar cal) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setTimestamp(parameterIndex, x, cal);
+  }
+
+  @Override
+  public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setNull(parameterIndex, sqlType, typeName);
+  }
+
+  @Override
+  public void setURL(int parameterIndex, URL x) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setURL(parameterIndex, x);
+  }
+
+  @Override
+  public ParameterMetaData getParameterMetaData() throws SQLException {
+    checkOpen();
+    return preparedStatement.getParameterMetaData();
+  }
+
+  @Override
+  public void setRowId(int parameterIndex, RowId x) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setRowId(parameterIndex, x);
+  }
+
+  @Override
+  public void setNString(int parameterIndex, String value) throws SQLException {
+    checkOpen();
+    record(parameterIndex, value);
+    preparedStatement.setNString(parameterIndex, value);
+  }
+
+  @Override
+  public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setNCharacterStream(parameterIndex, value, length);
+  }
+
+  @Override
+  public void setNClob(int parameterIndex, NClob value) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setNClob(parameterIndex, value);
+  }
+
+  @Override
+  public void setClob(int parameterIndex, Reader reader, long length) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setClob(parameterIndex, reader, length);
+  }
+
+  @Override
+  public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setBlob(parameterIndex, inputStream, length);
+  }
+
+  @Override
+  public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setNClob(parameterIndex, reader, length);
+  }
+
+  @Override
+  public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setSQLXML(parameterIndex, xmlObject);
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+  }
+
+  @Override
+  public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setAsciiStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setBinaryStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setCharacterStream(parameterIndex, reader, length);
+  }
+
+  @Override
+  public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setAsciiStream(parameterIndex, x);
+  }
+
+  @Override
+  public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setBinaryStream(parameterIndex, x);
+  }
+
+  @Override
+  public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setCharacterStream(parameterIndex, reader);
+  }
+
+  @Override
+  public void setNCharacterStream(int parameterIndex, Reader value) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setNCharacterStream(parameterIndex, value);
+  }
+
+  @Override
+  public void setClob(int parameterIndex, Reader reader) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setClob(parameterIndex, reader);
+  }
+
+  @Override
+  public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setBlob(parameterIndex, inputStream);
+  }
+
+  @Override
+  public void setNClob(int parameterIndex, Reader reader) throws SQLException {
+    checkOpen();
+    unbindable();
+    preparedStatement.setNClob(parameterIndex, reader);
+  }
+}
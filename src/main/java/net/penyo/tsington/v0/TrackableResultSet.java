@@ -0,0 +1,1201 @@
+package net.penyo.tsington.v0;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Map;
+
+/**
+ * 可追踪结果集
+ *
+ * <p>
+ * 可追踪结果集是对 {@link ResultSet ResultSet} 的直接委派，其有效期跟随产生它的 {@link TrackableStatement TrackableStatement}。
+ * </p>
+ *
+ * @author Penyo
+ */
+public class TrackableResultSet implements ResultSet {
+  /**
+   * 结果集实例
+   */
+  private final ResultSet resultSet;
+  /**
+   * 从属语句
+   */
+  private final TrackableStatement statement;
+
+  TrackableResultSet(ResultSet resultSet, TrackableStatement statement) {
+    this.resultSet = resultSet;
+    this.statement = statement;
+  }
+
+  private void checkOpen() {
+    statement.checkOpen();
+  }
+
+  @Override
+  public void close() throws SQLException {
+    resultSet.close();
+  }
+
+  @Override
+  public boolean isClosed() throws SQLException {
+    return statement.isClosed() || resultSet.isClosed();
+  }
+
+  @Override
+  public Statement getStatement() throws SQLException {
+    checkOpen();
+    return statement;
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    checkOpen();
+    if (iface.isInstance(resultSet)) return iface.cast(resultSet);
+    return resultSet.unwrap(iface);
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    checkOpen();
+    return iface.isInstance(resultSet) || resultSet.isWrapperFor(iface);
+  }
+
+  @Override
+  public boolean next() throws SQLException {
+    checkOpen();
+    return resultSet.next();
+  }
+
+  @Override
+  public boolean wasNull() throws SQLException {
+    checkOpen();
+    return resultSet.wasNull();
+  }
+
+  @Override
+  public String getString(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getString(columnIndex);
+  }
+
+  @Override
+  public boolean getBoolean(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getBoolean(columnIndex);
+  }
+
+  @Override
+  public byte getByte(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getByte(columnIndex);
+  }
+
+  @Override
+  public short getShort(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getShort(columnIndex);
+  }
+
+  @Override
+  public int getInt(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getInt(columnIndex);
+  }
+
+  @Override
+  public long getLong(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getLong(columnIndex);
+  }
+
+  @Override
+  public float getFloat(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getFloat(columnIndex);
+  }
+
+  @Override
+  public double getDouble(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getDouble(columnIndex);
+  }
+
+  @Override
+  @Deprecated
+  public BigDecimal getBigDecimal(int columnIndex, int scale) throws SQLException {
+    checkOpen();
+    return resultSet.getBigDecimal(columnIndex, scale);
+  }
+
+  @Override
+  public byte[] getBytes(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getBytes(columnIndex);
+  }
+
+  @Override
+  public java.sql.Date getDate(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getDate(columnIndex);
+  }
+
+  @Override
+  public java.sql.Time getTime(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getTime(columnIndex);
+  }
+
+  @Override
+  public java.sql.Timestamp getTimestamp(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getTimestamp(columnIndex);
+  }
+
+  @Override
+  public InputStream getAsciiStream(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getAsciiStream(columnIndex);
+  }
+
+  @Override
+  @Deprecated
+  public InputStream getUnicodeStream(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getUnicodeStream(columnIndex);
+  }
+
+  @Override
+  public InputStream getBinaryStream(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getBinaryStream(columnIndex);
+  }
+
+  @Override
+  public String getString(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getString(columnLabel);
+  }
+
+  @Override
+  public boolean getBoolean(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getBoolean(columnLabel);
+  }
+
+  @Override
+  public byte getByte(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getByte(columnLabel);
+  }
+
+  @Override
+  public short getShort(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getShort(columnLabel);
+  }
+
+  @Override
+  public int getInt(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getInt(columnLabel);
+  }
+
+  @Override
+  public long getLong(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getLong(columnLabel);
+  }
+
+  @Override
+  public float getFloat(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getFloat(columnLabel);
+  }
+
+  @Override
+  public double getDouble(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getDouble(columnLabel);
+  }
+
+  @Override
+  @Deprecated
+  public BigDecimal getBigDecimal(String columnLabel, int scale) throws SQLException {
+    checkOpen();
+    return resultSet.getBigDecimal(columnLabel, scale);
+  }
+
+  @Override
+  public byte[] getBytes(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getBytes(columnLabel);
+  }
+
+  @Override
+  public java.sql.Date getDate(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getDate(columnLabel);
+  }
+
+  @Override
+  public java.sql.Time getTime(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getTime(columnLabel);
+  }
+
+  @Override
+  public java.sql.Timestamp getTimestamp(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getTimestamp(columnLabel);
+  }
+
+  @Override
+  public InputStream getAsciiStream(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getAsciiStream(columnLabel);
+  }
+
+  @Override
+  @Deprecated
+  public InputStream getUnicodeStream(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getUnicodeStream(columnLabel);
+  }
+
+  @Override
+  public InputStream getBinaryStream(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getBinaryStream(columnLabel);
+  }
+
+  @Override
+  public SQLWarning getWarnings() throws SQLException {
+    checkOpen();
+    return resultSet.getWarnings();
+  }
+
+  @Override
+  public void clearWarnings() throws SQLException {
+    checkOpen();
+    resultSet.clearWarnings();
+  }
+
+  @Override
+  public String getCursorName() throws SQLException {
+    checkOpen();
+    return resultSet.getCursorName();
+  }
+
+  @Override
+  public ResultSetMetaData getMetaData() throws SQLException {
+    checkOpen();
+    return resultSet.getMetaData();
+  }
+
+  @Override
+  public Object getObject(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getObject(columnIndex);
+  }
+
+  @Override
+  public Object getObject(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getObject(columnLabel);
+  }
+
+  @Override
+  public int findColumn(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.findColumn(columnLabel);
+  }
+
+  @Override
+  public Reader getCharacterStream(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getCharacterStream(columnIndex);
+  }
+
+  @Override
+  public Reader getCharacterStream(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getCharacterStream(columnLabel);
+  }
+
+  @Override
+  public BigDecimal getBigDecimal(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getBigDecimal(columnIndex);
+  }
+
+  @Override
+  public BigDecimal getBigDecimal(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getBigDecimal(columnLabel);
+  }
+
+  @Override
+  public boolean isBeforeFirst() throws SQLException {
+    checkOpen();
+    return resultSet.isBeforeFirst();
+  }
+
+  @Override
+  public boolean isAfterLast() throws SQLException {
+    checkOpen();
+    return resultSet.isAfterLast();
+  }
+
+  @Override
+  public boolean isFirst() throws SQLException {
+    checkOpen();
+    return resultSet.isFirst();
+  }
+
+  @Override
+  public boolean isLast() throws SQLException {
+    checkOpen();
+    return resultSet.isLast();
+  }
+
+  @Override
+  public void beforeFirst() throws SQLException {
+    checkOpen();
+    resultSet.beforeFirst();
+  }
+
+  @Override
+  public void afterLast() throws SQLException {
+    checkOpen();
+    resultSet.afterLast();
+  }
+
+  @Override
+  public boolean first() throws SQLException {
+    checkOpen();
+    return resultSet.first();
+  }
+
+  @Override
+  public boolean last() throws SQLException {
+    checkOpen();
+    return resultSet.last();
+  }
+
+  @Override
+  public int getRow() throws SQLException {
+    checkOpen();
+    return resultSet.getRow();
+  }
+
+  @Override
+  public boolean absolute(int row) throws SQLException {
+    checkOpen();
+    return resultSet.absolute(row);
+  }
+
+  @Override
+  public boolean relative(int rows) throws SQLException {
+    checkOpen();
+    return resultSet.relative(rows);
+  }
+
+  @Override
+  public boolean previous() throws SQLException {
+    checkOpen();
+    return resultSet.previous();
+  }
+
+  @Override
+  public void setFetchDirection(int direction) throws SQLException {
+    checkOpen();
+    resultSet.setFetchDirection(direction);
+  }
+
+  @Override
+  public int getFetchDirection() throws SQLException {
+    checkOpen();
+    return resultSet.getFetchDirection();
+  }
+
+  @Override
+  public void setFetchSize(int rows) throws SQLException {
+    checkOpen();
+    resultSet.setFetchSize(rows);
+  }
+
+  @Override
+  public int getFetchSize() throws SQLException {
+    checkOpen();
+    return resultSet.getFetchSize();
+  }
+
+  @Override
+  public int getType() throws SQLException {
+    checkOpen();
+    return resultSet.getType();
+  }
+
+  @Override
+  public int getConcurrency() throws SQLException {
+    checkOpen();
+    return resultSet.getConcurrency();
+  }
+
+  @Override
+  public boolean rowUpdated() throws SQLException {
+    checkOpen();
+    return resultSet.rowUpdated();
+  }
+
+  @Override
+  public boolean rowInserted() throws SQLException {
+    checkOpen();
+    return resultSet.rowInserted();
+  }
+
+  @Override
+  public boolean rowDeleted() throws SQLException {
+    checkOpen();
+    return resultSet.rowDeleted();
+  }
+
+  @Override
+  public void updateNull(int columnIndex) throws SQLException {
+    checkOpen();
+    resultSet.updateNull(columnIndex);
+  }
+
+  @Override
+  public void updateBoolean(int columnIndex, boolean x) throws SQLException {
+    checkOpen();
+    resultSet.updateBoolean(columnIndex, x);
+  }
+
+  @Override
+  public void updateByte(int columnIndex, byte x) throws SQLException {
+    checkOpen();
+    resultSet.updateByte(columnIndex, x);
+  }
+
+  @Override
+  public void updateShort(int columnIndex, short x) throws SQLException {
+    checkOpen();
+    resultSet.updateShort(columnIndex, x);
+  }
+
+  @Override
+  public void updateInt(int columnIndex, int x) throws SQLException {
+    checkOpen();
+    resultSet.updateInt(columnIndex, x);
+  }
+
+  @Override
+  public void updateLong(int columnIndex, long x) throws SQLException {
+    checkOpen();
+    resultSet.updateLong(columnIndex, x);
+  }
+
+  @Override
+  public void updateFloat(int columnIndex, float x) throws SQLException {
+    checkOpen();
+    resultSet.updateFloat(columnIndex, x);
+  }
+
+  @Override
+  public void updateDouble(int columnIndex, double x) throws SQLException {
+    checkOpen();
+    resultSet.updateDouble(columnIndex, x);
+  }
+
+  @Override
+  public void updateBigDecimal(int columnIndex, BigDecimal x) throws SQLException {
+    checkOpen();
+    resultSet.updateBigDecimal(columnIndex, x);
+  }
+
+  @Override
+  public void updateString(int columnIndex, String x) throws SQLException {
+    checkOpen();
+    resultSet.updateString(columnIndex, x);
+  }
+
+  @Override
+  public void updateBytes(int columnIndex, byte[] x) throws SQLException {
+    checkOpen();
+    resultSet.updateBytes(columnIndex, x);
+  }
+
+  @Override
+  public void updateDate(int columnIndex, java.sql.Date x) throws SQLException {
+    checkOpen();
+    resultSet.updateDate(columnIndex, x);
+  }
+
+  @Override
+  public void updateTime(int columnIndex, java.sql.Time x) throws SQLException {
+    checkOpen();
+    resultSet.updateTime(columnIndex, x);
+  }
+
+  @Override
+  public void updateTimestamp(int columnIndex, java.sql.Timestamp x) throws SQLException {
+    checkOpen();
+    resultSet.updateTimestamp(columnIndex, x);
+  }
+
+  @Override
+  public void updateAsciiStream(int columnIndex, InputStream x, int length) throws SQLException {
+    checkOpen();
+    resultSet.updateAsciiStream(columnIndex, x, length);
+  }
+
+  @Override
+  public void updateBinaryStream(int columnIndex, InputStream x, int length) throws SQLException {
+    checkOpen();
+    resultSet.updateBinaryStream(columnIndex, x, length);
+  }
+
+  @Override
+  public void updateCharacterStream(int columnIndex, Reader x, int length) throws SQLException {
+    checkOpen();
+    resultSet.updateCharacterStream(columnIndex, x, length);
+  }
+
+  @Override
+  public void updateObject(int columnIndex, Object x, int scaleOrLength) throws SQLException {
+    checkOpen();
+    resultSet.updateObject(columnIndex, x, scaleOrLength);
+  }
+
+  @Override
+  public void updateObject(int columnIndex, Object x) throws SQLException {
+    checkOpen();
+    resultSet.updateObject(columnIndex, x);
+  }
+
+  @Override
+  public void updateNull(String columnLabel) throws SQLException {
+    checkOpen();
+    resultSet.updateNull(columnLabel);
+  }
+
+  @Override
+  public void updateBoolean(String columnLabel, boolean x) throws SQLException {
+    checkOpen();
+    resultSet.updateBoolean(columnLabel, x);
+  }
+
+  @Override
+  public void updateByte(String columnLabel, byte x) throws SQLException {
+    checkOpen();
+    resultSet.updateByte(columnLabel, x);
+  }
+
+  @Override
+  public void updateShort(String columnLabel, short x) throws SQLException {
+    checkOpen();
+    resultSet.updateShort(columnLabel, x);
+  }
+
+  @Override
+  public void updateInt(String columnLabel, int x) throws SQLException {
+    checkOpen();
+    resultSet.updateInt(columnLabel, x);
+  }
+
+  @Override
+  public void updateLong(String columnLabel, long x) throws SQLException {
+    checkOpen();
+    resultSet.updateLong(columnLabel, x);
+  }
+
+  @Override
+  public void updateFloat(String columnLabel, float x) throws SQLException {
+    checkOpen();
+    resultSet.updateFloat(columnLabel, x);
+  }
+
+  @Override
+  public void updateDouble(String columnLabel, double x) throws SQLException {
+    checkOpen();
+    resultSet.updateDouble(columnLabel, x);
+  }
+
+  @Override
+  public void updateBigDecimal(String columnLabel, BigDecimal x) throws SQLException {
+    checkOpen();
+    resultSet.updateBigDecimal(columnLabel, x);
+  }
+
+  @Override
+  public void updateString(String columnLabel, String x) throws SQLException {
+    checkOpen();
+    resultSet.updateString(columnLabel, x);
+  }
+
+  @Override
+  public void updateBytes(String columnLabel, byte[] x) throws SQLException {
+    checkOpen();
+    resultSet.updateBytes(columnLabel, x);
+  }
+
+  @Override
+  public void updateDate(String columnLabel, java.sql.Date x) throws SQLException {
+    checkOpen();
+    resultSet.updateDate(columnLabel, x);
+  }
+
+  @Override
+  public void updateTime(String columnLabel, java.sql.Time x) throws SQLException {
+    checkOpen();
+    resultSet.updateTime(columnLabel, x);
+  }
+
+  @Override
+  public void updateTimestamp(String columnLabel, java.sql.Timestamp x) throws SQLException {
+    checkOpen();
+    resultSet.updateTimestamp(columnLabel, x);
+  }
+
+  @Override
+  public void updateAsciiStream(String columnLabel, InputStream x, int length) throws SQLException {
+    checkOpen();
+    resultSet.updateAsciiStream(columnLabel, x, length);
+  }
+
+  @Override
+  public void updateBinaryStream(String columnLabel, InputStream x, int length) throws SQLException {
+    checkOpen();
+    resultSet.updateBinaryStream(columnLabel, x, length);
+  }
+
+  @Override
+  public void updateCharacterStream(String columnLabel, Reader reader, int length) throws SQLException {
+    checkOpen();
+    resultSet.updateCharacterStream(columnLabel, reader, length);
+  }
+
+  @Override
+  public void updateObject(String columnLabel, Object x, int scaleOrLength) throws SQLException {
+    checkOpen();
+    resultSet.updateObject(columnLabel, x, scaleOrLength);
+  }
+
+  @Override
+  public void updateObject(String columnLabel, Object x) throws SQLException {
+    checkOpen();
+    resultSet.updateObject(columnLabel, x);
+  }
+
+  @Override
+  public void insertRow() throws SQLException {
+    checkOpen();
+    resultSet.insertRow();
+  }
+
+  @Override
+  public void updateRow() throws SQLException {
+    checkOpen();
+    resultSet.updateRow();
+  }
+
+  @Override
+  public void deleteRow() throws SQLException {
+    checkOpen();
+    resultSet.deleteRow();
+  }
+
+  @Override
+  public void refreshRow() throws SQLException {
+    checkOpen();
+    resultSet.refreshRow();
+  }
+
+  @Override
+  public void cancelRowUpdates() throws SQLException {
+    checkOpen();
+    resultSet.cancelRowUpdates();
+  }
+
+  @Override
+  public void moveToInsertRow() throws SQLException {
+    checkOpen();
+    resultSet.moveToInsertRow();
+  }
+
+  @Override
+  public void moveToCurrentRow() throws SQLException {
+    checkOpen();
+    resultSet.moveToCurrentRow();
+  }
+
+  @Override
+  public Object getObject(int columnIndex, Map<String, Class<?>> map) throws SQLException {
+    checkOpen();
+    return resultSet.getObject(columnIndex, map);
+  }
+
+  @Override
+  public Ref getRef(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getRef(columnIndex);
+  }
+
+  @Override
+  public Blob getBlob(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getBlob(columnIndex);
+  }
+
+  @Override
+  public Clob getClob(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getClob(columnIndex);
+  }
+
+  @Override
+  public Array getArray(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getArray(columnIndex);
+  }
+
+  @Override
+  public Object getObject(String columnLabel, Map<String, Class<?>> map) throws SQLException {
+    checkOpen();
+    return resultSet.getObject(columnLabel, map);
+  }
+
+  @Override
+  public Ref getRef(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getRef(columnLabel);
+  }
+
+  @Override
+  public Blob getBlob(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getBlob(columnLabel);
+  }
+
+  @Override
+  public Clob getClob(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getClob(columnLabel);
+  }
+
+  @Override
+  public Array getArray(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getArray(columnLabel);
+  }
+
+  @Override
+  public java.sql.Date getDate(int columnIndex, Calendar cal) throws SQLException {
+    checkOpen();
+    return resultSet.getDate(columnIndex, cal);
+  }
+
+  @Override
+  public java.sql.Date getDate(String columnLabel, Calendar cal) throws SQLException {
+    checkOpen();
+    return resultSet.getDate(columnLabel, cal);
+  }
+
+  @Override
+  public java.sql.Time getTime(int columnIndex, Calendar cal) throws SQLException {
+    checkOpen();
+    return resultSet.getTime(columnIndex, cal);
+  }
+
+  @Override
+  public java.sql.Time getTime(String columnLabel, Calendar cal) throws SQLException {
+    checkOpen();
+    return resultSet.getTime(columnLabel, cal);
+  }
+
+  @Override
+  public java.sql.Timestamp getTimestamp(int columnIndex, Calendar cal) throws SQLException {
+    checkOpen();
+    return resultSet.getTimestamp(columnIndex, cal);
+  }
+
+  @Override
+  public java.sql.Timestamp getTimestamp(String columnLabel, Calendar cal) throws SQLException {
+    checkOpen();
+    return resultSet.getTimestamp(columnLabel, cal);
+  }
+
+  @Override
+  public URL getURL(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getURL(columnIndex);
+  }
+
+  @Override
+  public URL getURL(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getURL(columnLabel);
+  }
+
+  @Override
+  public void updateRef(int columnIndex, java.sql.Ref x) throws SQLException {
+    checkOpen();
+    resultSet.updateRef(columnIndex, x);
+  }
+
+  @Override
+  public void updateRef(String columnLabel, java.sql.Ref x) throws SQLException {
+    checkOpen();
+    resultSet.updateRef(columnLabel, x);
+  }
+
+  @Override
+  public void updateBlob(int columnIndex, java.sql.Blob x) throws SQLException {
+    checkOpen();
+    resultSet.updateBlob(columnIndex, x);
+  }
+
+  @Override
+  public void updateBlob(String columnLabel, java.sql.Blob x) throws SQLException {
+    checkOpen();
+    resultSet.updateBlob(columnLabel, x);
+  }
+
+  @Override
+  public void updateClob(int columnIndex, java.sql.Clob x) throws SQLException {
+    checkOpen();
+    resultSet.updateClob(columnIndex, x);
+  }
+
+  @Override
+  public void updateClob(String columnLabel, java.sql.Clob x) throws SQLException {
+    checkOpen();
+    resultSet.updateClob(columnLabel, x);
+  }
+
+  @Override
+  public void updateArray(int columnIndex, java.sql.Array x) throws SQLException {
+    checkOpen();
+    resultSet.updateArray(columnIndex, x);
+  }
+
+  @Override
+  public void updateArray(String columnLabel, java.sql.Array x) throws SQLException {
+    checkOpen();
+    resultSet.updateArray(columnLabel, x);
+  }
+
+  @Override
+  public RowId getRowId(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getRowId(columnIndex);
+  }
+
+  @Override
+  public RowId getRowId(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getRowId(columnLabel);
+  }
+
+  @Override
+  public void updateRowId(int columnIndex, RowId x) throws SQLException {
+    checkOpen();
+    resultSet.updateRowId(columnIndex, x);
+  }
+
+  @Override
+  public void updateRowId(String columnLabel, RowId x) throws SQLException {
+    checkOpen();
+    resultSet.updateRowId(columnLabel, x);
+  }
+
+  @Override
+  public int getHoldability() throws SQLException {
+    checkOpen();
+    return resultSet.getHoldability();
+  }
+
+  @Override
+  public void updateNString(int columnIndex, String nString) throws SQLException {
+    checkOpen();
+    resultSet.updateNString(columnIndex, nString);
+  }
+
+  @Override
+  public void updateNString(String columnLabel, String nString) throws SQLException {
+    checkOpen();
+    resultSet.updateNString(columnLabel, nString);
+  }
+
+  @Override
+  public void updateNClob(int columnIndex, NClob nClob) throws SQLException {
+    checkOpen();
+    resultSet.updateNClob(columnIndex, nClob);
+  }
+
+  @Override
+  public void updateNClob(String columnLabel, NClob nClob) throws SQLException {
+    checkOpen();
+    resultSet.updateNClob(columnLabel, nClob);
+  }
+
+  @Override
+  public NClob getNClob(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getNClob(columnIndex);
+  }
+
+  @Override
+  public NClob getNClob(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getNClob(columnLabel);
+  }
+
+  @Override
+  public SQLXML getSQLXML(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getSQLXML(columnIndex);
+  }
+
+  @Override
+  public SQLXML getSQLXML(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getSQLXML(columnLabel);
+  }
+
+  @Override
+  public void updateSQLXML(int columnIndex, SQLXML xmlObject) throws SQLException {
+    checkOpen();
+    resultSet.updateSQLXML(columnIndex, xmlObject);
+  }
+
+  @Override
+  public void updateSQLXML(String columnLabel, SQLXML xmlObject) throws SQLException {
+    checkOpen();
+    resultSet.updateSQLXML(columnLabel, xmlObject);
+  }
+
+  @Override
+  public String getNString(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getNString(columnIndex);
+  }
+
+  @Override
+  public String getNString(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getNString(columnLabel);
+  }
+
+  @Override
+  public Reader getNCharacterStream(int columnIndex) throws SQLException {
+    checkOpen();
+    return resultSet.getNCharacterStream(columnIndex);
+  }
+
+  @Override
+  public Reader getNCharacterStream(String columnLabel) throws SQLException {
+    checkOpen();
+    return resultSet.getNCharacterStream(columnLabel);
+  }
+
+  @Override
+  public void updateNCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
+    checkOpen();
+    resultSet.updateNCharacterStream(columnIndex, x, length);
+  }
+
+  @Override
+  public void updateNCharacterStream(String columnLabel, Reader reader, long length) throws SQLException {
+    checkOpen();
+    resultSet.updateNCharacterStream(columnLabel, reader, length);
+  }
+
+  @Override
+  public void updateAsciiStream(int columnIndex, InputStream x, long length) throws SQLException {
+    checkOpen();
+    resultSet.updateAsciiStream(columnIndex, x, length);
+  }
+
+  @Override
+  public void updateBinaryStream(int columnIndex, InputStream x, long length) throws SQLException {
+    checkOpen();
+    resultSet.updateBinaryStream(columnIndex, x, length);
+  }
+
+  @Override
+  public void updateCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
+    checkOpen();
+    resultSet.updateCharacterStream(columnIndex, x, length);
+  }
+
+  @Override
+  public void updateAsciiStream(String columnLabel, InputStream x, long length) throws SQLException {
+    checkOpen();
+    resultSet.updateAsciiStream(columnLabel, x, length);
+  }
+
+  @Override
+  public void updateBinaryStream(String columnLabel, InputStream x, long length) throws SQLException {
+    checkOpen();
+    resultSet.updateBinaryStream(columnLabel, x, length);
+  }
+
+  @Override
+  public void updateCharacterStream(String columnLabel, Reader reader, long length) throws SQLException {
+    checkOpen();
+    resultSet.updateCharacterStream(columnLabel, reader, length);
+  }
+
+  @Override
+  public void updateBlob(int columnIndex, InputStream inputStream, long length) throws SQLException {
+    checkOpen();
+    resultSet.updateBlob(columnIndex, inputStream, length);
+  }
+
+  @Override
+  public void updateBlob(String columnLabel, InputStream inputStream, long length) throws SQLException {
+    checkOpen();
+    resultSet.updateBlob(columnLabel, inputStream, length);
+  }
+
+  @Override
+  public void updateClob(int columnIndex, Reader reader, long length) throws SQLException {
+    checkOpen();
+    resultSet.updateClob(columnIndex, reader, length);
+  }
+
+  @Override
+  public void updateClob(String columnLabel, Reader reader, long length) throws SQLException {
+    checkOpen();
+    resultSet.updateClob(columnLabel, reader, length);
+  }
+
+  @Override
+  public void updateNClob(int columnIndex, Reader reader, long length) throws SQLException {
+    checkOpen();
+    resultSet.updateNClob(columnIndex, reader, length);
+  }
+
+  @Override
+  public void updateNClob(String columnLabel, Reader reader, long length) throws SQLException {
+    checkOpen();
+    resultSet.updateNClob(columnLabel, reader, length);
+  }
+
+  @Override
+  public void updateNCharacterStream(int columnIndex, Reader x) throws SQLException {
+    checkOpen();
+    resultSet.updateNCharacterStream(columnIndex, x);
+  }
+
+  @Override
+  public void updateNCharacterStream(String columnLabel, Reader reader) throws SQLException {
+    checkOpen();
+    resultSet.updateNCharacterStream(columnLabel, reader);
+  }
+
+  @Override
+  public void updateAsciiStream(int columnIndex, InputStream x) throws SQLException {
+    checkOpen();
+    resultSet.updateAsciiStream(columnIndex, x);
+  }
+
+  @Override
+  public void updateBinaryStream(int columnIndex, InputStream x) throws SQLException {
+    checkOpen();
+    resultSet.updateBinaryStream(columnIndex, x);
+  }
+
+  @Override
+  public void updateCharacterStream(int columnIndex, Reader x) throws SQLException {
+    checkOpen();
+    resultSet.updateCharacterStream(columnIndex, x);
+  }
+
+  @Override
+  public void updateAsciiStream(String columnLabel, InputStream x) throws SQLException {
+    checkOpen();
+    resultSet.updateAsciiStream(columnLabel, x);
+  }
+
+  @Override
+  public void updateBinaryStream(String columnLabel, InputStream x) throws SQLException {
+    checkOpen();
+    resultSet.updateBinaryStream(columnLabel, x);
+  }
+
+  @Override
+  public void updateCharacterStream(String columnLabel, Reader reader) throws SQLException {
+    checkOpen();
+    resultSet.updateCharacterStream(columnLabel, reader);
+  }
+
+  @Override
+  public void updateBlob(int columnIndex, InputStream inputStream) throws SQLException {
+    checkOpen();
+    resultSet.updateBlob(columnIndex, inputStream);
+  }
+
+  @Override
+  public void updateBlob(String columnLabel, InputStream inputStream) throws SQLException {
+    checkOpen();
+    resultSet.updateBlob(columnLabel, inputStream);
+  }
+
+  @Override
+  public void updateClob(int columnIndex, Reader reader) throws SQLException {
+    checkOpen();
+    resultSet.updateClob(columnIndex, reader);
+  }
+
+  @Override
+  public void updateClob(String columnLabel, Reader reader) throws SQLException {
+    checkOpen();
+    resultSet.updateClob(columnLabel, reader);
+  }
+
+  @Override
+  public void updateNClob(int columnIndex, Reader reader) throws SQLException {
+    checkOpen();
+    resultSet.updateNClob(columnIndex, reader);
+  }
+
+  @Override
+  public void updateNClob(String columnLabel, Reader reader) throws SQLException {
+    checkOpen();
+    resultSet.updateNClob(columnLabel, reader);
+  }
+
+  @Override
+  public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
+    checkOpen();
+    return resultSet.getObject(columnIndex, type);
+  }
+
+  @Override
+  public <T> T getObject(String columnLabel, Class<T> type) throws SQLException {
+    checkOpen();
+    return resultSet.getObject(columnLabel, type);
+  }
+}
@@ -0,0 +1,510 @@
+package net.penyo.tsington.v0;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 可追踪语句
+ *
+ * <p>
+ * 可追踪语句是对 {@link Statement Statement} 的直接委派，记录其创建时所属连接的世代号；
+ * 连接归还后，该语句及其产生的结果集都将拒绝继续调用。
+ * </p>
+ *
+ * @author Penyo
+ * @see TrackableConnection
+ */
+public class TrackableStatement implements Statement {
+  /**
+   * 语句实例
+   */
+  private final Statement statement;
+  /**
+   * 从属连接
+   */
+  protected final TrackableConnection connection;
+  /**
+   * 创建时的连接世代
+   */
+  private final int generation;
+  /**
+   * 是否已关闭
+   */
+  protected boolean closed;
+  /**
+   * 借用者设置的抓取行数，非 0 表示借用者希望分批读取，查询不经过结果缓存
+   */
+  protected int fetchSize;
+  /**
+   * 批处理中的 SQL，仅在开启查询结果缓存时记录
+   */
+  private List<String> batch;
+  /**
+   * 借用者改动过的语句级设置及其原值，仅在语句会被复用时记录
+   */
+  private Map<Setting, Object> originals;
+  /**
+   * 借用者是否做过无法复原的改动
+   */
+  private boolean irreversible;
+
+  TrackableStatement(Statement statement, TrackableConnection connection) {
+    this.statement = statement;
+    this.connection = connection;
+    generation = connection.getGeneration();
+  }
+
+  /**
+   * 获取真的语句。
+   */
+  Statement getRealStatement() {
+    return statement;
+  }
+
+  /**
+   * 检查所属连接是否仍处于同一次借用中。
+   */
+  void checkOpen() {
+    if (closed || generation != connection.getGeneration()) throw new IllegalStateException("The called entity has been recycled.");
+  }
+
+  /**
+   * 语句关闭后是否会交给下一位借用者复用。
+   */
+  protected boolean isRecycled() {
+    return false;
+  }
+
+  /**
+   * 判断某项设置是否尚需记录原值。
+   */
+  private boolean pristine(Setting setting) {
+    return isRecycled() && (originals == null || !originals.containsKey(setting));
+  }
+
+  private void remember(Setting setting, Object original) {
+    if (originals == null) originals = new EnumMap<>(Setting.class);
+    originals.put(setting, original);
+  }
+
+  /**
+   * 将借用者改动过的语句级设置复原为借出时的值。
+   *
+   * @return 是否复原；借用者调用过 {@link #closeOnCompletion() closeOnCompletion} 或
+   * {@link #setCursorName(String) setCursorName} 时无法复原
+   */
+  boolean restore() throws SQLException {
+    if (irreversible) return false;
+    if (originals == null) return true;
+
+    for (Map.Entry<Setting, Object> e : originals.entrySet())
+      switch (e.getKey()) {
+        case MAX_FIELD_SIZE -> statement.setMaxFieldSize((Integer) e.getValue());
+        case MAX_ROWS -> statement.setMaxRows((Integer) e.getValue());
+        case ESCAPE_PROCESSING -> statement.setEscapeProcessing((Boolean) e.getValue());
+        case QUERY_TIMEOUT -> statement.setQueryTimeout((Integer) e.getValue());
+        case FETCH_DIRECTION -> statement.setFetchDirection((Integer) e.getValue());
+        case FETCH_SIZE -> statement.setFetchSize((Integer) e.getValue());
+        case POOLABLE -> statement.setPoolable((Boolean) e.getValue());
+      }
+    originals = null;
+    return true;
+  }
+
+  /**
+   * 包装结果集。
+   */
+  protected ResultSet wrap(ResultSet resultSet) {
+    return resultSet == null ? null : new TrackableResultSet(resultSet, this);
+  }
+
+  /**
+   * 释放语句占用的资源，但不从所属连接注销。
+   */
+  void release() throws SQLException {
+    closed = true;
+    statement.close();
+  }
+
+  @Override
+  public void close() throws SQLException {
+    if (closed) return;
+    connection.untrack(this);
+    release();
+  }
+
+  @Override
+  public boolean isClosed() throws SQLException {
+    return closed || generation != connection.getGeneration() || statement.isClosed();
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    checkOpen();
+    return new ConnectionHandle(connection, generation);
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    checkOpen();
+    if (iface.isInstance(statement)) return iface.cast(statement);
+    return statement.unwrap(iface);
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    checkOpen();
+    return iface.isInstance(statement) || statement.isWrapperFor(iface);
+  }
+
+  @Override
+  public ResultSet executeQuery(String sql) throws SQLException {
+    checkOpen();
+    connection.onExecute();
+    long start = connection.beginTrace();
+    try {
+      return wrap(statement.executeQuery(sql));
+    } finally {
+      connection.endTrace(sql, start);
+    }
+  }
+
+  @Override
+  public int executeUpdate(String sql) throws SQLException {
+    checkOpen();
+    connection.onExecute();
+    long start = connection.beginTrace();
+    try {
+      return statement.executeUpdate(sql);
+    } finally {
+      connection.endTrace(sql, start);
+      connection.onWritten(sql);
+    }
+  }
+
+  @Override
+  public int getMaxFieldSize() throws SQLException {
+    checkOpen();
+    return statement.getMaxFieldSize();
+  }
+
+  @Override
+  public void setMaxFieldSize(int max) throws SQLException {
+    checkOpen();
+    if (pristine(Setting.MAX_FIELD_SIZE)) remember(Setting.MAX_FIELD_SIZE, statement.getMaxFieldSize());
+    statement.setMaxFieldSize(max);
+  }
+
+  @Override
+  public int getMaxRows() throws SQLException {
+    checkOpen();
+    return statement.getMaxRows();
+  }
+
+  @Override
+  public void setMaxRows(int max) throws SQLException {
+    checkOpen();
+    if (pristine(Setting.MAX_ROWS)) remember(Setting.MAX_ROWS, statement.getMaxRows());
+    statement.setMaxRows(max);
+  }
+
+  @Override
+  public void setEscapeProcessing(boolean enable) throws SQLException {
+    checkOpen();
+    // 没有对应的读取方法，按 JDBC 规定的默认值复原
+    if (pristine(Setting.ESCAPE_PROCESSING)) remember(Setting.ESCAPE_PROCESSING, true);
+    statement.setEscapeProcessing(enable);
+  }
+
+  @Override
+  public int getQueryTimeout() throws SQLException {
+    checkOpen();
+    return statement.getQueryTimeout();
+  }
+
+  @Override
+  public void setQueryTimeout(int seconds) throws SQLException {
+    checkOpen();
+    if (pristine(Setting.QUERY_TIMEOUT)) remember(Setting.QUERY_TIMEOUT, statement.getQueryTimeout());
+    statement.setQueryTimeout(seconds);
+  }
+
+  @Override
+  public void cancel() throws SQLException {
+    checkOpen();
+    statement.cancel();
+  }
+
+  @Override
+  public SQLWarning getWarnings() throws SQLException {
+    checkOpen();
+    return statement.getWarnings();
+  }
+
+  @Override
+  public void clearWarnings() throws SQLException {
+    checkOpen();
+    statement.clearWarnings();
+  }
+
+  @Override
+  public void setCursorName(String name) throws SQLException {
+    checkOpen();
+    irreversible = true;
+    statement.setCursorName(name);
+  }
+
+  @Override
+  public boolean execute(String sql) throws SQLException {
+    checkOpen();
+    connection.onExecute();
+    long start = connection.beginTrace();
+    try {
+      return statement.execute(sql);
+    } finally {
+      connection.endTrace(sql, start);
+      connection.onWritten(sql);
+    }
+  }
+
+  @Override
+  public ResultSet getResultSet() throws SQLException {
+    checkOpen();
+    return wrap(statement.getResultSet());
+  }
+
+  @Override
+  public int getUpdateCount() throws SQLException {
+    checkOpen();
+    return statement.getUpdateCount();
+  }
+
+  @Override
+  public boolean getMoreResults() throws SQLException {
+    checkOpen();
+    return statement.getMoreResults();
+  }
+
+  @Override
+  public void setFetchDirection(int direction) throws SQLException {
+    checkOpen();
+    if (pristine(Setting.FETCH_DIRECTION)) remember(Setting.FETCH_DIRECTION, statement.getFetchDirection());
+    statement.setFetchDirection(direction);
+  }
+
+  @Override
+  public int getFetchDirection() throws SQLException {
+    checkOpen();
+    return statement.getFetchDirection();
+  }
+
+  @Override
+  public void setFetchSize(int rows) throws SQLException {
+    checkOpen();
+    if (pristine(Setting.FETCH_SIZE)) remember(Setting.FETCH_SIZE, statement.getFetchSize());
+    statement.setFetchSize(rows);
+    fetchSize = rows;
+  }
+
+  @Override
+  public int getFetchSize() throws SQLException {
+    checkOpen();
+    return statement.getFetchSize();
+  }
+
+  @Override
+  public int getResultSetConcurrency() throws SQLException {
+    checkOpen();
+    return statement.getResultSetConcurrency();
+  }
+
+  @Override
+  public int getResultSetType() throws SQLException {
+    checkOpen();
+    return statement.getResultSetType();
+  }
+
+  @Override
+  public void addBatch(String sql) throws SQLException {
+    checkOpen();
+    statement.addBatch(sql);
+    if (connection.getQueryCache() != null) {
+      if (batch == null) batch = new ArrayList<>();
+      batch.add(sql);
+    }
+  }
+
+  @Override
+  public void clearBatch() throws SQLException {
+    checkOpen();
+    statement.clearBatch();
+    batch = null;
+  }
+
+  @Override
+  public int[] executeBatch() throws SQLException {
+    checkOpen();
+    connection.onExecute();
+    long start = connection.beginTrace();
+    try {
+      return statement.executeBatch();
+    } finally {
+      connection.endTrace(getTracedSql(), start);
+      afterBatch();
+    }
+  }
+
+  /**
+   * 获取语句追踪所用的 SQL。
+   *
+   * @return 预编译语句的 SQL；普通语句的批处理含多条 SQL，为 {@code null}，不予追踪
+   */
+  String getTracedSql() {
+    return null;
+  }
+
+  /**
+   * 批处理执行后，使查询结果缓存中被写入的表失效。
+   */
+  void afterBatch() {
+    if (batch == null) return;
+    for (String sql : batch) connection.onWritten(sql);
+    batch = null;
+  }
+
+  @Override
+  public boolean getMoreResults(int current) throws SQLException {
+    checkOpen();
+    return statement.getMoreResults(current);
+  }
+
+  @Override
+  public ResultSet getGeneratedKeys() throws SQLException {
+    checkOpen();
+    return wrap(statement.getGeneratedKeys());
+  }
+
+  @Override
+  public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+    checkOpen();
+    connection.onExecute();
+    long start = connection.beginTrace();
+    try {
+      return statement.executeUpdate(sql, autoGeneratedKeys);
+    } finally {
+      connection.endTrace(sql, start);
+      connection.onWritten(sql);
+    }
+  }
+
+  @Override
+  public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+    checkOpen();
+    connection.onExecute();
+    long start = connection.beginTrace();
+    try {
+      return statement.executeUpdate(sql, columnIndexes);
+    } finally {
+      connection.endTrace(sql, start);
+      connection.onWritten(sql);
+    }
+  }
+
+  @Override
+  public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+    checkOpen();
+    connection.onExecute();
+    long start = connection.beginTrace();
+    try {
+      return statement.executeUpdate(sql, columnNames);
+    } finally {
+      connection.endTrace(sql, start);
+      connection.onWritten(sql);
+    }
+  }
+
+  @Override
+  public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+    checkOpen();
+    connection.onExecute();
+    long start = connection.beginTrace();
+    try {
+      return statement.execute(sql, autoGeneratedKeys);
+    } finally {
+      connection.endTrace(sql, start);
+      connection.onWritten(sql);
+    }
+  }
+
+  @Override
+  public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+    checkOpen();
+    connection.onExecute();
+    long start = connection.beginTrace();
+    try {
+      return statement.execute(sql, columnIndexes);
+    } finally {
+      connection.endTrace(sql, start);
+      connection.onWritten(sql);
+    }
+  }
+
+  @Override
+  public boolean execute(String sql, String[] columnNames) throws SQLException {
+    checkOpen();
+    connection.onExecute();
+    long start = connection.beginTrace();
+    try {
+      return statement.execute(sql, columnNames);
+    } finally {
+      connection.endTrace(sql, start);
+      connection.onWritten(sql);
+    }
+  }
+
+  @Override
+  public int getResultSetHoldability() throws SQLException {
+    checkOpen();
+    return statement.getResultSetHoldability();
+  }
+
+  @Override
+  public void setPoolable(boolean poolable) throws SQLException {
+    checkOpen();
+    if (pristine(Setting.POOLABLE)) remember(Setting.POOLABLE, statement.isPoolable());
+    statement.setPoolable(poolable);
+  }
+
+  @Override
+  public boolean isPoolable() throws SQLException {
+    checkOpen();
+    return statement.isPoolable();
+  }
+
+  @Override
+  public void closeOnCompletion() throws SQLException {
+    checkOpen();
+    irreversible = true;
+    statement.closeOnCompletion();
+  }
+
+  @Override
+  public boolean isCloseOnCompletion() throws SQLException {
+    checkOpen();
+    return statement.isCloseOnCompletion();
+  }
+
+  /**
+   * 可复原的语句级设置
+   */
+  private enum Setting {
+    MAX_FIELD_SIZE, MAX_ROWS, ESCAPE_PROCESSING, QUERY_TIMEOUT, FETCH_DIRECTION, FETCH_SIZE, POOLABLE
+  }
+}
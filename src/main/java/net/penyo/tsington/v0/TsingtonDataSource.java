@@ -2,11 +2,26 @@ package net.penyo.tsington.v0;
 
 import net.penyo.tsington.config.PerformanceConfig;
 import net.penyo.tsington.config.UserConfig;
+import net.penyo.tsington.support.PoolEvent;
+import net.penyo.tsington.support.PoolMetricsSnapshot;
+import net.penyo.tsington.support.Priority;
+import net.penyo.tsington.support.RowMapper;
 import net.penyo.tsington.util.DriverProxy;
 
 import java.sql.Connection;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.sql.Driver;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * <h1>青彤™ 连接池</h1>
@@ -43,9 +58,9 @@ public abstract class TsingtonDataSource implements TsingtonDataSourceSpecificat
    */
   private UserConfig userConfig;
   /**
-   * 性能配置
+   * 性能配置，总是一份冻结的快照
    */
-  private PerformanceConfig performanceConfig;
+  private final AtomicReference<PerformanceConfig> performanceConfig = new AtomicReference<>();
 
   @Override
   public UserConfig getUserConfig() {
@@ -54,13 +69,100 @@ public abstract class TsingtonDataSource implements TsingtonDataSourceSpecificat
 
   @Override
   public PerformanceConfig getPerformanceConfig() {
-    return performanceConfig;
+    return performanceConfig.get();
   }
 
   /**
    * 压力监视器
    */
   private PressureMonitor pressureMonitor;
+  /**
+   * 连接工厂
+   */
+  private ConnectionFactory connectionFactory;
+  /**
+   * 建立连接的断路器
+   */
+  private final CreationBreaker creationBreaker = new CreationBreaker(this::getPerformanceConfig);
+  /**
+   * 管家
+   */
+  private volatile Housekeeper housekeeper;
+  /**
+   * 泄漏探测器
+   */
+  private LeakDetector leakDetector;
+  /**
+   * 连接池度量
+   */
+  private final PoolMetrics metrics = new PoolMetrics();
+  /**
+   * JMX 发布器
+   */
+  private final PoolMXBeanExporter mxBeanExporter = new PoolMXBeanExporter(this);
+
+  PoolMetrics getMetrics() {
+    return metrics;
+  }
+
+  CreationBreaker getCreationBreaker() {
+    return creationBreaker;
+  }
+
+  LeakDetector getLeakDetector() {
+    return leakDetector;
+  }
+
+  /**
+   * 语句追踪器
+   */
+  private StatementTracer statementTracer;
+  /**
+   * 事件总线
+   */
+  private PoolEventBus eventBus;
+
+  /**
+   * 获取事件总线。
+   */
+  public PoolEventBus getEventBus() {
+    return eventBus;
+  }
+
+  /**
+   * 获取语句追踪器。
+   */
+  public StatementTracer getStatementTracer() {
+    return statementTracer;
+  }
+
+  /**
+   * 写合并器，未开启时为 {@code null}
+   */
+  private volatile WriteCoalescer writeCoalescer;
+
+  WriteCoalescer getWriteCoalescer() {
+    return writeCoalescer;
+  }
+
+  /**
+   * 查询结果缓存，未开启时为 {@code null}
+   */
+  private volatile QueryCache queryCache;
+
+  /**
+   * 获取查询结果缓存。
+   *
+   * @return 查询结果缓存，未开启时为 {@code null}
+   */
+  public QueryCache getQueryCache() {
+    return queryCache;
+  }
+
+  /**
+   * 连接池编号
+   */
+  private static final AtomicInteger POOL_SEQUENCE = new AtomicInteger();
 
   protected TsingtonDataSource() {
   }
@@ -68,39 +170,97 @@ public abstract class TsingtonDataSource implements TsingtonDataSourceSpecificat
   /**
    * 连接池生命周期状态
    */
-  private boolean isAlive = false;
+  private volatile boolean isAlive = false;
+
+  /**
+   * 检查连接池是否处于伺服期。
+   */
+  boolean isAlive() {
+    return isAlive;
+  }
 
   /**
    * 激活连接池。
    */
   protected void activate(UserConfig uc, PerformanceConfig pc) {
+    activate(uc, pc, null);
+  }
+
+  /**
+   * 以给定的驱动实例激活连接池。
+   *
+   * <p>
+   * 给出驱动实例时，连接池既不按 {@link UserConfig#driver() 驱动类名}反射加载驱动，也不经过
+   * {@link java.sql.DriverManager DriverManager}，而是直接由该实例建立连接。
+   * </p>
+   *
+   * @param driver 驱动实例，为 {@code null} 时按驱动类名注册驱动
+   */
+  protected void activate(UserConfig uc, PerformanceConfig pc, Driver driver) {
     if (uc == null || pc == null || isAlive) throw new RuntimeException();
 
-    DriverProxy.register(uc.driver());
+    if (driver == null) DriverProxy.register(uc.driver());
     this.userConfig = uc;
-    this.performanceConfig = pc;
+    PerformanceConfig own = pc.copy();
+    if (own.getPoolName() == null) own.setPoolName("tsington-" + POOL_SEQUENCE.incrementAndGet());
+    pc = own.freeze();
+    performanceConfig.set(pc);
+    eventBus = new PoolEventBus(this);
+    connectionFactory = new ConnectionFactory(pc.getPoolName(), uc, driver, pc.getCreationParallelism(), metrics, creationBreaker, eventBus);
+    leakDetector = new LeakDetector(this);
+    statementTracer = new StatementTracer(this);
+    if (pc.getWriteCoalescingWindow() > 0)
+      writeCoalescer = new WriteCoalescer(pc.getWriteCoalescingWindow(), pc.getWriteCoalescingBatchSize());
+    if (pc.getQueryCacheSize() > 0)
+      queryCache = new QueryCache(pc.getQueryCacheSize(), pc.getQueryCacheMemoryLimit(), pc.getQueryCacheTtl());
     isAlive = true;
-    expand(pc.getMinConnectionsNum());
+    CompletableFuture<Void> warmUp = spawn(pc.getMinConnectionsNum());
     pressureMonitor = new PressureMonitor(this);
+    housekeeper = new Housekeeper(this, leakDetector);
+    if (pc.isRegisterMBean()) mxBeanExporter.register(pc.getPoolName());
+    if (!pc.isWarmUpInBackground()) warmUp.join();
   }
 
   /**
-   * 空闲队列
-   */
-  private final Queue<TrackableConnection> idles = new ConcurrentLinkedQueue<>();
-  /**
-   * 忙碌队列
+   * 连接袋
    */
-  private final Queue<TrackableConnection> workings = new ConcurrentLinkedQueue<>();
+  private final ConnectionBag bag = new ConnectionBag(this::getPerformanceConfig);
+
+  ConnectionBag getBag() {
+    return bag;
+  }
 
   @Override
   public int getRemainingCapacity() {
-    return idles.size();
+    return bag.count(TrackableConnection.STATE_IDLE);
   }
 
   @Override
   public int getCapacity() {
-    return idles.size() + workings.size();
+    return bag.size();
+  }
+
+  @Override
+  public PoolMetricsSnapshot getMetricsSnapshot() {
+    return new PoolMetricsSnapshot(getPerformanceConfig().getPoolName(), getCapacity(), getRemainingCapacity(),
+      metrics.getInUse(), getWaitingCount(), getPendingCount(), metrics.getAcquisitions(), metrics.getTimeouts(),
+      metrics.getRejections(), metrics.getCreated(), metrics.getCreationFailures(), leakDetector.getDetectedCount(),
+      leakDetector.getReclaimedCount(), metrics.getWaitTimes().snapshot(), metrics.getHoldTimes().snapshot(),
+      metrics.getCreationTimes().snapshot());
+  }
+
+  /**
+   * 获取等待者数。
+   */
+  int getWaitingCount() {
+    return bag.getWaitingCount();
+  }
+
+  /**
+   * 获取正在建立的连接数。
+   */
+  int getPendingCount() {
+    return connectionFactory.getPendingCount();
   }
 
   /**
@@ -109,13 +269,105 @@ public abstract class TsingtonDataSource implements TsingtonDataSourceSpecificat
   protected void expand(int amount) {
     if (!isAlive) throw new RuntimeException();
 
-    if (getRemainingCapacity() + amount <= performanceConfig.getMaxConnectionsNum()) for (int i = 0; i < amount; i++)
-      try {
-        Connection c = DriverProxy.getConnection(userConfig);
-        if (c == null) throw new RuntimeException("Cannot login to SQL server.");
-        idles.add(new TrackableConnection(c, this));
-      } catch (Exception ignored) {
-      }
+    if (getCapacity() + connectionFactory.getPendingCount() + amount <= getPerformanceConfig().getMaxConnectionsNum())
+      spawn(amount);
+  }
+
+  /**
+   * 并行建立若干连接，每个连接就绪后立即放入连接袋（或直接移交给等待者）。
+   *
+   * @return 全部连接建立结束时完成
+   */
+  private CompletableFuture<Void> spawn(int amount) {
+    CompletableFuture<?>[] creations = new CompletableFuture<?>[amount];
+    for (int i = 0; i < amount; i++)
+      creations[i] = connectionFactory.create(c -> {
+        if (isAlive) bag.add(new TrackableConnection(c, this));
+        else try {
+          c.close();
+        } catch (SQLException ignored) {
+        }
+      });
+    return CompletableFuture.allOf(creations).exceptionally(e -> null);
+  }
+
+  /**
+   * 补足最小连接数。
+   */
+  void replenish() {
+    if (!isAlive) return;
+
+    int lack = getPerformanceConfig().getMinConnectionsNum() - getCapacity() - connectionFactory.getPendingCount();
+    if (lack > 0) spawn(lack);
+  }
+
+  /**
+   * 退役连接：将其移出连接袋、关闭物理连接，并在需要时补足最小连接数。
+   */
+  void retire(TrackableConnection tc) {
+    bag.evict(tc);
+    tc.tradeOff();
+    replenish();
+  }
+
+  /**
+   * 检查刚借到的连接是否可以交给借用者。
+   *
+   * <p>
+   * 已超过寿命的连接直接判为不可用；只有空闲时长超过阈值的连接才会做一次网络校验，刚刚归还或刚刚建立的连接不做校验。
+   * </p>
+   */
+  private boolean isUsable(TrackableConnection tc, long now) {
+    if (tc.isExpired(now)) return false;
+    PerformanceConfig pc = getPerformanceConfig();
+    if (now - tc.getLastAccessed() < TimeUnit.MILLISECONDS.toNanos(pc.getValidationIdleThreshold()))
+      return true;
+    return tc.validate(pc.getValidationTimeout());
+  }
+
+  /**
+   * 热更新性能配置。
+   *
+   * <p>
+   * 新配置的冻结副本原子地替换当前快照，此后的借用、巡检与伸缩都读取新值。最小连接数调高时立即补足；
+   * 最大连接数调低时立即回收多余的空闲连接，占用中的多余连接在归还时退役。建立连接的并行度与写合并参数立即生效，
+   * 巡检周期或泄漏探测阈值变化时管家会被重新调度；扫描周期在压力监视器的下一个周期生效。
+   * 连接池名称与是否注册 MBean 只在激活时生效。
+   * </p>
+   *
+   * @throws IllegalArgumentException 新配置的最小连接数大于最大连接数时抛出
+   */
+  public synchronized void reconfigure(PerformanceConfig next) {
+    if (!isAlive || next == null) throw new RuntimeException();
+    if (next.getMinConnectionsNum() > next.getMaxConnectionsNum())
+      throw new IllegalArgumentException("minConnectionsNum must not exceed maxConnectionsNum.");
+
+    PerformanceConfig previous = getPerformanceConfig();
+    PerformanceConfig own = next.copy();
+    own.setPoolName(previous.getPoolName());
+    own.setRegisterMBean(previous.isRegisterMBean());
+    PerformanceConfig current = own.freeze();
+    performanceConfig.set(current);
+
+    connectionFactory.setParallelism(current.getCreationParallelism());
+    if (current.getWriteCoalescingWindow() != previous.getWriteCoalescingWindow()
+      || current.getWriteCoalescingBatchSize() != previous.getWriteCoalescingBatchSize())
+      writeCoalescer = current.getWriteCoalescingWindow() > 0
+        ? new WriteCoalescer(current.getWriteCoalescingWindow(), current.getWriteCoalescingBatchSize()) : null;
+    if (current.getQueryCacheSize() != previous.getQueryCacheSize()
+      || current.getQueryCacheMemoryLimit() != previous.getQueryCacheMemoryLimit()
+      || current.getQueryCacheTtl() != previous.getQueryCacheTtl())
+      queryCache = current.getQueryCacheSize() > 0
+        ? new QueryCache(current.getQueryCacheSize(), current.getQueryCacheMemoryLimit(), current.getQueryCacheTtl()) : null;
+    if (current.getHousekeepingPeriod() != previous.getHousekeepingPeriod()
+      || current.getLeakDetectionThreshold() != previous.getLeakDetectionThreshold()) {
+      housekeeper.close();
+      housekeeper = new Housekeeper(this, leakDetector);
+    }
+
+    int excess = getCapacity() - current.getMaxConnectionsNum();
+    if (excess > 0) contract(excess);
+    replenish();
   }
 
   /**
@@ -124,66 +376,368 @@ public abstract class TsingtonDataSource implements TsingtonDataSourceSpecificat
   protected void contract(int amount) {
     if (!isAlive) throw new RuntimeException();
 
-    if (getRemainingCapacity() - amount >= performanceConfig.getMinConnectionsNum()) for (int i = 0; i < amount; i++) {
-      TrackableConnection cs = idles.poll();
-      if (cs != null) cs.tradeOff();
+    amount = Math.min(amount, getCapacity() - getPerformanceConfig().getMinConnectionsNum());
+    for (TrackableConnection tc : bag.values()) {
+      if (amount <= 0) break;
+      if (bag.remove(tc)) {
+        tc.tradeOff();
+        amount--;
+      }
     }
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @throws ConnectionUnavailableException 建立连接的断路器断开且没有空闲连接时立即抛出
+   * @throws PoolOverloadedException       被准入控制拒绝时立即抛出
+   * @see TsingtonDataSource#getConnection(long)
+   */
   @Override
-  public synchronized Connection getConnection() {
-    if (!isAlive) throw new RuntimeException();
+  public Connection getConnection() {
+    return getConnection(getPerformanceConfig().getRequestTimeout());
+  }
 
-    pressureMonitor.request();
+  /**
+   * 在给定时限内借用连接。
+   *
+   * <p>
+   * 没有空闲连接时，借用者须先通过准入控制才能排队：排队人数已达上限，或开启负载削减且预计等待时长超过剩余时限，
+   * 都会立即被拒绝。过载时调用方因此很快失败，线程不会成批地堆积在连接池上等满超时。
+   * </p>
+   *
+   * @param timeout 超时时长（毫秒）
+   * @return 连接，若超时则为 {@code null}
+   * @throws ConnectionUnavailableException 建立连接的断路器断开且没有空闲连接时立即抛出
+   * @throws PoolOverloadedException       被准入控制拒绝时立即抛出
+   */
+  public Connection getConnection(long timeout) {
+    return getConnection(Priority.NORMAL, timeout);
+  }
 
-    TrackableConnection tc = null;
+  /**
+   * 以某优先级借用连接，超时时长取自性能配置。
+   *
+   * @see TsingtonDataSource#getConnection(Priority, long)
+   */
+  public Connection getConnection(Priority priority) {
+    return getConnection(priority, getPerformanceConfig().getRequestTimeout());
+  }
 
-    long requestTime = System.currentTimeMillis();
-    while (System.currentTimeMillis() - requestTime < performanceConfig.getRequestTimeout()) {
-      if (idles.isEmpty()) try {
-        wait(100);
-      } catch (InterruptedException ignored) {
+  /**
+   * 以某优先级在给定时限内借用连接。
+   *
+   * <p>
+   * 归还的连接总是先移交给优先级更高的等待者。借用还受该优先级的占用上限约束，且不能占用其他优先级未用满的预留连接；
+   * 受此约束而借不到时，借用者与无空闲连接时一样排队等待。
+   * </p>
+   *
+   * @param timeout 超时时长（毫秒）
+   * @return 连接，若超时则为 {@code null}
+   * @throws ConnectionUnavailableException 建立连接的断路器断开且没有空闲连接时立即抛出，等待期间连接池被关闭时也抛出
+   * @throws PoolOverloadedException       被准入控制拒绝时立即抛出
+   */
+  public Connection getConnection(Priority priority, long timeout) {
+    if (!isAlive) throw new RuntimeException();
+
+    int lane = priority.ordinal();
+    long start = System.nanoTime();
+    long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeout);
+    while (true) {
+      TrackableConnection tc = bag.borrow(lane);
+      if (tc == null) {
+        // 断路器断开时不排队：池中有空闲连接就借，没有就立即失败
+        if (creationBreaker.isOpen()) throw reject();
+        admit(deadline - System.nanoTime());
+        try {
+          tc = bag.borrow(deadline - System.nanoTime(), lane);
+        } finally {
+          queued.decrementAndGet();
+        }
+      }
+      long now = System.nanoTime();
+
+      if (tc == null) {
+        if (!isAlive) throw closed();
+        metrics.onTimeout(now - start);
+        return null;
       }
-      else {
-        tc = idles.poll();
-        workings.offer(tc);
-        break;
+      if (!isUsable(tc, now)) {
+        bag.release(tc);
+        retire(tc);
+        continue;
       }
+      return lend(tc, start, now, Thread.currentThread());
     }
+  }
+
+  /**
+   * 排队中的借用者数，由准入控制维护
+   */
+  private final AtomicInteger queued = new AtomicInteger();
+
+  /**
+   * 准入控制：登记一名排队的借用者，超出上限或预计等待过久时撤销登记并拒绝之。
+   *
+   * @param remaining 借用者的剩余时限（纳秒）
+   * @throws PoolOverloadedException 被拒绝时抛出
+   */
+  private void admit(long remaining) {
+    PerformanceConfig pc = getPerformanceConfig();
+    int position = queued.incrementAndGet();
+    int maxWaiters = pc.getMaxWaiters();
+    boolean full = maxWaiters > 0 && position > maxWaiters;
+    if (!full && !pc.isShedLoad()) return;
+
+    // 每条占用中的连接平均每隔一个占用时长空出一次，排在第 n 位的借用者大约要等 n 个这样的间隔
+    long expected = metrics.getRecentHoldTime() * position / Math.max(1, metrics.getInUse());
+    if (!full && expected <= remaining) return;
 
-    if (tc != null)
-      return tc.proxy();
-    return null;
+    queued.decrementAndGet();
+    metrics.onReject();
+    PoolOverloadedException e = new PoolOverloadedException(full ? "Too many borrowers are waiting for a connection."
+      : "Expected wait exceeds the remaining timeout.", TimeUnit.NANOSECONDS.toMillis(expected));
+    eventBus.publish(PoolEvent.Type.BORROW_REJECTED, null, e, e.getMessage(), 0L);
+    throw e;
   }
 
   /**
-   * 归还连接。
+   * 等待期间连接池被关闭时抛出的异常。
    */
-  protected synchronized void returnConnection(TrackableConnection cs) {
+  static ConnectionUnavailableException closed() {
+    return new ConnectionUnavailableException("The pool has been closed.", null, 0L);
+  }
+
+  /**
+   * 立即拒绝一次借用，并借机让连接工厂在退避到期时试探数据库。
+   */
+  private ConnectionUnavailableException reject() {
+    metrics.onReject();
+    replenish();
+    ConnectionUnavailableException e = creationBreaker.unavailable();
+    eventBus.publish(PoolEvent.Type.BORROW_REJECTED, null, e, "Connection creation is failing.", 0L);
+    return e;
+  }
+
+  /**
+   * 以某优先级借用连接，优先选择满足条件的空闲连接；没有时按常规路径借用任意连接。
+   *
+   * <p>
+   * 命中满足条件的空闲连接时同样按该优先级登记占用，受其占用上限与其他优先级的预留约束；
+   * 与常规路径命中空闲连接时一样，不经过只针对排队者的准入控制。
+   * </p>
+   *
+   * @see TsingtonDataSource#getConnection(Priority)
+   */
+  Connection getConnection(Predicate<TrackableConnection> preferred, Priority priority) {
     if (!isAlive) throw new RuntimeException();
 
-    if (workings.contains(cs)) {
-      workings.remove(cs);
-      idles.offer(new TrackableConnection(cs.getRealConnection(), this));
+    long start = System.nanoTime();
+    TrackableConnection tc = bag.borrow(preferred, priority.ordinal());
+    if (tc != null) {
+      long now = System.nanoTime();
+      if (isUsable(tc, now)) return lend(tc, start, now, Thread.currentThread());
+      bag.release(tc);
+      retire(tc);
     }
+    return getConnection(priority);
   }
 
   @Override
-  public void close() {
+  public CompletableFuture<Connection> getConnectionAsync() {
+    return getConnectionAsync(getPerformanceConfig().getRequestTimeout());
+  }
+
+  @Override
+  public CompletableFuture<Connection> getConnectionAsync(long timeout) {
+    return getConnectionAsync(Priority.NORMAL, timeout);
+  }
+
+  /**
+   * 以某优先级异步借用连接。
+   *
+   * @param timeout 超时时长（毫秒）
+   * @see TsingtonDataSource#getConnection(Priority, long)
+   */
+  public CompletableFuture<Connection> getConnectionAsync(Priority priority, long timeout) {
     if (!isAlive) throw new RuntimeException();
 
-    for (TrackableConnection cs : workings)
-      try {
-        cs.close();
-      } catch (Exception ignored) {
+    long start = System.nanoTime();
+    CompletableFuture<Connection> result = new CompletableFuture<>();
+    borrowAsync(priority.ordinal(), start, start + TimeUnit.MILLISECONDS.toNanos(timeout), Thread.currentThread(), result);
+    return result;
+  }
+
+  /**
+   * 流式查询。
+   *
+   * <p>
+   * 返回的流是惰性的：借用的连接在消费期间一直被占用，直到结果集读尽或流被关闭才归还，因此应在
+   * try-with-resources 中使用。读取时按数据库产品开启驱动的流式抓取，并随消费速度调整抓取行数，
+   * 读取任意多行都只占用有限的堆。
+   * </p>
+   *
+   * @param sql    查询语句
+   * @param mapper 行映射器
+   * @param params 按顺序绑定的参数
+   */
+  public <T> Stream<T> stream(String sql, RowMapper<T> mapper, Object... params) {
+    if (!isAlive) throw new RuntimeException();
+    return QueryStream.open(this, sql, mapper, params);
+  }
+
+  /**
+   * 查询并映射全部行。
+   *
+   * <p>
+   * 开启查询结果缓存且语句可缓存时，先查找缓存；命中时不借用连接。未命中时借用连接执行查询，结果经由语句层写入缓存。
+   * </p>
+   *
+   * @param sql    查询语句
+   * @param mapper 行映射器
+   * @param params 按顺序绑定的参数
+   */
+  public <T> List<T> query(String sql, RowMapper<T> mapper, Object... params) {
+    if (!isAlive) throw new RuntimeException();
+
+    try {
+      QueryCache cache = queryCache;
+      if (cache != null && cache.isCacheable(sql)) {
+        ResultSet hit = cache.get(new QueryCache.Key(null, sql, params.clone()));
+        if (hit != null) return map(hit, mapper);
+      }
+
+      Connection c = getConnection();
+      if (c == null) throw new SQLTimeoutException("Timed out waiting for a connection.");
+      try (c; PreparedStatement ps = c.prepareStatement(sql)) {
+        for (int i = 0; i < params.length; i++) ps.setObject(i + 1, params[i]);
+        return map(ps.executeQuery(), mapper);
       }
-    for (TrackableConnection cs : idles)
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static <T> List<T> map(ResultSet rs, RowMapper<T> mapper) throws SQLException {
+    try (rs) {
+      List<T> rows = new ArrayList<>();
+      while (rs.next()) rows.add(mapper.map(rs));
+      return rows;
+    }
+  }
+
+  /**
+   * 异步借用连接，借到不可用的连接时退役之并在剩余时限内重试。
+   */
+  private void borrowAsync(int lane, long start, long deadline, Thread borrower, CompletableFuture<Connection> result) {
+    CompletableFuture<TrackableConnection> borrowing;
+    TrackableConnection idle = bag.borrow(lane);
+    if (idle != null) borrowing = CompletableFuture.completedFuture(idle);
+    else {
       try {
-        cs.tradeOff();
-      } catch (Exception ignored) {
+        if (creationBreaker.isOpen()) throw reject();
+        admit(deadline - System.nanoTime());
+      } catch (ConnectionUnavailableException e) {
+        result.completeExceptionally(e);
+        return;
       }
+      borrowing = bag.borrowAsync(deadline - System.nanoTime(), lane);
+      borrowing.whenComplete((tc, e) -> queued.decrementAndGet());
+    }
+
+    borrowing.whenComplete((tc, e) -> {
+      long now = System.nanoTime();
+      if (e != null) {
+        if (isAlive) metrics.onTimeout(now - start);
+        result.completeExceptionally(e);
+        return;
+      }
+      if (!isUsable(tc, now)) {
+        bag.release(tc);
+        retire(tc);
+        borrowAsync(lane, start, deadline, borrower, result);
+        return;
+      }
+      if (!result.complete(lend(tc, start, now, borrower))) tc.close();
+    });
+  }
+
+  /**
+   * 将已通过检查的连接借给借用者。
+   */
+  private Connection lend(TrackableConnection tc, long start, long now, Thread borrower) {
+    metrics.onAcquire(now - start);
+    leakDetector.onBorrow(tc, borrower);
+    tc.onLend(now);
+    return tc.proxy();
+  }
+
+  /**
+   * 强制回收被借用者长期占用的连接。
+   *
+   * <p>
+   * 只回收巡检时观察到的那次借用：若它在此期间已被归还，连接又被他人借走，则什么也不做。
+   * </p>
+   *
+   * @param generation 巡检时观察到的借出世代
+   * @param borrowedAt 巡检时观察到的借出时刻
+   * @return 是否回收
+   */
+  boolean reclaim(TrackableConnection tc, int generation, long borrowedAt) {
+    if (borrowedAt == 0L || tc.getBorrowedAt() != borrowedAt || !tc.revoke(generation)) return false;
+
+    metrics.onRelease(System.nanoTime() - borrowedAt);
+    bag.release(tc);
+    bag.evict(tc);
+    tc.seize();
+    replenish();
+    return true;
+  }
+
+  /**
+   * 归还连接。
+   */
+  protected void returnConnection(TrackableConnection cs) {
+    // 关闭时已逐出并关闭了全部连接，之后的归还无事可做
+    if (!isAlive) return;
+
+    long now = System.nanoTime();
+    metrics.onRelease(now - cs.getBorrowedAt());
+    bag.release(cs);
+    leakDetector.onReturn(cs, now);
+    cs.setBorrowedAt(0L);
+    cs.setLastAccessed(now);
+    try {
+      if (cs.isExpired(now) || getCapacity() > getPerformanceConfig().getMaxConnectionsNum() || !cs.resetSession()
+        || cs.getRealConnection().isClosed()) {
+        retire(cs);
+        return;
+      }
+    } catch (SQLException e) {
+      retire(cs);
+      return;
+    }
+    bag.requite(cs);
+  }
+
+  @Override
+  public void close() {
+    if (!isAlive) throw new RuntimeException();
 
-    pressureMonitor.close();
     isAlive = false;
+    bag.close();
+    mxBeanExporter.close();
+    pressureMonitor.close();
+    housekeeper.close();
+    connectionFactory.close();
+    eventBus.close();
+
+    // 借出中的连接仍可能被借用者访问，一律只关闭物理连接
+    for (TrackableConnection cs : bag.values())
+      try {
+        bag.evict(cs);
+        cs.seize();
+      } catch (Exception ignored) {
+      }
   }
 }
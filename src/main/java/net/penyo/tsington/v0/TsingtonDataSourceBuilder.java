@@ -0,0 +1,108 @@
+package net.penyo.tsington.v0;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.config.UserConfig;
+
+import java.sql.Driver;
+
+/**
+ * 青彤™ 连接池构建器
+ *
+ * <p>
+ * 构建器直接接受驱动实例与性能配置对象，不读取配置文件，也不按类名反射加载驱动或初始化器，
+ * 连接经由驱动实例建立而不经过 {@link java.sql.DriverManager DriverManager}。因此它启动最快，
+ * 也无需为 GraalVM native-image 登记任何反射信息，如：
+ * </p>
+ *
+ * <pre>
+ * TsingtonDataSource pool = new TsingtonDataSourceBuilder()
+ *   .driver(new com.mysql.cj.jdbc.Driver())
+ *   .url("jdbc:mysql://localhost:3306/test")
+ *   .username("root")
+ *   .password("1234")
+ *   .build();
+ * </pre>
+ *
+ * @author Penyo
+ * @see TsingtonDataSource
+ */
+public final class TsingtonDataSourceBuilder {
+  /**
+   * 驱动实例
+   */
+  private Driver driver;
+  /**
+   * 数据库地址
+   */
+  private String url;
+  /**
+   * 用户名
+   */
+  private String username;
+  /**
+   * 密码
+   */
+  private String password;
+  /**
+   * 性能配置
+   */
+  private PerformanceConfig performanceConfig = new PerformanceConfig();
+
+  /**
+   * 设置驱动实例。
+   */
+  public TsingtonDataSourceBuilder driver(Driver driver) {
+    this.driver = driver;
+    return this;
+  }
+
+  /**
+   * 设置数据库地址。
+   */
+  public TsingtonDataSourceBuilder url(String url) {
+    this.url = url;
+    return this;
+  }
+
+  /**
+   * 设置用户名。
+   */
+  public TsingtonDataSourceBuilder username(String username) {
+    this.username = username;
+    return this;
+  }
+
+  /**
+   * 设置密码。
+   */
+  public TsingtonDataSourceBuilder password(String password) {
+    this.password = password;
+    return this;
+  }
+
+  /**
+   * 设置性能配置，构建时连接池会复制一份。
+   */
+  public TsingtonDataSourceBuilder performance(PerformanceConfig performanceConfig) {
+    this.performanceConfig = performanceConfig;
+    return this;
+  }
+
+  /**
+   * 构建并激活连接池。
+   */
+  public TsingtonDataSource build() {
+    if (driver == null || url == null || performanceConfig == null) throw new RuntimeException();
+
+    return new Built(new UserConfig(driver.getClass().getName(), url, username, password), performanceConfig, driver);
+  }
+
+  /**
+   * 由构建器构造的连接池
+   */
+  private static final class Built extends TsingtonDataSource {
+    Built(UserConfig uc, PerformanceConfig pc, Driver driver) {
+      activate(uc, pc, driver);
+    }
+  }
+}
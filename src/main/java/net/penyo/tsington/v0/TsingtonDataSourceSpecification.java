@@ -2,8 +2,10 @@ package net.penyo.tsington.v0;
 
 import net.penyo.tsington.config.PerformanceConfig;
 import net.penyo.tsington.config.UserConfig;
+import net.penyo.tsington.support.PoolMetricsSnapshot;
 
 import java.sql.Connection;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 青彤™ 连接池规范
@@ -29,6 +31,15 @@ public interface TsingtonDataSourceSpecification extends AutoCloseable {
    */
   int getCapacity();
 
+  /**
+   * 获取度量快照。
+   *
+   * <p>
+   * 快照包含自激活起累计的借用、超时、建立连接与泄漏计数，以及等待、占用与建立连接耗时的分布。
+   * </p>
+   */
+  PoolMetricsSnapshot getMetricsSnapshot();
+
   /**
    * 检查连接池是否繁忙。
    *
@@ -59,4 +70,25 @@ public interface TsingtonDataSourceSpecification extends AutoCloseable {
    * 借用连接。
    */
   Connection getConnection();
+
+  /**
+   * 异步借用连接，超时时长取自性能配置。
+   *
+   * @see TsingtonDataSourceSpecification#getConnectionAsync(long)
+   */
+  CompletableFuture<Connection> getConnectionAsync();
+
+  /**
+   * 异步借用连接。
+   *
+   * <p>
+   * 调用方不会被阻塞。若在超时前没有可用连接，返回值将以 {@link java.sql.SQLTimeoutException SQLTimeoutException}
+   * 异常完成；若调用方在完成前取消了返回值，借到的连接会被自动归还。建立连接的断路器断开且没有空闲连接时，返回值立即以
+   * {@link ConnectionUnavailableException ConnectionUnavailableException} 异常完成；被准入控制拒绝时，以其子类
+   * {@link PoolOverloadedException PoolOverloadedException} 异常完成。
+   * </p>
+   *
+   * @param timeout 超时时长（毫秒）
+   */
+  CompletableFuture<Connection> getConnectionAsync(long timeout);
 }
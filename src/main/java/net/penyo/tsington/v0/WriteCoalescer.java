@@ -0,0 +1,314 @@
+package net.penyo.tsington.v0;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 写合并器
+ *
+ * <p>
+ * 开启后，自动提交模式下对预编译的 INSERT/UPDATE 语句调用 {@code executeUpdate()} 不再各自往返一次数据库：
+ * 同一时间窗口内来自不同借用者、SQL 文本相同的写入被合并为一个 JDBC 批次，在一个事务中执行并提交，
+ * 再把各自的更新计数交还给各自的调用方。吞吐受限于网络往返与提交刷盘，而非数据库本身时，这能显著提高写入吞吐。
+ * </p>
+ *
+ * <p>
+ * 批次由窗口内第一个到达的调用方（领队）在它自己借用的连接上执行，不额外借用连接，因此连接池耗尽时也不会死锁。
+ * 领队等待至窗口结束或批次满员后封闭批次；其余调用方挂起至批次完成。批次执行失败时回滚，并逐条重试，
+ * 使每个调用方得到的都是自己那一条的结果或异常。
+ * </p>
+ *
+ * <p>
+ * 合并后的写入与调用方在同一连接上单独执行的效果一致：自动提交模式下，调用返回时写入均已提交。
+ * 仅当参数全部经由简单类型的 {@code setXxx} 方法绑定时才会合并；流、大对象与带日历的参数会使该次执行照常直连。
+ * </p>
+ *
+ * @author Penyo
+ */
+public class WriteCoalescer {
+  /**
+   * 时间窗口（纳秒）
+   */
+  private final long window;
+  /**
+   * 批次容量
+   */
+  private final int batchSize;
+  /**
+   * 按 SQL 文本归集的未封闭批次
+   */
+  private final ConcurrentHashMap<String, Batch> open = new ConcurrentHashMap<>();
+  /**
+   * 执行的批次数
+   */
+  private final LongAdder batches = new LongAdder();
+  /**
+   * 合并执行的写入数
+   */
+  private final LongAdder coalesced = new LongAdder();
+
+  /**
+   * @param windowMicros 时间窗口（微秒）
+   * @param batchSize    批次容量
+   */
+  public WriteCoalescer(long windowMicros, int batchSize) {
+    window = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+    this.batchSize = Math.max(1, batchSize);
+  }
+
+  /**
+   * 检查 SQL 是否可被合并。
+   */
+  static boolean isEligible(String sql) {
+    String head = sql.stripLeading();
+    if (head.length() < 6) return false;
+    String verb = head.substring(0, 6).toUpperCase(Locale.ROOT);
+    return verb.equals("INSERT") || verb.equals("UPDATE");
+  }
+
+  /**
+   * 获取执行的批次数。
+   */
+  public long getBatchCount() {
+    return batches.sum();
+  }
+
+  /**
+   * 获取合并执行的写入数。
+   */
+  public long getCoalescedCount() {
+    return coalesced.sum();
+  }
+
+  /**
+   * 提交一次写入并等待其完成。
+   *
+   * @param sql        SQL
+   * @param parameters 参数，下标 0 对应第 1 个参数
+   * @param statement  调用方的真的语句，调用方成为领队时用于执行批次
+   * @param connection 调用方的真的连接
+   * @return 更新计数
+   */
+  int submit(String sql, Object[] parameters, PreparedStatement statement, Connection connection) throws SQLException {
+    Write write = new Write(parameters);
+    while (true) {
+      Batch batch = open.get(sql);
+      if (batch == null) {
+        Batch created = new Batch(Thread.currentThread());
+        if (open.putIfAbsent(sql, created) == null) {
+          created.add(write);
+          lead(sql, created, statement, connection);
+          break;
+        }
+        continue;
+      }
+      if (batch.add(write)) break;
+      open.remove(sql, batch);
+    }
+    return write.await();
+  }
+
+  /**
+   * 作为领队等待批次封闭并执行之。领队被中断时提前封闭批次，执行完毕后再恢复中断状态。
+   */
+  private void lead(String sql, Batch batch, PreparedStatement statement, Connection connection) {
+    long deadline = System.nanoTime() + window;
+    long remaining;
+    boolean interrupted = false;
+    while (!batch.isFull() && (remaining = deadline - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(this, remaining);
+      // 中断标记未清除时 parkNanos 会立即返回，继续等待只会空转
+      if (Thread.interrupted()) {
+        interrupted = true;
+        break;
+      }
+    }
+
+    List<Write> writes = batch.seal();
+    open.remove(sql, batch);
+    try {
+      execute(writes, statement, connection);
+    } catch (RuntimeException | Error e) {
+      // 其余调用方不持有连接地挂起，领队意外失败时也必须让它们得到结果
+      for (Write write : writes) write.result.completeExceptionally(e);
+      throw e;
+    } finally {
+      // 领队的语句在批次中被反复重绑，恢复领队自己的参数以符合 JDBC 语义
+      try {
+        bind(statement, writes.get(0).parameters);
+      } catch (SQLException ignored) {
+      }
+      if (interrupted) Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * 执行批次。
+   */
+  private void execute(List<Write> writes, PreparedStatement statement, Connection connection) {
+    if (writes.size() == 1) {
+      executeEach(writes, statement);
+      return;
+    }
+
+    batches.increment();
+    coalesced.add(writes.size());
+    try {
+      connection.setAutoCommit(false);
+      try {
+        for (Write write : writes) {
+          bind(statement, write.parameters);
+          statement.addBatch();
+        }
+        int[] counts = statement.executeBatch();
+        connection.commit();
+        for (int i = 0; i < writes.size(); i++)
+          writes.get(i).result.complete(i < counts.length ? counts[i] : Statement.SUCCESS_NO_INFO);
+        return;
+      } catch (SQLException | RuntimeException e) {
+        statement.clearBatch();
+        connection.rollback();
+      } finally {
+        connection.setAutoCommit(true);
+      }
+    } catch (SQLException | RuntimeException e) {
+      for (Write write : writes) write.result.completeExceptionally(e);
+      return;
+    }
+    // 批次失败：已回滚，逐条重试以便各自得到自己的结果
+    executeEach(writes, statement);
+  }
+
+  /**
+   * 在自动提交模式下逐条执行。
+   */
+  private static void executeEach(List<Write> writes, PreparedStatement statement) {
+    for (Write write : writes)
+      try {
+        bind(statement, write.parameters);
+        write.result.complete(statement.executeUpdate());
+      } catch (SQLException | RuntimeException e) {
+        write.result.completeExceptionally(e);
+      }
+  }
+
+  private static void bind(PreparedStatement statement, Object[] parameters) throws SQLException {
+    statement.clearParameters();
+    for (int i = 0; i < parameters.length; i++) {
+      Object value = parameters[i];
+      if (value instanceof Null n) statement.setNull(i + 1, n.sqlType());
+      else statement.setObject(i + 1, value);
+    }
+  }
+
+  /**
+   * 空参数
+   *
+   * @param sqlType SQL 类型
+   */
+  record Null(int sqlType) {
+  }
+
+  /**
+   * 一次写入
+   */
+  private static final class Write {
+    /**
+     * 参数
+     */
+    private final Object[] parameters;
+    /**
+     * 结果
+     */
+    private final CompletableFuture<Integer> result = new CompletableFuture<>();
+
+    private Write(Object[] parameters) {
+      this.parameters = parameters;
+    }
+
+    /**
+     * 等待写入完成。
+     *
+     * <p>
+     * 等待不响应中断：写入一旦加入批次，就可能已被领队提交，只有等到结果才能如实告知调用方。
+     * 等待期间到来的中断在返回时保留在线程的中断状态中。
+     * </p>
+     */
+    private int await() throws SQLException {
+      try {
+        return result.join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof SQLException se) throw se;
+        throw new SQLException(e.getCause());
+      }
+    }
+  }
+
+  /**
+   * 批次
+   */
+  private final class Batch {
+    /**
+     * 领队线程
+     */
+    private final Thread leader;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Write> writes = new ArrayList<>();
+    private boolean sealed;
+
+    private Batch(Thread leader) {
+      this.leader = leader;
+    }
+
+    /**
+     * 加入批次。
+     *
+     * @return 是否加入成功；若批次已封闭或已满员，则为 {@code false}
+     */
+    boolean add(Write write) {
+      lock.lock();
+      try {
+        if (sealed || writes.size() >= batchSize) return false;
+        writes.add(write);
+        if (writes.size() == batchSize) LockSupport.unpark(leader);
+        return true;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    boolean isFull() {
+      lock.lock();
+      try {
+        return writes.size() >= batchSize;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * 封闭批次。
+     */
+    List<Write> seal() {
+      lock.lock();
+      try {
+        sealed = true;
+        return writes;
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
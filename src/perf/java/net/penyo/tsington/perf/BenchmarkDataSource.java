@@ -0,0 +1,32 @@
+package net.penyo.tsington.perf;
+
+import net.penyo.tsington.StubDriver;
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.config.UserConfig;
+import net.penyo.tsington.v0.TsingtonDataSource;
+
+import java.sql.Driver;
+
+/**
+ * 直接以驱动与性能配置构造的连接池，供基准与压测使用。
+ *
+ * @author Penyo
+ */
+public class BenchmarkDataSource extends TsingtonDataSource {
+  public BenchmarkDataSource(Class<? extends Driver> driver, String url, PerformanceConfig pc) {
+    activate(new UserConfig(driver.getName(), url, "root", "1234"), pc);
+  }
+
+  /**
+   * 构造一个固定大小、不伸缩的连接池，使测得的数字只反映借还路径本身。
+   */
+  public static BenchmarkDataSource fixed(int size) {
+    PerformanceConfig pc = new PerformanceConfig();
+    pc.setMinConnectionsNum(size);
+    pc.setMaxConnectionsNum(size);
+    pc.setRequestTimeout(60000L);
+    pc.setScanCycle(Long.MAX_VALUE);
+    pc.setRegisterMBean(false);
+    return new BenchmarkDataSource(StubDriver.class, StubDriver.URL, pc);
+  }
+}
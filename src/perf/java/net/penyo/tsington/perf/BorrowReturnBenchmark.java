@@ -0,0 +1,69 @@
+package net.penyo.tsington.perf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 借还基准
+ *
+ * <p>
+ * 由 JMH 的平台线程直接借用与归还连接。线程数由 {@code -t} 或 {@link PoolBenchmarks PoolBenchmarks} 指定；
+ * 连接池大小与持有连接期间消耗的 CPU 量共同决定争用程度：线程数大于池大小且持有时间越长，等待越多。
+ * </p>
+ *
+ * @author Penyo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BorrowReturnBenchmark {
+  /**
+   * 连接池大小
+   */
+  @Param({"8", "32", "128"})
+  public int poolSize;
+  /**
+   * 持有连接期间消耗的 CPU 量（JMH 令牌数）
+   */
+  @Param({"0", "100", "1000"})
+  public long holdTokens;
+
+  private BenchmarkDataSource pool;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    pool = BenchmarkDataSource.fixed(poolSize);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    pool.close();
+  }
+
+  @Benchmark
+  public void borrowReturn(Blackhole bh) throws SQLException {
+    Connection c = pool.getConnection();
+    if (holdTokens > 0) Blackhole.consumeCPU(holdTokens);
+    bh.consume(c);
+    c.close();
+  }
+}
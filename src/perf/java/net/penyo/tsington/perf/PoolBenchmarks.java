@@ -0,0 +1,50 @@
+package net.penyo.tsington.perf;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准入口
+ *
+ * <p>
+ * 命令行中指定了基准或线程数时，原样交给 JMH；否则依次以 1 至 256 个线程运行 {@link BorrowReturnBenchmark
+ * BorrowReturnBenchmark}，再运行 {@link VirtualThreadBenchmark VirtualThreadBenchmark}（运行时不支持虚拟线程时只测平台线程）。
+ * 对比改动前后的数字时，两次运行应使用同一台机器与同一组参数。
+ * </p>
+ *
+ * <pre>
+ * mvn -Pperf test-compile exec:exec
+ * mvn -Pperf test-compile exec:exec -Dperf.args="BorrowReturnBenchmark -t 64 -p poolSize=32"
+ * </pre>
+ *
+ * @author Penyo
+ */
+public class PoolBenchmarks {
+  /**
+   * 默认的线程数梯度
+   */
+  private static final int[] THREADS = {1, 4, 16, 64, 256};
+
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions cli = new CommandLineOptions(args);
+    if (!cli.getIncludes().isEmpty() || cli.getThreads().hasValue()) {
+      new Runner(cli).run();
+      return;
+    }
+
+    for (int threads : THREADS)
+      new Runner(new OptionsBuilder().parent(cli)
+        .include(BorrowReturnBenchmark.class.getSimpleName())
+        .threads(threads)
+        .result("target/jmh-borrow-return-t" + threads + ".json")
+        .build()).run();
+
+    ChainedOptionsBuilder virtual = new OptionsBuilder().parent(cli)
+      .include(VirtualThreadBenchmark.class.getSimpleName())
+      .result("target/jmh-virtual-thread.json");
+    if (!VirtualThreadBenchmark.isVirtualThreadSupported()) virtual.param("borrower", "platform");
+    new Runner(virtual.build()).run();
+  }
+}
@@ -0,0 +1,110 @@
+package net.penyo.tsington.perf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 虚拟线程借还基准
+ *
+ * <p>
+ * 每次调用由若干借用者线程合计完成 {@value #OPS} 次借还，借用者是平台线程还是虚拟线程由参数决定。
+ * 项目以 Java 17 编译，虚拟线程经反射获取，因此 {@code virtual} 一组只在 Java 21 及以上的运行时中执行。
+ * </p>
+ *
+ * @author Penyo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VirtualThreadBenchmark {
+  /**
+   * 每次调用的借还次数
+   */
+  static final int OPS = 1024;
+
+  /**
+   * 借用者类型
+   */
+  @Param({"platform", "virtual"})
+  public String borrower;
+  /**
+   * 借用者数
+   */
+  @Param({"1", "16", "256"})
+  public int borrowers;
+  /**
+   * 连接池大小
+   */
+  @Param({"8", "32"})
+  public int poolSize;
+
+  private BenchmarkDataSource pool;
+  private ExecutorService executor;
+  private List<Callable<Void>> tasks;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    pool = BenchmarkDataSource.fixed(poolSize);
+    executor = "virtual".equals(borrower) ? newVirtualThreadPerTaskExecutor() : Executors.newFixedThreadPool(borrowers);
+
+    int perBorrower = OPS / borrowers;
+    tasks = new ArrayList<>(borrowers);
+    for (int i = 0; i < borrowers; i++)
+      tasks.add(() -> {
+        for (int j = 0; j < perBorrower; j++) {
+          Connection c = pool.getConnection();
+          Blackhole.consumeCPU(10);
+          c.close();
+        }
+        return null;
+      });
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    executor.shutdownNow();
+    pool.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OPS)
+  public void borrowReturn() throws Exception {
+    for (Future<Void> f : executor.invokeAll(tasks)) f.get();
+  }
+
+  /**
+   * 检查当前运行时是否支持虚拟线程。
+   */
+  static boolean isVirtualThreadSupported() {
+    return Runtime.version().feature() >= 21;
+  }
+
+  private static ExecutorService newVirtualThreadPerTaskExecutor() throws ReflectiveOperationException {
+    return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+  }
+}
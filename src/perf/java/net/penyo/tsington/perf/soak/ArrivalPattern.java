@@ -0,0 +1,65 @@
+package net.penyo.tsington.perf.soak;
+
+/**
+ * 到达模式
+ *
+ * <p>
+ * 到达模式给出任一时刻的请求到达率。压测按该到达率以泊松过程发出请求，不等待前一个请求完成，即开环加压，
+ * 因此连接池变慢时排队会如实累积，而不会像闭环压测那样自动降低负载。
+ * </p>
+ *
+ * @author Penyo
+ */
+@FunctionalInterface
+public interface ArrivalPattern {
+  /**
+   * 获取到达率（每秒请求数）。
+   *
+   * @param seconds 自压测开始起经过的秒数
+   */
+  double rateAt(double seconds);
+
+  /**
+   * 恒定到达率。
+   */
+  static ArrivalPattern steady(double rate) {
+    return s -> rate;
+  }
+
+  /**
+   * 周期性突发：每个周期开头的一段时间内到达率升至峰值。
+   */
+  static ArrivalPattern burst(double base, double peak, double periodSeconds, double burstSeconds) {
+    return s -> s % periodSeconds < burstSeconds ? peak : base;
+  }
+
+  /**
+   * 正弦波动的到达率，模拟昼夜潮汐。
+   */
+  static ArrivalPattern sine(double mean, double amplitude, double periodSeconds) {
+    return s -> Math.max(0D, mean + amplitude * Math.sin(2 * Math.PI * s / periodSeconds));
+  }
+
+  /**
+   * 阶跃：到达率在某一时刻由一个值跳变为另一个值。
+   */
+  static ArrivalPattern step(double before, double after, double atSeconds) {
+    return s -> s < atSeconds ? before : after;
+  }
+
+  /**
+   * 解析形如 {@code steady:200}、{@code burst:50:500:60:10}、{@code sine:200:150:120}、{@code step:50:400:60} 的描述。
+   */
+  static ArrivalPattern parse(String spec) {
+    String[] parts = spec.split(":");
+    double[] v = new double[parts.length - 1];
+    for (int i = 1; i < parts.length; i++) v[i - 1] = Double.parseDouble(parts[i]);
+    return switch (parts[0]) {
+      case "steady" -> steady(v[0]);
+      case "burst" -> burst(v[0], v[1], v[2], v[3]);
+      case "sine" -> sine(v[0], v[1], v[2]);
+      case "step" -> step(v[0], v[1], v[2]);
+      default -> throw new IllegalArgumentException("Unknown arrival pattern: " + spec);
+    };
+  }
+}
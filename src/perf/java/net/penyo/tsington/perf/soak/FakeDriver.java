@@ -0,0 +1,170 @@
+package net.penyo.tsington.perf.soak;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+/**
+ * 注入延迟与故障的仿真驱动，接受 {@code jdbc:fake:} 开头的地址。
+ *
+ * <p>
+ * 建立连接与执行语句都会按 {@link Profile Profile} 中的分布挂起调用线程，并按给定概率失败，
+ * 从而在单机离线环境中复现慢握手、慢查询与数据库抖动。
+ * </p>
+ *
+ * @author Penyo
+ */
+public class FakeDriver implements Driver {
+  public static final String URL = "jdbc:fake:tsington";
+
+  /**
+   * 当前生效的仿真参数
+   */
+  private static volatile Profile profile = new Profile(Latency.NONE, Latency.NONE, 0D, 0D);
+  /**
+   * 当前打开的物理连接数
+   */
+  public static final AtomicInteger OPEN = new AtomicInteger();
+
+  static {
+    try {
+      DriverManager.registerDriver(new FakeDriver());
+    } catch (SQLException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  /**
+   * 设置仿真参数，对此后的建立连接与执行语句生效。
+   */
+  public static void configure(Profile profile) {
+    FakeDriver.profile = profile;
+  }
+
+  @Override
+  public Connection connect(String url, Properties info) throws SQLException {
+    if (!acceptsURL(url)) return null;
+    Profile p = profile;
+    pause(p.connectLatency());
+    if (fails(p.connectFailureRate())) throw new SQLTransientConnectionException("Injected connect failure.");
+
+    OPEN.incrementAndGet();
+    boolean[] closed = {false};
+    return (Connection) Proxy.newProxyInstance(FakeDriver.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+      case "close" -> {
+        if (!closed[0]) OPEN.decrementAndGet();
+        closed[0] = true;
+        yield null;
+      }
+      case "isClosed" -> closed[0];
+      case "isValid" -> !closed[0];
+      case "getAutoCommit" -> true;
+      case "getTransactionIsolation" -> Connection.TRANSACTION_READ_COMMITTED;
+      case "isReadOnly" -> false;
+      case "getNetworkTimeout" -> 0;
+      case "hashCode" -> System.identityHashCode(proxy);
+      case "equals" -> proxy == args[0];
+      case "toString" -> "FakeConnection@" + System.identityHashCode(proxy);
+      case "createStatement" -> statement(Statement.class);
+      case "prepareStatement" -> statement(PreparedStatement.class);
+      default -> null;
+    });
+  }
+
+  /**
+   * 创建一个执行时注入延迟与故障的语句。
+   */
+  private static <T extends Statement> T statement(Class<T> iface) {
+    return iface.cast(Proxy.newProxyInstance(FakeDriver.class.getClassLoader(), new Class<?>[]{iface}, (proxy, method, args) -> {
+      String name = method.getName();
+      if (name.startsWith("execute")) {
+        Profile p = profile;
+        pause(p.queryLatency());
+        if (fails(p.queryFailureRate())) throw new SQLException("Injected query failure.");
+        if (method.getReturnType() == ResultSet.class) return emptyResultSet();
+      }
+      if (name.equals("hashCode")) return System.identityHashCode(proxy);
+      if (name.equals("equals")) return proxy == args[0];
+      Class<?> type = method.getReturnType();
+      if (type == boolean.class) return false;
+      if (type == int.class) return 0;
+      if (type == long.class) return 0L;
+      if (type.isPrimitive() && type != void.class) return 0;
+      return null;
+    }));
+  }
+
+  private static ResultSet emptyResultSet() {
+    return (ResultSet) Proxy.newProxyInstance(FakeDriver.class.getClassLoader(), new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+      Class<?> type = method.getReturnType();
+      if (type == boolean.class) return false;
+      if (type == int.class) return 0;
+      if (type.isPrimitive() && type != void.class) return 0;
+      return null;
+    });
+  }
+
+  private static void pause(Latency latency) {
+    long nanos = latency.sampleNanos();
+    if (nanos > 0) LockSupport.parkNanos(nanos);
+  }
+
+  private static boolean fails(double rate) {
+    return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+  }
+
+  @Override
+  public boolean acceptsURL(String url) {
+    return url != null && url.startsWith("jdbc:fake:");
+  }
+
+  @Override
+  public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+    return new DriverPropertyInfo[0];
+  }
+
+  @Override
+  public int getMajorVersion() {
+    return 1;
+  }
+
+  @Override
+  public int getMinorVersion() {
+    return 0;
+  }
+
+  @Override
+  public boolean jdbcCompliant() {
+    return false;
+  }
+
+  @Override
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  /**
+   * 仿真参数
+   *
+   * @param connectLatency     建立连接的延迟
+   * @param queryLatency       执行语句的延迟
+   * @param connectFailureRate 建立连接失败的概率
+   * @param queryFailureRate   执行语句失败的概率
+   */
+  public record Profile(Latency connectLatency, Latency queryLatency, double connectFailureRate,
+                        double queryFailureRate) {
+  }
+}
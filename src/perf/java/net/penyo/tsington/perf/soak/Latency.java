@@ -0,0 +1,61 @@
+package net.penyo.tsington.perf.soak;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 延迟分布
+ *
+ * @author Penyo
+ */
+@FunctionalInterface
+public interface Latency {
+  /**
+   * 零延迟
+   */
+  Latency NONE = () -> 0L;
+
+  /**
+   * 抽取一个样本（纳秒）。
+   */
+  long sampleNanos();
+
+  /**
+   * 固定延迟。
+   */
+  static Latency fixed(double millis) {
+    long nanos = (long) (millis * 1_000_000);
+    return () -> nanos;
+  }
+
+  /**
+   * 均匀分布的延迟。
+   */
+  static Latency uniform(double minMillis, double maxMillis) {
+    return () -> (long) (ThreadLocalRandom.current().nextDouble(minMillis, maxMillis) * 1_000_000);
+  }
+
+  /**
+   * 对数正态分布的延迟，长尾形态接近真实数据库的响应时间。
+   *
+   * @param medianMillis 中位数（毫秒）
+   * @param sigma        对数标准差，越大尾部越长
+   */
+  static Latency logNormal(double medianMillis, double sigma) {
+    double mu = Math.log(medianMillis);
+    return () -> (long) (Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()) * 1_000_000);
+  }
+
+  /**
+   * 解析形如 {@code fixed:5}、{@code uniform:1:10}、{@code lognormal:5:0.6} 的描述，单位为毫秒。
+   */
+  static Latency parse(String spec) {
+    String[] parts = spec.split(":");
+    return switch (parts[0]) {
+      case "none" -> NONE;
+      case "fixed" -> fixed(Double.parseDouble(parts[1]));
+      case "uniform" -> uniform(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+      case "lognormal" -> logNormal(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+      default -> throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+    };
+  }
+}
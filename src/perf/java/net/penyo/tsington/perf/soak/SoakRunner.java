@@ -0,0 +1,244 @@
+package net.penyo.tsington.perf.soak;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.perf.BenchmarkDataSource;
+import net.penyo.tsington.support.PoolMetricsSnapshot;
+import net.penyo.tsington.util.LatencyHistogram;
+import net.penyo.tsington.v0.LittleLawScalingPolicy;
+import net.penyo.tsington.v0.RequestRateScalingPolicy;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 压测入口
+ *
+ * <p>
+ * 以开环到达模式驱动一个基于 {@link FakeDriver FakeDriver} 的连接池，并按固定间隔将连接池规模、等待者数、
+ * 借用延迟分位数与超时数写成 CSV 时间序列，用于在单机上复现压力监视器的扩张与收缩过程。
+ * </p>
+ *
+ * <p>
+ * 参数均为 {@code 键=值} 形式，未指定的取默认值：
+ * </p>
+ *
+ * <pre>
+ * pattern=sine:200:150:120    到达模式，见 {@link ArrivalPattern#parse(String)}
+ * duration=300                时长（秒）
+ * interval=1                  报告间隔（秒）
+ * connect=lognormal:20:0.5    建立连接的延迟，见 {@link Latency#parse(String)}
+ * query=lognormal:5:0.8       执行语句的延迟
+ * connectFailure=0            建立连接失败的概率
+ * queryFailure=0              执行语句失败的概率
+ * min=8 max=24                最小/最大连接数
+ * scanCycle=3000              扫描周期（毫秒）
+ * requestTimeout=3000         请求超时（毫秒）
+ * policy=requestRate          伸缩策略：requestRate 或 littleLaw
+ * maxInFlight=10000           同时在途的请求上限，超出的到达计为丢弃
+ * out=target/soak.csv         报告路径
+ * </pre>
+ *
+ * @author Penyo
+ */
+public class SoakRunner {
+  private final ArrivalPattern pattern;
+  private final long durationNanos;
+  private final long intervalNanos;
+  private final int maxInFlight;
+  private final Path out;
+  private final BenchmarkDataSource pool;
+
+  /**
+   * 请求线程
+   */
+  private final ExecutorService requests = Executors.newCachedThreadPool(r -> {
+    Thread t = new Thread(r, "soak-request");
+    t.setDaemon(true);
+    return t;
+  });
+  /**
+   * 在途请求数
+   */
+  private final AtomicInteger inFlight = new AtomicInteger();
+  /**
+   * 丢弃的到达数
+   */
+  private final LongAdder dropped = new LongAdder();
+  /**
+   * 执行失败数
+   */
+  private final LongAdder queryErrors = new LongAdder();
+
+  public SoakRunner(Map<String, String> options) {
+    pattern = ArrivalPattern.parse(options.getOrDefault("pattern", "sine:200:150:120"));
+    durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("duration", "300")));
+    intervalNanos = TimeUnit.MILLISECONDS.toNanos((long) (Double.parseDouble(options.getOrDefault("interval", "1")) * 1000));
+    maxInFlight = Integer.parseInt(options.getOrDefault("maxInFlight", "10000"));
+    out = Path.of(options.getOrDefault("out", "target/soak.csv"));
+
+    FakeDriver.configure(new FakeDriver.Profile(
+      Latency.parse(options.getOrDefault("connect", "lognormal:20:0.5")),
+      Latency.parse(options.getOrDefault("query", "lognormal:5:0.8")),
+      Double.parseDouble(options.getOrDefault("connectFailure", "0")),
+      Double.parseDouble(options.getOrDefault("queryFailure", "0"))));
+
+    PerformanceConfig pc = new PerformanceConfig();
+    pc.setMinConnectionsNum(Integer.parseInt(options.getOrDefault("min", "8")));
+    pc.setMaxConnectionsNum(Integer.parseInt(options.getOrDefault("max", "24")));
+    pc.setScanCycle(Long.parseLong(options.getOrDefault("scanCycle", "3000")));
+    pc.setRequestTimeout(Long.parseLong(options.getOrDefault("requestTimeout", "3000")));
+    pc.setScalingPolicy("littleLaw".equals(options.get("policy")) ? new LittleLawScalingPolicy() : new RequestRateScalingPolicy());
+    pc.setPoolName("soak");
+    pool = new BenchmarkDataSource(FakeDriver.class, FakeDriver.URL, pc);
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      int i = arg.indexOf('=');
+      if (i < 0) throw new IllegalArgumentException("Expected key=value but got: " + arg);
+      options.put(arg.substring(0, i), arg.substring(i + 1));
+    }
+    new SoakRunner(options).run();
+  }
+
+  /**
+   * 运行压测直至时长用尽，随后关闭连接池。
+   */
+  public void run() throws IOException {
+    Path parent = out.toAbsolutePath().getParent();
+    if (parent != null) Files.createDirectories(parent);
+
+    try (PrintWriter report = new PrintWriter(Files.newBufferedWriter(out))) {
+      report.println("elapsed_s,offered_rps,capacity,idle,active,waiting,pending,acquisitions,timeouts,"
+        + "creation_failures,query_errors,dropped,acquire_p50_ms,acquire_p99_ms,acquire_p999_ms,acquire_max_ms");
+      ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "soak-reporter");
+        t.setDaemon(true);
+        return t;
+      });
+      long start = System.nanoTime();
+      Reporter task = new Reporter(report, start);
+      reporter.scheduleAtFixedRate(task, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+
+      arrive(start);
+
+      reporter.shutdown();
+      try {
+        reporter.awaitTermination(intervalNanos, TimeUnit.NANOSECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      task.run();
+    } finally {
+      requests.shutdownNow();
+      pool.close();
+    }
+    System.out.println("Soak report written to " + out.toAbsolutePath());
+  }
+
+  /**
+   * 按到达模式以泊松过程发出请求。到达率为零时每 10 毫秒重新评估一次。
+   */
+  private void arrive(long start) {
+    long end = start + durationNanos;
+    long next = start;
+    while (next < end) {
+      long now;
+      while ((now = System.nanoTime()) < next) LockSupport.parkNanos(next - now);
+
+      double rate = pattern.rateAt((next - start) / 1e9);
+      if (rate <= 0) {
+        next += TimeUnit.MILLISECONDS.toNanos(10);
+        continue;
+      }
+      next += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) / rate * 1e9);
+
+      if (inFlight.incrementAndGet() > maxInFlight) {
+        inFlight.decrementAndGet();
+        dropped.increment();
+        continue;
+      }
+      requests.execute(this::request);
+    }
+  }
+
+  /**
+   * 一次请求：借用连接、执行一条语句、归还连接。借用延迟与超时由连接池度量自行记录。
+   */
+  private void request() {
+    try {
+      Connection c = pool.getConnection();
+      if (c == null) return;
+      try (Statement s = c.createStatement()) {
+        s.executeQuery("SELECT 1");
+      } catch (SQLException e) {
+        queryErrors.increment();
+      } finally {
+        c.close();
+      }
+    } catch (SQLException e) {
+      queryErrors.increment();
+    } finally {
+      inFlight.decrementAndGet();
+    }
+  }
+
+  /**
+   * 报告任务：每次写出一行自上一行以来的增量。
+   */
+  private class Reporter implements Runnable {
+    private final PrintWriter report;
+    private final long start;
+    private long lastAcquisitions;
+    private long lastTimeouts;
+    private long lastCreationFailures;
+    private long lastQueryErrors;
+    private long lastDropped;
+    private LatencyHistogram.Snapshot lastWait = LatencyHistogram.Snapshot.EMPTY;
+
+    private Reporter(PrintWriter report, long start) {
+      this.report = report;
+      this.start = start;
+    }
+
+    @Override
+    public synchronized void run() {
+      double elapsed = (System.nanoTime() - start) / 1e9;
+      PoolMetricsSnapshot m = pool.getMetricsSnapshot();
+      LatencyHistogram.Snapshot wait = m.waitTime().minus(lastWait);
+      long errors = queryErrors.sum();
+      long drops = dropped.sum();
+
+      report.println(String.format(Locale.ROOT, "%.1f,%.1f,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%.3f,%.3f,%.3f,%.3f",
+        elapsed, pattern.rateAt(elapsed), m.capacity(), m.idle(), m.active(), m.waiting(), m.pending(),
+        m.acquisitions() - lastAcquisitions, m.timeouts() - lastTimeouts, m.creationFailures() - lastCreationFailures,
+        errors - lastQueryErrors, drops - lastDropped, wait.getPercentile(0.5), wait.getPercentile(0.99),
+        wait.getPercentile(0.999), wait.getMax()));
+      report.flush();
+
+      lastAcquisitions = m.acquisitions();
+      lastTimeouts = m.timeouts();
+      lastCreationFailures = m.creationFailures();
+      lastQueryErrors = errors;
+      lastDropped = drops;
+      lastWait = m.waitTime();
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package net.penyo.tsington;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.v0.ConfigClassBasedTsingtonDataSource;
+import net.penyo.tsington.v0.PoolOverloadedException;
+import net.penyo.tsington.v0.TsingtonDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdmissionControlTest {
+  @Test
+  public void testBorrowersBeyondTheWaiterLimitAreRejected() throws Exception {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(BoundedConfig.class)) {
+      Connection held = tds.getConnection();
+      CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(tds::getConnection);
+      while (tds.getMetricsSnapshot().waiting() == 0) Thread.sleep(5);
+
+      long start = System.nanoTime();
+      assertThrows(PoolOverloadedException.class, tds::getConnection);
+      ExecutionException e = assertThrows(ExecutionException.class, () -> tds.getConnectionAsync().get());
+      assertInstanceOf(PoolOverloadedException.class, e.getCause());
+      assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+      assertEquals(2L, tds.getMetricsSnapshot().rejections());
+
+      held.close();
+      Connection c = waiting.get(1, TimeUnit.SECONDS);
+      assertNotNull(c);
+      c.close();
+    }
+  }
+
+  @Test
+  public void testBorrowersWhoCannotBeServedInTimeAreShed() throws Exception {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(SheddingConfig.class)) {
+      Connection c = tds.getConnection();
+      Thread.sleep(200);
+      c.close();
+
+      Connection held = tds.getConnection();
+      PoolOverloadedException e = assertThrows(PoolOverloadedException.class, () -> tds.getConnection(50));
+      assertTrue(e.getRetryAfter() >= 150L);
+
+      CompletableFuture.runAsync(() -> {
+        try {
+          Thread.sleep(100);
+          held.close();
+        } catch (Exception ignored) {
+        }
+      });
+      c = tds.getConnection(2000);
+      assertNotNull(c);
+      c.close();
+    }
+  }
+
+  public static class BoundedConfig extends StubConfig {
+    @Override
+    public PerformanceConfig definePerformanceConfig() {
+      PerformanceConfig pc = super.definePerformanceConfig();
+      pc.setMinConnectionsNum(1);
+      pc.setMaxConnectionsNum(1);
+      pc.setMaxWaiters(1);
+      return pc;
+    }
+  }
+
+  public static class SheddingConfig extends StubConfig {
+    @Override
+    public PerformanceConfig definePerformanceConfig() {
+      PerformanceConfig pc = super.definePerformanceConfig();
+      pc.setMinConnectionsNum(1);
+      pc.setMaxConnectionsNum(1);
+      pc.setShedLoad(true);
+      return pc;
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package net.penyo.tsington;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.v0.ServiceLoaderBasedTsingtonDataSource;
+import net.penyo.tsington.v0.TsingtonDataSource;
+import net.penyo.tsington.v0.TsingtonDataSourceBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BootstrapTest {
+  @Test
+  public void testBuilderConnectsThroughDriverInstance() throws Exception {
+    CountingDriver driver = new CountingDriver();
+    PerformanceConfig pc = new PerformanceConfig();
+    pc.setMinConnectionsNum(2);
+    try (TsingtonDataSource tds = new TsingtonDataSourceBuilder().driver(driver).url(StubDriver.URL).username("root")
+      .password("1234").performance(pc).build()) {
+      try (Connection c = tds.getConnection()) {
+        assertNotNull(c);
+      }
+      assertEquals(2, tds.getCapacity());
+      assertEquals(2, driver.connects.get());
+      assertEquals(CountingDriver.class.getName(), tds.getUserConfig().driver());
+      // 构建器复制了性能配置
+      assertTrue(tds.getPerformanceConfig() != pc);
+    }
+  }
+
+  @Test
+  public void testServiceLoaderFindsInitializer() throws Exception {
+    ServiceConfig.DRIVER.connects.set(0);
+    try (TsingtonDataSource tds = new ServiceLoaderBasedTsingtonDataSource()) {
+      try (Connection c = tds.getConnection()) {
+        assertNotNull(c);
+      }
+      assertEquals(3, tds.getCapacity());
+      assertEquals(3, ServiceConfig.DRIVER.connects.get());
+    }
+  }
+
+  public static class ServiceConfig extends StubConfig {
+    static final CountingDriver DRIVER = new CountingDriver();
+
+    @Override
+    public PerformanceConfig definePerformanceConfig() {
+      PerformanceConfig pc = super.definePerformanceConfig();
+      pc.setMinConnectionsNum(3);
+      return pc;
+    }
+
+    @Override
+    public Driver defineDriver() {
+      return DRIVER;
+    }
+  }
+
+  /**
+   * 记录建立次数的驱动，未注册到 {@link java.sql.DriverManager DriverManager}。
+   */
+  static class CountingDriver extends StubDriver {
+    final AtomicInteger connects = new AtomicInteger();
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+      assertEquals("root", info.getProperty("user"));
+      connects.incrementAndGet();
+      return super.connect(url, info);
+    }
+  }
+}
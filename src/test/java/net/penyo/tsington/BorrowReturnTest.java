@@ -0,0 +1,185 @@
+package net.penyo.tsington;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.v0.ConfigClassBasedTsingtonDataSource;
+import net.penyo.tsington.v0.ConnectionUnavailableException;
+import net.penyo.tsington.v0.TsingtonDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BorrowReturnTest {
+  @Test
+  public void testConcurrentBorrowNeverSharesConnection() throws InterruptedException {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(StubConfig.class)) {
+      Set<String> holding = ConcurrentHashMap.newKeySet();
+      AtomicInteger conflicts = new AtomicInteger();
+
+      Thread[] threads = new Thread[32];
+      for (int i = 0; i < threads.length; i++) {
+        threads[i] = new Thread(() -> {
+          for (int j = 0; j < 2000; j++) {
+            Connection c = tds.getConnection();
+            if (c == null) continue;
+            String physical = c.toString();
+            if (!holding.add(physical)) conflicts.incrementAndGet();
+            holding.remove(physical);
+            try {
+              c.close();
+            } catch (Exception ignored) {
+            }
+          }
+        });
+        threads[i].start();
+      }
+      for (Thread t : threads) t.join();
+
+      assertEquals(0, conflicts.get());
+      assertEquals(tds.getCapacity(), tds.getRemainingCapacity());
+    }
+  }
+
+  @Test
+  public void testClosedProxyIsRejected() throws Exception {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(StubConfig.class)) {
+      Connection c = tds.getConnection();
+      assertNotNull(c);
+      Statement st = c.createStatement();
+      c.close();
+      assertThrows(IllegalStateException.class, c::getAutoCommit);
+      assertThrows(IllegalStateException.class, st::getFetchSize);
+      assertTrue(st.isClosed());
+    }
+  }
+
+  @Test
+  public void testStaleHandleCannotReturnLaterBorrow() throws Exception {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(SingleConnectionConfig.class)) {
+      Connection first = tds.getConnection();
+      first.close();
+      first.close();
+      assertEquals(1, tds.getRemainingCapacity());
+
+      Connection second = tds.getConnection();
+      assertNotNull(second);
+      first.close();
+      assertTrue(first.isClosed());
+      assertFalse(second.isClosed());
+      assertEquals(0, tds.getRemainingCapacity());
+      assertThrows(IllegalStateException.class, first::getAutoCommit);
+      assertTrue(second.getAutoCommit());
+      assertNull(tds.getConnection(50));
+
+      second.close();
+      assertEquals(1, tds.getRemainingCapacity());
+    }
+  }
+
+  @Test
+  public void testReturnedConnectionIsHandedToWaiter() throws Exception {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(StubConfig.class)) {
+      Connection[] held = new Connection[tds.getCapacity()];
+      for (int i = 0; i < held.length; i++) held[i] = tds.getConnection();
+
+      long[] acquiredAt = new long[1];
+      Thread waiter = new Thread(() -> {
+        Connection c = tds.getConnection();
+        acquiredAt[0] = System.nanoTime();
+        assertNotNull(c);
+      });
+      waiter.start();
+      Thread.sleep(200);
+
+      long returnedAt = System.nanoTime();
+      held[0].close();
+      waiter.join();
+
+      assertTrue(acquiredAt[0] - returnedAt < TimeUnit.MILLISECONDS.toNanos(50));
+    }
+  }
+
+  @Test
+  public void testAsyncBorrowWaitsForReturnAndTimesOut() throws Exception {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(StubConfig.class)) {
+      Connection[] held = new Connection[tds.getCapacity()];
+      for (int i = 0; i < held.length; i++) held[i] = tds.getConnection();
+
+      CompletableFuture<Connection> pending = tds.getConnectionAsync();
+      CompletableFuture<Connection> doomed = tds.getConnectionAsync(50);
+      assertFalse(pending.isDone());
+
+      held[0].close();
+      assertNotNull(pending.get(1, TimeUnit.SECONDS));
+
+      ExecutionException e = assertThrows(ExecutionException.class, () -> doomed.get(1, TimeUnit.SECONDS));
+      assertInstanceOf(SQLTimeoutException.class, e.getCause());
+    }
+  }
+
+  @Test
+  public void testCloseFailsWaitersAndIgnoresLaterReturns() throws Exception {
+    TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(SingleConnectionConfig.class);
+    Connection held = tds.getConnection();
+
+    RuntimeException[] failure = new RuntimeException[1];
+    Thread waiter = new Thread(() -> failure[0] = assertThrows(ConnectionUnavailableException.class,
+      () -> tds.getConnection(10_000)));
+    waiter.start();
+    CompletableFuture<Connection> pending = tds.getConnectionAsync(10_000);
+    Thread.sleep(200);
+
+    long closedAt = System.nanoTime();
+    tds.close();
+    waiter.join(1_000);
+    assertFalse(waiter.isAlive());
+    assertNotNull(failure[0]);
+    ExecutionException e = assertThrows(ExecutionException.class, () -> pending.get(1, TimeUnit.SECONDS));
+    assertInstanceOf(ConnectionUnavailableException.class, e.getCause());
+    assertTrue(System.nanoTime() - closedAt < TimeUnit.SECONDS.toNanos(1));
+
+    held.close();
+    assertTrue(held.isClosed());
+  }
+
+  @Test
+  public void testBackgroundWarmUpServesFirstReadyConnection() {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(BackgroundWarmUpConfig.class)) {
+      assertNotNull(tds.getConnection());
+    }
+  }
+
+  public static class BackgroundWarmUpConfig extends StubConfig {
+    @Override
+    public PerformanceConfig definePerformanceConfig() {
+      PerformanceConfig pc = super.definePerformanceConfig();
+      pc.setWarmUpInBackground(true);
+      return pc;
+    }
+  }
+
+  public static class SingleConnectionConfig extends StubConfig {
+    @Override
+    public PerformanceConfig definePerformanceConfig() {
+      PerformanceConfig pc = super.definePerformanceConfig();
+      pc.setMinConnectionsNum(1);
+      pc.setMaxConnectionsNum(1);
+      return pc;
+    }
+  }
+}
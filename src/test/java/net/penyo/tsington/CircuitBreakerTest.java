@@ -0,0 +1,53 @@
+package net.penyo.tsington;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.v0.ConfigClassBasedTsingtonDataSource;
+import net.penyo.tsington.v0.ConnectionUnavailableException;
+import net.penyo.tsington.v0.TsingtonDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CircuitBreakerTest {
+  @Test
+  public void testOutageFailsFastAndRecovers() throws Exception {
+    StubDriver.DOWN = true;
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(OutageConfig.class)) {
+      long start = System.nanoTime();
+      ConnectionUnavailableException e = assertThrows(ConnectionUnavailableException.class, tds::getConnection);
+      assertTrue(System.nanoTime() - start < 1_000_000_000L);
+      assertEquals("Connection refused", e.getCause().getMessage());
+      assertEquals(1L, tds.getMetricsSnapshot().rejections());
+
+      StubDriver.DOWN = false;
+      Connection c = null;
+      for (int i = 0; i < 100 && c == null; i++) {
+        try {
+          c = tds.getConnection();
+        } catch (ConnectionUnavailableException ignored) {
+          Thread.sleep(20);
+        }
+      }
+      assertNotNull(c);
+      c.close();
+    } finally {
+      StubDriver.DOWN = false;
+    }
+  }
+
+  public static class OutageConfig extends StubConfig {
+    @Override
+    public PerformanceConfig definePerformanceConfig() {
+      PerformanceConfig pc = super.definePerformanceConfig();
+      pc.setMinConnectionsNum(2);
+      pc.setCreationFailureThreshold(2);
+      pc.setCreationBackoff(100L);
+      return pc;
+    }
+  }
+}
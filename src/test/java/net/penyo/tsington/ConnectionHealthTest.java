@@ -0,0 +1,64 @@
+package net.penyo.tsington;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.v0.ConfigClassBasedTsingtonDataSource;
+import net.penyo.tsington.v0.TsingtonDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConnectionHealthTest {
+  @Test
+  public void testDeadIdleConnectionIsReplacedOnBorrow() throws Exception {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(ValidatingConfig.class)) {
+      Thread.sleep(20);
+      StubDriver.killAll();
+
+      try (Connection c = tds.getConnection()) {
+        assertTrue(c.isValid(1));
+      }
+    }
+  }
+
+  @Test
+  public void testExpiredConnectionIsRetiredOnReturn() throws Exception {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(ShortLivedConfig.class)) {
+      Connection c = tds.getConnection();
+      String first = c.toString();
+      Thread.sleep(80);
+      c.close();
+
+      // 退役后连接池立即补足最小连接数
+      Thread.sleep(50);
+      assertEquals(1, tds.getCapacity());
+      try (Connection next = tds.getConnection()) {
+        assertNotEquals(first, next.toString());
+      }
+    }
+  }
+
+  public static class ValidatingConfig extends StubConfig {
+    @Override
+    public PerformanceConfig definePerformanceConfig() {
+      PerformanceConfig pc = super.definePerformanceConfig();
+      pc.setMinConnectionsNum(2);
+      pc.setValidationIdleThreshold(10);
+      return pc;
+    }
+  }
+
+  public static class ShortLivedConfig extends StubConfig {
+    @Override
+    public PerformanceConfig definePerformanceConfig() {
+      PerformanceConfig pc = super.definePerformanceConfig();
+      pc.setMinConnectionsNum(1);
+      pc.setMaxLifetime(50);
+      return pc;
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package net.penyo.tsington;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.v0.ConfigClassBasedTsingtonDataSource;
+import net.penyo.tsington.v0.TsingtonDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LeakDetectionTest {
+  @Test
+  public void testLeakedConnectionIsReclaimed() throws Exception {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(LeakyConfig.class)) {
+      Connection leaked = tds.getConnection();
+      assertEquals(0, tds.getRemainingCapacity());
+
+      Thread.sleep(500);
+      assertEquals(1, tds.getRemainingCapacity());
+      assertThrows(IllegalStateException.class, leaked::getAutoCommit);
+    }
+  }
+
+  public static class LeakyConfig extends StubConfig {
+    @Override
+    public PerformanceConfig definePerformanceConfig() {
+      PerformanceConfig pc = super.definePerformanceConfig();
+      pc.setMinConnectionsNum(1);
+      pc.setLeakDetectionThreshold(50);
+      pc.setLeakReclaimThreshold(150);
+      return pc;
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package net.penyo.tsington;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.v0.ConfigClassBasedTsingtonDataSource;
+import net.penyo.tsington.v0.PartitionedTsingtonDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class PartitionTest {
+  @Test
+  public void testTenantsShareConnectionsWithAffinity() throws Exception {
+    try (PartitionedTsingtonDataSource pds = new PartitionedTsingtonDataSource(
+      new ConfigClassBasedTsingtonDataSource(SharedConfig.class), PartitionedTsingtonDataSource.Level.CATALOG)) {
+      // 每次借用得到新的句柄，因此比较其下的物理连接
+      Connection a = pds.getConnection("a");
+      Connection physicalA = a.unwrap(Connection.class);
+      a.close();
+      Connection again = pds.getConnection("a");
+      assertSame(physicalA, again.unwrap(Connection.class));
+
+      Connection b = pds.getConnection("b");
+      Connection physicalB = b.unwrap(Connection.class);
+      again.close();
+      b.close();
+      assertSame(physicalB, pds.getConnection("b").unwrap(Connection.class));
+
+      assertEquals(2, pds.getSwitchCount());
+      assertEquals(2, pds.getAffinityHitCount());
+      assertEquals(2, pds.getCapacity());
+    }
+  }
+
+  public static class SharedConfig extends StubConfig {
+    @Override
+    public PerformanceConfig definePerformanceConfig() {
+      PerformanceConfig pc = super.definePerformanceConfig();
+      pc.setMinConnectionsNum(2);
+      return pc;
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package net.penyo.tsington;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.support.PoolEvent;
+import net.penyo.tsington.v0.ConfigClassBasedTsingtonDataSource;
+import net.penyo.tsington.v0.ConnectionUnavailableException;
+import net.penyo.tsington.v0.TsingtonDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PoolEventTest {
+  @Test
+  public void testRepeatedErrorsAreDeduplicated() throws Exception {
+    StubDriver.DOWN = true;
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(OutageConfig.class)) {
+      List<PoolEvent> events = new CopyOnWriteArrayList<>();
+      tds.getEventBus().addListener(events::add);
+
+      for (int i = 0; i < 50; i++) assertThrows(ConnectionUnavailableException.class, tds::getConnection);
+
+      long deadline = System.currentTimeMillis() + 3000;
+      while (rejected(events) < 50 && System.currentTimeMillis() < deadline) Thread.sleep(20);
+      assertEquals(50L, rejected(events));
+      assertTrue(events.stream().filter(e -> e.type() == PoolEvent.Type.BORROW_REJECTED).count() <= 2);
+      assertTrue(events.stream().allMatch(e -> e.pool().equals(tds.getPerformanceConfig().getPoolName())));
+      assertTrue(tds.getEventBus().getSuppressedCount() >= 49);
+    } finally {
+      StubDriver.DOWN = false;
+    }
+  }
+
+  private static long rejected(List<PoolEvent> events) {
+    return events.stream().filter(e -> e.type() == PoolEvent.Type.BORROW_REJECTED).mapToLong(PoolEvent::count).sum();
+  }
+
+  public static class OutageConfig extends StubConfig {
+    @Override
+    public PerformanceConfig definePerformanceConfig() {
+      PerformanceConfig pc = super.definePerformanceConfig();
+      pc.setMinConnectionsNum(2);
+      pc.setCreationFailureThreshold(2);
+      pc.setCreationBackoff(5000L);
+      pc.setEventDedupWindow(200L);
+      return pc;
+    }
+  }
+}
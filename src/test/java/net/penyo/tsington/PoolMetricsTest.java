@@ -0,0 +1,54 @@
+package net.penyo.tsington;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.support.PoolMetricsSnapshot;
+import net.penyo.tsington.v0.ConfigClassBasedTsingtonDataSource;
+import net.penyo.tsington.v0.TsingtonDataSource;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PoolMetricsTest {
+  @Test
+  public void testSnapshotAndMBeanReflectBorrowReturn() throws Exception {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = new ObjectName("net.penyo.tsington:type=Pool,name=" + ObjectName.quote("metrics-test"));
+
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(NamedConfig.class)) {
+      Connection c = tds.getConnection();
+      PoolMetricsSnapshot during = tds.getMetricsSnapshot();
+      assertEquals(1, during.active());
+      assertEquals(2, during.created());
+      c.close();
+
+      PoolMetricsSnapshot after = tds.getMetricsSnapshot();
+      assertEquals(0, after.active());
+      assertEquals(1, after.acquisitions());
+      assertEquals(1, after.waitTime().getCount());
+      assertEquals(1, after.holdTime().getCount());
+      assertEquals(2, after.creationTime().getCount());
+
+      assertTrue(server.isRegistered(name));
+      assertEquals(1L, server.getAttribute(name, "Acquisitions"));
+      assertEquals(2, server.getAttribute(name, "Idle"));
+    }
+    assertFalse(server.isRegistered(name));
+  }
+
+  public static class NamedConfig extends StubConfig {
+    @Override
+    public PerformanceConfig definePerformanceConfig() {
+      PerformanceConfig pc = super.definePerformanceConfig();
+      pc.setMinConnectionsNum(2);
+      pc.setPoolName("metrics-test");
+      return pc;
+    }
+  }
+}
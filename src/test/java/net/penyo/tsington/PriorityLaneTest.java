@@ -0,0 +1,122 @@
+package net.penyo.tsington;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.support.Priority;
+import net.penyo.tsington.v0.ConfigClassBasedTsingtonDataSource;
+import net.penyo.tsington.v0.PartitionedTsingtonDataSource;
+import net.penyo.tsington.v0.TsingtonDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PriorityLaneTest {
+  @Test
+  public void testReturnedConnectionsGoToHigherPriorityFirst() throws Exception {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(SingleConfig.class)) {
+      Connection held = tds.getConnection();
+      CompletableFuture<Connection> bulk = CompletableFuture.supplyAsync(() -> tds.getConnection(Priority.BULK));
+      while (tds.getMetricsSnapshot().waiting() < 1) Thread.sleep(5);
+      CompletableFuture<Connection> critical = CompletableFuture.supplyAsync(() -> tds.getConnection(Priority.CRITICAL));
+      while (tds.getMetricsSnapshot().waiting() < 2) Thread.sleep(5);
+
+      held.close();
+      Connection c = critical.get(1, TimeUnit.SECONDS);
+      assertNotNull(c);
+      assertFalse(bulk.isDone());
+      c.close();
+      bulk.get(1, TimeUnit.SECONDS).close();
+    }
+  }
+
+  @Test
+  public void testReservedConnectionsAreKeptForTheirLane() throws Exception {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(LaneConfig.class)) {
+      Connection first = tds.getConnection(Priority.BULK);
+      assertNotNull(first);
+      // 其余两条连接是关键请求的预留
+      assertNull(tds.getConnection(Priority.NORMAL, 100));
+      Connection critical = tds.getConnection(Priority.CRITICAL, 100);
+      assertNotNull(critical);
+      critical.close();
+      first.close();
+    }
+  }
+
+  @Test
+  public void testBurstCeilingHoldsBulkBackUntilItsOwnConnectionReturns() throws Exception {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(LaneConfig.class)) {
+      Connection first = tds.getConnection(Priority.BULK);
+      CompletableFuture<Connection> second = tds.getConnectionAsync(Priority.BULK, 2000);
+      Thread.sleep(100);
+      assertFalse(second.isDone());
+
+      long start = System.nanoTime();
+      first.close();
+      Connection c = second.get(1, TimeUnit.SECONDS);
+      assertNotNull(c);
+      assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+      c.close();
+    }
+  }
+
+  @Test
+  public void testTenantAffinityHitsRespectLaneCeilings() throws Exception {
+    TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(BulkCeilingConfig.class);
+    try (PartitionedTsingtonDataSource pds = new PartitionedTsingtonDataSource(tds, PartitionedTsingtonDataSource.Level.CATALOG)) {
+      Connection tenant = pds.getConnection("a");
+      Connection bulk = tds.getConnection(Priority.BULK);
+      assertNotNull(bulk);
+      tenant.close();
+
+      // 租户 a 有空闲的同分区连接，但批量请求已达占用上限
+      assertNull(pds.getConnection("a", Priority.BULK));
+      Connection critical = pds.getConnection("a", Priority.CRITICAL);
+      assertNotNull(critical);
+      assertEquals(1, pds.getAffinityHitCount());
+      critical.close();
+      bulk.close();
+    }
+  }
+
+  public static class SingleConfig extends StubConfig {
+    @Override
+    public PerformanceConfig definePerformanceConfig() {
+      PerformanceConfig pc = super.definePerformanceConfig();
+      pc.setMinConnectionsNum(1);
+      pc.setMaxConnectionsNum(1);
+      return pc;
+    }
+  }
+
+  public static class LaneConfig extends StubConfig {
+    @Override
+    public PerformanceConfig definePerformanceConfig() {
+      PerformanceConfig pc = super.definePerformanceConfig();
+      pc.setMinConnectionsNum(3);
+      pc.setMaxConnectionsNum(3);
+      pc.setLaneReserved(Priority.CRITICAL, 2);
+      pc.setLaneCeiling(Priority.BULK, 1);
+      return pc;
+    }
+  }
+
+  public static class BulkCeilingConfig extends StubConfig {
+    @Override
+    public PerformanceConfig definePerformanceConfig() {
+      PerformanceConfig pc = super.definePerformanceConfig();
+      pc.setMinConnectionsNum(3);
+      pc.setMaxConnectionsNum(3);
+      pc.setLaneCeiling(Priority.BULK, 1);
+      pc.setRequestTimeout(100L);
+      return pc;
+    }
+  }
+}
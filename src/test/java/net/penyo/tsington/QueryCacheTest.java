@@ -0,0 +1,57 @@
+package net.penyo.tsington;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.v0.ConfigClassBasedTsingtonDataSource;
+import net.penyo.tsington.v0.TsingtonDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class QueryCacheTest {
+  private static final String LOOKUP = "SELECT id FROM region r WHERE r.code = ?";
+
+  @Test
+  public void testHitsSkipTheDatabaseUntilTheTableIsWritten() throws Exception {
+    StubDriver.ROWS = 3;
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(CachingConfig.class)) {
+      int queried = StubDriver.QUERIED.get();
+      long borrowed = tds.getMetricsSnapshot().acquisitions();
+      assertEquals(List.of(1, 2, 3), tds.query(LOOKUP, rs -> rs.getInt("id"), "CN"));
+      assertEquals(List.of(1, 2, 3), tds.query(LOOKUP, rs -> rs.getInt(1), "CN"));
+      assertEquals(queried + 1, StubDriver.QUERIED.get());
+      // 命中不借用连接
+      assertEquals(borrowed + 1, tds.getMetricsSnapshot().acquisitions());
+      assertEquals(1L, tds.getQueryCache().getHitCount());
+
+      tds.query(LOOKUP, rs -> rs.getInt(1), "US");
+      assertEquals(queried + 2, StubDriver.QUERIED.get());
+
+      try (Connection c = tds.getConnection()) {
+        c.createStatement().executeUpdate("UPDATE customer SET name = 'x'");
+      }
+      tds.query(LOOKUP, rs -> rs.getInt(1), "CN");
+      assertEquals(queried + 2, StubDriver.QUERIED.get());
+
+      try (Connection c = tds.getConnection()) {
+        c.prepareStatement("UPDATE `shop`.`region` SET name = ? WHERE code = ?").executeUpdate();
+      }
+      tds.query(LOOKUP, rs -> rs.getInt(1), "CN");
+      assertEquals(queried + 3, StubDriver.QUERIED.get());
+    } finally {
+      StubDriver.ROWS = 0;
+    }
+  }
+
+  public static class CachingConfig extends StubConfig {
+    @Override
+    public PerformanceConfig definePerformanceConfig() {
+      PerformanceConfig pc = super.definePerformanceConfig();
+      pc.setMinConnectionsNum(2);
+      pc.setQueryCacheSize(100);
+      return pc;
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package net.penyo.tsington;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.v0.ClassPathYmlBasedTsingtonDataSource;
+import net.penyo.tsington.v0.ConfigClassBasedTsingtonDataSource;
+import net.penyo.tsington.v0.TsingtonDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ReconfigurationTest {
+  @Test
+  public void testReconfigureResizesRunningPool() throws Exception {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(StubConfig.class)) {
+      PerformanceConfig snapshot = tds.getPerformanceConfig();
+      assertThrows(UnsupportedOperationException.class, () -> snapshot.setMaxConnectionsNum(1));
+
+      PerformanceConfig next = snapshot.copy();
+      next.setMinConnectionsNum(2);
+      next.setMaxConnectionsNum(4);
+      tds.reconfigure(next);
+      assertEquals(4, tds.getCapacity());
+      assertEquals(4, tds.getPerformanceConfig().getMaxConnectionsNum());
+
+      next.setMinConnectionsNum(12);
+      next.setMaxConnectionsNum(16);
+      tds.reconfigure(next);
+      Thread.sleep(200);
+      assertEquals(12, tds.getCapacity());
+    }
+  }
+
+  @Test
+  public void testYamlChangesAreAppliedWhileRunning() throws Exception {
+    Path classes = Path.of(ReconfigurationTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    Path yml = classes.resolve("reconfiguration-test.yml");
+    Files.writeString(yml, yaml(1));
+
+    try (TsingtonDataSource tds = new ClassPathYmlBasedTsingtonDataSource("reconfiguration-test.yml")) {
+      assertEquals(1, tds.getCapacity());
+
+      Files.writeString(yml, yaml(3));
+      for (int i = 0; i < 100 && tds.getCapacity() != 3; i++) Thread.sleep(100);
+      assertEquals(3, tds.getCapacity());
+    } finally {
+      Files.deleteIfExists(yml);
+    }
+  }
+
+  private static String yaml(int min) {
+    return """
+      user:
+        driver: %s
+        url: %s
+        username: root
+        password: 1234
+      performance:
+        minConnectionsNum: %d
+        watch: true
+      """.formatted(StubDriver.class.getName(), StubDriver.URL, min);
+  }
+}
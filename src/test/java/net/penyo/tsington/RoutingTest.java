@@ -0,0 +1,96 @@
+package net.penyo.tsington;
+
+import net.penyo.tsington.v0.ConfigClassBasedTsingtonDataSource;
+import net.penyo.tsington.v0.RoutingTsingtonDataSource;
+import net.penyo.tsington.v0.TsingtonDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RoutingTest {
+  @Test
+  public void testReadOnlyGoesToLeastOutstandingReplica() throws Exception {
+    TsingtonDataSource primary = new ConfigClassBasedTsingtonDataSource(StubConfig.class);
+    TsingtonDataSource a = new ConfigClassBasedTsingtonDataSource(StubConfig.class);
+    TsingtonDataSource b = new ConfigClassBasedTsingtonDataSource(StubConfig.class);
+    try (RoutingTsingtonDataSource rds = new RoutingTsingtonDataSource(primary, List.of(a, b))) {
+      Connection write = rds.getConnection();
+      write.getAutoCommit();
+      assertEquals(1, primary.getMetricsSnapshot().acquisitions());
+
+      Connection first = rds.getConnection();
+      first.setReadOnly(true);
+      first.getAutoCommit();
+      Connection second = rds.getReadConnection();
+      assertEquals(1, a.getMetricsSnapshot().active());
+      assertEquals(1, b.getMetricsSnapshot().active());
+      assertEquals(1, primary.getMetricsSnapshot().acquisitions());
+
+      first.close();
+      second.close();
+      write.close();
+      assertEquals(0, primary.getMetricsSnapshot().active());
+    }
+  }
+
+  @Test
+  public void testSessionStateFollowsReadOnlyRebind() throws Exception {
+    TsingtonDataSource primary = new ConfigClassBasedTsingtonDataSource(StubConfig.class);
+    TsingtonDataSource replica = new ConfigClassBasedTsingtonDataSource(StubConfig.class);
+    try (RoutingTsingtonDataSource rds = new RoutingTsingtonDataSource(primary, List.of(replica))) {
+      Connection c = rds.getConnection();
+      c.setCatalog("tenant");
+      assertEquals("tenant", c.getCatalog());
+      assertEquals(1, primary.getMetricsSnapshot().active());
+
+      c.setReadOnly(true);
+      assertEquals("tenant", c.getCatalog());
+      assertEquals(0, primary.getMetricsSnapshot().active());
+      assertEquals(1, replica.getMetricsSnapshot().active());
+      c.close();
+    }
+  }
+
+  @Test
+  public void testOverloadedReplicaStaysHealthy() throws Exception {
+    TsingtonDataSource primary = new ConfigClassBasedTsingtonDataSource(StubConfig.class);
+    TsingtonDataSource replica = new ConfigClassBasedTsingtonDataSource(AdmissionControlTest.BoundedConfig.class);
+    try (RoutingTsingtonDataSource rds = new RoutingTsingtonDataSource(primary, List.of(replica))) {
+      Connection held = replica.getConnection();
+      CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(replica::getConnection);
+      while (replica.getMetricsSnapshot().waiting() == 0) Thread.sleep(5);
+
+      Connection c = rds.getReadConnection();
+      assertNotNull(c);
+      assertEquals(1, primary.getMetricsSnapshot().active());
+      assertEquals(1, rds.getHealthyReplicaCount());
+
+      c.close();
+      held.close();
+      waiting.get().close();
+    }
+  }
+
+  @Test
+  public void testFailedReplicaFallsBackToPrimary() throws Exception {
+    TsingtonDataSource primary = new ConfigClassBasedTsingtonDataSource(StubConfig.class);
+    TsingtonDataSource replica = new ConfigClassBasedTsingtonDataSource(StubConfig.class);
+    try (RoutingTsingtonDataSource rds = new RoutingTsingtonDataSource(primary, List.of(replica))) {
+      replica.close();
+
+      Connection c = rds.getConnection();
+      c.setReadOnly(true);
+      c.getAutoCommit();
+      assertTrue(c.isReadOnly());
+      assertEquals(0, rds.getHealthyReplicaCount());
+      assertEquals(1, primary.getMetricsSnapshot().active());
+      c.close();
+    }
+  }
+}
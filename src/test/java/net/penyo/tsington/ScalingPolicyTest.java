@@ -0,0 +1,46 @@
+package net.penyo.tsington;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.support.ScalingPolicy;
+import net.penyo.tsington.support.ScalingWindow;
+import net.penyo.tsington.v0.LittleLawScalingPolicy;
+import net.penyo.tsington.v0.RequestRateScalingPolicy;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ScalingPolicyTest {
+  private static final long SECOND = 1_000_000_000L;
+
+  private static ScalingWindow window(long acquisitions, double meanHoldMillis, int peakInUse, int capacity, int idle) {
+    return new ScalingWindow(3 * SECOND, acquisitions, 0, 0, 0D, 0D, meanHoldMillis, peakInUse, capacity, idle, 0, 0);
+  }
+
+  @Test
+  public void testRequestRateKeepsOriginalThresholds() {
+    ScalingPolicy policy = new RequestRateScalingPolicy();
+    PerformanceConfig pc = new PerformanceConfig();
+
+    assertEquals(4, policy.decide(window(15, 10D, 8, 8, 0), pc));
+    assertEquals(0, policy.decide(window(15, 10D, 4, 8, 4), pc));
+    assertEquals(-4, policy.decide(window(0, 0D, 0, 16, 16), pc));
+
+    // 池已饱和时，超时与被拒绝的请求同样计入压力
+    assertEquals(4, policy.decide(new ScalingWindow(3 * SECOND, 0, 10, 5, 0D, 0D, 0D, 8, 8, 0, 0, 0), pc));
+  }
+
+  @Test
+  public void testLittleLawSizesToDemandAndContractsPatiently() {
+    ScalingPolicy policy = new LittleLawScalingPolicy();
+    PerformanceConfig pc = new PerformanceConfig();
+
+    // 100 次/秒，每次占用 100 毫秒：L = 10，加 20% 余量后目标为 12
+    assertEquals(4, policy.decide(window(300, 100D, 10, 8, 0), pc));
+
+    // 需求消失后，需连续富余三个窗口才收缩，且每次至多收缩 resizeNum 个
+    ScalingPolicy idle = new LittleLawScalingPolicy();
+    assertEquals(0, idle.decide(window(0, 0D, 0, 20, 20), pc));
+    assertEquals(0, idle.decide(window(0, 0D, 0, 20, 20), pc));
+    assertEquals(-4, idle.decide(window(0, 0D, 0, 20, 20), pc));
+  }
+}
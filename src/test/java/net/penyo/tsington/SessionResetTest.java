@@ -0,0 +1,57 @@
+package net.penyo.tsington;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.v0.ConfigClassBasedTsingtonDataSource;
+import net.penyo.tsington.v0.TsingtonDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SessionResetTest {
+  @Test
+  public void testCleanReturnCostsNoRoundTrip() throws Exception {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(SingleConfig.class)) {
+      int before = StubDriver.SESSION_CALLS.get();
+      Connection c = tds.getConnection();
+      c.createStatement().executeQuery("SELECT 1");
+      c.close();
+      assertEquals(before, StubDriver.SESSION_CALLS.get());
+    }
+  }
+
+  @Test
+  public void testOnlyChangedPropertiesAreReset() throws Exception {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(SingleConfig.class)) {
+      Connection c = tds.getConnection();
+      c.setAutoCommit(false);
+      c.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+      c.createStatement().executeUpdate("UPDATE t SET x = 1");
+      int before = StubDriver.SESSION_CALLS.get();
+      c.close();
+      // 回滚、自动提交、隔离级别各一次
+      assertEquals(before + 3, StubDriver.SESSION_CALLS.get());
+
+      Connection next = tds.getConnection();
+      assertTrue(next.getAutoCommit());
+      assertEquals(Connection.TRANSACTION_READ_COMMITTED, next.getTransactionIsolation());
+      next.setAutoCommit(false);
+      next.commit();
+      before = StubDriver.SESSION_CALLS.get();
+      next.close();
+      // 事务已提交，无需回滚
+      assertEquals(before + 1, StubDriver.SESSION_CALLS.get());
+    }
+  }
+
+  public static class SingleConfig extends StubConfig {
+    @Override
+    public PerformanceConfig definePerformanceConfig() {
+      PerformanceConfig pc = super.definePerformanceConfig();
+      pc.setMinConnectionsNum(1);
+      return pc;
+    }
+  }
+}
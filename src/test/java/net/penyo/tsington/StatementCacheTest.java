@@ -0,0 +1,109 @@
+package net.penyo.tsington;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.v0.ConfigClassBasedTsingtonDataSource;
+import net.penyo.tsington.v0.TsingtonDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StatementCacheTest {
+  private static PreparedStatement real(PreparedStatement ps) throws SQLException {
+    return ps.unwrap(PreparedStatement.class);
+  }
+
+  @Test
+  public void testCachedStatementSurvivesBorrowReturn() throws SQLException {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(CachingConfig.class)) {
+      PreparedStatement first;
+      try (Connection c = tds.getConnection()) {
+        PreparedStatement ps = c.prepareStatement("SELECT 1");
+        first = real(ps);
+        ps.close();
+        assertThrows(IllegalStateException.class, ps::executeQuery);
+      }
+
+      try (Connection c = tds.getConnection()) {
+        PreparedStatement ps = c.prepareStatement("SELECT 1");
+        assertSame(first, real(ps));
+
+        // 同一借用内重复预编译同一 SQL 时，缓存中的语句正被占用，只能另行预编译
+        assertNotSame(first, real(c.prepareStatement("SELECT 1")));
+      }
+    }
+  }
+
+  @Test
+  public void testLeastRecentlyUsedStatementIsEvicted() throws SQLException {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(CachingConfig.class)) {
+      PreparedStatement a;
+      PreparedStatement c;
+      try (Connection conn = tds.getConnection()) {
+        a = real(conn.prepareStatement("SELECT 'a'"));
+        real(conn.prepareStatement("SELECT 'b'"));
+        c = real(conn.prepareStatement("SELECT 'c'"));
+      }
+
+      try (Connection conn = tds.getConnection()) {
+        assertSame(c, real(conn.prepareStatement("SELECT 'c'")));
+        assertNotSame(a, real(conn.prepareStatement("SELECT 'a'")));
+      }
+    }
+  }
+
+  @Test
+  public void testStatementSettingsAreRestoredOnReturn() throws SQLException {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(CachingConfig.class)) {
+      PreparedStatement first;
+      try (Connection c = tds.getConnection()) {
+        PreparedStatement ps = c.prepareStatement("SELECT 1");
+        first = real(ps);
+        ps.setMaxRows(10);
+        ps.setQueryTimeout(3);
+        assertEquals(10, ps.getMaxRows());
+        ps.close();
+      }
+
+      try (Connection c = tds.getConnection()) {
+        PreparedStatement ps = c.prepareStatement("SELECT 1");
+        assertSame(first, real(ps));
+        assertEquals(0, ps.getMaxRows());
+        assertEquals(0, ps.getQueryTimeout());
+      }
+    }
+  }
+
+  @Test
+  public void testCloseOnCompletionEvictsStatement() throws SQLException {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(CachingConfig.class)) {
+      PreparedStatement first;
+      try (Connection c = tds.getConnection()) {
+        PreparedStatement ps = c.prepareStatement("SELECT 1");
+        first = real(ps);
+        ps.closeOnCompletion();
+        ps.close();
+      }
+
+      try (Connection c = tds.getConnection()) {
+        assertNotSame(first, real(c.prepareStatement("SELECT 1")));
+      }
+    }
+  }
+
+  public static class CachingConfig extends StubConfig {
+    @Override
+    public PerformanceConfig definePerformanceConfig() {
+      PerformanceConfig pc = super.definePerformanceConfig();
+      pc.setMinConnectionsNum(1);
+      pc.setStatementCacheSize(2);
+      return pc;
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package net.penyo.tsington;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.support.StatementStats;
+import net.penyo.tsington.v0.ConfigClassBasedTsingtonDataSource;
+import net.penyo.tsington.v0.TsingtonDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StatementTracingTest {
+  @Test
+  public void testStatementsAreAggregatedByFingerprint() throws Exception {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(TracingConfig.class)) {
+      try (Connection c = tds.getConnection()) {
+        PreparedStatement ps = c.prepareStatement("SELECT id FROM orders WHERE id = ?");
+        ps.setInt(1, 1);
+        ps.executeQuery();
+        ps.executeQuery();
+        c.createStatement().executeUpdate("UPDATE orders  SET note = 'a' WHERE id IN (1, 2, 3)");
+        c.createStatement().executeUpdate("UPDATE orders SET note = 'it''s' WHERE id IN (4) -- retry");
+      }
+
+      List<StatementStats> top = tds.getStatementTracer().getTopStatements(10);
+      assertEquals(2, top.size());
+      assertTrue(top.stream().anyMatch(s -> s.fingerprint().equals("SELECT id FROM orders WHERE id = ?") && s.calls() == 2L));
+      assertTrue(top.stream().anyMatch(s -> s.fingerprint().equals("UPDATE orders SET note = ? WHERE id IN (?)") && s.calls() == 2L));
+      assertEquals(2L, top.get(0).latency().getCount());
+      assertEquals(4L, tds.getStatementTracer().getSlowQueryCount());
+      assertEquals(0L, tds.getStatementTracer().getDroppedCount());
+    }
+  }
+
+  @Test
+  public void testFingerprintsAreBounded() throws Exception {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(TracingConfig.class)) {
+      try (Connection c = tds.getConnection()) {
+        for (String table : new String[]{"a", "b", "c", "d"})
+          c.createStatement().executeQuery("SELECT * FROM " + table);
+      }
+      assertEquals(2, tds.getStatementTracer().getTopStatements(10).size());
+    }
+  }
+
+  @Test
+  public void testTracingIsOffByDefault() throws Exception {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(StubConfig.class)) {
+      try (Connection c = tds.getConnection()) {
+        c.prepareStatement("SELECT 1").executeQuery();
+      }
+      assertTrue(tds.getStatementTracer().getTopStatements(10).isEmpty());
+    }
+  }
+
+  public static class TracingConfig extends StubConfig {
+    @Override
+    public PerformanceConfig definePerformanceConfig() {
+      PerformanceConfig pc = super.definePerformanceConfig();
+      pc.setMinConnectionsNum(1);
+      pc.setTraceSampleRate(1D);
+      pc.setSlowQueryThreshold(0L);
+      pc.setTraceTopStatements(2);
+      return pc;
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package net.penyo.tsington;
+
+import net.penyo.tsington.v0.ConfigClassBasedTsingtonDataSource;
+import net.penyo.tsington.v0.TsingtonDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StreamingQueryTest {
+  @Test
+  public void testStreamHoldsConnectionUntilClosed() throws Exception {
+    StubDriver.ROWS = 100_000;
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(StubConfig.class)) {
+      int remaining = tds.getRemainingCapacity();
+      long sum;
+      try (Stream<Integer> rows = tds.stream("SELECT id FROM t WHERE id > ?", rs -> rs.getInt(1), 0)) {
+        assertEquals(remaining - 1, tds.getRemainingCapacity());
+        sum = rows.mapToLong(Integer::longValue).sum();
+      }
+      assertEquals(100_000L * 100_001L / 2, sum);
+      assertEquals(remaining, tds.getRemainingCapacity());
+      // 消费者很快，抓取行数应增长到上限
+      assertEquals(tds.getPerformanceConfig().getStreamMaxFetchSize(), StubDriver.FETCH_SIZE.get());
+
+      try (Stream<Integer> rows = tds.stream("SELECT id FROM t", rs -> rs.getInt(1))) {
+        assertEquals(10L, rows.limit(10).count());
+      }
+      assertEquals(remaining, tds.getRemainingCapacity());
+    } finally {
+      StubDriver.ROWS = 0;
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package net.penyo.tsington;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.config.UserConfig;
+import net.penyo.tsington.support.TsingtonDataSourceInitializer;
+
+public class StubConfig implements TsingtonDataSourceInitializer {
+  @Override
+  public UserConfig defineUserConfig() {
+    return new UserConfig(StubDriver.class.getName(), StubDriver.URL, "root", "1234");
+  }
+
+  @Override
+  public PerformanceConfig definePerformanceConfig() {
+    return new PerformanceConfig();
+  }
+}
@@ -0,0 +1,252 @@
+package net.penyo.tsington;
+
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * 用于离线测试的桩驱动，接受 {@code jdbc:stub:} 开头的地址。
+ */
+public class StubDriver implements Driver {
+  public static final String URL = "jdbc:stub:tsington";
+
+  /**
+   * 已打开的物理连接数
+   */
+  public static final AtomicInteger OPENED = new AtomicInteger();
+  /**
+   * 存活纪元，推进后此前建立的连接都将校验失败
+   */
+  private static final AtomicInteger EPOCH = new AtomicInteger();
+  /**
+   * 以批次执行的预编译语句条数
+   */
+  public static final AtomicInteger BATCHED = new AtomicInteger();
+  /**
+   * 单独执行的预编译更新数
+   */
+  public static final AtomicInteger UPDATED = new AtomicInteger();
+  /**
+   * 修改会话属性与结束事务的调用次数，每次对应真实驱动的一次网络往返
+   */
+  public static final AtomicInteger SESSION_CALLS = new AtomicInteger();
+  /**
+   * 查询返回的行数，第 i 行的第一列为 i
+   */
+  public static volatile int ROWS = 0;
+  /**
+   * 结果集最近一次被设置的抓取行数
+   */
+  public static final AtomicInteger FETCH_SIZE = new AtomicInteger();
+  /**
+   * 执行的预编译查询数
+   */
+  public static final AtomicInteger QUERIED = new AtomicInteger();
+
+  /**
+   * 模拟数据库宕机：为真时建立连接一律失败
+   */
+  public static volatile boolean DOWN = false;
+
+  /**
+   * 模拟防火墙或数据库故障切换：令全部已建立的连接失效。
+   */
+  public static void killAll() {
+    EPOCH.incrementAndGet();
+  }
+
+  static {
+    try {
+      DriverManager.registerDriver(new StubDriver());
+    } catch (SQLException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  @Override
+  public Connection connect(String url, Properties info) throws SQLException {
+    if (!acceptsURL(url)) return null;
+    if (DOWN) throw new SQLException("Connection refused");
+    OPENED.incrementAndGet();
+    boolean[] closed = {false};
+    String[] catalog = {null};
+    boolean[] readOnly = {false};
+    int epoch = EPOCH.get();
+    return (Connection) Proxy.newProxyInstance(StubDriver.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+      case "close" -> {
+        closed[0] = true;
+        yield null;
+      }
+      case "isClosed" -> closed[0];
+      case "isValid" -> !closed[0] && epoch == EPOCH.get();
+      case "getAutoCommit" -> true;
+      case "hashCode" -> System.identityHashCode(proxy);
+      case "equals" -> proxy == args[0];
+      case "toString" -> "StubConnection@" + System.identityHashCode(proxy);
+      case "createStatement" -> stub(Statement.class);
+      case "prepareStatement" -> prepared();
+      case "prepareCall" -> stub(CallableStatement.class);
+      case "setCatalog" -> {
+        SESSION_CALLS.incrementAndGet();
+        catalog[0] = (String) args[0];
+        yield null;
+      }
+      case "getCatalog" -> catalog[0];
+      case "setReadOnly" -> {
+        SESSION_CALLS.incrementAndGet();
+        readOnly[0] = (Boolean) args[0];
+        yield null;
+      }
+      case "isReadOnly" -> readOnly[0];
+      case "setAutoCommit", "setTransactionIsolation", "setSchema", "setNetworkTimeout", "commit", "rollback" -> {
+        SESSION_CALLS.incrementAndGet();
+        yield null;
+      }
+      case "getTransactionIsolation" -> Connection.TRANSACTION_READ_COMMITTED;
+      default -> defaultValue(method.getReturnType());
+    });
+  }
+
+  /**
+   * 创建一个记录批次与单独更新次数、并记住最大行数与查询超时的预编译语句。
+   */
+  private static PreparedStatement prepared() {
+    PreparedStatement defaults = stub(PreparedStatement.class);
+    int[] pending = {0};
+    int[] limits = {0, 0};
+    return (PreparedStatement) Proxy.newProxyInstance(StubDriver.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> switch (method.getName()) {
+      case "addBatch" -> {
+        pending[0]++;
+        yield null;
+      }
+      case "clearBatch" -> {
+        pending[0] = 0;
+        yield null;
+      }
+      case "executeBatch" -> {
+        int[] counts = new int[pending[0]];
+        Arrays.fill(counts, 1);
+        BATCHED.addAndGet(pending[0]);
+        pending[0] = 0;
+        yield counts;
+      }
+      case "setMaxRows" -> {
+        limits[0] = (Integer) args[0];
+        yield null;
+      }
+      case "getMaxRows" -> limits[0];
+      case "setQueryTimeout" -> {
+        limits[1] = (Integer) args[0];
+        yield null;
+      }
+      case "getQueryTimeout" -> limits[1];
+      case "executeUpdate" -> {
+        UPDATED.incrementAndGet();
+        yield 1;
+      }
+      case "executeQuery" -> {
+        QUERIED.incrementAndGet();
+        yield rows(ROWS);
+      }
+      case "hashCode" -> System.identityHashCode(proxy);
+      case "equals" -> proxy == args[0];
+      default -> method.invoke(defaults, args);
+    });
+  }
+
+  /**
+   * 创建一个逐行产出整数的只进结果集。
+   */
+  private static ResultSet rows(int count) {
+    ResultSet defaults = stub(ResultSet.class);
+    int[] cursor = {0};
+    return (ResultSet) Proxy.newProxyInstance(StubDriver.class.getClassLoader(), new Class<?>[]{ResultSet.class}, (proxy, method, args) -> switch (method.getName()) {
+      case "next" -> ++cursor[0] <= count;
+      case "getInt", "getObject" -> cursor[0];
+      case "getMetaData" -> metadata();
+      case "setFetchSize" -> {
+        FETCH_SIZE.set((Integer) args[0]);
+        yield null;
+      }
+      case "hashCode" -> System.identityHashCode(proxy);
+      case "equals" -> proxy == args[0];
+      default -> method.invoke(defaults, args);
+    });
+  }
+
+  /**
+   * 创建只有一个整数列 {@code id} 的元数据。
+   */
+  private static ResultSetMetaData metadata() {
+    ResultSetMetaData defaults = stub(ResultSetMetaData.class);
+    return (ResultSetMetaData) Proxy.newProxyInstance(StubDriver.class.getClassLoader(), new Class<?>[]{ResultSetMetaData.class}, (proxy, method, args) -> switch (method.getName()) {
+      case "getColumnCount" -> 1;
+      case "getColumnType" -> Types.INTEGER;
+      case "getColumnLabel", "getColumnName" -> "id";
+      default -> method.invoke(defaults, args);
+    });
+  }
+
+  /**
+   * 创建一个所有方法都返回默认值的桩对象。
+   */
+  private static <T> T stub(Class<T> iface) {
+    return iface.cast(Proxy.newProxyInstance(StubDriver.class.getClassLoader(), new Class<?>[]{iface}, (proxy, method, args) -> {
+      if (method.getName().equals("hashCode")) return System.identityHashCode(proxy);
+      if (method.getName().equals("equals")) return proxy == args[0];
+      return defaultValue(method.getReturnType());
+    }));
+  }
+
+  private static Object defaultValue(Class<?> type) {
+    if (type == boolean.class) return false;
+    if (type == int.class) return 0;
+    if (type == long.class) return 0L;
+    if (type.isPrimitive() && type != void.class) return 0;
+    return null;
+  }
+
+  @Override
+  public boolean acceptsURL(String url) {
+    return url != null && url.startsWith("jdbc:stub:");
+  }
+
+  @Override
+  public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+    return new DriverPropertyInfo[0];
+  }
+
+  @Override
+  public int getMajorVersion() {
+    return 1;
+  }
+
+  @Override
+  public int getMinorVersion() {
+    return 0;
+  }
+
+  @Override
+  public boolean jdbcCompliant() {
+    return false;
+  }
+
+  @Override
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    throw new SQLFeatureNotSupportedException();
+  }
+}
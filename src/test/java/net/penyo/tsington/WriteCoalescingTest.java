@@ -0,0 +1,91 @@
+package net.penyo.tsington;
+
+import net.penyo.tsington.config.PerformanceConfig;
+import net.penyo.tsington.v0.ConfigClassBasedTsingtonDataSource;
+import net.penyo.tsington.v0.TsingtonDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WriteCoalescingTest {
+  @Test
+  public void testConcurrentSingleRowWritesShareOneBatch() throws Exception {
+    int writers = 4;
+    int batchedBefore = StubDriver.BATCHED.get();
+    int updatedBefore = StubDriver.UPDATED.get();
+
+    ExecutorService executor = Executors.newFixedThreadPool(writers);
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(CoalescingConfig.class)) {
+      CountDownLatch ready = new CountDownLatch(writers);
+      List<Future<Integer>> results = new ArrayList<>();
+      for (int i = 0; i < writers; i++) {
+        int value = i;
+        results.add(executor.submit(() -> {
+          Connection c = tds.getConnection();
+          try (PreparedStatement ps = c.prepareStatement("INSERT INTO t VALUES (?)")) {
+            ps.setInt(1, value);
+            ready.countDown();
+            ready.await();
+            return ps.executeUpdate();
+          } finally {
+            c.close();
+          }
+        }));
+      }
+      for (Future<Integer> result : results) assertEquals(1, result.get());
+
+      assertEquals(writers, StubDriver.BATCHED.get() - batchedBefore);
+      assertEquals(0, StubDriver.UPDATED.get() - updatedBefore);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testInterruptedLeaderFlushesEarly() throws Exception {
+    try (TsingtonDataSource tds = new ConfigClassBasedTsingtonDataSource(LongWindowConfig.class)) {
+      Connection c = tds.getConnection();
+      try (PreparedStatement ps = c.prepareStatement("INSERT INTO t VALUES (?)")) {
+        ps.setInt(1, 1);
+        Thread.currentThread().interrupt();
+        long start = System.nanoTime();
+        assertEquals(1, ps.executeUpdate());
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+        assertTrue(Thread.interrupted());
+      } finally {
+        c.close();
+      }
+    }
+  }
+
+  public static class LongWindowConfig extends CoalescingConfig {
+    @Override
+    public PerformanceConfig definePerformanceConfig() {
+      PerformanceConfig pc = super.definePerformanceConfig();
+      pc.setWriteCoalescingWindow(2_000_000L);
+      return pc;
+    }
+  }
+
+  public static class CoalescingConfig extends StubConfig {
+    @Override
+    public PerformanceConfig definePerformanceConfig() {
+      PerformanceConfig pc = super.definePerformanceConfig();
+      pc.setMinConnectionsNum(4);
+      pc.setWriteCoalescingWindow(200_000L);
+      pc.setWriteCoalescingBatchSize(4);
+      return pc;
+    }
+  }
+}